@@ -711,36 +711,46 @@ public abstract class Cytoscape {
 	 */
 	public static CyEdge getCyEdge(Node source, Node target, String attribute,
 	                               Object attribute_value, boolean create, boolean directed) {
-		if (Cytoscape.getRootGraph().getEdgeCount() != 0) {
-			int[] n1Edges = Cytoscape.getRootGraph()
-			                         .getAdjacentEdgeIndicesArray(source.getRootGraphIndex(), true,
-			                                                      true, true);
-
-			for (int i = 0; i < n1Edges.length; i++) {
-				CyEdge edge = (CyEdge) Cytoscape.getRootGraph().getEdge(n1Edges[i]);
-				Object attValue = private_getEdgeAttributeValue(edge, attribute);
-
-				if ((attValue != null) && attValue.equals(attribute_value)) {
-					// Despite the fact that we know the source node
-					// matches, the case of self edges dictates that
-					// we must check the source as well.
-					CyNode edgeTarget = (CyNode) edge.getTarget();
-					CyNode edgeSource = (CyNode) edge.getSource();
-
-					if ((edgeTarget.getRootGraphIndex() == target.getRootGraphIndex())
-					    && (edgeSource.getRootGraphIndex() == source.getRootGraphIndex())) {
-						return edge;
-					}
+		final CytoscapeRootGraph root = Cytoscape.getRootGraph();
+		final boolean interaction = Semantics.INTERACTION.equals(attribute)
+		                            && (attribute_value instanceof String);
+
+		if (root.getEdgeCount() != 0) {
+			final int sourceInx = source.getRootGraphIndex();
+			final int targetInx = target.getRootGraphIndex();
+
+			// Try the interaction index first; hub nodes may have tens of
+			// thousands of adjacent edges.
+			if (interaction) {
+				CyEdge edge = getIndexedCyEdge(sourceInx, targetInx, (String) attribute_value);
+
+				if ((edge == null) && !directed)
+					edge = getIndexedCyEdge(targetInx, sourceInx, (String) attribute_value);
+
+				if (edge != null)
+					return edge;
+			}
+
+			final int[] connectingEdges = root.getEdgeIndicesArray(sourceInx, targetInx, true,
+			                                                       !directed);
+
+			if (connectingEdges != null) {
+				for (int i = 0; i < connectingEdges.length; i++) {
+					CyEdge edge = (CyEdge) root.getEdge(connectingEdges[i]);
+					Object attValue = private_getEdgeAttributeValue(edge, attribute);
+
+					if ((attValue != null) && attValue.equals(attribute_value)) {
+						// Undirected edges are found in either direction, so
+						// check the direction explicitly.
+						if (!directed || (edge.getSource().getRootGraphIndex() == sourceInx)) {
+							if (interaction)
+								root.indexEdge(connectingEdges[i], (String) attribute_value);
 
-					if (!directed) {
-						// note that source and target are switched
-						if ((edgeTarget.getRootGraphIndex() == source.getRootGraphIndex())
-						    && (edgeSource.getRootGraphIndex() == target.getRootGraphIndex())) {
 							return edge;
 						}
 					}
-				}
-			} // for i
+				} // for i
+			}
 		}
 
 		if (create && attribute instanceof String && attribute.equals(Semantics.INTERACTION)) {
@@ -756,6 +766,7 @@ public abstract class Cytoscape {
 
 			edgeAttributes.setAttribute(edge_name, Semantics.INTERACTION, (String) attribute_value);
 			edgeAttributes.setAttribute(edge_name, Semantics.CANONICAL_NAME, edge_name);
+			root.indexEdge(rootEdge, (String) attribute_value);
 
 			return edge;
 		}
@@ -763,6 +774,25 @@ public abstract class Cytoscape {
 		return null;
 	}
 
+	/**
+	 * Returns the edge that the interaction index holds for the given nodes
+	 * and interaction, provided its interaction attribute still matches.
+	 */
+	private static CyEdge getIndexedCyEdge(int sourceInx, int targetInx, String interaction) {
+		final int edgeInx = getRootGraph().getIndexedEdge(sourceInx, targetInx, interaction);
+
+		if (edgeInx == 0)
+			return null;
+
+		final CyEdge edge = (CyEdge) getRootGraph().getEdge(edgeInx);
+
+		if ((edge == null)
+		    || !interaction.equals(private_getEdgeAttributeValue(edge, Semantics.INTERACTION)))
+			return null;
+
+		return edge;
+	}
+
 	/**
 	 * Returns and edge if it exists, otherwise creates a directed edge.
 	 *
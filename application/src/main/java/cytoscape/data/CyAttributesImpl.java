@@ -44,10 +44,12 @@ import org.cytoscape.equations.DoubleList;
 import org.cytoscape.equations.LongList;
 import org.cytoscape.equations.StringList;
 import org.cytoscape.equations.BooleanList;
+import org.cytoscape.equations.interpreter.BatchInterpreter;
 import org.cytoscape.equations.interpreter.IdentDescriptor;
 import org.cytoscape.equations.interpreter.Interpreter;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 
 public class CyAttributesImpl implements CyAttributes {
@@ -67,16 +69,37 @@ public class CyAttributesImpl implements CyAttributes {
 
 	private String lastEquationError = null;
 	private Set<String> currentlyActiveAttributes = new TreeSet<String>();
+	private final EquationCache equationCache;
+
+	// Incremented whenever evalEquation() detects a recursive evaluation.  Results computed while
+	// this changes depend on the order of evaluation and are therefore not cached.
+	private int recursionCount = 0;
 
 	protected static final CyLogger logger = CyLogger.getLogger(Cytoscape.class);
 
 	/**
-	 * Creates a new CyAttributesImpl object.
+	 * Creates a new CyAttributesImpl object.  The columnar attribute store
+	 * is used if the "cytoscape.attributes.columnar" system property is
+	 * set to true.
 	 */
 	public CyAttributesImpl() {
-		Object model = MultiHashMapFactory.instantiateDataModel();
+		this(Boolean.getBoolean("cytoscape.attributes.columnar"));
+	}
+
+	/**
+	 * Creates a new CyAttributesImpl object.
+	 *
+	 * @param columnar if true, simple attribute values are stored in
+	 *   primitive columns; see MultiHashMapFactory.instantiateColumnarDataModel().
+	 */
+	public CyAttributesImpl(final boolean columnar) {
+		Object model = columnar ? MultiHashMapFactory.instantiateColumnarDataModel()
+		                        : MultiHashMapFactory.instantiateDataModel();
 		mmap = (MultiHashMap) model;
 		mmapDef = (MultiHashMapDefinition) model;
+		equationCache = new EquationCache();
+		mmap.addDataListener(equationCache);
+		mmapDef.addDataDefinitionListener(equationCache);
 		descriptionMap = new HashMap();
 		userInvisibleSet = new HashSet();
 		userNonEditableSet = new HashSet();
@@ -1127,26 +1150,114 @@ public class CyAttributesImpl implements CyAttributes {
 	 */
 	public String getLastEquationError() { return lastEquationError; }
 
-	private Object evalEquation(final String id, final String attribName, final Equation equation,
-	                            final StringBuilder errorMessage)
+	/**
+	 *  @return the cache of equation results, e.g. to inspect its hit and miss counts
+	 */
+	public EquationCache getEquationCache() { return equationCache; }
+
+	/**
+	 *  Evaluates the equations of "attributeName" with one BatchInterpreter per distinct equation
+	 *  and stores the results in the equation cache.  Values of referenced attributes are read
+	 *  column by column before any equation is evaluated.
+	 *
+	 *  @return the number of equations that were successfully evaluated
+	 */
+	public int evaluateEquations(final String attributeName, final ExecutorService executor) {
+		lastEquationError = null;
+		if (getType(attributeName) == TYPE_UNDEFINED)
+			return 0;
+
+		// Group the objects by equation.  Usually all of them share the same one.
+		final Map<Equation, List<String>> equationToIDs = new IdentityHashMap<Equation, List<String>>();
+		final CountedIterator objectKeys = mmap.getObjectKeys(attributeName);
+		while (objectKeys.hasNext()) {
+			final String id = (String)objectKeys.next();
+			final Equation equation = getEquation(id, attributeName);
+			if (equation == null || equationCache.contains(id, attributeName))
+				continue;
+
+			List<String> ids = equationToIDs.get(equation);
+			if (ids == null) {
+				ids = new ArrayList<String>();
+				equationToIDs.put(equation, ids);
+			}
+			ids.add(id);
+		}
+
+		int evaluatedCount = 0;
+		for (final Map.Entry<Equation, List<String>> entry : equationToIDs.entrySet()) {
+			final Equation equation = entry.getKey();
+			final BatchInterpreter batchInterpreter = new BatchInterpreter(equation);
+			final String[] attribReferences = batchInterpreter.getAttribReferences();
+
+			// Results that would not be cached and self references are left to evalEquation().
+			if (!EquationCache.isCacheable(equation)
+			    || Arrays.asList(attribReferences).contains(attributeName))
+				continue;
+
+			final String[] ids = entry.getValue().toArray(new String[entry.getValue().size()]);
+			final Map<String, Object[]> columns = new HashMap<String, Object[]>();
+			final int initialRecursionCount = recursionCount;
+			final long cacheVersion = equationCache.getVersion();
+			currentlyActiveAttributes.add(attributeName);
+			for (final String attribRef : attribReferences) {
+				final Object[] column = new Object[ids.length];
+				for (int i = 0; i < ids.length; ++i) {
+					equationCache.addDependency(ids[i], attribRef, attributeName);
+					column[i] = getAttribute(ids[i], attribRef);
+				}
+				columns.put(attribRef, column);
+			}
+			currentlyActiveAttributes.remove(attributeName);
+			if (recursionCount != initialRecursionCount)
+				continue;
+
+			final Object[] results = batchInterpreter.run(ids, columns, null, executor);
+			for (int i = 0; i < ids.length; ++i) {
+				if (results[i] != null) {
+					equationCache.put(ids[i], attributeName, results[i], cacheVersion);
+					++evaluatedCount;
+				}
+			}
+		}
+
+		lastEquationError = null;
+		return evaluatedCount;
+	}
+
+	// Synchronized because evaluation updates the cache and the set of active attributes,
+	// and readers such as the parallel session writer may get attributes concurrently.
+	private synchronized Object evalEquation(final String id, final String attribName,
+	                                         final Equation equation,
+	                                         final StringBuilder errorMessage)
 	{
+		final Object cachedValue = equationCache.get(id, attribName);
+		if (cachedValue != null)
+			return cachedValue;
+
 		if (currentlyActiveAttributes.contains(attribName)) {
 			currentlyActiveAttributes.clear();
+			++recursionCount;
 			errorMessage.append("Recursive equation evaluation of \"" + attribName + "\"!");
 			return null;
 		} else
 			currentlyActiveAttributes.add(attribName);
+		final int initialRecursionCount = recursionCount;
+		final long cacheVersion = equationCache.getVersion();
 
 		final Collection<String> attribReferences = equation.getAttribReferences();
 		final Map<String, Object> defaultValues = equation.getDefaultValues();
 
-		final Map<String, IdentDescriptor> nameToDescriptorMap = new TreeMap<String, IdentDescriptor>();
+		final Map<String, IdentDescriptor> nameToDescriptorMap = new HashMap<String, IdentDescriptor>();
 		for (final String attribRef : attribReferences) {
 			if (attribRef.equals("ID")) {
 				nameToDescriptorMap.put("ID", new IdentDescriptor(id));
 				continue;
 			}
 
+			// Record the dependency before evaluating it so that a missing value that is
+			// assigned later also invalidates us.
+			equationCache.addDependency(id, attribRef, attribName);
 			Object attribValue = getAttribute(id, attribRef);
 			if (attribValue == null) {
 				final Object defaultValue = defaultValues.get(attribRef);
@@ -1178,6 +1289,8 @@ public class CyAttributesImpl implements CyAttributes {
 		try {
 			final Object result = interpreter.run();
 			currentlyActiveAttributes.remove(attribName);
+			if (recursionCount == initialRecursionCount && EquationCache.isCacheable(equation))
+				equationCache.put(id, attribName, result, cacheVersion);
 			return result;
 		} catch (final Exception e) {
 			currentlyActiveAttributes.clear();
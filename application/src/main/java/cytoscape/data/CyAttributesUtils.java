@@ -154,40 +154,59 @@ public class CyAttributesUtils {
 		Map<String, Object> returnThis = new HashMap<String, Object>();
 		final String[] attrNames = attrs.getAttributeNames();
 
-		for (int i = 0; i < attrNames.length; i++) {
-			final byte type = attrs.getType(attrNames[i]);
+		for (int i = 0; i < attrNames.length; i++)
+			putAttribute(canonicalName, attrNames[i], attrs, returnThis);
 
-			if (attrs.hasAttribute(canonicalName, attrNames[i])) {
-				if (type == CyAttributes.TYPE_SIMPLE_LIST) {
-					List l = attrs.getListAttribute(canonicalName, attrNames[i]);
+		return returnThis;
+	}
 
-					if ((l != null) && (l.size() > 0)) {
-						// returnThis.put(attrNames[i], l.get(0));
-						returnThis.put(attrNames[i], l);
-					}
-				} else if (type == CyAttributes.TYPE_SIMPLE_MAP) {
-					Map m = attrs.getMapAttribute(canonicalName, attrNames[i]);
+	/**
+	 * Puts the values of some attributes of an object into a map, exactly as
+	 * {@link #getAttributes(String, CyAttributes)} does for all of them.  This
+	 * is much cheaper when only a few attributes are needed, since the other
+	 * attributes, including equations, are not evaluated.  Attributes that
+	 * the object does not have are left out of the map; nothing is removed
+	 * from it, so a map may be cleared and reused for many objects.
+	 *
+	 * @param canonicalName the identifier of the object.
+	 * @param attrNames the names of the attributes to get.
+	 * @param attrs the attributes of the object.
+	 * @param values the map to put the values into.
+	 */
+	public static void getAttributes(final String canonicalName, final String[] attrNames,
+	                                 final CyAttributes attrs, final Map<String, Object> values) {
+		for (int i = 0; i < attrNames.length; i++)
+			putAttribute(canonicalName, attrNames[i], attrs, values);
+	}
 
-					if ((m != null) && (m.size() > 0)) {
-						returnThis.put(attrNames[i], m);
-					}
-				} else if (type == CyAttributes.TYPE_BOOLEAN) {
-					returnThis.put(attrNames[i],
-					               attrs.getBooleanAttribute(canonicalName, attrNames[i]));
-				} else if (type == CyAttributes.TYPE_INTEGER) {
-					returnThis.put(attrNames[i],
-					               attrs.getIntegerAttribute(canonicalName, attrNames[i]));
-				} else if (type == CyAttributes.TYPE_FLOATING) {
-					returnThis.put(attrNames[i],
-					               attrs.getDoubleAttribute(canonicalName, attrNames[i]));
-				} else if (type == CyAttributes.TYPE_STRING) {
-					returnThis.put(attrNames[i],
-					               attrs.getStringAttribute(canonicalName, attrNames[i]));
+	private static void putAttribute(final String canonicalName, final String attrName,
+	                                 final CyAttributes attrs, final Map<String, Object> values) {
+		final byte type = attrs.getType(attrName);
+
+		if (attrs.hasAttribute(canonicalName, attrName)) {
+			if (type == CyAttributes.TYPE_SIMPLE_LIST) {
+				List l = attrs.getListAttribute(canonicalName, attrName);
+
+				if ((l != null) && (l.size() > 0)) {
+					// values.put(attrName, l.get(0));
+					values.put(attrName, l);
 				}
+			} else if (type == CyAttributes.TYPE_SIMPLE_MAP) {
+				Map m = attrs.getMapAttribute(canonicalName, attrName);
+
+				if ((m != null) && (m.size() > 0)) {
+					values.put(attrName, m);
+				}
+			} else if (type == CyAttributes.TYPE_BOOLEAN) {
+				values.put(attrName, attrs.getBooleanAttribute(canonicalName, attrName));
+			} else if (type == CyAttributes.TYPE_INTEGER) {
+				values.put(attrName, attrs.getIntegerAttribute(canonicalName, attrName));
+			} else if (type == CyAttributes.TYPE_FLOATING) {
+				values.put(attrName, attrs.getDoubleAttribute(canonicalName, attrName));
+			} else if (type == CyAttributes.TYPE_STRING) {
+				values.put(attrName, attrs.getStringAttribute(canonicalName, attrName));
 			}
 		}
-
-		return returnThis;
 	}
 
 	/**
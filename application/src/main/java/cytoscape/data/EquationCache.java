@@ -0,0 +1,260 @@
+/*
+  File: EquationCache.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.data;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import cytoscape.data.attr.MultiHashMapDefinitionListener;
+import cytoscape.data.attr.MultiHashMapListener;
+
+import org.cytoscape.equations.Equation;
+import org.cytoscape.equations.Function;
+import org.cytoscape.equations.builtins.Now;
+
+
+/**
+ *  Memoizes the results of attribute equations, keyed by object ID and attribute name.
+ *  Each evaluation records which attributes the equation referenced, which gives us a
+ *  dependency graph between the attributes of an object.  Registered as a MultiHashMapListener,
+ *  the cache then invalidates a changed attribute value together with all of the cached values
+ *  downstream of it, and nothing else.  Only equations that call nothing but the pure built-in
+ *  functions are cached, since other functions, such as DEGREE or NOW, may read state that changes
+ *  without any attribute event.  Equations may be evaluated by several threads at once, so all
+ *  methods are synchronized.
+ */
+public class EquationCache implements MultiHashMapListener, MultiHashMapDefinitionListener {
+	// Marks cache entries that have been invalidated, so that we can count recomputations.
+	private static final Object INVALIDATED = new Object();
+
+	// Built-in functions whose results change over time even if their arguments don't.
+	private static final Set<String> VOLATILE_FUNCTIONS = new HashSet<String>();
+	private static final Package BUILTINS = Now.class.getPackage();
+	static {
+		VOLATILE_FUNCTIONS.add("NOW");
+		VOLATILE_FUNCTIONS.add("TODAY");
+	}
+
+	// Object ID -> attribute name -> equation value or INVALIDATED.
+	private final Map<String, Map<String, Object>> values = new HashMap<String, Map<String, Object>>();
+
+	// Object ID -> attribute name -> names of the attributes whose equations referenced it.
+	private final Map<String, Map<String, Set<String>>> dependents = new HashMap<String, Map<String, Set<String>>>();
+
+	// Incremented by every invalidation, so that a value computed from attributes that changed
+	// during its evaluation by another thread is not cached.
+	private long version = 0L;
+
+	private long hitCount = 0L;
+	private long missCount = 0L;
+	private long recomputeCount = 0L;
+
+	EquationCache() {
+	}
+
+	/**
+	 *  @return the cached value of the equation of "attribName" on "id" or null if there is none
+	 */
+	synchronized Object get(final String id, final String attribName) {
+		final Map<String, Object> idValues = values.get(id);
+		final Object value = (idValues == null) ? null : idValues.get(attribName);
+		if (value == null) {
+			++missCount;
+			return null;
+		}
+
+		if (value == INVALIDATED) {
+			++missCount;
+			++recomputeCount;
+			return null;
+		}
+
+		++hitCount;
+		return value;
+	}
+
+	/**
+	 *  @return true if a valid value is cached for the equation of "attribName" on "id"; unlike
+	 *          get() this does not affect the hit and miss counts
+	 */
+	synchronized boolean contains(final String id, final String attribName) {
+		final Map<String, Object> idValues = values.get(id);
+		final Object value = (idValues == null) ? null : idValues.get(attribName);
+		return value != null && value != INVALIDATED;
+	}
+
+	/**
+	 *  @return the current version, to be passed to put() for a value that is about to be computed
+	 */
+	synchronized long getVersion() {
+		return version;
+	}
+
+	/**
+	 *  Caches the value of the equation of "attribName" on "id", unless anything has been invalidated
+	 *  since getVersion() returned "version".
+	 */
+	synchronized void put(final String id, final String attribName, final Object value, final long version) {
+		if (version != this.version)
+			return;
+
+		Map<String, Object> idValues = values.get(id);
+		if (idValues == null) {
+			idValues = new HashMap<String, Object>();
+			values.put(id, idValues);
+		}
+		idValues.put(attribName, value);
+	}
+
+	/**
+	 *  Records that the equation of "dependentAttribName" on "id" referenced "attribName".
+	 */
+	synchronized void addDependency(final String id, final String attribName, final String dependentAttribName) {
+		Map<String, Set<String>> idDependents = dependents.get(id);
+		if (idDependents == null) {
+			idDependents = new HashMap<String, Set<String>>();
+			dependents.put(id, idDependents);
+		}
+
+		Set<String> attribDependents = idDependents.get(attribName);
+		if (attribDependents == null) {
+			attribDependents = new HashSet<String>();
+			idDependents.put(attribName, attribDependents);
+		}
+		attribDependents.add(dependentAttribName);
+	}
+
+	/**
+	 *  Drops the cached value of "attribName" on "id" and of everything that depends on it.
+	 *  The dependencies are recorded again when the dependents are re-evaluated.
+	 */
+	synchronized void invalidate(final String id, final String attribName) {
+		++version;
+		final Map<String, Object> idValues = values.get(id);
+		final Map<String, Set<String>> idDependents = dependents.get(id);
+		if (idValues == null && idDependents == null)
+			return;
+
+		final List<String> pending = new ArrayList<String>();
+		pending.add(attribName);
+		while (!pending.isEmpty()) {
+			final String name = pending.remove(pending.size() - 1);
+			if (idValues != null && idValues.containsKey(name))
+				idValues.put(name, INVALIDATED);
+
+			// Removing the dependents also guarantees termination for cyclic references.
+			final Set<String> attribDependents =
+				(idDependents == null) ? null : idDependents.remove(name);
+			if (attribDependents != null)
+				pending.addAll(attribDependents);
+		}
+	}
+
+	/**
+	 *  Drops all cached values.
+	 */
+	synchronized void clear() {
+		++version;
+		values.clear();
+		dependents.clear();
+	}
+
+	/**
+	 *  @return true if the value of "equation" only depends on the values of the attributes that it references,
+	 *          that is if it only calls built-in functions other than the volatile ones; functions from plugins,
+	 *          such as DEGREE or SOURCEID, may read the network and are never assumed to be pure
+	 */
+	static boolean isCacheable(final Equation equation) {
+		for (final Object instrOrArg : equation.getCode()) {
+			if (!(instrOrArg instanceof Function))
+				continue;
+
+			final Function function = (Function)instrOrArg;
+			if (function.getClass().getPackage() != BUILTINS
+			    || VOLATILE_FUNCTIONS.contains(function.getName().toUpperCase()))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 *  @return the number of equation evaluations that were answered from the cache
+	 */
+	public synchronized long getHitCount() { return hitCount; }
+
+	/**
+	 *  @return the number of equation evaluations that had to run the equation
+	 */
+	public synchronized long getMissCount() { return missCount; }
+
+	/**
+	 *  @return the number of misses caused by the invalidation of a previously cached value
+	 */
+	public synchronized long getRecomputeCount() { return recomputeCount; }
+
+	/**
+	 *  Sets the hit, miss and recompute counts to zero.
+	 */
+	public synchronized void resetCounters() {
+		hitCount = 0L;
+		missCount = 0L;
+		recomputeCount = 0L;
+	}
+
+	public synchronized void attributeValueAssigned(final String objectKey, final String attributeName,
+	                                   final Object[] keyIntoValue, final Object oldAttributeValue,
+	                                   final Object newAttributeValue)
+	{
+		invalidate(objectKey, attributeName);
+	}
+
+	public synchronized void attributeValueRemoved(final String objectKey, final String attributeName,
+	                                  final Object[] keyIntoValue, final Object attributeValue)
+	{
+		invalidate(objectKey, attributeName);
+	}
+
+	public synchronized void allAttributeValuesRemoved(final String objectKey, final String attributeName) {
+		invalidate(objectKey, attributeName);
+	}
+
+	public void attributeDefined(final String attributeName) {
+	}
+
+	public synchronized void attributeUndefined(final String attributeName) {
+		clear();
+	}
+}
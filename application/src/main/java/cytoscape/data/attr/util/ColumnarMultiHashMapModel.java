@@ -0,0 +1,647 @@
+/*
+  File: ColumnarMultiHashMapModel.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.data.attr.util;
+
+import cytoscape.data.attr.CountedIterator;
+import cytoscape.data.attr.MultiHashMap;
+import cytoscape.data.attr.MultiHashMapDefinition;
+import cytoscape.data.attr.MultiHashMapDefinitionListener;
+import cytoscape.data.attr.MultiHashMapListener;
+
+import org.cytoscape.equations.BooleanList;
+import org.cytoscape.equations.DoubleList;
+import org.cytoscape.equations.Equation;
+import org.cytoscape.equations.FunctionUtil;
+import org.cytoscape.equations.LongList;
+
+import java.util.HashMap;
+
+
+/**
+ * A MultiHashMap that keeps attributes without a keyspace in columns.
+ * Every objectKey is interned to a dense int slot the first time a value
+ * is assigned to it; each such attribute then stores its values in a
+ * primitive array indexed by slot (double[] for floating point, int[] for
+ * integer, a bitset for boolean, and an Object[] for strings), with a
+ * bitset marking which slots hold a value.  Equations assigned to a
+ * columnar attribute are kept in a sparse Object[] next to the column.<p>
+ * Attributes with a nonempty keyspace (lists and maps, in CyAttributes
+ * terms) are delegated to an ordinary MultiHashMapModel, which is also
+ * the registry for all attribute definitions.  Listeners see exactly the
+ * same notifications as with MultiHashMapModel.<p>
+ * Slots are never recycled; the memory consumed by an instance of this
+ * class grows with the number of distinct objectKeys ever assigned to.
+ */
+class ColumnarMultiHashMapModel implements MultiHashMapDefinition, MultiHashMap {
+	private final static class Column {
+		private final byte valueType;
+		private long[] present = new long[0]; // Bit per slot.
+		private int count;
+		private double[] doubles;
+		private int[] ints;
+		private long[] booleans; // Bit per slot.
+		private Object[] objs; // Strings, and Equations of any column type.
+
+		private Column(final byte valueType) {
+			this.valueType = valueType;
+
+			switch (valueType) {
+				case MultiHashMapDefinition.TYPE_BOOLEAN:
+					booleans = new long[0];
+
+					break;
+
+				case MultiHashMapDefinition.TYPE_FLOATING_POINT:
+					doubles = new double[0];
+
+					break;
+
+				case MultiHashMapDefinition.TYPE_INTEGER:
+					ints = new int[0];
+
+					break;
+
+				case MultiHashMapDefinition.TYPE_STRING:
+					objs = new Object[0];
+
+					break;
+			}
+		}
+
+		private final boolean isSet(final int slot) {
+			final int word = slot >>> 6;
+
+			return (word < present.length) && ((present[word] & (1L << slot)) != 0);
+		}
+
+		private final Object get(final int slot) {
+			if (!isSet(slot))
+				return null;
+
+			if ((objs != null) && (slot < objs.length) && (objs[slot] != null))
+				return objs[slot];
+
+			switch (valueType) {
+				case MultiHashMapDefinition.TYPE_BOOLEAN:
+					return ((booleans[slot >>> 6] & (1L << slot)) != 0) ? Boolean.TRUE : Boolean.FALSE;
+
+				case MultiHashMapDefinition.TYPE_FLOATING_POINT:
+					return new Double(doubles[slot]);
+
+				default: // MultiHashMapDefinition.TYPE_INTEGER.
+					return new Integer(ints[slot]);
+			}
+		}
+
+		// Returns the previous value, or null.  The value must already have
+		// been type-checked.
+		private final Object set(final int slot, final Object value) {
+			final Object returnThis = get(slot);
+
+			if ((value instanceof Equation) || (valueType == MultiHashMapDefinition.TYPE_STRING)) {
+				if ((objs == null) || (slot >= objs.length))
+					objs = grow(objs, slot);
+
+				objs[slot] = value;
+			} else {
+				if ((objs != null) && (slot < objs.length))
+					objs[slot] = null;
+
+				switch (valueType) {
+					case MultiHashMapDefinition.TYPE_BOOLEAN:
+
+						if (booleans.length <= (slot >>> 6))
+							booleans = grow(booleans, slot >>> 6);
+
+						if (((Boolean) value).booleanValue())
+							booleans[slot >>> 6] |= (1L << slot);
+						else
+							booleans[slot >>> 6] &= ~(1L << slot);
+
+						break;
+
+					case MultiHashMapDefinition.TYPE_FLOATING_POINT:
+
+						if (doubles.length <= slot)
+							doubles = grow(doubles, slot);
+
+						doubles[slot] = ((Double) value).doubleValue();
+
+						break;
+
+					case MultiHashMapDefinition.TYPE_INTEGER:
+
+						if (ints.length <= slot)
+							ints = grow(ints, slot);
+
+						ints[slot] = ((Integer) value).intValue();
+
+						break;
+				}
+			}
+
+			if (returnThis == null) {
+				if (present.length <= (slot >>> 6))
+					present = grow(present, slot >>> 6);
+
+				present[slot >>> 6] |= (1L << slot);
+				count++;
+			}
+
+			return returnThis;
+		}
+
+		// Returns the removed value, or null.
+		private final Object remove(final int slot) {
+			final Object returnThis = get(slot);
+
+			if (returnThis != null) {
+				present[slot >>> 6] &= ~(1L << slot);
+				count--;
+
+				if ((objs != null) && (slot < objs.length))
+					objs[slot] = null;
+			}
+
+			return returnThis;
+		}
+
+		// Returns the smallest set slot at or after fromSlot, or -1.
+		private final int nextSetSlot(final int fromSlot) {
+			int word = fromSlot >>> 6;
+
+			if (word >= present.length)
+				return -1;
+
+			long bits = present[word] & (-1L << fromSlot);
+
+			while (true) {
+				if (bits != 0)
+					return (word << 6) + Long.numberOfTrailingZeros(bits);
+
+				if (++word == present.length)
+					return -1;
+
+				bits = present[word];
+			}
+		}
+	}
+
+	// Keys are attributeName, values are Column.  Only attributes with an
+	// empty keyspace are here; all attributes are defined in m_defs.
+	private final HashMap m_columns;
+
+	// Keys are objectKey, values are Integer slots into m_slotKeys.
+	private final HashMap m_slots;
+	private String[] m_slotKeys;
+	private int m_numSlots;
+
+	// Keeps every definition, and the values of attributes that have a
+	// keyspace.
+	private final MultiHashMapModel m_defs;
+	private MultiHashMapListener m_dataListener;
+
+	ColumnarMultiHashMapModel() {
+		m_columns = new HashMap();
+		m_slots = new HashMap();
+		m_slotKeys = new String[0];
+		m_numSlots = 0;
+		m_defs = new MultiHashMapModel();
+		m_dataListener = null;
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param attributeName DOCUMENT ME!
+	 * @param valueType DOCUMENT ME!
+	 * @param keyTypes DOCUMENT ME!
+	 */
+	public final void defineAttribute(final String attributeName, final byte valueType,
+	                                  final byte[] keyTypes) {
+		// The column must exist before definition listeners are called, but
+		// we leave all error-checking to m_defs.
+		final boolean columnar = (attributeName != null)
+		                         && ((keyTypes == null) || (keyTypes.length == 0))
+		                         && (m_defs.getAttributeValueType(attributeName) < 0);
+
+		if (columnar)
+			m_columns.put(attributeName, new Column(valueType));
+
+		try {
+			m_defs.defineAttribute(attributeName, valueType, keyTypes);
+		} catch (RuntimeException e) {
+			if (columnar)
+				m_columns.remove(attributeName);
+
+			throw e;
+		}
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public final CountedIterator getDefinedAttributes() {
+		return m_defs.getDefinedAttributes();
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param attributeName DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public final byte getAttributeValueType(final String attributeName) {
+		return m_defs.getAttributeValueType(attributeName);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param attributeName DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public final byte[] getAttributeKeyspaceDimensionTypes(final String attributeName) {
+		return m_defs.getAttributeKeyspaceDimensionTypes(attributeName);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param attributeName DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public final boolean undefineAttribute(final String attributeName) {
+		if (attributeName == null)
+			throw new NullPointerException("attributeName is null");
+
+		m_columns.remove(attributeName);
+
+		return m_defs.undefineAttribute(attributeName);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param listener DOCUMENT ME!
+	 */
+	public final void addDataDefinitionListener(final MultiHashMapDefinitionListener listener) {
+		m_defs.addDataDefinitionListener(listener);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param listener DOCUMENT ME!
+	 */
+	public final void removeDataDefinitionListener(final MultiHashMapDefinitionListener listener) {
+		m_defs.removeDataDefinitionListener(listener);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param objectKey DOCUMENT ME!
+	 * @param attributeName DOCUMENT ME!
+	 * @param attributeValue DOCUMENT ME!
+	 * @param keyIntoValue DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public final Object setAttributeValue(final String objectKey, final String attributeName,
+	                                      final Object attributeValue, final Object[] keyIntoValue) {
+		final Column col = getColumn(attributeName);
+
+		if (col == null)
+			return m_defs.setAttributeValue(objectKey, attributeName, attributeValue, keyIntoValue);
+
+		if (objectKey == null)
+			throw new NullPointerException("objectKey is null");
+
+		if (attributeValue == null)
+			throw new NullPointerException("cannot set null attributeValue - "
+			                               + "use removeAttributeValue() instead");
+
+		checkNoKeyspace(attributeName, keyIntoValue);
+
+		// Same checks as MultiHashMapModel for an empty keyspace.
+		final Class actualType;
+		final boolean isEquation = attributeValue instanceof Equation;
+
+		if (isEquation)
+			actualType = ((Equation) attributeValue).getType();
+		else
+			actualType = attributeValue.getClass();
+
+		switch (col.valueType) {
+			case MultiHashMapDefinition.TYPE_BOOLEAN:
+				if (actualType == Boolean.class
+				    || (isEquation && (actualType == Long.class || actualType == Double.class || actualType == BooleanList.class || actualType == Object.class)))
+					break;
+				throw new ClassCastException("found " + actualType + " for \"" + attributeName + "\", expected Boolean!");
+			case MultiHashMapDefinition.TYPE_FLOATING_POINT:
+				if (actualType == Double.class
+				    || (isEquation && (actualType == Long.class || actualType == Boolean.class || actualType == DoubleList.class || actualType == Object.class)))
+					break;
+				throw new ClassCastException("found " + actualType + " for \"" + attributeName + "\", expected Double!");
+			case MultiHashMapDefinition.TYPE_INTEGER:
+				if (actualType == Integer.class
+				    || (isEquation && (actualType == Double.class || actualType == Boolean.class
+				                       || actualType == Long.class || actualType == LongList.class || actualType == Object.class)))
+					break;
+				throw new ClassCastException("found " + actualType + " for \"" + attributeName + "\", expected Integer!");
+			case MultiHashMapDefinition.TYPE_STRING:
+				if (actualType == String.class || isEquation)
+					break;
+				throw new ClassCastException("found " + actualType + " for \"" + attributeName + "\", expected String!");
+		}
+
+		if (FunctionUtil.isSomeKindOfList(actualType))
+			throw new ClassCastException("found " + actualType + " for \"" + attributeName + "\", expected String!");
+
+		final Object returnThis = col.set(internSlot(objectKey), attributeValue);
+		final MultiHashMapListener listener = m_dataListener;
+
+		if (listener != null)
+			listener.attributeValueAssigned(objectKey, attributeName, null, returnThis,
+			                                attributeValue);
+
+		return returnThis;
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param objectKey DOCUMENT ME!
+	 * @param attributeName DOCUMENT ME!
+	 * @param keyIntoValue DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public final Object getAttributeValue(final String objectKey, final String attributeName,
+	                                      final Object[] keyIntoValue) {
+		final Column col = getColumn(attributeName);
+
+		if (col == null)
+			return m_defs.getAttributeValue(objectKey, attributeName, keyIntoValue);
+
+		if (objectKey == null)
+			throw new NullPointerException("objectKey is null");
+
+		checkNoKeyspace(attributeName, keyIntoValue);
+
+		final Integer slot = (Integer) m_slots.get(objectKey);
+
+		if (slot == null)
+			return null;
+
+		return col.get(slot.intValue());
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param objectKey DOCUMENT ME!
+	 * @param attributeName DOCUMENT ME!
+	 * @param keyIntoValue DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public final Object removeAttributeValue(final String objectKey, final String attributeName,
+	                                         final Object[] keyIntoValue) {
+		final Column col = getColumn(attributeName);
+
+		if (col == null)
+			return m_defs.removeAttributeValue(objectKey, attributeName, keyIntoValue);
+
+		if (objectKey == null)
+			throw new NullPointerException("objectKey is null");
+
+		checkNoKeyspace(attributeName, keyIntoValue);
+
+		final Integer slot = (Integer) m_slots.get(objectKey);
+
+		if (slot == null)
+			return null;
+
+		final Object returnThis = col.remove(slot.intValue());
+		final MultiHashMapListener listener = m_dataListener;
+
+		if ((listener != null) && (returnThis != null))
+			listener.attributeValueRemoved(objectKey, attributeName, null, returnThis);
+
+		return returnThis;
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param objectKey DOCUMENT ME!
+	 * @param attributeName DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public final boolean removeAllAttributeValues(final String objectKey, final String attributeName) {
+		final Column col = getColumn(attributeName);
+
+		if (col == null)
+			return m_defs.removeAllAttributeValues(objectKey, attributeName);
+
+		if (objectKey == null)
+			throw new NullPointerException("objectKey is null");
+
+		final Integer slot = (Integer) m_slots.get(objectKey);
+
+		if ((slot == null) || (col.remove(slot.intValue()) == null))
+			return false;
+
+		final MultiHashMapListener listener = m_dataListener;
+
+		if (listener != null)
+			listener.allAttributeValuesRemoved(objectKey, attributeName);
+
+		return true;
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param objectKey DOCUMENT ME!
+	 * @param attributeName DOCUMENT ME!
+	 * @param keyPrefix DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public final CountedIterator getAttributeKeyspan(final String objectKey,
+	                                                 final String attributeName,
+	                                                 final Object[] keyPrefix) {
+		// Columnar attributes have no keyspace; let m_defs complain.
+		return m_defs.getAttributeKeyspan(objectKey, attributeName, keyPrefix);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param attributeName DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public final CountedIterator getObjectKeys(final String attributeName) {
+		final Column col = getColumn(attributeName);
+
+		if (col == null)
+			return m_defs.getObjectKeys(attributeName);
+
+		return new CountedIterator() {
+				private int remaining = col.count;
+				private int slot = col.nextSetSlot(0);
+
+				public final int numRemaining() {
+					return remaining;
+				}
+
+				public final boolean hasNext() {
+					return slot >= 0;
+				}
+
+				public final Object next() {
+					if (slot < 0)
+						throw new java.util.NoSuchElementException();
+
+					final String returnThis = m_slotKeys[slot];
+					remaining--;
+					slot = col.nextSetSlot(slot + 1);
+
+					return returnThis;
+				}
+
+				public final void remove() {
+					throw new UnsupportedOperationException("cannot remove from this iterator");
+				}
+			};
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param listener DOCUMENT ME!
+	 */
+	public final void addDataListener(final MultiHashMapListener listener) {
+		m_dataListener = MultiHashMapModel.AttrLisChain.add(m_dataListener, listener);
+		m_defs.addDataListener(listener);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param listener DOCUMENT ME!
+	 */
+	public final void removeDataListener(final MultiHashMapListener listener) {
+		m_dataListener = MultiHashMapModel.AttrLisChain.remove(m_dataListener, listener);
+		m_defs.removeDataListener(listener);
+	}
+
+	// Returns null if attributeName has a keyspace, in which case the
+	// operation should be passed on to m_defs.
+	private final Column getColumn(final String attributeName) {
+		if (attributeName == null)
+			throw new NullPointerException("attributeName is null");
+
+		final Column col = (Column) m_columns.get(attributeName);
+
+		if ((col == null) && (m_defs.getAttributeValueType(attributeName) < 0))
+			throw new IllegalStateException("no attributeName '" + attributeName + "' exists");
+
+		return col;
+	}
+
+	private final static void checkNoKeyspace(final String attributeName,
+	                                          final Object[] keyIntoValue) {
+		if ((keyIntoValue != null) && (keyIntoValue.length != 0))
+			throw new IllegalArgumentException("attributeName '" + attributeName
+			                                   + "' has no keyspace"
+			                                   + " defined, yet keyIntoValue is not empty");
+	}
+
+	private final int internSlot(final String objectKey) {
+		final Integer slot = (Integer) m_slots.get(objectKey);
+
+		if (slot != null)
+			return slot.intValue();
+
+		if (m_numSlots == m_slotKeys.length) {
+			final String[] newSlotKeys = new String[(m_slotKeys.length * 2) + 1];
+			System.arraycopy(m_slotKeys, 0, newSlotKeys, 0, m_numSlots);
+			m_slotKeys = newSlotKeys;
+		}
+
+		m_slotKeys[m_numSlots] = objectKey;
+		m_slots.put(objectKey, new Integer(m_numSlots));
+
+		return m_numSlots++;
+	}
+
+	// Each grow() returns a copy of arr that is large enough to hold index.
+	private final static long[] grow(final long[] arr, final int index) {
+		final long[] returnThis = new long[Math.max(index + 1, (arr.length * 2) + 1)];
+		System.arraycopy(arr, 0, returnThis, 0, arr.length);
+
+		return returnThis;
+	}
+
+	private final static double[] grow(final double[] arr, final int index) {
+		final double[] returnThis = new double[Math.max(index + 1, (arr.length * 2) + 1)];
+		System.arraycopy(arr, 0, returnThis, 0, arr.length);
+
+		return returnThis;
+	}
+
+	private final static int[] grow(final int[] arr, final int index) {
+		final int[] returnThis = new int[Math.max(index + 1, (arr.length * 2) + 1)];
+		System.arraycopy(arr, 0, returnThis, 0, arr.length);
+
+		return returnThis;
+	}
+
+	private final static Object[] grow(final Object[] arr, final int index) {
+		final int len = (arr == null) ? 0 : arr.length;
+		final Object[] returnThis = new Object[Math.max(index + 1, (len * 2) + 1)];
+
+		if (arr != null)
+			System.arraycopy(arr, 0, returnThis, 0, len);
+
+		return returnThis;
+	}
+}
@@ -56,4 +56,16 @@ public final class MultiHashMapFactory {
 	public final static Object instantiateDataModel() {
 		return new MultiHashMapModel();
 	}
+
+	/**
+	 * Like instantiateDataModel(), but the returned object stores the
+	 * values of attributes that have no keyspace in per-attribute primitive
+	 * columns indexed by interned objectKey.  This uses considerably less
+	 * memory than instantiateDataModel() when many objects carry simple
+	 * attribute values.  Attributes with a nonempty keyspace are stored
+	 * exactly as in instantiateDataModel().
+	 */
+	public final static Object instantiateColumnarDataModel() {
+		return new ColumnarMultiHashMapModel();
+	}
 }
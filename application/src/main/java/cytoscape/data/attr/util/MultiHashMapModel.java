@@ -149,7 +149,9 @@ class MultiHashMapModel implements MultiHashMapDefinition, MultiHashMap {
 		}
 	}
 
-	private final static class AttrLisChain implements MultiHashMapListener {
+	// Package visible so that other MultiHashMap implementations in this
+	// package can chain listeners the same way.
+	final static class AttrLisChain implements MultiHashMapListener {
 		// Use only the static methods from outside this inner class.
 		private final MultiHashMapListener a;
 
@@ -182,7 +184,7 @@ class MultiHashMapModel implements MultiHashMapDefinition, MultiHashMap {
 			b.allAttributeValuesRemoved(objectKey, attributeName);
 		}
 
-		private final static MultiHashMapListener add(final MultiHashMapListener a,
+		final static MultiHashMapListener add(final MultiHashMapListener a,
 		                                              final MultiHashMapListener b) {
 			if (a == null)
 				return b;
@@ -193,7 +195,7 @@ class MultiHashMapModel implements MultiHashMapDefinition, MultiHashMap {
 			return new AttrLisChain(a, b);
 		}
 
-		private final static MultiHashMapListener remove(final MultiHashMapListener l,
+		final static MultiHashMapListener remove(final MultiHashMapListener l,
 		                                                 final MultiHashMapListener oldl) {
 			if ((l == oldl) || (l == null))
 				return null;
@@ -33,6 +33,8 @@ import java.awt.Component;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -52,6 +54,11 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -156,6 +163,15 @@ public class CytoscapeSessionReader {
 	private Map<String, URL> imageMap;
 	private URL imagePropsURL;
 
+	// Parallel loading: XGMML entries are decoded into memory once, tokenized
+	// concurrently and then merged into the root graph on this thread.
+	private boolean parallel = Boolean.getBoolean("cytoscape.session.parallel");
+	private Map<String, byte[]> networkBytes = null;
+	private Map<String, Future<XGMMLEventBuffer>> networkEvents = null;
+	private long decodeTime = 0;
+	private long parseWaitTime = 0;
+	private long mergeTime = 0;
+
 	// Task monitor
 	private TaskMonitor taskMonitor = null;
 	private float networkCounter = 0;
@@ -239,6 +255,28 @@ public class CytoscapeSessionReader {
 		this(sourceName, (TaskMonitor) null);
 	}
 
+	/**
+	 * Turns parallel loading of the session networks on or off.  When on,
+	 * the XGMML entries are read from the archive once, tokenized on a pool
+	 * of worker threads, and merged into the root graph one at a time in
+	 * session order.  The default is taken from the
+	 * "cytoscape.session.parallel" system property.
+	 *
+	 * @param parallel  true to load networks in parallel.
+	 */
+	public void setParallel(final boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return  true if networks are loaded in parallel.
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
 	/**
 	 * Extract Zip entries in the remote file
 	 * 
@@ -271,6 +309,8 @@ public class CytoscapeSessionReader {
 		try {
 			zis = new ZipInputStream(juc.getInputStream());
 			networkURLs = new HashMap();
+			if (parallel)
+				networkBytes = new HashMap<String, byte[]>();
 
 			// Extract list of entries
 			ZipEntry zen = null;
@@ -320,6 +360,8 @@ public class CytoscapeSessionReader {
 							+ URLEncoder.encode(entryRest, "UTF-8").replace(
 									"+", "%20"));
 					networkURLs.put(entryName, networkURL);
+					if (networkBytes != null)
+						networkBytes.put(entryName, readEntry(zis));
 					networkCounter++;
 				} else if (entryName.endsWith(BOOKMARKS_FILE)) {
 					bookmarksFileURL = new URL("jar:" + sourceURL.toString()
@@ -345,6 +387,71 @@ public class CytoscapeSessionReader {
 		}
 	}
 
+	private static byte[] readEntry(final ZipInputStream zis) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buf = new byte[8192];
+		int len;
+
+		while ((len = zis.read(buf)) != -1)
+			out.write(buf, 0, len);
+
+		return out.toByteArray();
+	}
+
+	/**
+	 * Start tokenizing all XGMML entries on a pool of worker threads.  The
+	 * results are picked up, in session order, by walkTree().
+	 */
+	private ExecutorService startRecordingNetworks() {
+		final ExecutorService executor = Executors.newFixedThreadPool(Runtime
+				.getRuntime().availableProcessors());
+		networkEvents = new HashMap<String, Future<XGMMLEventBuffer>>();
+
+		for (final Map.Entry<String, byte[]> entry : networkBytes.entrySet()) {
+			final byte[] data = entry.getValue();
+			networkEvents.put(entry.getKey(), executor
+					.submit(new Callable<XGMMLEventBuffer>() {
+						public XGMMLEventBuffer call() {
+							return XGMMLReader
+									.recordEvents(new ByteArrayInputStream(data));
+						}
+					}));
+		}
+
+		// The workers now hold the only references to the raw entries.
+		networkBytes = null;
+
+		return executor;
+	}
+
+	/**
+	 * Returns the recorded events for a network entry, waiting for its worker
+	 * if necessary, or null if the entry has to be read from the archive.
+	 */
+	private XGMMLEventBuffer getRecordedEvents(final String entryName) {
+		if (networkEvents == null)
+			return null;
+
+		final Future<XGMMLEventBuffer> future = networkEvents.remove(entryName);
+		if (future == null)
+			return null;
+
+		final long waitStart = System.currentTimeMillis();
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			logger.warn("Could not tokenize " + entryName
+					+ " in parallel; reading it again from the session file.",
+					e.getCause());
+			return null;
+		} finally {
+			parseWaitTime += System.currentTimeMillis() - waitStart;
+		}
+	}
+
 	private void extractPluginEntry(String entryName) {
 		String[] items = entryName.split("/");
 
@@ -578,7 +685,9 @@ public class CytoscapeSessionReader {
 		}
 
 		logger.info("Session loaded in " + (System.currentTimeMillis() - start)
-				+ " msec.");
+				+ " msec. (decode: " + decodeTime + " msec, parse wait: "
+				+ parseWaitTime + " msec, merge: " + mergeTime + " msec, "
+				+ (parallel ? "parallel" : "sequential") + ")");
 	}
 
 	/**
@@ -641,8 +750,8 @@ public class CytoscapeSessionReader {
 	private void unzipSessionFromURL(final boolean loadVizmap)
 			throws IOException, JAXBException, Exception {
 		extractEntry();
-		logger.info("extractEntry: " + (System.currentTimeMillis() - start)
-				+ " msec.");
+		decodeTime = System.currentTimeMillis() - start;
+		logger.info("extractEntry: " + decodeTime + " msec.");
 
 		/*
 		 * Check the contents. If broken/invalid, throw exception.
@@ -676,7 +785,18 @@ public class CytoscapeSessionReader {
 		 */
 		CytoscapeInit.getProperties().load(
 				URLUtil.getBasicInputStream(cytoscapePropsURL));
-		loadCySession();
+
+		final ExecutorService executor = (networkBytes != null) ? startRecordingNetworks()
+				: null;
+		final long mergeStart = System.currentTimeMillis();
+		try {
+			loadCySession();
+		} finally {
+			if (executor != null)
+				executor.shutdownNow();
+			networkEvents = null;
+			mergeTime = System.currentTimeMillis() - mergeStart - parseWaitTime;
+		}
 
 		// restore plugin state files
 		restorePlugnStateFilesFromZip();
@@ -931,9 +1051,14 @@ public class CytoscapeSessionReader {
 			try {
 				InputStream networkStream = null;
 				try {
-					networkStream = (InputStream) jarConnection.getContent();
+					final XGMMLEventBuffer events = getRecordedEvents(targetNwUrlName);
 
-					reader = new XGMMLReader(networkStream);
+					if (events != null) {
+						reader = new XGMMLReader(events, childNet.getFilename());
+					} else {
+						networkStream = (InputStream) jarConnection.getContent();
+						reader = new XGMMLReader(networkStream);
+					}
 					if (childNet.isViewAvailable()) {
 						new_network = Cytoscape.createNetwork(reader, true, parent);
 						curNetView = Cytoscape.getNetworkView(new_network.getIdentifier());
@@ -49,12 +49,16 @@ import cern.colt.map.OpenIntIntHashMap;
 
 import cytoscape.CyEdge;
 import cytoscape.CyNetwork;
+import cytoscape.CyNode;
 import cytoscape.Cytoscape;
 
 import cytoscape.data.Interaction;
+import cytoscape.data.Semantics;
 
 import cytoscape.data.servers.BioDataServer;
 
+import cytoscape.giny.CytoscapeRootGraph;
+
 import cytoscape.task.TaskMonitor;
 
 import cytoscape.util.FileUtil;
@@ -65,13 +69,20 @@ import cytoscape.view.CyNetworkView;
 import giny.model.Edge;
 import giny.model.Node;
 
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.StringTokenizer;
 
 
 /**
@@ -79,8 +90,14 @@ import java.util.Set;
  * provides the graph and attributes objects constructed from the file.
  */
 public class InteractionsReader extends AbstractGraphReader {
+	// Number of edges that are buffered before they are added to the root graph
+	// in streaming mode.
+	private static final int STREAMING_BATCH_SIZE = 10000;
+
 	private TaskMonitor taskMonitor;
 	private PercentUtil percentUtil;
+	private boolean streaming = Boolean.getBoolean("cytoscape.sif.streaming");
+	private int streamedCount;
 
 	/**
 	 * A Vector that holds all of the Interactions
@@ -152,10 +169,46 @@ public class InteractionsReader extends AbstractGraphReader {
 	}
 
 
+	/**
+	 * Selects whether read() parses the input line by line instead of reading
+	 * it into memory first.  In streaming mode no Interaction objects are kept,
+	 * so getAllInteractions() returns an empty array; getCount() still returns
+	 * the number of interactions read.  Data from zip files is always read in
+	 * the non-streaming mode.  The default is taken from the
+	 * "cytoscape.sif.streaming" system property.
+	 *
+	 * @param streaming true to enable streaming mode
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public boolean isStreaming() {
+		return streaming;
+	}
+
 	/**
 	 * Calls read(false)
 	 */
 	public void read() throws IOException {
+		if (streaming && !is_zip) {
+			try {
+				readStreaming();
+			} finally {
+				if (inputStream != null) {
+					inputStream.close();
+					inputStream = null;
+				}
+			}
+
+			return;
+		}
+
 		String rawText;
 
 		if (!is_zip) {
@@ -213,7 +266,7 @@ public class InteractionsReader extends AbstractGraphReader {
 	 * @return  DOCUMENT ME!
 	 */
 	public int getCount() {
-		return allInteractions.size();
+		return streaming && !is_zip ? streamedCount : allInteractions.size();
 	}
 
 	// -------------------------------------------------------------------------------------------
@@ -324,6 +377,176 @@ public class InteractionsReader extends AbstractGraphReader {
 		} // for i
 	} // createRootGraphFromInteractionData
 
+	// -------------------------------------------------------------------------------------------
+	/**
+	 * Parses the input line by line.  Nodes are created as soon as they are
+	 * seen, while edges are collected as pairs of node indices and added to
+	 * the root graph in batches, each batch in its own bulk load.  The
+	 * delimiter is a space until the first line that contains a tab is seen,
+	 * and a tab from then on.
+	 */
+	private void readStreaming() throws IOException {
+		final CountingInputStream countingStream = new CountingInputStream(inputStream);
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(countingStream));
+		final long totalBytes = (inputStream instanceof FileInputStream)
+		                        ? ((FileInputStream) inputStream).getChannel().size() : -1L;
+		final CytoscapeRootGraph rootGraph = Cytoscape.getRootGraph();
+		final boolean bulkLoad = !rootGraph.isBulkLoading();
+
+		node_indices = new IntArrayList();
+		edges = new OpenIntIntHashMap();
+		streamedCount = 0;
+
+		final OpenIntIntHashMap nodeSet = new OpenIntIntHashMap();
+		final Map<String, String> interactionTypes = new HashMap<String, String>();
+		final int[] sources = new int[STREAMING_BATCH_SIZE];
+		final int[] targets = new int[STREAMING_BATCH_SIZE];
+		final String[] types = new String[STREAMING_BATCH_SIZE];
+		int batchSize = 0;
+		int percent = -1;
+		String delimiter = " ";
+		boolean tabDelimited = false;
+		String line;
+
+		if (bulkLoad)
+			rootGraph.beginBulkLoad(STREAMING_BATCH_SIZE, STREAMING_BATCH_SIZE);
+
+		try {
+			while ((line = reader.readLine()) != null) {
+				if (!tabDelimited && (line.indexOf('\t') >= 0)) {
+					tabDelimited = true;
+					delimiter = "\t";
+				}
+
+				final StringTokenizer tokens = new StringTokenizer(line, delimiter);
+
+				if (!tokens.hasMoreTokens())
+					continue;
+
+				streamedCount++;
+
+				final int source = getStreamedNode(tokens.nextToken().trim(), nodeSet);
+
+				if (tokens.hasMoreTokens()) {
+					String type = tokens.nextToken().trim();
+					final String internedType = interactionTypes.get(type);
+
+					if (internedType == null)
+						interactionTypes.put(type, type);
+					else
+						type = internedType;
+
+					while (tokens.hasMoreTokens()) {
+						sources[batchSize] = source;
+						targets[batchSize] = getStreamedNode(tokens.nextToken().trim(), nodeSet);
+						types[batchSize] = type;
+
+						if (++batchSize == STREAMING_BATCH_SIZE) {
+							createStreamedEdges(sources, targets, types, batchSize);
+							batchSize = 0;
+
+							if (bulkLoad) {
+								rootGraph.commitBulkLoad();
+								rootGraph.beginBulkLoad(STREAMING_BATCH_SIZE, STREAMING_BATCH_SIZE);
+							}
+						}
+					}
+				}
+
+				if ((taskMonitor != null) && (totalBytes > 0)) {
+					final int newPercent = (int) Math.min(100L,
+					                                      (countingStream.getCount() * 100L) / totalBytes);
+
+					if (newPercent != percent) {
+						percent = newPercent;
+						taskMonitor.setPercentCompleted(percent);
+					}
+				}
+			}
+
+			createStreamedEdges(sources, targets, types, batchSize);
+		} finally {
+			if (bulkLoad)
+				rootGraph.commitBulkLoad();
+		}
+
+		if (taskMonitor != null)
+			taskMonitor.setPercentCompleted(100);
+	}
+
+	private int getStreamedNode(final String nodeName, final OpenIntIntHashMap nodeSet) {
+		final int index = Cytoscape.getCyNode(nodeName, true).getRootGraphIndex();
+
+		if (!nodeSet.containsKey(index)) {
+			nodeSet.put(index, 0);
+			node_indices.add(index);
+		}
+
+		return index;
+	}
+
+	// Same lookup as Cytoscape.getCyEdge(String, String, String, String), but
+	// without looking the nodes up by name again.
+	private void createStreamedEdges(final int[] sources, final int[] targets,
+	                                 final String[] types, final int count) {
+		final CytoscapeRootGraph rootGraph = Cytoscape.getRootGraph();
+
+		for (int i = 0; i < count; i++) {
+			final CyNode source = (CyNode) rootGraph.getNode(sources[i]);
+			final CyNode target = (CyNode) rootGraph.getNode(targets[i]);
+			final String edgeName = CyEdge.createIdentifier(source.getIdentifier(), types[i],
+			                                                target.getIdentifier());
+			CyEdge edge = rootGraph.getEdge(edgeName);
+
+			if (edge == null)
+				edge = Cytoscape.getCyEdge(source, target, Semantics.INTERACTION, types[i], true,
+				                           true);
+
+			edges.put(edge.getRootGraphIndex(), 0);
+			types[i] = null;
+		}
+	}
+
+	/**
+	 * Counts the bytes read from the underlying stream for progress reporting.
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+		private long count = 0L;
+
+		CountingInputStream(final InputStream in) {
+			super(in);
+		}
+
+		public int read() throws IOException {
+			final int b = super.read();
+
+			if (b >= 0)
+				count++;
+
+			return b;
+		}
+
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			final int n = super.read(b, off, len);
+
+			if (n > 0)
+				count += n;
+
+			return n;
+		}
+
+		public long skip(final long n) throws IOException {
+			final long skipped = super.skip(n);
+			count += skipped;
+
+			return skipped;
+		}
+
+		long getCount() {
+			return count;
+		}
+	}
+
 	/**
 	 *  DOCUMENT ME!
 	 *
@@ -0,0 +1,224 @@
+/*
+ File: XGMMLEventBuffer.java
+
+ Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+ */
+package cytoscape.data.readers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.ParserAdapter;
+
+
+/**
+ * A recorded stream of the SAX events of one XGMML document.<br>
+ * Recording only tokenizes the XML and does not touch the root graph or the
+ * attribute tables, so several documents can be recorded concurrently.  The
+ * events are then replayed into an {@link XGMMLParser} on a single thread,
+ * which builds the network exactly as if it had been parsed directly.
+ */
+class XGMMLEventBuffer extends DefaultHandler {
+	private static final int START_ELEMENT = 0;
+	private static final int END_ELEMENT = 1;
+	private static final int CHARACTERS = 2;
+	private static final int ERROR = 3;
+	private static final int FATAL_ERROR = 4;
+
+	private final List<Event> events = new ArrayList<Event>();
+	private Locator locator = null;
+	private Exception failure = null;
+
+	private XGMMLEventBuffer() {
+	}
+
+	/**
+	 * Parses an XGMML document and records its events.  Parsing errors are
+	 * not thrown here; they are recorded and surface during {@link #replay}.
+	 *
+	 * @param is the XGMML document, which is closed on return
+	 * @return the recorded events
+	 */
+	static XGMMLEventBuffer record(final InputStream is) {
+		final XGMMLEventBuffer buffer = new XGMMLEventBuffer();
+
+		try {
+			try {
+				final SAXParserFactory spf = SAXParserFactory.newInstance();
+				final SAXParser sp = spf.newSAXParser();
+				final ParserAdapter pa = new ParserAdapter(sp.getParser());
+				pa.setContentHandler(buffer);
+				pa.setErrorHandler(buffer);
+				pa.parse(new InputSource(is));
+			} finally {
+				is.close();
+			}
+		} catch (SAXException e) {
+			buffer.failure = e;
+		} catch (IOException e) {
+			buffer.failure = e;
+		} catch (ParserConfigurationException e) {
+			// XGMMLReader ignores this too.
+		}
+
+		return buffer;
+	}
+
+	/**
+	 * Replays the recorded events into the given parser, then rethrows any
+	 * error that stopped the recording.
+	 */
+	void replay(final XGMMLParser parser) throws SAXException, IOException {
+		final ReplayLocator replayLocator = new ReplayLocator();
+		parser.setDocumentLocator(replayLocator);
+
+		for (final Event event : events) {
+			replayLocator.lineNumber = event.lineNumber;
+
+			switch (event.type) {
+				case START_ELEMENT:
+					parser.startElement(event.uri, event.localName, event.qName, event.atts);
+					break;
+
+				case END_ELEMENT:
+					parser.endElement(event.uri, event.localName, event.qName);
+					break;
+
+				case CHARACTERS:
+					parser.characters(event.ch, 0, event.ch.length);
+					break;
+
+				case ERROR:
+					parser.error(event.exception);
+					break;
+
+				case FATAL_ERROR:
+					parser.fatalError(event.exception);
+					break;
+			}
+		}
+
+		if (failure instanceof SAXException)
+			throw (SAXException) failure;
+		else if (failure instanceof IOException)
+			throw (IOException) failure;
+	}
+
+	/**
+	 * Returns the number of recorded events.
+	 */
+	int size() {
+		return events.size();
+	}
+
+	public void setDocumentLocator(Locator locator) {
+		this.locator = locator;
+	}
+
+	public void startElement(String uri, String localName, String qName, Attributes atts) {
+		final Event event = newEvent(START_ELEMENT);
+		event.uri = uri;
+		event.localName = localName;
+		event.qName = qName;
+		event.atts = new AttributesImpl(atts);
+	}
+
+	public void endElement(String uri, String localName, String qName) {
+		final Event event = newEvent(END_ELEMENT);
+		event.uri = uri;
+		event.localName = localName;
+		event.qName = qName;
+	}
+
+	public void characters(char[] ch, int start, int length) {
+		final Event event = newEvent(CHARACTERS);
+		event.ch = new char[length];
+		System.arraycopy(ch, start, event.ch, 0, length);
+	}
+
+	public void error(SAXParseException e) {
+		newEvent(ERROR).exception = e;
+	}
+
+	public void fatalError(SAXParseException e) throws SAXException {
+		newEvent(FATAL_ERROR).exception = e;
+		throw e;
+	}
+
+	private Event newEvent(final int type) {
+		final Event event = new Event();
+		event.type = type;
+		event.lineNumber = (locator == null) ? -1 : locator.getLineNumber();
+		events.add(event);
+
+		return event;
+	}
+
+	private static final class Event {
+		int type;
+		int lineNumber;
+		String uri;
+		String localName;
+		String qName;
+		Attributes atts;
+		char[] ch;
+		SAXParseException exception;
+	}
+
+	private static final class ReplayLocator implements Locator {
+		int lineNumber = -1;
+
+		public String getPublicId() {
+			return null;
+		}
+
+		public String getSystemId() {
+			return null;
+		}
+
+		public int getLineNumber() {
+			return lineNumber;
+		}
+
+		public int getColumnNumber() {
+			return -1;
+		}
+	}
+}
@@ -151,6 +151,7 @@ public class XGMMLReader extends AbstractGraphReader {
 	private Double graphViewCenterX;
 	private Double graphViewCenterY;
 	private InputStream networkStream;
+	private XGMMLEventBuffer networkEvents;
 	private XGMMLParser parser;
 	private boolean nodeSizeLocked = false;
 
@@ -208,6 +209,40 @@ public class XGMMLReader extends AbstractGraphReader {
 	}
 
 
+	/**
+	 * Constructor.<br>
+	 * This is used for documents which have already been recorded by
+	 * {@link #recordEvents(InputStream)}, possibly on another thread.
+	 *
+	 * @param events
+	 *            Recorded SAX events of the XGMML file.
+	 * @param name
+	 *            Name of the XGMML file.
+	 */
+	XGMMLReader(XGMMLEventBuffer events, String name) {
+		super(name);
+
+		this.networkEvents = events;
+		logger = CyLogger.getLogger(XGMMLReader.class);
+	}
+
+
+	/**
+	 * Tokenizes an XGMML document without creating any nodes, edges or
+	 * attributes.  This is safe to call from any thread; the result is
+	 * handed to {@link #XGMMLReader(XGMMLEventBuffer, String)}.
+	 *
+	 * @param is  Input stream of XGMML file.  It is closed on return.
+	 * @return  the recorded SAX events.
+	 */
+	static XGMMLEventBuffer recordEvents(InputStream is) {
+		if (Boolean.getBoolean("cytoscape.xgmml.repair.bare.ampersands"))
+			is = new RepairBareAmpersandsInputStream(is, 512);
+
+		return XGMMLEventBuffer.record(is);
+	}
+
+
 	/**
 	 * Creates a new XGMMLReader object.
 	 *
@@ -296,14 +331,21 @@ public class XGMMLReader extends AbstractGraphReader {
 						taskMonitor.setStatus("Reading XGMML data...");
 					}
 
-					// Get our parser
-					SAXParserFactory spf = SAXParserFactory.newInstance();
-					SAXParser sp = spf.newSAXParser();
-					ParserAdapter pa = new ParserAdapter(sp.getParser());
 					parser = new XGMMLParser();
-					pa.setContentHandler(parser);
-					pa.setErrorHandler(parser);
-					pa.parse(new InputSource(networkStream));
+
+					if (networkEvents != null) {
+						// Already tokenized; just build the network.
+						networkEvents.replay(parser);
+					} else {
+						// Get our parser
+						SAXParserFactory spf = SAXParserFactory.newInstance();
+						SAXParser sp = spf.newSAXParser();
+						ParserAdapter pa = new ParserAdapter(sp.getParser());
+						pa.setContentHandler(parser);
+						pa.setErrorHandler(parser);
+						pa.parse(new InputSource(networkStream));
+					}
+
 					networkName = parser.getNetworkName();
 				} catch (OutOfMemoryError oe) {
 					/*
@@ -326,6 +368,7 @@ public class XGMMLReader extends AbstractGraphReader {
 		}
 		finally {
 			networkStream = null;
+			networkEvents = null;
 		}
 
 //		heapUsage = mbean.getHeapMemoryUsage();
@@ -797,7 +840,7 @@ public class XGMMLReader extends AbstractGraphReader {
 	}
 
 
-	private class RepairBareAmpersandsInputStream extends PushbackInputStream {
+	private static class RepairBareAmpersandsInputStream extends PushbackInputStream {
 		private final byte[] encodedAmpersand = new byte[]{'a', 'm', 'p', ';'};
 		public RepairBareAmpersandsInputStream(InputStream in) {
 			super(in);
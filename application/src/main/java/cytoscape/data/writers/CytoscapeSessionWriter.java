@@ -45,6 +45,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.math.BigInteger;
@@ -60,6 +61,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -105,6 +108,7 @@ import cytoscape.generated.SelectedEdges;
 import cytoscape.generated.SelectedNodes;
 import cytoscape.generated.Server;
 import cytoscape.generated.SessionState;
+import cytoscape.logger.CyLogger;
 import cytoscape.util.BookmarksUtil;
 import cytoscape.util.RecentlyOpenedTracker;
 import cytoscape.util.swing.JTreeTable;
@@ -202,6 +206,12 @@ public class CytoscapeSessionWriter {
 	private Map viewMap = Cytoscape.getNetworkViewMap();
 	private ZipOutputStream zos; 
 
+	// Parallel saving: networks and images are serialized and deflated on a
+	// worker pool, then stitched into the archive in order.
+	private boolean parallel = Boolean.getBoolean("cytoscape.session.parallel");
+	private ParallelZipWriter parallelZip = null;
+	private CyLogger logger = CyLogger.getLogger(CytoscapeSessionWriter.class);
+
 	/**
 	 * Constructor.
 	 *
@@ -221,6 +231,27 @@ public class CytoscapeSessionWriter {
 		networkMap = new HashMap();
 	}
 
+	/**
+	 * Turns parallel saving on or off.  When on, each network and image is
+	 * written and compressed as an independent zip entry on a pool of worker
+	 * threads.  The default is taken from the "cytoscape.session.parallel"
+	 * system property.
+	 *
+	 * @param parallel  true to save in parallel.
+	 */
+	public void setParallel(final boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return  true if the session is saved in parallel.
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
 	/**
 	 * Write current session to a local .cys file.
 	 *
@@ -245,8 +276,15 @@ public class CytoscapeSessionWriter {
 				}
 			}
 
+			ExecutorService executor = null;
+
 			try {
-				zos = new ZipOutputStream(fos);
+				if (parallel) {
+					executor = Executors.newFixedThreadPool(Runtime.getRuntime()
+					                                               .availableProcessors());
+					parallelZip = new ParallelZipWriter(fos, executor);
+				} else
+					zos = new ZipOutputStream(fos);
 
 				for (CyNetwork network : networks)
 					zipNetwork(network);
@@ -256,11 +294,19 @@ public class CytoscapeSessionWriter {
 				zipBookmarks();
 				zipFileListMap();
 				zipCustomGraphics();
+
+				if (parallelZip != null)
+					parallelZip.finish();
 			}
 			finally {
 				if (zos != null) {
 					zos.close();
 				}
+
+				if (executor != null)
+					executor.shutdownNow();
+
+				parallelZip = null;
 			}
 		}
 		finally {
@@ -273,6 +319,22 @@ public class CytoscapeSessionWriter {
 	}
 
 
+	/**
+	 * Starts a new entry in the session zip and returns the stream to write
+	 * it to.
+	 */
+	private OutputStream putNextEntry(final String name) throws IOException {
+		if (parallelZip != null) {
+			parallelZip.putNextEntry(name);
+
+			return parallelZip;
+		}
+
+		zos.putNextEntry(new ZipEntry(name));
+
+		return zos;
+	}
+
 	/**
 	 * Utility to replace invalid chars in the XGMML file name.<br>
 	 *
@@ -349,9 +411,9 @@ public class CytoscapeSessionWriter {
 		VisualMappingManager vizmapper = Cytoscape.getVisualMappingManager();
 		CalculatorCatalog catalog = vizmapper.getCalculatorCatalog();
 
-		zos.putNextEntry(new ZipEntry(sessionDir + VIZMAP_FILE) );
+		final OutputStream os = putNextEntry(sessionDir + VIZMAP_FILE);
 
-		Writer writer = new OutputStreamWriter( zos );
+		Writer writer = new OutputStreamWriter( os );
 		CalculatorIO.storeCatalog(catalog, writer);
 	}
 
@@ -360,9 +422,9 @@ public class CytoscapeSessionWriter {
 	 */
 	private void zipCytoscapeProps() throws IOException {
 	
-		zos.putNextEntry(new ZipEntry(sessionDir + CYPROP_FILE) );
+		final OutputStream os = putNextEntry(sessionDir + CYPROP_FILE);
 
-		CytoscapeInit.getProperties().store(zos, "Cytoscape Property File");
+		CytoscapeInit.getProperties().store(os, "Cytoscape Property File");
 	}
 
 	/**
@@ -370,10 +432,10 @@ public class CytoscapeSessionWriter {
 	 */
 	private void zipBookmarks() throws IOException, JAXBException {
 
-		zos.putNextEntry(new ZipEntry(sessionDir + BOOKMARKS_FILE) );
+		final OutputStream os = putNextEntry(sessionDir + BOOKMARKS_FILE);
 
 		bookmarks = Cytoscape.getBookmarks();
-		BookmarksUtil.saveBookmark(bookmarks, zos);
+		BookmarksUtil.saveBookmark(bookmarks, os);
 	}
 	
 	
@@ -403,14 +465,22 @@ public class CytoscapeSessionWriter {
 			// TODO: how can we handle Dynamic Images?
 			if(img != null && cg instanceof NullCustomGraphics == false && cg instanceof URLImageCustomGraphics) {
 				final Long id= cg.getIdentifier();
-				zos.putNextEntry(new ZipEntry(sessionDir + "images/" + id + ".png"));
-				ImageIO.write(ImageUtil.toBufferedImage(img), "PNG", zos);
+				final String entryName = sessionDir + "images/" + id + ".png";
+
+				if (parallelZip != null) {
+					parallelZip.submit(entryName, new ParallelZipWriter.EntryContent() {
+							public void writeTo(final OutputStream out) throws Exception {
+								ImageIO.write(ImageUtil.toBufferedImage(img), "PNG", out);
+							}
+						});
+				} else
+					ImageIO.write(ImageUtil.toBufferedImage(img), "PNG", putNextEntry(entryName));
 			}
 		}
 		
 		// Add metadata file to the session file
-		zos.putNextEntry(new ZipEntry(sessionDir + "images/" + CustomGraphicsManager.METADATA_FILE));
-		graphicsProps.store(zos, "Image Metadata");
+		final OutputStream os = putNextEntry(sessionDir + "images/" + CustomGraphicsManager.METADATA_FILE);
+		graphicsProps.store(os, "Image Metadata");
 	}
 	
 
@@ -424,16 +494,31 @@ public class CytoscapeSessionWriter {
 	private void zipNetwork(final CyNetwork network)
 	    throws IOException, JAXBException, URISyntaxException {
 
-		String xgmmlFile = getValidFileName( network.getTitle() + XGMML_EXT );
-		CyNetworkView view = Cytoscape.getNetworkView(network.getIdentifier());
+		final String xgmmlFile = getValidFileName( network.getTitle() + XGMML_EXT );
+		final CyNetworkView view = Cytoscape.getNetworkView(network.getIdentifier());
 
-		zos.putNextEntry(new ZipEntry(sessionDir + xgmmlFile));
+		if (parallelZip != null) {
+			parallelZip.submit(sessionDir + xgmmlFile, new ParallelZipWriter.EntryContent() {
+					public void writeTo(final OutputStream out) throws Exception {
+						writeNetwork(network, view, out);
+					}
+				});
+		} else
+			writeNetwork(network, view, putNextEntry(sessionDir + xgmmlFile));
+	}
+
+	private void writeNetwork(final CyNetwork network, final CyNetworkView view,
+	                          final OutputStream out) throws IOException, URISyntaxException {
+		final long start = System.currentTimeMillis();
 
-		Writer writer = new OutputStreamWriter(zos, "UTF-8");
+		Writer writer = new OutputStreamWriter(out, "UTF-8");
 		// Write the XGMML file *without* our graphics attributes
 		// We'll let the Vizmapper handle those
 		XGMMLWriter xgmmlWriter = new XGMMLWriter(network, view, true);
 		xgmmlWriter.write(writer);
+
+		logger.info("XGMMLWriter " + network.getIdentifier() + ": "
+		            + (System.currentTimeMillis() - start) + " msec.");
 	}
 
 	/**
@@ -458,9 +543,9 @@ public class CytoscapeSessionWriter {
 		m.setProperty("com.sun.xml.bind.namespacePrefixMapper",
 		              new NamespacePrefixMapperForCysession());
 
-		zos.putNextEntry(new ZipEntry(sessionDir + CYSESSION_FILE_NAME) );
+		final OutputStream os = putNextEntry(sessionDir + CYSESSION_FILE_NAME);
 
-		m.marshal(session, zos);
+		m.marshal(session, os);
 		session = null;
 	}
 
@@ -490,8 +575,8 @@ public class CytoscapeSessionWriter {
 					if ((theFile == null) || (!theFile.exists()))
 						continue;
 	
-					zos.putNextEntry(new ZipEntry( sessionDir + "plugins/" + pluginName + 
-					                               "/" + theFile.getName() ) );
+					final OutputStream os = putNextEntry(sessionDir + "plugins/" + pluginName + 
+					                                     "/" + theFile.getName());
 
 					// copy the file contents to the zip output stream
 					FileInputStream fileIS = null;
@@ -499,7 +584,7 @@ public class CytoscapeSessionWriter {
 						fileIS = new FileInputStream(theFile);
 						int numRead = 0;
 						while ((numRead = fileIS.read(buf)) > -1) {
-							zos.write(buf, 0, numRead);
+							os.write(buf, 0, numRead);
 						}
 					}
 					finally {
@@ -0,0 +1,349 @@
+/*
+ File: ParallelZipWriter.java
+
+ Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+ */
+package cytoscape.data.writers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+
+/**
+ * Writes a zip archive whose entries are deflated independently, possibly on
+ * other threads, and then written out in the order they were added.<br>
+ * Entries are either written directly to this stream after
+ * {@link #putNextEntry(String)}, like a ZipOutputStream, or handed to
+ * {@link #submit(String, EntryContent)} to be produced on the executor.  The
+ * archive itself is written by {@link #finish()}.  The result is an ordinary
+ * deflated zip that ZipInputStream and JarFile read as usual; ZIP64 is not
+ * supported.
+ */
+class ParallelZipWriter extends OutputStream {
+	/**
+	 * Produces the uncompressed content of a submitted entry.
+	 */
+	interface EntryContent {
+		/**
+		 * Writes the entry to the given stream.  The stream must not be closed.
+		 */
+		void writeTo(OutputStream out) throws Exception;
+	}
+
+	private static final long LOCSIG = 0x04034b50L;
+	private static final long CENSIG = 0x02014b50L;
+	private static final long ENDSIG = 0x06054b50L;
+	private static final int VERSION = 20;
+	private static final int UTF8_FLAG = 0x0800;
+	private static final int DEFLATED = 8;
+	private static final long MAX_SIZE = 0xFFFFFFFFL;
+	private static final int MAX_ENTRIES = 0xFFFF;
+
+	private final OutputStream out;
+	private final ExecutorService executor;
+	private final int dosTime;
+	private final List<Future<DeflatedEntry>> entries = new ArrayList<Future<DeflatedEntry>>();
+	private EntryBuffer current = null;
+	private boolean finished = false;
+
+	/**
+	 * Creates a new ParallelZipWriter object.
+	 *
+	 * @param out  the stream the archive is written to.
+	 * @param executor  runs the submitted entries.
+	 */
+	ParallelZipWriter(final OutputStream out, final ExecutorService executor) {
+		this.out = out;
+		this.executor = executor;
+		this.dosTime = toDosTime(Calendar.getInstance());
+	}
+
+	/**
+	 * Starts a new entry written by the calling thread.  The previous entry,
+	 * if any, is completed.
+	 */
+	void putNextEntry(final String name) throws IOException {
+		closeEntry();
+		current = new EntryBuffer(name);
+	}
+
+	/**
+	 * Queues an entry to be produced and deflated on the executor.  Its place
+	 * in the archive is fixed now, regardless of when it completes.
+	 */
+	void submit(final String name, final EntryContent content) throws IOException {
+		closeEntry();
+		entries.add(executor.submit(new Callable<DeflatedEntry>() {
+				public DeflatedEntry call() throws Exception {
+					final EntryBuffer buffer = new EntryBuffer(name);
+					content.writeTo(buffer);
+
+					return buffer.toDeflatedEntry();
+				}
+			}));
+	}
+
+	public void write(final int b) throws IOException {
+		checkEntry();
+		current.write(b);
+	}
+
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+		checkEntry();
+		current.write(b, off, len);
+	}
+
+	/**
+	 * Waits for all submitted entries and writes the archive.
+	 */
+	void finish() throws IOException {
+		if (finished)
+			return;
+
+		closeEntry();
+		finished = true;
+
+		if (entries.size() > MAX_ENTRIES)
+			throw new IOException("Too many entries for a zip archive: " + entries.size());
+
+		final List<DeflatedEntry> written = new ArrayList<DeflatedEntry>(entries.size());
+		long offset = 0;
+
+		for (final Future<DeflatedEntry> future : entries) {
+			final DeflatedEntry entry = getEntry(future);
+			entry.offset = offset;
+			offset += writeLocalHeader(entry);
+			out.write(entry.data);
+			offset += entry.data.length;
+			entry.data = null;
+			written.add(entry);
+		}
+
+		final long centralOffset = offset;
+		for (final DeflatedEntry entry : written)
+			offset += writeCentralHeader(entry);
+
+		checkSize(offset);
+		writeInt(ENDSIG);
+		writeShort(0);
+		writeShort(0);
+		writeShort(written.size());
+		writeShort(written.size());
+		writeInt(offset - centralOffset);
+		writeInt(centralOffset);
+		writeShort(0);
+		out.flush();
+	}
+
+	/**
+	 * Finishes the archive and closes the underlying stream.
+	 */
+	public void close() throws IOException {
+		try {
+			finish();
+		} finally {
+			out.close();
+		}
+	}
+
+	private void closeEntry() throws IOException {
+		if (current == null)
+			return;
+
+		final DeflatedEntry entry = current.toDeflatedEntry();
+		current = null;
+
+		final FutureTask<DeflatedEntry> done = new FutureTask<DeflatedEntry>(new Callable<DeflatedEntry>() {
+				public DeflatedEntry call() {
+					return entry;
+				}
+			});
+		done.run();
+		entries.add(done);
+	}
+
+	private void checkEntry() throws IOException {
+		if (current == null)
+			throw new IOException("No current zip entry.");
+	}
+
+	private static DeflatedEntry getEntry(final Future<DeflatedEntry> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while writing zip archive.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+
+			final IOException ioe = new IOException("Unable to write zip entry: "
+			                                        + e.getCause().getMessage());
+			ioe.initCause(e.getCause());
+			throw ioe;
+		}
+	}
+
+	private int writeLocalHeader(final DeflatedEntry entry) throws IOException {
+		checkSize(entry.offset);
+		writeInt(LOCSIG);
+		writeShort(VERSION);
+		writeShort(UTF8_FLAG);
+		writeShort(DEFLATED);
+		writeInt(dosTime);
+		writeInt(entry.crc);
+		writeInt(entry.compressedSize);
+		writeInt(entry.size);
+		writeShort(entry.name.length);
+		writeShort(0);
+		out.write(entry.name);
+
+		return 30 + entry.name.length;
+	}
+
+	private int writeCentralHeader(final DeflatedEntry entry) throws IOException {
+		writeInt(CENSIG);
+		writeShort(VERSION);
+		writeShort(VERSION);
+		writeShort(UTF8_FLAG);
+		writeShort(DEFLATED);
+		writeInt(dosTime);
+		writeInt(entry.crc);
+		writeInt(entry.compressedSize);
+		writeInt(entry.size);
+		writeShort(entry.name.length);
+		writeShort(0);
+		writeShort(0);
+		writeShort(0);
+		writeShort(0);
+		writeInt(0);
+		writeInt(entry.offset);
+		out.write(entry.name);
+
+		return 46 + entry.name.length;
+	}
+
+	private static void checkSize(final long size) throws IOException {
+		if (size > MAX_SIZE)
+			throw new IOException("Zip archive is too large to be written without ZIP64.");
+	}
+
+	private void writeShort(final int v) throws IOException {
+		out.write(v & 0xff);
+		out.write((v >>> 8) & 0xff);
+	}
+
+	private void writeInt(final long v) throws IOException {
+		writeShort((int) (v & 0xffff));
+		writeShort((int) ((v >>> 16) & 0xffff));
+	}
+
+	private static int toDosTime(final Calendar cal) {
+		final int year = cal.get(Calendar.YEAR);
+
+		if (year < 1980)
+			return (1 << 21) | (1 << 16);
+
+		return ((year - 1980) << 25) | ((cal.get(Calendar.MONTH) + 1) << 21)
+		       | (cal.get(Calendar.DAY_OF_MONTH) << 16) | (cal.get(Calendar.HOUR_OF_DAY) << 11)
+		       | (cal.get(Calendar.MINUTE) << 5) | (cal.get(Calendar.SECOND) >> 1);
+	}
+
+	/**
+	 * Buffers and deflates one entry, keeping its CRC and uncompressed size.
+	 */
+	private static final class EntryBuffer extends OutputStream {
+		private final String name;
+		private final CRC32 crc = new CRC32();
+		private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		private final DeflaterOutputStream deflaterStream = new DeflaterOutputStream(compressed,
+		                                                                             deflater,
+		                                                                             8192);
+		private long size = 0;
+
+		EntryBuffer(final String name) {
+			this.name = name;
+		}
+
+		public void write(final int b) throws IOException {
+			deflaterStream.write(b);
+			crc.update(b);
+			size++;
+		}
+
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			deflaterStream.write(b, off, len);
+			crc.update(b, off, len);
+			size += len;
+		}
+
+		DeflatedEntry toDeflatedEntry() throws IOException {
+			deflaterStream.finish();
+			deflater.end();
+			checkSize(size);
+
+			final DeflatedEntry entry = new DeflatedEntry();
+			entry.name = name.getBytes("UTF-8");
+			entry.crc = crc.getValue();
+			entry.size = size;
+			entry.data = compressed.toByteArray();
+			entry.compressedSize = entry.data.length;
+			checkSize(entry.compressedSize);
+
+			return entry;
+		}
+	}
+
+	private static final class DeflatedEntry {
+		byte[] name;
+		long crc;
+		long size;
+		long compressedSize;
+		long offset;
+		byte[] data;
+	}
+}
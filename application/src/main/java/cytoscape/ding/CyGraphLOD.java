@@ -60,6 +60,8 @@ public class CyGraphLOD extends GraphLOD implements PropertyChangeListener {
 	protected int nodeLabelThreshold;
 	protected int edgeArrowThreshold;
 	protected int edgeLabelThreshold;
+	protected int nodeSpriteSize;
+	protected int edgeDensityThreshold;
 
 	/**
 	 * Creates a new CyGraphLOD object.
@@ -94,6 +96,8 @@ public class CyGraphLOD extends GraphLOD implements PropertyChangeListener {
 		nodeLabelThreshold = PropUtil.getInt(p,"render.nodeLabelThreshold", 100);
 		edgeArrowThreshold = PropUtil.getInt(p,"render.edgeArrowThreshold", 300);
 		edgeLabelThreshold = PropUtil.getInt(p,"render.edgeLabelThreshold", 120);
+		nodeSpriteSize = PropUtil.getInt(p,"render.nodeSpriteSize", 0);
+		edgeDensityThreshold = PropUtil.getInt(p,"render.edgeDensityThreshold", 0);
 	}
 
 	/**
@@ -124,7 +128,9 @@ public class CyGraphLOD extends GraphLOD implements PropertyChangeListener {
 	 * will have a value which reflects the decision made by the return value
 	 * of this method call.<p>
 	 * Note that rendering all edges leads to a dramatic performance decrease
-	 * when rendering large graphs.
+	 * when rendering large graphs.  Graphs with at least
+	 * render.edgeDensityThreshold edges, if that property is positive, have
+	 * their edges rendered as a density image at low detail.
 	 * @param visibleNodeCount the number of nodes visible in the current
 	 *   viewport; note that a visible node is not necessarily a rendered node,
 	 *   because visible nodes with zero width or height are not rendered.
@@ -138,7 +144,9 @@ public class CyGraphLOD extends GraphLOD implements PropertyChangeListener {
 	 */
 	public byte renderEdges(final int visibleNodeCount, final int totalNodeCount,
 	                        final int totalEdgeCount) {
-		if (totalEdgeCount >= Math.min(edgeArrowThreshold, edgeLabelThreshold)) {
+		if ((edgeDensityThreshold > 0) && (totalEdgeCount >= edgeDensityThreshold)) {
+			return RENDER_EDGES_DENSITY;
+		} else if (totalEdgeCount >= Math.min(edgeArrowThreshold, edgeLabelThreshold)) {
 			return (byte) 0;
 		} else {
 			return (byte) 1;
@@ -306,6 +314,18 @@ public class CyGraphLOD extends GraphLOD implements PropertyChangeListener {
 		return false;
 	}
 
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param renderNodeCount DOCUMENT ME!
+	 * @param renderEdgeCount DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public int nodeSpriteSize(final int renderNodeCount, final int renderEdgeCount) {
+		return nodeSpriteSize;
+	}
+
 	public double getNestedNetworkImageScaleFactor() {
 		final String scaleFactor = CytoscapeInit.getProperties().getProperty("nestedNetwork.imageScaleFactor", "1.0");
 		try {
@@ -58,6 +58,10 @@ public class CytoscapeFingRootGraph extends FingExtensibleRootGraph implements C
 	Map<String,Integer> node_name_index_map;
 	Map<String,Integer> edge_name_index_map;
 
+	// (source, target, interaction) -> edge index and back, see indexEdge().
+	Map<EdgeKey,Integer> edge_key_index_map;
+	Map<Integer,EdgeKey> edge_index_key_map;
+
 	/**
 	 * Creates a new CytoscapeFingRootGraph object.
 	 */
@@ -66,6 +70,8 @@ public class CytoscapeFingRootGraph extends FingExtensibleRootGraph implements C
 
 		node_name_index_map = new HashMap<String,Integer>();
 		edge_name_index_map = new HashMap<String,Integer>();
+		edge_key_index_map = new HashMap<EdgeKey,Integer>();
+		edge_index_key_map = new HashMap<Integer,EdgeKey>();
 	}
 
 	/**
@@ -144,6 +150,60 @@ public class CytoscapeFingRootGraph extends FingExtensibleRootGraph implements C
 		}
 	}
 
+	/**
+	 * Starts a bulk load and also pre-sizes the identifier maps so that
+	 * they don't need to be rehashed while the network is being loaded.
+	 */
+	public void beginBulkLoad(int expectedNodes, int expectedEdges) {
+		super.beginBulkLoad(expectedNodes, expectedEdges);
+		node_name_index_map = presize(node_name_index_map, expectedNodes);
+		edge_name_index_map = presize(edge_name_index_map, expectedEdges);
+		edge_key_index_map = presize(edge_key_index_map, expectedEdges);
+		edge_index_key_map = presize(edge_index_key_map, expectedEdges);
+	}
+
+	private static <K,V> Map<K,V> presize(final Map<K,V> map, final int expected) {
+		// Rebuilding a map costs about as much as rehashing it once, so only
+		// do so if the map would otherwise have to grow several times.
+		if (expected <= map.size())
+			return map;
+
+		final long capacity = (((long) map.size() + (long) expected) * 4L / 3L) + 1L;
+		final Map<K,V> newMap =
+			new HashMap<K,V>((int) Math.min((long) Integer.MAX_VALUE, capacity));
+		newMap.putAll(map);
+
+		return newMap;
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param identifiers DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public int[] createNodes(final String[] identifiers) {
+		final int[] returnThis = new int[identifiers.length];
+
+		for (int i = 0; i < identifiers.length; i++) {
+			if (identifiers[i] == null)
+				throw new IllegalArgumentException("null node identifier at position " + i);
+
+			final Integer existing = node_name_index_map.get(identifiers[i]);
+
+			if (existing != null) {
+				returnThis[i] = existing.intValue();
+				continue;
+			}
+
+			returnThis[i] = createNode();
+			getNode(returnThis[i]).setIdentifier(identifiers[i]);
+		}
+
+		return returnThis;
+	}
+
 	/**
 	 *  DOCUMENT ME!
 	 *
@@ -174,6 +234,87 @@ public class CytoscapeFingRootGraph extends FingExtensibleRootGraph implements C
 			return null;
 	}
 
+	/**
+	 * Records that edge edgeInx has the given interaction type, so that
+	 * getIndexedEdge() can find it without scanning adjacent edges.  The
+	 * entry is dropped when the edge is removed.
+	 *
+	 * @param edgeInx the root graph index of an existing edge.
+	 * @param interaction the interaction type of the edge.
+	 */
+	public void indexEdge(int edgeInx, String interaction) {
+		if ((interaction == null) || (getEdge(edgeInx) == null))
+			return;
+
+		final EdgeKey key = new EdgeKey(getEdgeSourceIndex(edgeInx), getEdgeTargetIndex(edgeInx),
+		                                interaction);
+		unindexEdge(edgeInx);
+		edge_key_index_map.put(key, edgeInx);
+		edge_index_key_map.put(edgeInx, key);
+	}
+
+	/**
+	 * Returns an edge from sourceInx to targetInx that was registered with
+	 * indexEdge() for the given interaction type.  Edges that were not
+	 * registered are not found; the caller is responsible for falling back
+	 * to getEdgeIndicesArray() and for checking that the interaction of the
+	 * edge has not been changed since.
+	 *
+	 * @return the root graph index of the edge, or 0 if there is none.
+	 */
+	public int getIndexedEdge(int sourceInx, int targetInx, String interaction) {
+		if (edge_key_index_map.isEmpty())
+			return 0;
+
+		final Integer edgeInx = edge_key_index_map.get(new EdgeKey(sourceInx, targetInx,
+		                                                           interaction));
+
+		return (edgeInx == null) ? 0 : edgeInx.intValue();
+	}
+
+	private void unindexEdge(int edgeInx) {
+		final EdgeKey key = edge_index_key_map.remove(edgeInx);
+
+		if (key != null)
+			edge_key_index_map.remove(key);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param edgeInx DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public int removeEdge(final int edgeInx) {
+		final int returnThis = super.removeEdge(edgeInx);
+
+		if (returnThis != 0)
+			unindexEdge(edgeInx);
+
+		return returnThis;
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param nodeInx DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public int removeNode(final int nodeInx) {
+		// Adjacent edges are removed without going through removeEdge().
+		if (!edge_index_key_map.isEmpty()) {
+			final int[] adjacentEdges = getAdjacentEdgeIndicesArray(nodeInx, true, true, true);
+
+			if (adjacentEdges != null)
+				for (int i = 0; i < adjacentEdges.length; i++)
+					unindexEdge(adjacentEdges[i]);
+		}
+
+		return super.removeNode(nodeInx);
+	}
+
 	/**
 	 *  DOCUMENT ME!
 	 *
@@ -201,4 +342,30 @@ public class CytoscapeFingRootGraph extends FingExtensibleRootGraph implements C
 			edge_name_index_map.put(identifier, index);
 		}
 	}
+
+	private static final class EdgeKey {
+		private final int source;
+		private final int target;
+		private final String interaction;
+
+		EdgeKey(final int source, final int target, final String interaction) {
+			this.source = source;
+			this.target = target;
+			this.interaction = interaction;
+		}
+
+		public boolean equals(final Object other) {
+			if (!(other instanceof EdgeKey))
+				return false;
+
+			final EdgeKey key = (EdgeKey) other;
+
+			return (source == key.source) && (target == key.target)
+			       && interaction.equals(key.interaction);
+		}
+
+		public int hashCode() {
+			return (((source * 31) + target) * 31) + interaction.hashCode();
+		}
+	}
 }
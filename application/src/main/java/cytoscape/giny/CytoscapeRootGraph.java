@@ -39,6 +39,8 @@ package cytoscape.giny;
 import cytoscape.CyNetwork;
 import cytoscape.CyNode;
 
+import fing.model.FingBulkLoadRootGraph;
+
 import giny.model.Edge;
 import giny.model.Node;
 import giny.model.RootGraph;
@@ -49,7 +51,7 @@ import java.util.Collection;
 /**
  *
   */
-public interface CytoscapeRootGraph extends RootGraph {
+public interface CytoscapeRootGraph extends RootGraph, FingBulkLoadRootGraph {
 	//public int createNode ( CyNetwork network ) ;
 
 	/**
@@ -105,4 +107,33 @@ public interface CytoscapeRootGraph extends RootGraph {
 	 * @param index DOCUMENT ME!
 	 */
 	public void setEdgeIdentifier(String identifier, int index);
+
+	/**
+	 * Returns the indices of the nodes with the given identifiers, creating
+	 * those nodes that do not exist yet.  All identifiers are registered in
+	 * a single pass; combine with beginBulkLoad() and commitBulkLoad() when
+	 * loading large networks.
+	 *
+	 * @param identifiers the node identifiers; none of them may be null.
+	 * @return the root graph indices of the nodes, in the order of the
+	 *   identifiers.
+	 */
+	public int[] createNodes(String[] identifiers);
+
+	/**
+	 * Records that an edge has the given interaction type, so that
+	 * getIndexedEdge() can find it in constant time.
+	 *
+	 * @param edgeInx the root graph index of an existing edge.
+	 * @param interaction the interaction type of the edge.
+	 */
+	public void indexEdge(int edgeInx, String interaction);
+
+	/**
+	 * Returns an edge from sourceInx to targetInx that was registered with
+	 * indexEdge() for the given interaction type.
+	 *
+	 * @return the root graph index of the edge, or 0 if there is none.
+	 */
+	public int getIndexedEdge(int sourceInx, int targetInx, String interaction);
 }
@@ -279,8 +279,16 @@ abstract public class AbstractLayout implements CyLayoutAlgorithm {
 	// reset label positions
 	resetLabelPositions();
 
-	// this is overridden by children and does the actual layout
-	construct();
+	// this is overridden by children and does the actual layout; the nodes
+	// it moves are placed in one batch when it is done
+	final DGraphView dView = (DGraphView) networkView;
+	dView.beginNodeMoves();
+
+	try {
+	    construct();
+	} finally {
+	    dView.endNodeMoves();
+	}
 
 	// update the view 
 	if (!selectedOnly)
@@ -45,6 +45,8 @@ import cytoscape.view.CyNetworkView;
 
 import cytoscape.task.TaskMonitor;
 
+import ding.view.DGraphView;
+
 import giny.view.EdgeView;
 import giny.view.NodeView;
 
@@ -63,7 +65,7 @@ abstract public class LayoutAdapter implements CyLayoutAlgorithm {
 	 *
 	 */
 	public void doLayout() {
-		doLayout(Cytoscape.getCurrentNetworkView(), null);
+		doLayout(Cytoscape.getCurrentNetworkView());
 	}
 
 	/**
@@ -72,7 +74,20 @@ abstract public class LayoutAdapter implements CyLayoutAlgorithm {
 	 * @param networkView the CyNetworkView on which to perform the layout
 	 */
 	public void doLayout(CyNetworkView networkView) {
-		doLayout(networkView, null);
+		if (!(networkView instanceof DGraphView)) {
+			doLayout(networkView, null);
+
+			return;
+		}
+
+		// Place the nodes the layout moves in one batch when it is done.
+		((DGraphView) networkView).beginNodeMoves();
+
+		try {
+			doLayout(networkView, null);
+		} finally {
+			((DGraphView) networkView).endNodeMoves();
+		}
 	}
 
 	/**
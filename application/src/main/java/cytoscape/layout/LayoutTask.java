@@ -46,6 +46,8 @@ import cytoscape.task.TaskMonitor;
 
 import cytoscape.task.ui.JTaskConfig;
 
+import ding.view.DGraphView;
+
 /**
  * A wrapper for applying a layout in a task. Use it something like
  * this:
@@ -81,6 +83,12 @@ public class LayoutTask implements Task {
 	 * Run the algorithm.  
 	 */
 	public void run() {
+		// Place the nodes the layout moves in one batch when it is done.
+		final DGraphView dView = (view instanceof DGraphView) ? (DGraphView) view : null;
+
+		if (dView != null)
+			dView.beginNodeMoves();
+
 		try {
 			layout.doLayout(view,monitor);
 		} catch (Exception e) {
@@ -92,6 +100,9 @@ public class LayoutTask implements Task {
 			} else {
 				logger.error(message, e); // Send to error so the user is sure to see it
 			}
+		} finally {
+			if (dView != null)
+				dView.endNodeMoves();
 		}
 	}
 
@@ -48,7 +48,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
-import cytoscape.Cytoscape;
 import cytoscape.data.CyAttributes;
 import cytoscape.visual.converter.ValueToStringConverterManager;
 import cytoscape.visual.parsers.ValueParser;
@@ -99,6 +98,24 @@ public class Appearance {
 		return vizProps.get(p);
 	}
 
+	/*
+	 * Stores the values of the given properties in buffer, starting at
+	 * offset, so that many appearances can be kept without an Appearance
+	 * object each.
+	 */
+	void save(final VisualPropertyType[] types, final Object[] buffer, final int offset) {
+		for (int i = 0; i < types.length; i++)
+			buffer[offset + i] = vizProps.get(types[i]);
+	}
+
+	/*
+	 * Sets the values of the given properties to those stored by save().
+	 */
+	void restore(final VisualPropertyType[] types, final Object[] buffer, final int offset) {
+		for (int i = 0; i < types.length; i++)
+			vizProps.put(types[i], buffer[offset + i]);
+	}
+
 	/**
 	 * Applies this appearance to the specified NodeView. 
 	 *
@@ -230,18 +247,22 @@ public class Appearance {
 		if ( bypassedVPs == null || bypassedVPs.size() <= 0 )
 			return;
 
-		final String id = n.getIdentifier();
-		CyAttributes attrs = null;
+		final BypassCache cache;
 
 		if (n instanceof Node)
-			attrs = Cytoscape.getNodeAttributes();
+			cache = BypassCache.getNodeBypasses();
 		else if (n instanceof Edge)
-			attrs = Cytoscape.getEdgeAttributes();
+			cache = BypassCache.getEdgeBypasses();
 		else
 			return;
 
+		final Map<VisualPropertyType, Object> bypasses = cache.get(n.getIdentifier());
+
+		if (bypasses == null)
+			return;
+
 		for (VisualPropertyType type : bypassedVPs) {
-			Object bypass = getBypass(attrs, id, type);
+			Object bypass = bypasses.get(type);
 
 			if (bypass != null)
 				vizProps.put(type,bypass);
@@ -264,6 +285,14 @@ public class Appearance {
         if (value == null)
             return null;
 
+        return parseBypass(value, type);
+    }
+
+    /**
+     * Parses the value of a bypass attribute, or returns null if it does not
+     * specify a value.
+     */
+    static Object parseBypass( String value, VisualPropertyType type ) {
         ValueParser p = type.getValueParser(); 
 
         Object ret = null;
@@ -278,12 +307,7 @@ public class Appearance {
 
         // now check to see that the attribute actually specifies black,
         // and isn't returning black by default
-        final String v = attrs.getStringAttribute(id, attrName);
-
-        if (v == null)
-            return null;
-
-        if (v.equals("0,0,0"))
+        if (value.equals("0,0,0"))
             return ret;
         else
             return null;
@@ -0,0 +1,267 @@
+/*
+ File: AppearanceBatch.java
+
+ Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+ */
+package cytoscape.visual;
+
+import giny.model.Edge;
+import giny.model.Node;
+import giny.view.EdgeView;
+import giny.view.NodeView;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import cytoscape.CyNetwork;
+import cytoscape.visual.customgraphic.CyCustomGraphics;
+import ding.view.DGraphView;
+
+
+/**
+ * Applies a visual style to a whole view in two phases.<br>
+ * First the appearances of all nodes or edges are calculated.  The results
+ * are kept in one flat array rather than an appearance object per node or
+ * edge.  Then they are pushed into the view in one batch update, which
+ * takes the view lock once, instead of once for every property of every
+ * node.<p>
+ * If asked to, the appearances are calculated in parallel over chunks of
+ * the view, each chunk with its own appearance object.  This is only safe
+ * if every calculator of the style, including those of plugins, may run
+ * concurrently, which the calculators do not promise, so it is off unless
+ * the vizmapper.parallelApply property is set.
+ */
+final class AppearanceBatch {
+	// Chunks smaller than this are not worth a task of their own.
+	private static final int MIN_CHUNK_SIZE = 500;
+
+	private static final VisualPropertyType[] NODE_TYPES = getTypes(true);
+	private static final VisualPropertyType[] EDGE_TYPES = getTypes(false);
+
+	private static ExecutorService s_executor = null;
+
+	private AppearanceBatch() {
+	}
+
+	/**
+	 * Calculates and applies the appearances of the given node views.
+	 *
+	 * @param bypassedCustomGraphics receives the custom graphics that are
+	 *   set by bypasses
+	 * @param parallel whether the appearances may be calculated in parallel
+	 */
+	static void applyNodeAppearances(final NodeAppearanceCalculator calc,
+	                                 final CyNetwork network, final DGraphView view,
+	                                 final NodeView[] nodeViews,
+	                                 final List<VisualPropertyType> bypassedVPs,
+	                                 final VisualPropertyDependency dep,
+	                                 final Set<CyCustomGraphics> bypassedCustomGraphics,
+	                                 final boolean parallel) {
+		final Node[] nodes = new Node[nodeViews.length];
+
+		for (int i = 0; i < nodes.length; i++)
+			nodes[i] = nodeViews[i].getNode();
+
+		final Object[] values = new Object[nodes.length * NODE_TYPES.length];
+
+		calculate(nodes.length, new Chunk() {
+				public Object call() {
+					final NodeAppearance appr = new NodeAppearance();
+					final Set<CyCustomGraphics> graphics = new HashSet<CyCustomGraphics>();
+
+					for (int i = start; i < end; i++) {
+						for (final Object bypass : VisualMappingManager.getByPassedVisProps(nodes[i],
+						                                                                  bypassedVPs)) {
+							if (bypass instanceof CyCustomGraphics)
+								graphics.add((CyCustomGraphics) bypass);
+						}
+
+						calc.calculateNodeAppearance(appr, nodes[i], network, bypassedVPs);
+						appr.save(NODE_TYPES, values, i * NODE_TYPES.length);
+					}
+
+					synchronized (bypassedCustomGraphics) {
+						bypassedCustomGraphics.addAll(graphics);
+					}
+
+					return null;
+				}
+			}, parallel);
+
+		view.batchUpdate(new Runnable() {
+				public void run() {
+					final NodeAppearance appr = new NodeAppearance();
+
+					for (int i = 0; i < nodeViews.length; i++) {
+						appr.restore(NODE_TYPES, values, i * NODE_TYPES.length);
+						appr.applyAppearance(nodeViews[i], dep);
+					}
+				}
+			});
+	}
+
+	/**
+	 * Calculates and applies the appearances of the given edge views.
+	 *
+	 * @param parallel whether the appearances may be calculated in parallel
+	 */
+	static void applyEdgeAppearances(final EdgeAppearanceCalculator calc,
+	                                 final CyNetwork network, final DGraphView view,
+	                                 final EdgeView[] edgeViews,
+	                                 final List<VisualPropertyType> bypassedVPs,
+	                                 final VisualPropertyDependency dep,
+	                                 final boolean parallel) {
+		final Edge[] edges = new Edge[edgeViews.length];
+
+		for (int i = 0; i < edges.length; i++)
+			edges[i] = edgeViews[i].getEdge();
+
+		final Object[] values = new Object[edges.length * EDGE_TYPES.length];
+
+		calculate(edges.length, new Chunk() {
+				public Object call() {
+					final EdgeAppearance appr = new EdgeAppearance();
+
+					for (int i = start; i < end; i++) {
+						calc.calculateEdgeAppearance(appr, edges[i], network, bypassedVPs);
+						appr.save(EDGE_TYPES, values, i * EDGE_TYPES.length);
+					}
+
+					return null;
+				}
+			}, parallel);
+
+		view.batchUpdate(new Runnable() {
+				public void run() {
+					final EdgeAppearance appr = new EdgeAppearance();
+
+					for (int i = 0; i < edgeViews.length; i++) {
+						appr.restore(EDGE_TYPES, values, i * EDGE_TYPES.length);
+						appr.applyAppearance(edgeViews[i], dep);
+					}
+				}
+			});
+	}
+
+	/*
+	 * Runs copies of the chunk over [0, count), in parallel if allowed and
+	 * worth it.
+	 */
+	private static void calculate(final int count, final Chunk chunk, final boolean parallel) {
+		final int processorCount = Runtime.getRuntime().availableProcessors();
+
+		if (!parallel || (processorCount == 1) || (count < (2 * MIN_CHUNK_SIZE))) {
+			chunk.start = 0;
+			chunk.end = count;
+			chunk.call();
+
+			return;
+		}
+
+		final int chunkSize = Math.max(MIN_CHUNK_SIZE,
+		                               (count + processorCount - 1) / processorCount);
+		final List<Future<Object>> futures = new ArrayList<Future<Object>>();
+
+		for (int start = 0; start < count; start += chunkSize) {
+			final Chunk copy = chunk.copy();
+			copy.start = start;
+			copy.end = Math.min(count, start + chunkSize);
+			futures.add(getExecutor().submit(copy));
+		}
+
+		for (final Future<Object> future : futures) {
+			try {
+				future.get();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted while calculating appearances");
+			} catch (final ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (s_executor == null)
+			s_executor = Executors.newCachedThreadPool(new ThreadFactory() {
+					public Thread newThread(final Runnable r) {
+						final Thread thread = new Thread(r, "Visual style calculator");
+						thread.setDaemon(true);
+
+						return thread;
+					}
+				});
+
+		return s_executor;
+	}
+
+	private static VisualPropertyType[] getTypes(final boolean nodeProps) {
+		final List<VisualPropertyType> types = new ArrayList<VisualPropertyType>();
+
+		for (VisualPropertyType type : VisualPropertyType.values())
+			if (type.isNodeProp() == nodeProps)
+				types.add(type);
+
+		return types.toArray(new VisualPropertyType[types.size()]);
+	}
+
+	/*
+	 * The work on the nodes or edges in [start, end).
+	 */
+	private static abstract class Chunk implements Callable<Object>, Cloneable {
+		int start;
+		int end;
+
+		public abstract Object call();
+
+		Chunk copy() {
+			try {
+				return (Chunk) clone();
+			} catch (CloneNotSupportedException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,276 @@
+/*
+ File: BypassCache.java
+
+ Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+ */
+package cytoscape.visual;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.cytoscape.equations.Equation;
+
+import cytoscape.Cytoscape;
+import cytoscape.data.CyAttributes;
+import cytoscape.data.attr.CountedIterator;
+import cytoscape.data.attr.MultiHashMapDefinitionListener;
+import cytoscape.data.attr.MultiHashMapListener;
+
+
+/**
+ * The parsed visual property bypasses of all nodes or all edges.<br>
+ * Bypasses are stored as string attributes, and used to be parsed again for
+ * every property of every node or edge on every restyle, even for the many
+ * that have none.  This cache parses each bypass once and keeps the results
+ * by node or edge identifier, so that a restyle looks up one entry per node
+ * or edge and skips those without bypasses.  It is filled from the
+ * attributes when it is created and kept in sync by listening to them.<p>
+ * Entries are keyed by identifier rather than root graph index because
+ * attributes may be loaded before their nodes and edges exist.  The maps
+ * returned by get() are never modified, so the cache may be read by several
+ * threads at once.<p>
+ * Bypasses defined by equations are not cached, because their values change
+ * with the attributes they reference without any event for the bypass.  They
+ * are read from the attributes again on every get().
+ */
+final class BypassCache implements MultiHashMapListener, MultiHashMapDefinitionListener {
+	private static BypassCache s_nodeBypasses = null;
+	private static BypassCache s_edgeBypasses = null;
+
+	private final CyAttributes m_attrs;
+
+	// Bypass attribute name -> visual property.
+	private final Map<String, VisualPropertyType> m_types = new HashMap<String, VisualPropertyType>();
+
+	// Identifier -> the parsed bypasses of that node or edge.
+	private final Map<String, Map<VisualPropertyType, Object>> m_bypasses = new ConcurrentHashMap<String, Map<VisualPropertyType, Object>>();
+
+	// Identifier -> the visual properties of that node or edge whose bypasses
+	// are equations.
+	private final Map<String, Set<VisualPropertyType>> m_equations = new ConcurrentHashMap<String, Set<VisualPropertyType>>();
+
+	private BypassCache(final CyAttributes attrs, final String prefix) {
+		m_attrs = attrs;
+
+		for (VisualPropertyType type : VisualPropertyType.values())
+			if (type.toString().startsWith(prefix))
+				m_types.put(type.getBypassAttrName(), type);
+
+		for (Map.Entry<String, VisualPropertyType> entry : m_types.entrySet()) {
+			if (attrs.getMultiHashMapDefinition().getAttributeValueType(entry.getKey()) < 0)
+				continue;
+
+			final CountedIterator ids = attrs.getMultiHashMap().getObjectKeys(entry.getKey());
+
+			while (ids.hasNext()) {
+				final String id = (String) ids.next();
+
+				if (attrs.getEquation(id, entry.getKey()) != null)
+					setEquation(id, entry.getValue(), true);
+				else
+					set(id, entry.getValue(), Appearance.getBypass(attrs, id, entry.getValue()));
+			}
+		}
+
+		attrs.getMultiHashMap().addDataListener(this);
+		attrs.getMultiHashMapDefinition().addDataDefinitionListener(this);
+	}
+
+	/**
+	 * Returns the bypasses of the nodes.
+	 */
+	static synchronized BypassCache getNodeBypasses() {
+		if (s_nodeBypasses == null)
+			s_nodeBypasses = new BypassCache(Cytoscape.getNodeAttributes(), "NODE");
+
+		return s_nodeBypasses;
+	}
+
+	/**
+	 * Returns the bypasses of the edges.
+	 */
+	static synchronized BypassCache getEdgeBypasses() {
+		if (s_edgeBypasses == null)
+			s_edgeBypasses = new BypassCache(Cytoscape.getEdgeAttributes(), "EDGE");
+
+		return s_edgeBypasses;
+	}
+
+	/**
+	 * Returns the parsed bypasses of a node or edge, or null if it has none.
+	 * The returned map must not be modified.
+	 */
+	Map<VisualPropertyType, Object> get(final String id) {
+		final Map<VisualPropertyType, Object> cached = m_bypasses.get(id);
+		final Set<VisualPropertyType> equations = m_equations.get(id);
+
+		if (equations == null)
+			return cached;
+
+		final Map<VisualPropertyType, Object> bypasses = (cached == null)
+		                                                 ? new EnumMap<VisualPropertyType, Object>(VisualPropertyType.class)
+		                                                 : new EnumMap<VisualPropertyType, Object>(cached);
+
+		for (VisualPropertyType type : equations) {
+			final Object value = Appearance.getBypass(m_attrs, id, type);
+
+			if (value != null)
+				bypasses.put(type, value);
+		}
+
+		return bypasses.isEmpty() ? null : Collections.unmodifiableMap(bypasses);
+	}
+
+	/**
+	 * Returns the number of nodes or edges that have cached bypasses.
+	 */
+	int size() {
+		return m_bypasses.size();
+	}
+
+	/*
+	 * Records whether the bypass of a node or edge is an equation.  Like the
+	 * bypasses, the set of a node or edge is replaced rather than changed.
+	 */
+	private synchronized void setEquation(final String id, final VisualPropertyType type,
+	                                      final boolean isEquation) {
+		final Set<VisualPropertyType> old = m_equations.get(id);
+
+		if ((old == null) ? !isEquation : (old.contains(type) == isEquation))
+			return;
+
+		final Set<VisualPropertyType> equations = (old == null)
+		                                          ? EnumSet.noneOf(VisualPropertyType.class)
+		                                          : EnumSet.copyOf(old);
+
+		if (isEquation)
+			equations.add(type);
+		else
+			equations.remove(type);
+
+		if (equations.isEmpty())
+			m_equations.remove(id);
+		else
+			m_equations.put(id, Collections.unmodifiableSet(equations));
+	}
+
+	/*
+	 * Sets or, if value is null, removes a bypass.  The map of a node or edge
+	 * is replaced rather than changed, so that readers never see it change.
+	 */
+	private synchronized void set(final String id, final VisualPropertyType type,
+	                              final Object value) {
+		final Map<VisualPropertyType, Object> old = m_bypasses.get(id);
+
+		if ((old == null) && (value == null))
+			return;
+
+		final Map<VisualPropertyType, Object> bypasses = (old == null)
+		                                                 ? new EnumMap<VisualPropertyType, Object>(VisualPropertyType.class)
+		                                                 : new EnumMap<VisualPropertyType, Object>(old);
+
+		if (value == null)
+			bypasses.remove(type);
+		else
+			bypasses.put(type, value);
+
+		if (bypasses.isEmpty())
+			m_bypasses.remove(id);
+		else
+			m_bypasses.put(id, Collections.unmodifiableMap(bypasses));
+	}
+
+	public void attributeValueAssigned(String objectKey, String attributeName,
+	                                   Object[] keyIntoValue, Object oldAttributeValue,
+	                                   Object newAttributeValue) {
+		final VisualPropertyType type = m_types.get(attributeName);
+
+		if (type == null)
+			return;
+
+		if (newAttributeValue instanceof Equation) {
+			set(objectKey, type, null);
+			setEquation(objectKey, type, true);
+
+			return;
+		}
+
+		// Anything else but a plain string is read the way a restyle used to
+		// read it.
+		final Object value = (newAttributeValue instanceof String)
+		                     ? Appearance.parseBypass((String) newAttributeValue, type)
+		                     : Appearance.getBypass(m_attrs, objectKey, type);
+		setEquation(objectKey, type, false);
+		set(objectKey, type, value);
+	}
+
+	public void attributeValueRemoved(String objectKey, String attributeName,
+	                                  Object[] keyIntoValue, Object attributeValue) {
+		remove(objectKey, attributeName);
+	}
+
+	public void allAttributeValuesRemoved(String objectKey, String attributeName) {
+		remove(objectKey, attributeName);
+	}
+
+	private void remove(final String objectKey, final String attributeName) {
+		final VisualPropertyType type = m_types.get(attributeName);
+
+		if (type != null) {
+			setEquation(objectKey, type, false);
+			set(objectKey, type, null);
+		}
+	}
+
+	public void attributeDefined(String attributeName) {
+	}
+
+	public synchronized void attributeUndefined(String attributeName) {
+		final VisualPropertyType type = m_types.get(attributeName);
+
+		if (type == null)
+			return;
+
+		for (String id : m_bypasses.keySet())
+			set(id, type, null);
+
+		for (String id : m_equations.keySet())
+			setEquation(id, type, false);
+	}
+}
@@ -0,0 +1,496 @@
+/*
+ File: IncrementalRestyler.java
+
+ Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+ */
+package cytoscape.visual;
+
+import giny.model.GraphPerspectiveChangeEvent;
+import giny.model.GraphPerspectiveChangeListener;
+import giny.view.EdgeView;
+import giny.view.NodeView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cytoscape.equations.Equation;
+
+import cytoscape.CyEdge;
+import cytoscape.CyNetwork;
+import cytoscape.CyNode;
+import cytoscape.Cytoscape;
+import cytoscape.data.CyAttributes;
+import cytoscape.data.attr.MultiHashMapListener;
+import cytoscape.view.CyNetworkView;
+import cytoscape.visual.calculators.Calculator;
+import cytoscape.visual.mappings.AbstractMapping;
+import cytoscape.visual.mappings.ContinuousMapping;
+import cytoscape.visual.mappings.DiscreteMapping;
+import cytoscape.visual.mappings.ObjectMapping;
+import cytoscape.visual.mappings.PassThroughMapping;
+import cytoscape.visual.mappings.continuous.ContinuousMappingPoint;
+
+
+/**
+ * Restyles a view incrementally after attribute values have changed.<br>
+ * This listens to the node and edge attributes and records which attributes
+ * of which nodes and edges change.  When the view that was last restyled in
+ * full is restyled again with an unchanged visual style, only the visual
+ * properties whose calculators or bypasses read a changed attribute are
+ * recalculated, and only for the nodes and edges whose attributes changed.
+ * An attribute whose equation references a changed attribute of the same
+ * node or edge counts as changed too.<p>
+ * Anything this cannot account for falls back to a full restyle: another
+ * view or style, a style that was edited, nodes or edges that were added
+ * or removed, mappings of unknown kinds, custom graphics or their
+ * bypasses, no recorded changes at all (the restyle may be due to
+ * something this does not track), or so many changes that a full restyle
+ * is as fast.
+ */
+final class IncrementalRestyler {
+	// The bypass attributes of custom graphics, whose use is tracked by a
+	// full restyle.
+	private static final Set<String> CUSTOM_GRAPHICS_BYPASSES = new HashSet<String>();
+
+	static {
+		for (VisualPropertyType type : VisualPropertyType.getAllCustomGraphicsType())
+			CUSTOM_GRAPHICS_BYPASSES.add(type.getBypassAttrName());
+	}
+
+	private final Changes m_nodeChanges = new Changes();
+	private final Changes m_edgeChanges = new Changes();
+	private CyAttributes m_nodeAttrs = null;
+	private CyAttributes m_edgeAttrs = null;
+
+	// The state of the last full restyle, guarded by this.
+	private CyNetworkView m_view = null;
+	private CyNetwork m_network = null;
+	private VisualStyle m_style = null;
+	private List<Object> m_styleState = null;
+	private boolean m_networkChanged = false;
+
+	private final GraphPerspectiveChangeListener m_networkListener = new GraphPerspectiveChangeListener() {
+		public void graphPerspectiveChanged(final GraphPerspectiveChangeEvent event) {
+			synchronized (IncrementalRestyler.this) {
+				m_networkChanged = true;
+			}
+		}
+	};
+
+	/**
+	 * Starts listening to changes of the given attributes.
+	 */
+	void listen(final CyAttributes nodeAttrs, final CyAttributes edgeAttrs) {
+		m_nodeAttrs = nodeAttrs;
+		m_edgeAttrs = edgeAttrs;
+		nodeAttrs.getMultiHashMap().addDataListener(m_nodeChanges);
+		edgeAttrs.getMultiHashMap().addDataListener(m_edgeChanges);
+	}
+
+	/**
+	 * Forgets the attribute changes recorded so far and the last restyled
+	 * view.  Call this before a full restyle, and restyled() after it.
+	 */
+	synchronized void reset() {
+		m_nodeChanges.take();
+		m_edgeChanges.take();
+
+		if (m_network != null)
+			m_network.removeGraphPerspectiveChangeListener(m_networkListener);
+
+		m_view = null;
+		m_network = null;
+		m_style = null;
+		m_styleState = null;
+		m_networkChanged = false;
+	}
+
+	/**
+	 * Records that the given view has been restyled in full with the given
+	 * style, so that later changes may be applied incrementally.
+	 */
+	synchronized void restyled(final CyNetwork network, final CyNetworkView view,
+	                           final VisualStyle style) {
+		if (m_network != null)
+			m_network.removeGraphPerspectiveChangeListener(m_networkListener);
+
+		m_network = network;
+		m_view = view;
+		m_style = style;
+		m_styleState = getStyleState(style);
+		m_networkChanged = false;
+		network.addGraphPerspectiveChangeListener(m_networkListener);
+
+		final int limit = (view.getNodeViewCount() + view.getEdgeViewCount()) / 4;
+		m_nodeChanges.setLimit(limit);
+		m_edgeChanges.setLimit(limit);
+	}
+
+	/**
+	 * Applies the attribute changes since the last restyle to the given view,
+	 * if that can be done incrementally.
+	 *
+	 * @return whether the view was restyled; if not, it must be restyled in
+	 *   full.
+	 */
+	boolean restyle(final CyNetwork network, final CyNetworkView view, final VisualStyle style) {
+		final Map<String, Set<VisualPropertyType>> nodeDeps = getDependencies(style.getNodeAppearanceCalculator());
+		final Map<String, Set<VisualPropertyType>> edgeDeps = getDependencies(style.getEdgeAppearanceCalculator());
+
+		if ((nodeDeps == null) || (edgeDeps == null) || (m_nodeAttrs == null) || (m_edgeAttrs == null))
+			return false;
+
+		final Map<String, Set<String>> nodeChanges;
+		final Map<String, Set<String>> edgeChanges;
+
+		synchronized (this) {
+			if ((view != m_view) || (network != m_network) || (style != m_style)
+			    || m_networkChanged || m_nodeChanges.isOverflowed()
+			    || m_edgeChanges.isOverflowed() || (m_nodeChanges.isEmpty() && m_edgeChanges.isEmpty())
+			    || !getStyleState(style).equals(m_styleState))
+				return false;
+
+			nodeChanges = m_nodeChanges.take();
+			edgeChanges = m_edgeChanges.take();
+		}
+
+		for (Map.Entry<String, Set<String>> change : nodeChanges.entrySet()) {
+			addEquationDependents(change.getKey(), change.getValue(), m_nodeAttrs);
+
+			if (!Collections.disjoint(change.getValue(), CUSTOM_GRAPHICS_BYPASSES))
+				return false;
+		}
+
+		for (Map.Entry<String, Set<String>> change : edgeChanges.entrySet()) {
+			addEquationDependents(change.getKey(), change.getValue(), m_edgeAttrs);
+
+			if (!Collections.disjoint(change.getValue(), CUSTOM_GRAPHICS_BYPASSES))
+				return false;
+		}
+
+		final NodeAppearanceCalculator nac = style.getNodeAppearanceCalculator();
+		final NodeAppearance nodeAppr = new NodeAppearance();
+
+		for (Map.Entry<String, Set<String>> change : nodeChanges.entrySet()) {
+			final Set<VisualPropertyType> types = getAffectedTypes(change.getValue(), nodeDeps);
+
+			if (types.isEmpty())
+				continue;
+
+			final CyNode node = Cytoscape.getRootGraph().getNode(change.getKey());
+			final NodeView nodeView = (node == null) ? null : view.getNodeView(node);
+
+			if (nodeView == null)
+				continue;
+
+			nodeAppr.copy(nac.getDefaultAppearance());
+
+			for (Calculator calc : nac.getCalculators())
+				if (types.contains(calc.getVisualPropertyType()))
+					calc.apply(nodeAppr, node, network);
+
+			nodeAppr.applyBypass(node, new ArrayList<VisualPropertyType>(types));
+
+			for (VisualPropertyType type : types)
+				type.getVisualProperty().applyToNodeView(nodeView, nodeAppr.get(type),
+				                                         style.getDependency());
+		}
+
+		final EdgeAppearanceCalculator eac = style.getEdgeAppearanceCalculator();
+		final EdgeAppearance edgeAppr = new EdgeAppearance();
+
+		for (Map.Entry<String, Set<String>> change : edgeChanges.entrySet()) {
+			final Set<VisualPropertyType> types = getAffectedTypes(change.getValue(), edgeDeps);
+
+			if (types.isEmpty())
+				continue;
+
+			final CyEdge edge = Cytoscape.getRootGraph().getEdge(change.getKey());
+			final EdgeView edgeView = (edge == null) ? null : view.getEdgeView(edge);
+
+			if (edgeView == null)
+				continue;
+
+			edgeAppr.copy(eac.getDefaultAppearance());
+
+			for (Calculator calc : eac.getCalculators())
+				if (types.contains(calc.getVisualPropertyType()))
+					calc.apply(edgeAppr, edge, network);
+
+			edgeAppr.applyBypass(edge, new ArrayList<VisualPropertyType>(types));
+
+			for (VisualPropertyType type : types)
+				type.getVisualProperty().applyToEdgeView(edgeView, edgeAppr.get(type),
+				                                         style.getDependency());
+		}
+
+		return true;
+	}
+
+	/*
+	 * Adds the attributes of the given node or edge whose equations reference
+	 * any of the changed attributes, directly or through other equations, to
+	 * the changed attributes.  Their values change without events.
+	 */
+	private static void addEquationDependents(final String id, final Set<String> attrNames,
+	                                          final CyAttributes attrs) {
+		final List<Equation> equations = new ArrayList<Equation>();
+		final List<String> equationAttrNames = new ArrayList<String>();
+
+		for (String attrName : attrs.getAttributeNames()) {
+			final Equation equation = attrs.getEquation(id, attrName);
+
+			if (equation != null) {
+				equations.add(equation);
+				equationAttrNames.add(attrName);
+			}
+		}
+
+		boolean added = !equations.isEmpty();
+
+		while (added) {
+			added = false;
+
+			for (int i = 0; i < equations.size(); i++) {
+				final String attrName = equationAttrNames.get(i);
+
+				if (!attrNames.contains(attrName)
+				    && !Collections.disjoint(equations.get(i).getAttribReferences(), attrNames)) {
+					attrNames.add(attrName);
+					added = true;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Returns the visual properties that read any of the given attributes.
+	 */
+	private static Set<VisualPropertyType> getAffectedTypes(final Set<String> attrNames,
+	                                                        final Map<String, Set<VisualPropertyType>> deps) {
+		final Set<VisualPropertyType> types = EnumSet.noneOf(VisualPropertyType.class);
+
+		for (String attrName : attrNames) {
+			final Set<VisualPropertyType> attrTypes = deps.get(attrName);
+
+			if (attrTypes != null)
+				types.addAll(attrTypes);
+		}
+
+		// Whether the width and height follow the size depends on the lock,
+		// so they are always restyled together.
+		if (types.contains(VisualPropertyType.NODE_SIZE)
+		    || types.contains(VisualPropertyType.NODE_WIDTH)
+		    || types.contains(VisualPropertyType.NODE_HEIGHT)) {
+			types.add(VisualPropertyType.NODE_SIZE);
+			types.add(VisualPropertyType.NODE_WIDTH);
+			types.add(VisualPropertyType.NODE_HEIGHT);
+		}
+
+		return types;
+	}
+
+	/*
+	 * Maps the attributes read by the calculators and bypasses of the given
+	 * appearance calculator to the visual properties they set, or returns
+	 * null if that is not known.
+	 */
+	private static Map<String, Set<VisualPropertyType>> getDependencies(final AppearanceCalculator ac) {
+		final Map<String, Set<VisualPropertyType>> deps = new HashMap<String, Set<VisualPropertyType>>();
+		final Set<VisualPropertyType> customGraphics = EnumSet.copyOf(Arrays.asList(VisualPropertyType.getAllCustomGraphicsType()));
+
+		for (Calculator calc : ac.getCalculators()) {
+			final VisualPropertyType type = calc.getVisualPropertyType();
+
+			for (ObjectMapping mapping : calc.getMappings()) {
+				final String[] attrNames = (mapping instanceof AbstractMapping)
+				                           ? ((AbstractMapping) mapping).getRequiredAttributeNames()
+				                           : null;
+
+				// Calculators that read any attribute, and custom graphics,
+				// whose use is tracked by a full restyle, cannot be restyled
+				// incrementally.
+				if ((attrNames == null) || customGraphics.contains(type))
+					return null;
+
+				for (String attrName : attrNames)
+					addDependency(deps, attrName, type);
+			}
+		}
+
+		for (VisualPropertyType type : VisualPropertyType.values())
+			if (!customGraphics.contains(type))
+				addDependency(deps, type.getBypassAttrName(), type);
+
+		return deps;
+	}
+
+	private static void addDependency(final Map<String, Set<VisualPropertyType>> deps,
+	                                  final String attrName, final VisualPropertyType type) {
+		Set<VisualPropertyType> types = deps.get(attrName);
+
+		if (types == null) {
+			types = EnumSet.noneOf(VisualPropertyType.class);
+			deps.put(attrName, types);
+		}
+
+		types.add(type);
+	}
+
+	/*
+	 * Returns everything about the style that a restyle depends on, so that
+	 * edits of the style can be detected by comparing it.
+	 */
+	private static List<Object> getStyleState(final VisualStyle style) {
+		final List<Object> state = new ArrayList<Object>();
+		addState(state, style.getNodeAppearanceCalculator());
+		addState(state, style.getEdgeAppearanceCalculator());
+
+		for (VisualPropertyDependency.Definition def : VisualPropertyDependency.Definition.values())
+			state.add(style.getDependency().check(def));
+
+		final GlobalAppearanceCalculator gac = style.getGlobalAppearanceCalculator();
+		state.add(gac.getDefaultBackgroundColor());
+		state.add(gac.getDefaultNodeSelectionColor());
+		state.add(gac.getDefaultEdgeSelectionColor());
+
+		return state;
+	}
+
+	private static void addState(final List<Object> state, final AppearanceCalculator ac) {
+		final Appearance defaults = (ac instanceof NodeAppearanceCalculator)
+		                            ? ((NodeAppearanceCalculator) ac).getDefaultAppearance()
+		                            : ((EdgeAppearanceCalculator) ac).getDefaultAppearance();
+
+		for (VisualPropertyType type : VisualPropertyType.values())
+			state.add(defaults.get(type));
+
+		for (Calculator calc : ac.getCalculators()) {
+			state.add(calc);
+			state.add(calc.getVisualPropertyType());
+
+			for (ObjectMapping mapping : calc.getMappings()) {
+				state.add(mapping);
+				state.add(mapping.getControllingAttributeName());
+
+				if (mapping instanceof DiscreteMapping)
+					state.add(new HashMap<Object, Object>(((DiscreteMapping) mapping).getAll()));
+				else if (mapping instanceof ContinuousMapping) {
+					final ContinuousMapping cm = (ContinuousMapping) mapping;
+					state.add(cm.getInterpolator());
+
+					for (ContinuousMappingPoint point : cm.getAllPoints()) {
+						state.add(point.getValue());
+						state.add(point.getRange().lesserValue);
+						state.add(point.getRange().equalValue);
+						state.add(point.getRange().greaterValue);
+					}
+				} else if (!(mapping instanceof PassThroughMapping))
+					state.add(new Object()); // Never equal, so always restyled in full.
+			}
+		}
+	}
+
+	/*
+	 * The attributes that changed, by node or edge identifier.
+	 */
+	private static final class Changes implements MultiHashMapListener {
+		private Map<String, Set<String>> m_changes = new HashMap<String, Set<String>>();
+		private int m_limit = 0;
+		private boolean m_overflowed = false;
+
+		synchronized void setLimit(final int limit) {
+			m_limit = limit;
+		}
+
+		synchronized boolean isOverflowed() {
+			return m_overflowed;
+		}
+
+		synchronized boolean isEmpty() {
+			return !m_overflowed && m_changes.isEmpty();
+		}
+
+		synchronized Map<String, Set<String>> take() {
+			final Map<String, Set<String>> changes = m_changes;
+			m_changes = new HashMap<String, Set<String>>();
+			m_overflowed = false;
+
+			return changes;
+		}
+
+		private synchronized void changed(final String objectKey, final String attributeName) {
+			if (m_overflowed)
+				return;
+
+			if (m_changes.size() >= m_limit) {
+				m_overflowed = true;
+				m_changes.clear();
+
+				return;
+			}
+
+			Set<String> attrNames = m_changes.get(objectKey);
+
+			if (attrNames == null) {
+				attrNames = new HashSet<String>();
+				m_changes.put(objectKey, attrNames);
+			}
+
+			attrNames.add(attributeName);
+		}
+
+		public void attributeValueAssigned(String objectKey, String attributeName,
+		                                   Object[] keyIntoValue, Object oldAttributeValue,
+		                                   Object newAttributeValue) {
+			changed(objectKey, attributeName);
+		}
+
+		public void attributeValueRemoved(String objectKey, String attributeName,
+		                                  Object[] keyIntoValue, Object attributeValue) {
+			changed(objectKey, attributeName);
+		}
+
+		public void allAttributeValuesRemoved(String objectKey, String attributeName) {
+			changed(objectKey, attributeName);
+		}
+	}
+}
@@ -42,6 +42,7 @@ import giny.view.NodeView;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -116,6 +117,9 @@ public class VisualMappingManager extends SubjectBase {
 	private final EdgeAppearance myEdgeApp = new EdgeAppearance();
 	private final GlobalAppearance myGlobalApp = new GlobalAppearance();
 
+	// restyles the last view incrementally after attribute changes
+	private final IncrementalRestyler restyler = new IncrementalRestyler();
+
 	// Default VS name.  This one cannot be removed.
 	private static final String DEF_STYLE_NAME = "default";
 
@@ -144,6 +148,7 @@ public class VisualMappingManager extends SubjectBase {
 		registerDefaultRangeValueCalculators();
 		
 		loadCalculatorCatalog();
+		restyler.listen(Cytoscape.getNodeAttributes(), Cytoscape.getEdgeAttributes());
 
 		// Try to find default style name from prop.
 		String defStyle = CytoscapeInit.getProperties().getProperty(
@@ -283,6 +288,8 @@ public class VisualMappingManager extends SubjectBase {
 	 * member of the current visual style.
 	 */
 	public void applyNodeAppearances(final CyNetwork network, final CyNetworkView network_view) {
+		ContinuousMapping.invalidateLookupTables();
+
 		final NodeAppearanceCalculator nodeAppearanceCalculator = activeVS
 				.getNodeAppearanceCalculator();
 
@@ -291,13 +298,27 @@ public class VisualMappingManager extends SubjectBase {
 
 		final Set<CyCustomGraphics> byPassedCustomGraphics = new HashSet<CyCustomGraphics>();
 		final Iterator<NodeView> itr = network_view.getNodeViewsIterator();
+
+		if (isBatchApply(network_view)) {
+			final List<NodeView> nodeViews = new ArrayList<NodeView>();
+			while (itr.hasNext())
+				nodeViews.add(itr.next());
+
+			AppearanceBatch.applyNodeAppearances(nodeAppearanceCalculator, network,
+					(DGraphView) network_view,
+					nodeViews.toArray(new NodeView[nodeViews.size()]), bypassedVPs,
+					activeVS.getDependency(), byPassedCustomGraphics, isParallelApply());
+			checkCustomGraphicsInUse(byPassedCustomGraphics);
+			return;
+		}
+
 		while (itr.hasNext()) {
 			final NodeView nodeView = itr.next();
 			final Node node = nodeView.getNode();
 
 			// Identify and collect the bypassed custom graphics:
 			final List<Object> bypassedProps =
-				getByPassedVisProps(nodeView, bypassedVPs);
+				getByPassedVisProps(node, bypassedVPs);
 			for (final Object bypassedProp : bypassedProps) {
 				if (bypassedProp instanceof CyCustomGraphics)
 					byPassedCustomGraphics.add((CyCustomGraphics)bypassedProp);
@@ -311,14 +332,17 @@ public class VisualMappingManager extends SubjectBase {
 		checkCustomGraphicsInUse(byPassedCustomGraphics);
 	}
 
-	private static final List<Object> getByPassedVisProps(final NodeView nv,
-							      final List<VisualPropertyType> bypassedVPs)
+	static final List<Object> getByPassedVisProps(final Node node,
+						      final List<VisualPropertyType> bypassedVPs)
 	{
+		final Map<VisualPropertyType, Object> bypasses =
+			BypassCache.getNodeBypasses().get(node.getIdentifier());
+		if (bypasses == null)
+			return Collections.emptyList();
+
 		final List<Object> bypassedProps = new ArrayList<Object>();
-		final CyAttributes nodeAttrs = Cytoscape.getNodeAttributes();
-		final String id = nv.getNode().getIdentifier();
 		for (final VisualPropertyType propType : bypassedVPs) {
-			final Object bypass = Appearance.getBypass(nodeAttrs, id, propType);
+			final Object bypass = bypasses.get(propType);
 			if (bypass != null)
 				bypassedProps.add(bypass);
 		}
@@ -408,6 +432,8 @@ public class VisualMappingManager extends SubjectBase {
 	 */
 	public void applyEdgeAppearances(final CyNetwork network,
 			final CyNetworkView network_view) {
+		ContinuousMapping.invalidateLookupTables();
+
 		final EdgeAppearanceCalculator edgeAppearanceCalculator = activeVS
 				.getEdgeAppearanceCalculator();
 
@@ -416,6 +442,21 @@ public class VisualMappingManager extends SubjectBase {
 		List<VisualPropertyType> bypassedVPs = getBypassedVPs("EDGE", Cytoscape
 				.getEdgeAttributes());
 
+		if (isBatchApply(network_view)) {
+			final List<EdgeView> edgeViews = new ArrayList<EdgeView>();
+			for (Iterator i = network_view.getEdgeViewsIterator(); i.hasNext();) {
+				edgeView = (EdgeView) i.next();
+				if (edgeView != null)
+					edgeViews.add(edgeView);
+			}
+
+			AppearanceBatch.applyEdgeAppearances(edgeAppearanceCalculator, network,
+					(DGraphView) network_view,
+					edgeViews.toArray(new EdgeView[edgeViews.size()]), bypassedVPs,
+					activeVS.getDependency(), isParallelApply());
+			return;
+		}
+
 		for (Iterator i = network_view.getEdgeViewsIterator(); i.hasNext();) {
 			edgeView = (EdgeView) i.next();
 
@@ -431,6 +472,28 @@ public class VisualMappingManager extends SubjectBase {
 		}
 	}
 
+	/**
+	 * Whether appearances are applied to the view with AppearanceBatch, which
+	 * calculates them all first and then pushes them into the view in one
+	 * update.  Set the property vizmapper.batchApply to false to apply them
+	 * one node or edge at a time.
+	 */
+	private static boolean isBatchApply(final CyNetworkView view) {
+		return (view instanceof DGraphView)
+		       && Boolean.valueOf(CytoscapeInit.getProperties().getProperty(
+		    		   "vizmapper.batchApply", "true"));
+	}
+
+	/**
+	 * Whether AppearanceBatch may calculate appearances in parallel.  This
+	 * is off unless the property vizmapper.parallelApply is true, since it
+	 * requires every calculator in use to be thread-safe.
+	 */
+	private static boolean isParallelApply() {
+		return Boolean.valueOf(CytoscapeInit.getProperties().getProperty(
+				"vizmapper.parallelApply", "false"));
+	}
+
 	private List<VisualPropertyType> getBypassedVPs(final String prefix,
 			final CyAttributes attrs) {
 		MultiHashMapDefinition mhmd = attrs.getMultiHashMapDefinition();
@@ -503,14 +566,27 @@ public class VisualMappingManager extends SubjectBase {
 	 * Recalculates and reapplies all of the node, edge, and global visual
 	 * attributes. This method delegates to, in order, applyNodeAppearances,
 	 * applyEdgeAppearances, and applyGlobalAppearances.
+	 * <P>
+	 * If only attribute values have changed since the view was last restyled
+	 * by this method, only the visual properties that depend on them are
+	 * recalculated, for only the nodes and edges whose values changed.  Set
+	 * the property vizmapper.incremental to false to always restyle in full.
 	 */
 	public void applyAppearances() {
+		final boolean incremental = Boolean.valueOf(CytoscapeInit.getProperties().getProperty(
+				"vizmapper.incremental", "true"));
+		if (incremental
+				&& restyler.restyle(getNetwork(), getNetworkView(), activeVS))
+			return;
+
+		restyler.reset();
 		/** first apply the node appearance to all nodes */
 		applyNodeAppearances();
 		/** then apply the edge appearance to all edges */
 		applyEdgeAppearances();
 		/** now apply global appearances */
 		applyGlobalAppearances();
+		restyler.restyled(getNetwork(), getNetworkView(), activeVS);
 	}
 
 	/**
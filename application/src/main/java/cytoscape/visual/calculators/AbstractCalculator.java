@@ -45,6 +45,7 @@ import java.awt.GridBagConstraints;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -67,6 +68,7 @@ import cytoscape.dialogs.GridBagGroup;
 import cytoscape.dialogs.MiscGB;
 import cytoscape.visual.Appearance;
 import cytoscape.visual.VisualPropertyType;
+import cytoscape.visual.mappings.AbstractMapping;
 import cytoscape.visual.mappings.MappingFactory;
 import cytoscape.visual.mappings.ObjectMapping;
 
@@ -107,6 +109,17 @@ public abstract class AbstractCalculator implements Calculator {
 	 */
 	protected transient ChangeEvent changeEvent;
 
+	/**
+	 * Attribute bundles of mappings that declare the attributes they read,
+	 * reused for every object by each thread.
+	 */
+	private static final ThreadLocal<Map<String, Object>> projectedBundle =
+		new ThreadLocal<Map<String, Object>>() {
+			protected Map<String, Object> initialValue() {
+				return new HashMap<String, Object>();
+			}
+		};
+
 
 	/**
 	 * Creates a new AbstractCalculator object.
@@ -564,6 +577,30 @@ public abstract class AbstractCalculator implements Calculator {
 		                                       : Cytoscape.getEdgeAttributes());
 	}
 
+	/**
+	 * Returns a map of some attribute names to single values.  Only the given
+	 * attributes are looked up, which is much faster than getting all of
+	 * them.  The map is reused by the next call on the same thread, so it must
+	 * not be kept.
+	 *
+	 * @param canonicalName
+	 *            The attribute name returned from the CyNode or CyEdge.
+	 * @param attrNames
+	 *            The names of the attributes to look up.
+	 * @return Map of the attribute names to values.
+	 */
+	protected Map<String, Object> getAttrBundle(final String canonicalName,
+	                                            final String[] attrNames) {
+		final Map<String, Object> attrBundle = projectedBundle.get();
+		attrBundle.clear();
+		CyAttributesUtils.getAttributes(canonicalName, attrNames,
+		                                type.isNodeProp() ? Cytoscape.getNodeAttributes()
+		                                                  : Cytoscape.getEdgeAttributes(),
+		                                attrBundle);
+
+		return attrBundle;
+	}
+
 	/**
 	 * DOCUMENT ME!
 	 *
@@ -605,9 +642,16 @@ public abstract class AbstractCalculator implements Calculator {
 			return null;
 
 		final String nodeID = obj.getIdentifier();
-		final Map<String, Object> attrBundle = getAttrBundle(nodeID);
+		final ObjectMapping mapping = getMapping(0);
+
+		// Only look up the attributes the mapping reads, if it says which.
+		final String[] attrNames = (mapping instanceof AbstractMapping)
+		                           ? ((AbstractMapping) mapping).getRequiredAttributeNames() : null;
+		final Map<String, Object> attrBundle = (attrNames != null)
+		                                       ? getAttrBundle(nodeID, attrNames)
+		                                       : getAttrBundle(nodeID);
 		attrBundle.put(AbstractCalculator.ID, obj.getIdentifier());
-		return getMapping(0).calculateRangeValue(attrBundle);
+		return mapping.calculateRangeValue(attrBundle);
 	}
 
 	/**
@@ -25,6 +25,12 @@ public abstract class AbstractMapping extends SubjectBase implements
 	
 	// Attribute value types compatible withi this mapping.
 	protected Class<?>[] acceptedClasses;
+
+	private static final String[] NO_ATTRIBUTE_NAMES = new String[0];
+
+	// The controlling attribute name as an array, which is handed out by
+	// getControllingAttributeNames() and must not be modified.
+	private String[] controllingAttrNames = NO_ATTRIBUTE_NAMES;
 	
 	public AbstractMapping(final Class<?> rangeClass, final String controllingAttrName) {
 		this.acceptedClasses = new Class<?>[]{ Object.class };
@@ -55,6 +61,42 @@ public abstract class AbstractMapping extends SubjectBase implements
 	public String getControllingAttributeName() {
 		return this.controllingAttrName;
 	}
+
+
+	/**
+	 * Returns the names of the attributes that calculateRangeValue() reads
+	 * from its attribute bundle, so that callers only need to look those up.
+	 * The ID attribute may be read in any case.  By default this returns
+	 * null, meaning that the bundle must hold every attribute of the object.
+	 * The returned array must not be modified.
+	 *
+	 * @return the names of the attributes read, or null if any may be read.
+	 */
+	public String[] getRequiredAttributeNames() {
+		return null;
+	}
+
+
+	/**
+	 * Returns the controlling attribute name in an array, or an empty array
+	 * if there is none; for mappings that only read their controlling
+	 * attribute to return from getRequiredAttributeNames().
+	 */
+	protected String[] getControllingAttributeNames() {
+		final String attrName = this.controllingAttrName;
+
+		if (attrName == null)
+			return NO_ATTRIBUTE_NAMES;
+
+		String[] attrNames = this.controllingAttrNames;
+
+		if ((attrNames.length == 0) || (attrNames[0] != attrName)) {
+			attrNames = new String[] { attrName };
+			this.controllingAttrNames = attrNames;
+		}
+
+		return attrNames;
+	}
 	
 	
 	
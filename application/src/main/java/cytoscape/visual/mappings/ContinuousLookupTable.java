@@ -0,0 +1,267 @@
+/*
+  File: ContinuousLookupTable.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  The Cytoscape Consortium is:
+  - Institute for Systems Biology
+  - University of California San Diego
+  - Memorial Sloan-Kettering Cancer Center
+  - Institut Pasteur
+  - Agilent Technologies
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+ */
+
+package cytoscape.visual.mappings;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import cytoscape.visual.mappings.continuous.ContinuousMappingPoint;
+
+
+/**
+ * The points of a continuous mapping, compiled for fast lookups.<br>
+ * The points are sorted once by domain value into primitive arrays, so that
+ * a lookup is a binary search.  Linear number and color interpolation work
+ * on range values that are unboxed in advance; other interpolators are
+ * called as before.  A lookup allocates nothing but the interpolated value.
+ * <p>
+ * Points are changed in place by mapping editors and plugins, which is not
+ * seen here.  A table is only checked against the list of points and the
+ * interpolator it was compiled from, and is recompiled once the mapping
+ * fires a state change or invalidateAll() is called.  Tables are immutable
+ * and may be used by several threads at once.
+ */
+final class ContinuousLookupTable {
+	private static final int GENERIC = 0;
+	private static final int NUMBER = 1;
+	private static final int COLOR = 2;
+
+	// Bumped to make all tables stale.
+	private static volatile int s_generation = 0;
+
+	// What the table was compiled from, in the order of the mapping.
+	private final List<ContinuousMappingPoint> m_source;
+	private final Interpolator m_interpolator;
+	private final int m_count;
+	private final int m_generation;
+
+	// The points, sorted by domain value.
+	private final double[] m_domain;
+	private final Double[] m_boxedDomain;
+	private final Object[] m_lesser;
+	private final Object[] m_equal;
+	private final Object[] m_greater;
+
+	// The unboxed range values at both ends of interval i, which lies
+	// between points i - 1 and i.  An interval whose range values are not
+	// of the interpolated type yields null, as the interpolator would.
+	private final int m_kind;
+	private final boolean[] m_interpolated;
+	private final double[] m_lowerNumber;
+	private final double[] m_upperNumber;
+	private final int[] m_lowerColor;
+	private final int[] m_upperColor;
+
+	/**
+	 * Compiles the given points and interpolator.
+	 */
+	ContinuousLookupTable(final List<ContinuousMappingPoint> points,
+	                      final Interpolator interpolator) {
+		m_source = points;
+		m_interpolator = interpolator;
+		m_generation = s_generation;
+
+		final ContinuousMappingPoint[] sorted = points.toArray(new ContinuousMappingPoint[points.size()]);
+		m_count = sorted.length;
+
+		// A stable sort, so that of several points with the same value the
+		// first one is still found first.
+		Arrays.sort(sorted, new Comparator<ContinuousMappingPoint>() {
+				public int compare(final ContinuousMappingPoint a,
+				                   final ContinuousMappingPoint b) {
+					return Double.compare(a.getValue().doubleValue(), b.getValue().doubleValue());
+				}
+			});
+
+		final int count = sorted.length;
+		m_domain = new double[count];
+		m_boxedDomain = new Double[count];
+		m_lesser = new Object[count];
+		m_equal = new Object[count];
+		m_greater = new Object[count];
+
+		for (int i = 0; i < count; i++) {
+			m_domain[i] = sorted[i].getValue().doubleValue();
+			m_boxedDomain[i] = m_domain[i];
+			m_lesser[i] = sorted[i].getRange().lesserValue;
+			m_equal[i] = sorted[i].getRange().equalValue;
+			m_greater[i] = sorted[i].getRange().greaterValue;
+		}
+
+		if ((interpolator != null)
+		    && (interpolator.getClass() == LinearNumberToNumberInterpolator.class))
+			m_kind = NUMBER;
+		else if ((interpolator != null)
+		         && (interpolator.getClass() == LinearNumberToColorInterpolator.class))
+			m_kind = COLOR;
+		else
+			m_kind = GENERIC;
+
+		m_interpolated = new boolean[count];
+		m_lowerNumber = new double[count];
+		m_upperNumber = new double[count];
+		m_lowerColor = new int[count];
+		m_upperColor = new int[count];
+
+		for (int i = 1; i < count; i++) {
+			final Object lower = m_greater[i - 1];
+			final Object upper = m_lesser[i];
+
+			if (m_kind == NUMBER) {
+				m_interpolated[i] = (lower instanceof Number) && (upper instanceof Number);
+
+				if (m_interpolated[i]) {
+					m_lowerNumber[i] = ((Number) lower).doubleValue();
+					m_upperNumber[i] = ((Number) upper).doubleValue();
+				}
+			} else if (m_kind == COLOR) {
+				m_interpolated[i] = (lower instanceof Color) && (upper instanceof Color);
+
+				if (m_interpolated[i]) {
+					m_lowerColor[i] = ((Color) lower).getRGB();
+					m_upperColor[i] = ((Color) upper).getRGB();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes every table stale, so that they are recompiled before their next
+	 * lookup.
+	 */
+	static void invalidateAll() {
+		s_generation++;
+	}
+
+	/**
+	 * Returns whether this table was compiled from the given list of points
+	 * and interpolator and is not stale.
+	 */
+	boolean isCompiledFrom(final List<ContinuousMappingPoint> points,
+	                       final Interpolator interpolator) {
+		return (points == m_source) && (interpolator == m_interpolator)
+		       && (points.size() == m_count) && (m_generation == s_generation);
+	}
+
+	/**
+	 * Returns the range value of the given domain value, exactly as
+	 * ContinuousRangeCalculator would.
+	 */
+	Object getRangeValue(final Number domainValue) {
+		final int count = m_domain.length;
+
+		if (count == 0)
+			return null;
+
+		final double d = domainValue.doubleValue();
+
+		// The comparisons are those of ContinuousRangeCalculator, under which
+		// NaN equals the first point.
+		if (!(d > m_domain[0]))
+			return (d < m_domain[0]) ? m_lesser[0] : m_equal[0];
+
+		if (d > m_domain[count - 1])
+			return m_greater[count - 1];
+
+		if (m_interpolator == null)
+			return null;
+
+		// The first point that is not less than d, which is not point 0.
+		int lo = 1;
+		int hi = count - 1;
+
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+
+			if (m_domain[mid] < d)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+
+		if (m_domain[lo] == d)
+			return m_equal[lo];
+
+		return interpolate(lo, d, domainValue);
+	}
+
+	/*
+	 * Interpolates within interval i; see the interpolators this replaces.
+	 */
+	private Object interpolate(final int i, final double d, final Number domainValue) {
+		if (m_kind == GENERIC)
+			return m_interpolator.getRangeValue(m_boxedDomain[i - 1], m_greater[i - 1],
+			                                    m_boxedDomain[i], m_lesser[i], domainValue);
+
+		// NumberInterpolator
+		if ((m_greater[i - 1] == null) || (m_lesser[i] == null))
+			return null;
+
+		// LinearNumberInterpolator
+		final double lowerDomain = m_domain[i - 1];
+		final double upperDomain = m_domain[i];
+
+		if (lowerDomain == upperDomain)
+			return m_greater[i - 1];
+
+		final double frac = (d - lowerDomain) / (upperDomain - lowerDomain);
+
+		if (!m_interpolated[i])
+			return null;
+
+		if (m_kind == NUMBER)
+			return new Double((frac * m_upperNumber[i]) + ((1.0 - frac) * m_lowerNumber[i]));
+
+		final int lower = m_lowerColor[i];
+		final int upper = m_upperColor[i];
+
+		return new Color(interpolate(frac, lower >> 16, upper >> 16),
+		                 interpolate(frac, lower >> 8, upper >> 8),
+		                 interpolate(frac, lower, upper),
+		                 interpolate(frac, lower >>> 24, upper >>> 24));
+	}
+
+	// One channel of LinearNumberToColorInterpolator.
+	private static int interpolate(final double frac, final int lower, final int upper) {
+		final int l = lower & 0xff;
+
+		return (int) Math.round(l + (frac * ((upper & 0xff) - l)));
+	}
+}
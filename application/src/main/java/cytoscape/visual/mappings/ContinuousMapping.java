@@ -51,7 +51,6 @@ import cytoscape.visual.mappings.continuous.ContinuousLegend;
 import cytoscape.visual.mappings.continuous.ContinuousMappingPoint;
 import cytoscape.visual.mappings.continuous.ContinuousMappingReader;
 import cytoscape.visual.mappings.continuous.ContinuousMappingWriter;
-import cytoscape.visual.mappings.continuous.ContinuousRangeCalculator;
 import cytoscape.visual.parsers.ValueParser;
 
 /**
@@ -75,6 +74,9 @@ public class ContinuousMapping extends
 	// Contains List of Data Points
 	private List<ContinuousMappingPoint> points;
 
+	// The points compiled for lookups, or null until the next lookup
+	private volatile ContinuousLookupTable lookupTable;
+
 	/**
 	 * Constructor.
 	 * 
@@ -150,6 +152,7 @@ public class ContinuousMapping extends
 		ContinuousMappingPoint cmp = new ContinuousMappingPoint(value,
 				brv);
 		points.add(cmp);
+		lookupTable = null;
 	}
 
 	/**
@@ -157,6 +160,7 @@ public class ContinuousMapping extends
 	 */
 	public void removePoint(int index) {
 		points.remove(index);
+		lookupTable = null;
 	}
 
 	/**
@@ -194,6 +198,7 @@ public class ContinuousMapping extends
 		this.points = reader.getPoints();
 		this.controllingAttrName = reader.getControllingAttributeName();
 		this.interpolator = reader.getInterpolator();
+		lookupTable = null;
 	}
 
 	/**
@@ -229,6 +234,18 @@ public class ContinuousMapping extends
 	 */
 	public void setInterpolator(Interpolator interpolator) {
 		this.interpolator = interpolator;
+		lookupTable = null;
+	}
+
+	/**
+	 * Notifies the listeners that this mapping has changed.  Call this after
+	 * changing points in place, as the mapping editors do, so that the
+	 * change is seen by the next lookup.
+	 */
+	@Override
+	public void fireStateChanged() {
+		lookupTable = null;
+		super.fireStateChanged();
 	}
 
 	/**
@@ -238,6 +255,15 @@ public class ContinuousMapping extends
 		return new ContinuousLegend(points, vpt);
 	}
 
+	/**
+	 * Returns the controlling attribute name, the only attribute this mapping
+	 * reads.
+	 */
+	@Override
+	public String[] getRequiredAttributeNames() {
+		return getControllingAttributeNames();
+	}
+
 	/**
 	 * Calculates the Range Value. Required by the ObjectMapping interface.
 	 * 
@@ -247,9 +273,31 @@ public class ContinuousMapping extends
 	 */
 	@Override
 	public Object calculateRangeValue(final Map<String, Object> attrBundle) {
-		final ContinuousRangeCalculator calc = new ContinuousRangeCalculator(
-				points, interpolator, attrBundle);
+		if ((attrBundle == null) || (controllingAttrName == null))
+			return null;
+
+		final Object attrValue = attrBundle.get(controllingAttrName);
+
+		if (!(attrValue instanceof Number))
+			return null;
+
+		ContinuousLookupTable table = lookupTable;
+
+		if ((table == null) || !table.isCompiledFrom(points, interpolator)) {
+			table = new ContinuousLookupTable(points, interpolator);
+			lookupTable = table;
+		}
+
+		return table.getRangeValue((Number) attrValue);
+	}
 
-		return calc.calculateRangeValue(controllingAttrName);
+	/**
+	 * Makes every continuous mapping recompile its points before its next
+	 * lookup, picking up points that were changed in place without a state
+	 * change being fired.  VisualMappingManager calls this before restyling
+	 * a whole view.
+	 */
+	public static void invalidateLookupTables() {
+		ContinuousLookupTable.invalidateAll();
 	}
 }
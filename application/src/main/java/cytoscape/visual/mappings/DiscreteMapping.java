@@ -230,6 +230,15 @@ public class DiscreteMapping extends AbstractMapping {
 		return writer.getProperties();
 	}
 
+	/**
+	 * Returns the controlling attribute name, the only attribute this mapping
+	 * reads.
+	 */
+	@Override
+	public String[] getRequiredAttributeNames() {
+		return getControllingAttributeNames();
+	}
+
 	/**
 	 * Calculates the Range Value. Required by the ObjectMapping interface.
 	 * 
@@ -161,6 +161,15 @@ public class PassThroughMapping extends AbstractMapping {
 	}
 	
 
+	/**
+	 * Returns the controlling attribute name, the only attribute this mapping
+	 * reads.
+	 */
+	@Override
+	public String[] getRequiredAttributeNames() {
+		return getControllingAttributeNames();
+	}
+
 	/**
 	 * DOCUMENT ME!
 	 * 
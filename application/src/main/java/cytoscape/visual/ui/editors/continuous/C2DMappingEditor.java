@@ -215,6 +215,7 @@ public class C2DMappingEditor extends ContinuousMappingEditorPanel {
 
 			newVal = ((thumbs.get(0).getPosition() / 100) * valRange) + minValue;
 			mapping.getPoint(0).setValue(newVal);
+			mapping.fireStateChanged();
 
 			return;
 		}
@@ -242,6 +243,8 @@ public class C2DMappingEditor extends ContinuousMappingEditorPanel {
 			newVal = ((t.getPosition() / 100) * valRange) + minValue;
 			mapping.getPoint(i).setValue(newVal);
 		}
+
+		mapping.fireStateChanged();
 	}
 
 	@Override
@@ -658,6 +658,7 @@ public abstract class ContinuousMappingEditorPanel extends JDialog implements Pr
 
 			newVal = ((thumbs.get(0).getPosition() / 100) * range) + min;
 			mapping.getPoint(0).setValue(newVal);
+			mapping.fireStateChanged();
 
 			return;
 		}
@@ -682,6 +683,8 @@ public abstract class ContinuousMappingEditorPanel extends JDialog implements Pr
 			mapping.getPoint(i).setValue(newVal);
 			rg.equalValue = t.getObject();
 		}
+
+		mapping.fireStateChanged();
 	}
 
 	protected void enableSpinner(int selectedIndex) {
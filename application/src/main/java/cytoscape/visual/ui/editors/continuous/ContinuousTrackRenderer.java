@@ -501,9 +501,9 @@ public class ContinuousTrackRenderer extends JComponent implements VizMapperTrac
 				brv.lesserValue = newVal;
 				brv.greaterValue = newVal;
 			}
-
-			cMapping.fireStateChanged();
 		}
+
+		cMapping.fireStateChanged();
 	}
 
 	public void setAboveValue(Number above) {
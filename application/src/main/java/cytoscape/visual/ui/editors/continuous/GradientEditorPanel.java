@@ -269,7 +269,8 @@ public class GradientEditorPanel extends ContinuousMappingEditorPanel
 			setButtonColor(newColor);
 
 			slider.repaint();
-		}
+		} else
+			cMapping.fireStateChanged();
 	}
 
 	public void getAndSetColor() {
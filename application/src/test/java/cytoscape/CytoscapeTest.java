@@ -240,6 +240,25 @@ public class CytoscapeTest extends TestCase {
 		assertNotNull(Cytoscape.getCyEdge(a, c, attr, "pd", false, true));
 	}
 
+	public void testGetCyEdgeAfterInteractionChange() throws IOException {
+		Node a = Cytoscape.getCyNode("index a", true);
+		Node b = Cytoscape.getCyNode("index b", true);
+		String attr = Semantics.INTERACTION;
+
+		CyEdge e1 = Cytoscape.getCyEdge(a, b, attr, "pp", true, true);
+		assertTrue(e1 == Cytoscape.getCyEdge(a, b, attr, "pp", false, true));
+		assertTrue(e1 == Cytoscape.getCyEdge(b, a, attr, "pp", false, false));
+
+		// the index must not hide a change of the interaction attribute
+		Cytoscape.getEdgeAttributes().setAttribute(e1.getIdentifier(), attr, "pd");
+		assertNull(Cytoscape.getCyEdge(a, b, attr, "pp", false, true));
+		assertTrue(e1 == Cytoscape.getCyEdge(a, b, attr, "pd", false, true));
+
+		// nor the removal of the edge
+		Cytoscape.getRootGraph().removeEdge(e1);
+		assertNull(Cytoscape.getCyEdge(a, b, attr, "pd", false, true));
+	}
+
 	public void testGetCyEdgeWithBadNodeStrings() throws Exception {
 		cytoNetwork = Cytoscape.createNetworkFromFile("src/test/resources/testData/directedGraph.sif");
 		final int numEdges = Cytoscape.getRootGraph().getEdgeCount();
@@ -33,6 +33,9 @@ import cytoscape.data.CyAttributes;
 import cytoscape.data.CyAttributesImpl;
 
 import org.cytoscape.equations.EqnCompiler;
+import org.cytoscape.equations.EqnParser;
+import org.cytoscape.equations.Function;
+import org.cytoscape.equations.Parser;
 
 import junit.framework.TestCase;
 
@@ -48,6 +51,19 @@ import java.util.Set;
  *
  */
 public class CyAttributesTest extends TestCase {
+	// Stands in for plugin functions such as DEGREE, whose results change without attribute events.
+	static private class CounterFunction implements Function {
+		private double count = 0.0;
+
+		public String getName() { return "CACHETESTCOUNTER"; }
+		public String getFunctionSummary() { return "Returns how often it has been called."; }
+		public String getUsageDescription() { return "Call this with \"CACHETESTCOUNTER()\"."; }
+		public Class getReturnType() { return Double.class; }
+		public Class validateArgTypes(final Class[] argTypes) { return argTypes.length == 0 ? Double.class : null; }
+		public Object evaluateFunction(final Object[] args) { return ++count; }
+		public List<Class> getPossibleArgTypes(final Class[] leadingArgs) { return null; }
+	}
+
 	private CyAttributes cyAttributes;
 	private static final String DUMMY_ID = "id_123";
 	private static final String DUMMY_BOOLEAN_ATTRIBUTE = "attribute1";
@@ -409,6 +425,131 @@ public class CyAttributesTest extends TestCase {
 		assertNull(cyAttributes.getLastEquationError());
 	}
 
+	public void testEquationCache() {
+		final CyAttributesImpl attrs = (CyAttributesImpl)cyAttributes;
+		final EquationCache cache = attrs.getEquationCache();
+		final EqnCompiler compiler = new EqnCompiler();
+		final Map<String, Class> attribNameToTypeMap = new HashMap<String, Class>();
+		attribNameToTypeMap.put("x", Double.class);
+		attribNameToTypeMap.put("y", Double.class);
+
+		attrs.setAttribute(DUMMY_ID, "x", 1.0);
+		attrs.setAttribute(DUMMY_ID, "y", 5.0);
+		assertTrue(compiler.compile("=$x * 2", attribNameToTypeMap));
+		attrs.setAttribute(DUMMY_ID, "b", compiler.getEquation());
+		attribNameToTypeMap.put("b", Double.class);
+		assertTrue(compiler.compile("=$b + 1", attribNameToTypeMap));
+		attrs.setAttribute(DUMMY_ID, "c", compiler.getEquation());
+		assertTrue(compiler.compile("=$y + 1", attribNameToTypeMap));
+		attrs.setAttribute(DUMMY_ID, "e", compiler.getEquation());
+
+		// First reads evaluate, later reads are answered from the cache.
+		assertEquals(3.0, attrs.getDoubleAttribute(DUMMY_ID, "c"));
+		assertEquals(6.0, attrs.getDoubleAttribute(DUMMY_ID, "e"));
+		cache.resetCounters();
+		assertEquals(3.0, attrs.getDoubleAttribute(DUMMY_ID, "c"));
+		assertEquals(2.0, attrs.getDoubleAttribute(DUMMY_ID, "b"));
+		assertEquals(6.0, attrs.getDoubleAttribute(DUMMY_ID, "e"));
+		assertEquals(3, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+
+		// Changing "x" must only invalidate "b" and "c".
+		attrs.setAttribute(DUMMY_ID, "x", 2.0);
+		cache.resetCounters();
+		assertEquals(5.0, attrs.getDoubleAttribute(DUMMY_ID, "c"));
+		assertEquals(6.0, attrs.getDoubleAttribute(DUMMY_ID, "e"));
+		assertEquals(2, cache.getMissCount());
+		assertEquals(2, cache.getRecomputeCount());
+		assertEquals(1, cache.getHitCount());
+
+		// A missing reference that is set later must also invalidate.
+		attribNameToTypeMap.put("z", Double.class);
+		assertTrue(compiler.compile("=$z + 1", attribNameToTypeMap));
+		attrs.setAttribute(DUMMY_ID, "f", compiler.getEquation());
+		assertNull(attrs.getDoubleAttribute(DUMMY_ID, "f"));
+		attrs.setAttribute(DUMMY_ID, "z", 1.0);
+		assertEquals(2.0, attrs.getDoubleAttribute(DUMMY_ID, "f"));
+
+		// Replacing an equation invalidates its own value, too.
+		assertTrue(compiler.compile("=$y * 10", attribNameToTypeMap));
+		attrs.setAttribute(DUMMY_ID, "b", compiler.getEquation());
+		assertEquals(51.0, attrs.getDoubleAttribute(DUMMY_ID, "c"));
+	}
+
+	public void testEquationCacheSkipsImpureFunctions() {
+		final CyAttributesImpl attrs = (CyAttributesImpl)cyAttributes;
+		final EquationCache cache = attrs.getEquationCache();
+		final EqnParser eqnParser = Parser.getParser();
+		if (eqnParser.getFunction("CACHETESTCOUNTER") == null) // Avoid duplicate registration!
+			eqnParser.registerFunction(new CounterFunction());
+
+		final EqnCompiler compiler = new EqnCompiler();
+		final Map<String, Class> attribNameToTypeMap = new HashMap<String, Class>();
+		attribNameToTypeMap.put("x", Double.class);
+
+		assertTrue(compiler.compile("=ABS($x) + 1", attribNameToTypeMap));
+		assertTrue(EquationCache.isCacheable(compiler.getEquation()));
+		assertTrue(compiler.compile("=NOW()", attribNameToTypeMap));
+		assertFalse(EquationCache.isCacheable(compiler.getEquation()));
+
+		// Functions that are not built in are never cached.
+		assertTrue(compiler.compile("=CACHETESTCOUNTER() + $x", attribNameToTypeMap));
+		assertFalse(EquationCache.isCacheable(compiler.getEquation()));
+		attrs.setAttribute(DUMMY_ID, "x", 0.0);
+		attrs.setAttribute(DUMMY_ID, "g", compiler.getEquation());
+		final Double first = attrs.getDoubleAttribute(DUMMY_ID, "g");
+		cache.resetCounters();
+		assertEquals(first + 1.0, attrs.getDoubleAttribute(DUMMY_ID, "g"));
+		assertEquals(0, cache.getHitCount());
+	}
+
+	public void testEquationCacheVersion() {
+		final EquationCache cache = ((CyAttributesImpl)cyAttributes).getEquationCache();
+
+		// A value computed while something was invalidated is not cached.
+		final long version = cache.getVersion();
+		cache.invalidate(DUMMY_ID, "x");
+		cache.put(DUMMY_ID, "b", 1.0, version);
+		assertFalse(cache.contains(DUMMY_ID, "b"));
+
+		cache.put(DUMMY_ID, "b", 1.0, cache.getVersion());
+		assertTrue(cache.contains(DUMMY_ID, "b"));
+	}
+
+	public void testEvaluateEquations() {
+		final CyAttributesImpl attrs = (CyAttributesImpl)cyAttributes;
+		final EquationCache cache = attrs.getEquationCache();
+		final EqnCompiler compiler = new EqnCompiler();
+		final Map<String, Class> attribNameToTypeMap = new HashMap<String, Class>();
+		attribNameToTypeMap.put("x", Double.class);
+		attribNameToTypeMap.put("y", Double.class);
+
+		for (int i = 0; i < 10; ++i)
+			attrs.setAttribute("n" + i, "x", (double)i);
+		attrs.setAttribute("n0", "y", 2.0);
+		attribNameToTypeMap.put("z", Double.class);
+		assertTrue(compiler.compile("=$z * 2", attribNameToTypeMap));
+		attrs.setAttribute("n1", "x", compiler.getEquation());
+
+		assertTrue(compiler.compile("=$x / ${y:1}", attribNameToTypeMap));
+		for (int i = 0; i < 10; ++i)
+			attrs.setAttribute("n" + i, "b", compiler.getEquation());
+
+		// "n1" references an equation that cannot be evaluated.
+		assertEquals(9, attrs.evaluateEquations("b", null));
+		cache.resetCounters();
+		assertEquals(0.0, attrs.getDoubleAttribute("n0", "b"));
+		assertNull(attrs.getDoubleAttribute("n1", "b"));
+		for (int i = 2; i < 10; ++i)
+			assertEquals((double)i, attrs.getDoubleAttribute("n" + i, "b"));
+		assertEquals(9, cache.getHitCount());
+
+		// Dependencies are tracked as in getAttribute().
+		attrs.setAttribute("n0", "x", 3.0);
+		assertEquals(1.5, attrs.getDoubleAttribute("n0", "b"));
+		assertEquals(0, attrs.evaluateEquations("b", null));
+	}
+
 	public void testGetListElementType() {
 		final List<Integer> iList = new ArrayList<Integer>();
 		iList.add(2);
@@ -208,6 +208,28 @@ public class CyAttributesUtilsTest extends TestCase {
 		Assert.assertTrue(attrNames.size() == 3);
 	}
 
+	/**
+	 *  DOCUMENT ME!
+	 */
+	public void testGetSomeAttributes() {
+		final CyAttributes attrs = Cytoscape.getNodeAttributes();
+		final Map<String, Object> all = CyAttributesUtils.getAttributes(testNode1.getIdentifier(),
+		                                                                attrs);
+		final Map<String, Object> some = new HashMap<String, Object>();
+		some.put("StringTest", "left alone");
+		CyAttributesUtils.getAttributes(testNode1.getIdentifier(),
+		                                new String[] {
+		                                    "IntegerTest", "EquationTest", "ListTest", "foo"
+		                                }, attrs, some);
+
+		Assert.assertEquals(4, some.size());
+		Assert.assertEquals("left alone", some.get("StringTest"));
+		Assert.assertEquals(all.get("IntegerTest"), some.get("IntegerTest"));
+		Assert.assertEquals(all.get("EquationTest"), some.get("EquationTest"));
+		Assert.assertEquals(all.get("ListTest"), some.get("ListTest"));
+		Assert.assertFalse(some.containsKey("foo"));
+	}
+
 	private void addAttributes(GraphObject go) {
 		String goID = go.getIdentifier();
 		CyAttributes attrs = null;
@@ -0,0 +1,241 @@
+/*
+  File: ColumnarMultiHashMapTest.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  The Cytoscape Consortium is:
+  - Institute for Systems Biology
+  - University of California San Diego
+  - Memorial Sloan-Kettering Cancer Center
+  - Institut Pasteur
+  - Agilent Technologies
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.data.attr.util;
+
+import cytoscape.data.attr.CountedIterator;
+import cytoscape.data.attr.MultiHashMap;
+import cytoscape.data.attr.MultiHashMapDefinition;
+import cytoscape.data.attr.MultiHashMapListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public final class ColumnarMultiHashMapTest extends TestCase {
+
+	public static Test suite() {
+		return new TestSuite(ColumnarMultiHashMapTest.class);
+	}
+
+	private static final String[] ATTRS = { "bool", "real", "int", "str", "p-values" };
+	private static final byte[] TYPES = {
+		MultiHashMapDefinition.TYPE_BOOLEAN, MultiHashMapDefinition.TYPE_FLOATING_POINT,
+		MultiHashMapDefinition.TYPE_INTEGER, MultiHashMapDefinition.TYPE_STRING,
+		MultiHashMapDefinition.TYPE_FLOATING_POINT
+	};
+
+	// Records every notification as a string so that two models can be compared.
+	private static final class RecordingListener implements MultiHashMapListener {
+		final List events = new ArrayList();
+
+		public void attributeValueAssigned(String objectKey, String attributeName,
+		                                   Object[] keyIntoValue, Object oldAttrVal,
+		                                   Object newAttrVal) {
+			events.add("assigned " + objectKey + " " + attributeName + " " + oldAttrVal + " "
+			           + newAttrVal);
+		}
+
+		public void attributeValueRemoved(String objectKey, String attributeName,
+		                                  Object[] keyIntoValue, Object attributeValue) {
+			events.add("removed " + objectKey + " " + attributeName + " " + attributeValue);
+		}
+
+		public void allAttributeValuesRemoved(String objectKey, String attributeName) {
+			events.add("allRemoved " + objectKey + " " + attributeName);
+		}
+	}
+
+	MultiHashMapDefinition refDef;
+	MultiHashMap ref;
+	MultiHashMapDefinition colDef;
+	MultiHashMap col;
+
+	public void setUp() {
+		Object mm = MultiHashMapFactory.instantiateDataModel();
+		refDef = (MultiHashMapDefinition) mm;
+		ref = (MultiHashMap) mm;
+		mm = MultiHashMapFactory.instantiateColumnarDataModel();
+		colDef = (MultiHashMapDefinition) mm;
+		col = (MultiHashMap) mm;
+
+		for (int i = 0; i < ATTRS.length; i++) {
+			final byte[] keyTypes = ATTRS[i].equals("p-values")
+			                        ? new byte[] { MultiHashMapDefinition.TYPE_INTEGER } : null;
+			refDef.defineAttribute(ATTRS[i], TYPES[i], keyTypes);
+			colDef.defineAttribute(ATTRS[i], TYPES[i], keyTypes);
+		}
+	}
+
+	public void testDefinitions() {
+		assertEquals(ATTRS.length, colDef.getDefinedAttributes().numRemaining());
+		assertEquals(MultiHashMapDefinition.TYPE_INTEGER, colDef.getAttributeValueType("int"));
+		assertEquals(-1, colDef.getAttributeValueType("nonexistent"));
+		assertEquals(0, colDef.getAttributeKeyspaceDimensionTypes("real").length);
+		assertEquals(1, colDef.getAttributeKeyspaceDimensionTypes("p-values").length);
+
+		try {
+			colDef.defineAttribute("int", MultiHashMapDefinition.TYPE_INTEGER, null);
+			fail();
+		} catch (IllegalStateException e) {
+		}
+
+		col.setAttributeValue("node1", "int", new Integer(3), null);
+		assertTrue(colDef.undefineAttribute("int"));
+		assertFalse(colDef.undefineAttribute("int"));
+
+		try {
+			col.getAttributeValue("node1", "int", null);
+			fail();
+		} catch (IllegalStateException e) {
+		}
+
+		// Redefining with another type must not see the old values.
+		colDef.defineAttribute("int", MultiHashMapDefinition.TYPE_STRING, null);
+		assertNull(col.getAttributeValue("node1", "int", null));
+	}
+
+	public void testTypeChecks() {
+		try {
+			col.setAttributeValue("node1", "real", new Integer(1), null);
+			fail();
+		} catch (ClassCastException e) {
+		}
+
+		try {
+			col.setAttributeValue("node1", "bool", "true", null);
+			fail();
+		} catch (ClassCastException e) {
+		}
+
+		try {
+			col.setAttributeValue("node1", "str", null, null);
+			fail();
+		} catch (NullPointerException e) {
+		}
+
+		try {
+			col.setAttributeValue("node1", "str", "x", new Object[] { new Integer(1) });
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+
+		try {
+			col.getAttributeKeyspan("node1", "str", null);
+			fail();
+		} catch (IllegalStateException e) {
+		}
+
+		assertEquals(0, col.getObjectKeys("str").numRemaining());
+	}
+
+	public void testAgainstReference() {
+		final RecordingListener refLis = new RecordingListener();
+		final RecordingListener colLis = new RecordingListener();
+		ref.addDataListener(refLis);
+		col.addDataListener(colLis);
+
+		final Random random = new Random(13);
+
+		for (int i = 0; i < 20000; i++) {
+			final String key = "node" + random.nextInt(300);
+			final int attr = random.nextInt(ATTRS.length);
+			final String name = ATTRS[attr];
+			final Object[] keyIntoValue = name.equals("p-values")
+			                              ? new Object[] { new Integer(random.nextInt(3)) } : null;
+			final int op = random.nextInt(10);
+
+			if (op < 6) {
+				final Object value = randomValue(random, TYPES[attr]);
+				assertEquals(ref.setAttributeValue(key, name, value, keyIntoValue),
+				             col.setAttributeValue(key, name, value, keyIntoValue));
+			} else if (op < 8) {
+				assertEquals(ref.removeAttributeValue(key, name, keyIntoValue),
+				             col.removeAttributeValue(key, name, keyIntoValue));
+			} else if (op < 9) {
+				assertEquals(ref.removeAllAttributeValues(key, name),
+				             col.removeAllAttributeValues(key, name));
+			} else {
+				assertEquals(ref.getAttributeValue(key, name, keyIntoValue),
+				             col.getAttributeValue(key, name, keyIntoValue));
+			}
+		}
+
+		for (int i = 0; i < ATTRS.length; i++)
+			assertEquals(keySet(ref.getObjectKeys(ATTRS[i])), keySet(col.getObjectKeys(ATTRS[i])));
+
+		assertEquals(refLis.events, colLis.events);
+
+		col.removeDataListener(colLis);
+		col.setAttributeValue("node1", "real", new Double(1.0), null);
+		col.setAttributeValue("node1", "p-values", new Double(1.0),
+		                      new Object[] { new Integer(0) });
+		assertEquals(refLis.events.size(), colLis.events.size());
+	}
+
+	private static Object randomValue(final Random random, final byte type) {
+		switch (type) {
+			case MultiHashMapDefinition.TYPE_BOOLEAN:
+				return Boolean.valueOf(random.nextBoolean());
+
+			case MultiHashMapDefinition.TYPE_FLOATING_POINT:
+				return new Double(random.nextInt(5) / 4.0);
+
+			case MultiHashMapDefinition.TYPE_INTEGER:
+				return new Integer(random.nextInt(5) - 2);
+
+			default:
+				return "s" + random.nextInt(5);
+		}
+	}
+
+	private static HashSet keySet(final CountedIterator keys) {
+		final HashSet returnThis = new HashSet();
+		final int count = keys.numRemaining();
+
+		while (keys.hasNext())
+			returnThis.add(keys.next());
+
+		assertEquals(count, returnThis.size());
+
+		return returnThis;
+	}
+}
@@ -56,9 +56,14 @@ public class CytoscapeSessionReaderTest extends TestCase {
 
 	
 	private void invokeReader(String file) throws Exception {
+		invokeReader(file, false);
+	}
+
+	private void invokeReader(String file, boolean parallel) throws Exception {
 		CytoscapeSessionReader sr;
 		Cytoscape.buildOntologyServer();
 		sr = new CytoscapeSessionReader(file, null);
+		sr.setParallel(parallel);
 
 		// Run session reader without Desktop using reflection
 		Class<?> cls = sr.getClass();
@@ -144,6 +149,35 @@ public class CytoscapeSessionReaderTest extends TestCase {
 
 	}
 
+	public void testParallelLoad() throws Exception {
+		Cytoscape.createNewSession();
+
+		invokeReader("src/test/resources/testData/NNFData/t4.cys", true);
+
+		CyNetwork targetNet = null;
+		for (CyNetwork net : Cytoscape.getNetworkSet()) {
+			if (net.getTitle().equals("Top_Level_Network")) {
+				targetNet = net;
+			}
+		}
+
+		assertNotNull(targetNet);
+		assertEquals(7, targetNet.getNodeCount());
+		assertEquals(5, targetNet.getEdgeCount());
+
+		CyNode m3 = Cytoscape.getCyNode("M3");
+		assertNotNull(m3);
+		CyNetwork nestedNetwork = (CyNetwork) targetNet.getNode(m3.getRootGraphIndex()).getNestedNetwork();
+		assertNotNull(nestedNetwork);
+		assertEquals("M3", nestedNetwork.getTitle());
+		assertEquals(4, nestedNetwork.getNodeCount());
+		assertEquals(3, nestedNetwork.getEdgeCount());
+
+		CyAttributes nodeAttr = Cytoscape.getNodeAttributes();
+		assertEquals("M2", nodeAttr.getStringAttribute("M2", CyNode.NESTED_NETWORK_ID_ATTR));
+		assertNull(nodeAttr.getStringAttribute("A", CyNode.NESTED_NETWORK_ID_ATTR));
+	}
+
 	// These tests work and pass, but are commented out because they disturb
 	// one of the PluginManager tests when run using "ant test"
 	// All tests function undisturbed when run using "ant test-slow"
@@ -261,6 +261,39 @@ public class InteractionsReaderTest extends TestCase {
 		assertTrue(interactions[28].getTargets()[2].equals("HJKOL coltrane"));
 	} // testReadMultiWordProteinsFileWithErrantSpaces
 
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @throws Exception DOCUMENT ME!
+	 */
+	public void testStreamingRead() throws Exception {
+		AllTests.standardOut("testStreamingRead");
+
+		final String[] files = { "sample.sif", "degenerate.sif", "multiWordProteins.sif" };
+
+		for (int i = 0; i < files.length; i++) {
+			InteractionsReader reader = this.getReader(files[i]);
+			reader.read();
+
+			InteractionsReader streamingReader = this.getReader(files[i]);
+			streamingReader.setStreaming(true);
+			streamingReader.read();
+
+			assertEquals(files[i], reader.getCount(), streamingReader.getCount());
+			assertEquals(files[i], sorted(reader.getNodeIndicesArray()),
+			             sorted(streamingReader.getNodeIndicesArray()));
+			assertEquals(files[i], sorted(reader.getEdgeIndicesArray()),
+			             sorted(streamingReader.getEdgeIndicesArray()));
+		}
+	} // testStreamingRead
+
+	private static String sorted(int[] indices) {
+		final int[] copy = indices.clone();
+		java.util.Arrays.sort(copy);
+
+		return java.util.Arrays.toString(copy);
+	}
+
 	private InteractionsReader getReader(String file) {
 
 		InteractionsReader reader = new InteractionsReader( "src/test/resources/testData/" + file);
@@ -0,0 +1,126 @@
+/*
+ Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.data.readers;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import java.util.Random;
+
+
+/**
+ * Compares InteractionsReader in its default and its streaming mode on a
+ * synthetic SIF file.  Run each mode in a fresh JVM, so that the peak heap
+ * numbers are not affected by the other run:<p>
+ * SIFReaderPerformance (default|streaming) [lines [nodes]]
+ */
+public class SIFReaderPerformance {
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param args DOCUMENT ME!
+	 *
+	 * @throws IOException DOCUMENT ME!
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: SIFReaderPerformance (default|streaming) [lines [nodes]]");
+			System.exit(1);
+		}
+
+		final boolean streaming = args[0].equals("streaming");
+		final int lines = (args.length > 1) ? Integer.parseInt(args[1]) : 1000000;
+		final int nodes = (args.length > 2) ? Integer.parseInt(args[2]) : 100000;
+
+		final File file = File.createTempFile("SIFReaderPerformance", ".sif");
+		file.deleteOnExit();
+		writeSIF(file, lines, nodes);
+
+		System.gc();
+		resetPeakHeap();
+
+		final long before = System.currentTimeMillis();
+		final InteractionsReader reader = new InteractionsReader(file.getPath());
+		reader.setStreaming(streaming);
+		reader.read();
+
+		final long millis = Math.max(1L, System.currentTimeMillis() - before);
+		System.out.println((streaming ? "streaming" : "default") + ": " + reader.getCount()
+		                   + " interactions, " + reader.getEdgeIndicesArray().length + " edges in "
+		                   + millis + " ms, " + ((file.length() * 1000L) / millis / 1024L)
+		                   + " KB/s, peak heap " + (getPeakHeap() / (1024L * 1024L)) + " MB");
+	}
+
+	// Node names are skewed towards low numbers so that some nodes become hubs.
+	private static void writeSIF(final File file, final int lines, final int nodes)
+	    throws IOException {
+		final String[] types = { "pp", "pd", "gl" };
+		final Random random = new Random(42L);
+		final BufferedWriter out = new BufferedWriter(new FileWriter(file));
+
+		try {
+			for (int i = 0; i < lines; i++) {
+				final int source = (int) (nodes * Math.pow(random.nextDouble(), 3.0));
+				final int target = random.nextInt(nodes);
+				out.write("YP" + source + "\t" + types[i % types.length] + "\tYP" + target);
+				out.newLine();
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+	}
+
+	private static long getPeakHeap() {
+		long peak = 0L;
+
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				peak += pool.getPeakUsage().getUsed();
+
+		return peak;
+	}
+}
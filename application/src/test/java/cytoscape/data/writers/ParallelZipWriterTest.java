@@ -0,0 +1,149 @@
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.data.writers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import junit.framework.TestCase;
+
+
+/**
+ * Tests that archives written by ParallelZipWriter read back with
+ * ZipInputStream in the order the entries were added.
+ */
+public class ParallelZipWriterTest extends TestCase {
+	private ExecutorService executor;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	protected void tearDown() throws Exception {
+		executor.shutdownNow();
+		super.tearDown();
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @throws Exception DOCUMENT ME!
+	 */
+	public void testEntriesKeepTheirOrder() throws Exception {
+		final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		final ParallelZipWriter zip = new ParallelZipWriter(archive, executor);
+		final String[] names = new String[20];
+		final byte[][] contents = new byte[20][];
+
+		for (int i = 0; i < names.length; i++) {
+			names[i] = "CytoscapeSession/network " + i + ".xgmml";
+			contents[i] = makeContent(i);
+
+			final byte[] content = contents[i];
+			if ((i % 4) == 0) {
+				zip.putNextEntry(names[i]);
+				zip.write(content);
+			} else {
+				zip.submit(names[i], new ParallelZipWriter.EntryContent() {
+						public void writeTo(final OutputStream out) throws Exception {
+							out.write(content);
+						}
+					});
+			}
+		}
+
+		zip.finish();
+
+		final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive.toByteArray()));
+		for (int i = 0; i < names.length; i++) {
+			final ZipEntry entry = zis.getNextEntry();
+			assertNotNull(entry);
+			assertEquals(names[i], entry.getName());
+			assertTrue(java.util.Arrays.equals(contents[i], readAll(zis)));
+		}
+
+		assertNull(zis.getNextEntry());
+		zis.close();
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @throws Exception DOCUMENT ME!
+	 */
+	public void testFailedEntry() throws Exception {
+		final ParallelZipWriter zip = new ParallelZipWriter(new ByteArrayOutputStream(), executor);
+		zip.submit("bad.xgmml", new ParallelZipWriter.EntryContent() {
+				public void writeTo(final OutputStream out) throws Exception {
+					throw new IllegalStateException("broken network");
+				}
+			});
+
+		try {
+			zip.finish();
+			fail("Expected an IOException");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().indexOf("broken network") != -1);
+		}
+	}
+
+	private static byte[] makeContent(final int seed) {
+		final StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < (seed * 1000); i++)
+			sb.append("<node id=\"").append(i % (seed + 1)).append("\"/>\n");
+
+		return sb.toString().getBytes();
+	}
+
+	private static byte[] readAll(final InputStream is) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buf = new byte[4096];
+		int len;
+
+		while ((len = is.read(buf)) != -1)
+			out.write(buf, 0, len);
+
+		return out.toByteArray();
+	}
+}
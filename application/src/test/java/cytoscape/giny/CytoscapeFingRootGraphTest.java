@@ -130,4 +130,41 @@ public class CytoscapeFingRootGraphTest extends TestCase {
 
 		assertNull( ex );
 	}
+
+	public void testIndexEdge() throws Exception {
+		int n1 = root.createNode();
+		int n2 = root.createNode();
+		int e1 = root.createEdge( n1, n2 );
+		int e2 = root.createEdge( n2, n1 );
+
+		assertEquals( 0, root.getIndexedEdge( n1, n2, "pp" ) );
+
+		root.indexEdge( e1, "pp" );
+		root.indexEdge( e2, "pd" );
+		assertEquals( e1, root.getIndexedEdge( n1, n2, "pp" ) );
+		assertEquals( 0, root.getIndexedEdge( n2, n1, "pp" ) );
+		assertEquals( e2, root.getIndexedEdge( n2, n1, "pd" ) );
+
+		// re-indexing replaces the old entry
+		root.indexEdge( e1, "xx" );
+		assertEquals( 0, root.getIndexedEdge( n1, n2, "pp" ) );
+		assertEquals( e1, root.getIndexedEdge( n1, n2, "xx" ) );
+	}
+
+	public void testIndexEdgeRemoval() throws Exception {
+		int n1 = root.createNode();
+		int n2 = root.createNode();
+		int n3 = root.createNode();
+		int e1 = root.createEdge( n1, n2 );
+		int e2 = root.createEdge( n1, n3 );
+		root.indexEdge( e1, "pp" );
+		root.indexEdge( e2, "pp" );
+
+		root.removeEdge( e1 );
+		assertEquals( 0, root.getIndexedEdge( n1, n2, "pp" ) );
+		assertEquals( e2, root.getIndexedEdge( n1, n3, "pp" ) );
+
+		root.removeNode( n3 );
+		assertEquals( 0, root.getIndexedEdge( n1, n3, "pp" ) );
+	}
 }
@@ -0,0 +1,120 @@
+/*
+ Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.giny;
+
+import cytoscape.CyEdge;
+import cytoscape.Cytoscape;
+
+import cytoscape.data.CyAttributes;
+import cytoscape.data.Semantics;
+
+import giny.model.Node;
+
+
+/**
+ * Loads a synthetic network in which a few hubs are connected to many leaves,
+ * as happens with SIF files of protein interactions, once with the adjacency
+ * scan that Cytoscape.getCyEdge() used to do and once with getCyEdge() itself.
+ * Every interaction is loaded twice, so that half of the calls find an
+ * existing edge.<p>
+ * Usage: EdgeIndexPerformance [hubs [leavesPerHub]]
+ */
+public class EdgeIndexPerformance {
+	private static final String[] INTERACTIONS = { "pp", "pd", "gl" };
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param args DOCUMENT ME!
+	 */
+	public static void main(String[] args) {
+		final int hubs = (args.length > 0) ? Integer.parseInt(args[0]) : 5;
+		final int leaves = (args.length > 1) ? Integer.parseInt(args[1]) : 20000;
+
+		long millis = System.currentTimeMillis();
+		load("scan", hubs, leaves, false);
+		System.out.println("adjacency scan: " + (System.currentTimeMillis() - millis) + " ms");
+
+		millis = System.currentTimeMillis();
+		load("index", hubs, leaves, true);
+		System.out.println("getCyEdge:      " + (System.currentTimeMillis() - millis) + " ms");
+	}
+
+	private static void load(final String prefix, final int hubs, final int leaves,
+	                         final boolean indexed) {
+		for (int pass = 0; pass < 2; pass++) {
+			for (int h = 0; h < hubs; h++) {
+				final Node hub = Cytoscape.getCyNode(prefix + " hub " + h, true);
+
+				for (int l = 0; l < leaves; l++) {
+					final Node leaf = Cytoscape.getCyNode(prefix + " leaf " + l, true);
+					final String interaction = INTERACTIONS[l % INTERACTIONS.length];
+
+					if (indexed)
+						Cytoscape.getCyEdge(hub, leaf, Semantics.INTERACTION, interaction, true, true);
+					else
+						scanForEdge(hub, leaf, interaction);
+				}
+			}
+		}
+	}
+
+	// The lookup that getCyEdge() did before the interaction index existed.
+	private static CyEdge scanForEdge(final Node source, final Node target,
+	                                  final String interaction) {
+		final CytoscapeRootGraph root = Cytoscape.getRootGraph();
+		final CyAttributes edgeAttrs = Cytoscape.getEdgeAttributes();
+		final int[] adjacentEdges = root.getAdjacentEdgeIndicesArray(source.getRootGraphIndex(),
+		                                                             true, true, true);
+
+		for (int i = 0; i < adjacentEdges.length; i++) {
+			final CyEdge edge = (CyEdge) root.getEdge(adjacentEdges[i]);
+
+			if (interaction.equals(edgeAttrs.getStringAttribute(edge.getIdentifier(),
+			                                                      Semantics.INTERACTION))
+			    && (edge.getTarget().getRootGraphIndex() == target.getRootGraphIndex()))
+				return edge;
+		}
+
+		final CyEdge edge = (CyEdge) root.getEdge(root.createEdge(source, target));
+		final String edgeName = CyEdge.createIdentifier(source.getIdentifier(), interaction,
+		                                                target.getIdentifier());
+		edge.setIdentifier(edgeName);
+		edgeAttrs.setAttribute(edgeName, Semantics.INTERACTION, interaction);
+		edgeAttrs.setAttribute(edgeName, Semantics.CANONICAL_NAME, edgeName);
+
+		return edge;
+	}
+}
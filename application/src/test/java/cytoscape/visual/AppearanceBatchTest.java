@@ -0,0 +1,206 @@
+/*
+  File: AppearanceBatchTest.java
+
+  Copyright (c) 2006, The Cytoscape Consortium (www.cytoscape.org)
+
+  The Cytoscape Consortium is:
+  - Institute for Systems Biology
+  - University of California San Diego
+  - Memorial Sloan-Kettering Cancer Center
+  - Institut Pasteur
+  - Agilent Technologies
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+
+package cytoscape.visual;
+
+import giny.view.EdgeView;
+import giny.view.NodeView;
+
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+import cytoscape.CyEdge;
+import cytoscape.CyNetwork;
+import cytoscape.CyNode;
+import cytoscape.Cytoscape;
+import cytoscape.data.CyAttributes;
+import cytoscape.data.Semantics;
+import cytoscape.data.readers.CyAttributesReader;
+import cytoscape.util.FileUtil;
+import cytoscape.visual.customgraphic.CyCustomGraphics;
+import ding.view.DGraphView;
+
+/**
+ * Tests that AppearanceBatch styles a view just like applying the
+ * appearances one node or edge at a time does.
+ */
+public class AppearanceBatchTest extends TestCase {
+	// Enough nodes and edges for several chunks.
+	private static final int EXTRA_NODES = 2400;
+	private static final double[] EDGE_SAMPLES = { 0.4, 1.5, 1.6, 2.7, 3.0 };
+
+	CyNetwork cyNet;
+	NodeAppearanceCalculator nac;
+	EdgeAppearanceCalculator eac;
+	VisualPropertyDependency deps;
+	List<VisualPropertyType> bypassedVPs;
+
+	/**
+	 * DOCUMENT ME!
+	 */
+	public void setUp() throws Exception {
+		cyNet = Cytoscape.createNetworkFromFile("src/test/resources/testData/small.sif");
+
+		final Properties props = new Properties();
+		CyAttributesReader.loadAttributes(Cytoscape.getNodeAttributes(),
+				new FileReader("src/test/resources/testData/small.nodeAttr"));
+		props.load(FileUtil.getInputStream("src/test/resources/testData/small.vizmap.props"));
+
+		final CyAttributes nodeAttrs = Cytoscape.getNodeAttributes();
+		final CyAttributes edgeAttrs = Cytoscape.getEdgeAttributes();
+		CyNode prev = Cytoscape.getCyNode("a");
+
+		for (int i = 0; i < EXTRA_NODES; i++) {
+			final CyNode node = Cytoscape.getCyNode("batch" + i, true);
+			cyNet.addNode(node);
+			nodeAttrs.setAttribute(node.getIdentifier(), "sample", new Integer(i % 5));
+
+			final CyEdge edge = Cytoscape.getCyEdge(prev, node, Semantics.INTERACTION,
+					"pp", true);
+			cyNet.addEdge(edge);
+			edgeAttrs.setAttribute(edge.getIdentifier(), "sample",
+					new Double(EDGE_SAMPLES[i % EDGE_SAMPLES.length]));
+			prev = node;
+		}
+
+		final CalculatorCatalog catalog = new CalculatorCatalog();
+		CalculatorIO.loadCalculators(props, catalog, true);
+		deps = new VisualPropertyDependencyImpl();
+		nac = new NodeAppearanceCalculator(deps);
+		nac.applyProperties("homer", props, "nodeAppearanceCalculator.homer", catalog);
+		eac = new EdgeAppearanceCalculator(deps);
+		eac.applyProperties("homer", props, "edgeAppearanceCalculator.homer", catalog);
+		bypassedVPs = new ArrayList<VisualPropertyType>();
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 */
+	public void testSerialBatch() {
+		assertSameAsSerial(false);
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 */
+	public void testParallelBatch() {
+		assertSameAsSerial(true);
+	}
+
+	private void assertSameAsSerial(final boolean parallel) {
+		final DGraphView serial = createView();
+		final NodeAppearance nodeAppr = new NodeAppearance();
+		final EdgeAppearance edgeAppr = new EdgeAppearance();
+
+		for (NodeView nodeView : getNodeViews(serial)) {
+			nac.calculateNodeAppearance(nodeAppr, nodeView.getNode(), cyNet, bypassedVPs);
+			nodeAppr.applyAppearance(nodeView, deps);
+		}
+
+		for (EdgeView edgeView : getEdgeViews(serial)) {
+			eac.calculateEdgeAppearance(edgeAppr, edgeView.getEdge(), cyNet, bypassedVPs);
+			edgeAppr.applyAppearance(edgeView, deps);
+		}
+
+		final DGraphView batch = createView();
+		AppearanceBatch.applyNodeAppearances(nac, cyNet, batch, getNodeViews(batch),
+				bypassedVPs, deps, new HashSet<CyCustomGraphics>(), parallel);
+		AppearanceBatch.applyEdgeAppearances(eac, cyNet, batch, getEdgeViews(batch),
+				bypassedVPs, deps, parallel);
+
+		for (NodeView expected : getNodeViews(serial)) {
+			final NodeView actual = batch.getNodeView(expected.getRootGraphIndex());
+			final String id = expected.getNode().getIdentifier();
+			assertEquals(id, expected.getUnselectedPaint(), actual.getUnselectedPaint());
+			assertEquals(id, expected.getBorderPaint(), actual.getBorderPaint());
+			assertEquals(id, expected.getBorderWidth(), actual.getBorderWidth());
+			assertEquals(id, expected.getWidth(), actual.getWidth());
+			assertEquals(id, expected.getHeight(), actual.getHeight());
+			assertEquals(id, expected.getShape(), actual.getShape());
+			assertEquals(id, expected.getLabel().getText(), actual.getLabel().getText());
+			assertEquals(id, expected.getLabel().getFont(), actual.getLabel().getFont());
+			assertEquals(id, expected.getLabel().getTextPaint(),
+					actual.getLabel().getTextPaint());
+		}
+
+		for (EdgeView expected : getEdgeViews(serial)) {
+			final EdgeView actual = batch.getEdgeView(expected.getRootGraphIndex());
+			final String id = expected.getEdge().getIdentifier();
+			assertEquals(id, expected.getUnselectedPaint(), actual.getUnselectedPaint());
+			assertEquals(id, expected.getStrokeWidth(), actual.getStrokeWidth());
+			assertEquals(id, expected.getStroke(), actual.getStroke());
+			assertEquals(id, expected.getSourceEdgeEnd(), actual.getSourceEdgeEnd());
+			assertEquals(id, expected.getTargetEdgeEnd(), actual.getTargetEdgeEnd());
+			assertEquals(id, expected.getLabel().getText(), actual.getLabel().getText());
+		}
+	}
+
+	private DGraphView createView() {
+		final DGraphView view = new DGraphView(cyNet);
+
+		for (int node : cyNet.getNodeIndicesArray())
+			view.addNodeView(node);
+
+		for (int edge : cyNet.getEdgeIndicesArray())
+			view.addEdgeView(edge);
+
+		return view;
+	}
+
+	private static NodeView[] getNodeViews(final DGraphView view) {
+		final List<NodeView> nodeViews = new ArrayList<NodeView>();
+
+		for (Iterator i = view.getNodeViewsIterator(); i.hasNext();)
+			nodeViews.add((NodeView) i.next());
+
+		return nodeViews.toArray(new NodeView[nodeViews.size()]);
+	}
+
+	private static EdgeView[] getEdgeViews(final DGraphView view) {
+		final List<EdgeView> edgeViews = new ArrayList<EdgeView>();
+
+		for (Iterator i = view.getEdgeViewsIterator(); i.hasNext();)
+			edgeViews.add((EdgeView) i.next());
+
+		return edgeViews.toArray(new EdgeView[edgeViews.size()]);
+	}
+}
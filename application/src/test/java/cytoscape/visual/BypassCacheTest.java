@@ -0,0 +1,148 @@
+/*
+  File: BypassCacheTest.java
+
+  Copyright (c) 2006, The Cytoscape Consortium (www.cytoscape.org)
+
+  The Cytoscape Consortium is:
+  - Institute for Systems Biology
+  - University of California San Diego
+  - Memorial Sloan-Kettering Cancer Center
+  - Institut Pasteur
+  - Agilent Technologies
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+
+package cytoscape.visual;
+
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.cytoscape.equations.EqnCompiler;
+
+import cytoscape.Cytoscape;
+import cytoscape.data.CyAttributes;
+
+/**
+ * Tests that BypassCache follows the changes of the bypass attributes.
+ */
+public class BypassCacheTest extends TestCase {
+	private static final String FILL_COLOR = VisualPropertyType.NODE_FILL_COLOR.getBypassAttrName();
+	private static final String SOURCE = "bypass.source";
+
+	CyAttributes nodeAttrs;
+	BypassCache cache;
+
+	/**
+	 * DOCUMENT ME!
+	 */
+	public void setUp() throws Exception {
+		nodeAttrs = Cytoscape.getNodeAttributes();
+		cache = BypassCache.getNodeBypasses();
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 */
+	public void tearDown() throws Exception {
+		for (String attrName : new String[] { FILL_COLOR, SOURCE })
+			if (nodeAttrs.getType(attrName) != CyAttributes.TYPE_UNDEFINED) {
+				nodeAttrs.deleteAttribute("bypass1", attrName);
+				nodeAttrs.deleteAttribute("bypass2", attrName);
+			}
+	}
+
+	/**
+	 * Setting a bypass replaces the cached value.
+	 */
+	public void testSet() {
+		nodeAttrs.setAttribute("bypass1", FILL_COLOR, "25,31,244");
+		assertEquals(new Color(25, 31, 244), getFillColor("bypass1"));
+
+		nodeAttrs.setAttribute("bypass1", FILL_COLOR, "1,2,3");
+		assertEquals(new Color(1, 2, 3), getFillColor("bypass1"));
+
+		nodeAttrs.setAttribute("bypass1", FILL_COLOR, "junk");
+		assertNull(getFillColor("bypass1"));
+	}
+
+	/**
+	 * Deleting a bypass removes it from the cache.
+	 */
+	public void testDelete() {
+		nodeAttrs.setAttribute("bypass1", FILL_COLOR, "25,31,244");
+		nodeAttrs.setAttribute("bypass2", FILL_COLOR, "1,2,3");
+
+		nodeAttrs.deleteAttribute("bypass1", FILL_COLOR);
+		assertNull(cache.get("bypass1"));
+		assertEquals(new Color(1, 2, 3), getFillColor("bypass2"));
+	}
+
+	/**
+	 * Deleting the definition of a bypass attribute removes the bypasses of
+	 * all nodes.
+	 */
+	public void testAttributeDefinitionDelete() {
+		nodeAttrs.setAttribute("bypass1", FILL_COLOR, "25,31,244");
+		nodeAttrs.setAttribute("bypass2", FILL_COLOR, "1,2,3");
+
+		assertTrue(nodeAttrs.deleteAttribute(FILL_COLOR));
+		assertNull(cache.get("bypass1"));
+		assertNull(cache.get("bypass2"));
+	}
+
+	/**
+	 * Bypasses defined by equations follow the attributes they reference.
+	 */
+	public void testEquation() {
+		final EqnCompiler compiler = new EqnCompiler();
+		final Map<String, Class> attribNameToTypeMap = new HashMap<String, Class>();
+		nodeAttrs.setAttribute("bypass1", SOURCE, "25,31,244");
+		attribNameToTypeMap.put(SOURCE, String.class);
+		assertTrue(compiler.compile("=$" + SOURCE, attribNameToTypeMap));
+		nodeAttrs.setAttribute("bypass1", FILL_COLOR, compiler.getEquation());
+		assertEquals(new Color(25, 31, 244), getFillColor("bypass1"));
+
+		nodeAttrs.setAttribute("bypass1", SOURCE, "1,2,3");
+		assertEquals(new Color(1, 2, 3), getFillColor("bypass1"));
+
+		// A plain value replaces the equation.
+		nodeAttrs.setAttribute("bypass1", FILL_COLOR, "4,5,6");
+		nodeAttrs.setAttribute("bypass1", SOURCE, "7,8,9");
+		assertEquals(new Color(4, 5, 6), getFillColor("bypass1"));
+
+		nodeAttrs.deleteAttribute("bypass1", FILL_COLOR);
+		assertNull(cache.get("bypass1"));
+	}
+
+	private Object getFillColor(final String id) {
+		final Map<VisualPropertyType, Object> bypasses = cache.get(id);
+
+		return (bypasses == null) ? null : bypasses.get(VisualPropertyType.NODE_FILL_COLOR);
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.visual;
+
+import cytoscape.CyNode;
+import cytoscape.Cytoscape;
+
+import cytoscape.data.CyAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Restyles the nodes of a synthetic network in which every node has a
+ * column for each of several bypassed visual properties but only a few nodes
+ * have values in them, once parsing the bypass attributes of every node as
+ * restyles used to and once with the bypass cache.<p>
+ * Usage: BypassPerformance [nodes [percentBypassed [repeats]]]
+ */
+public class BypassPerformance {
+	private static final VisualPropertyType[] BYPASSED = {
+		VisualPropertyType.NODE_FILL_COLOR, VisualPropertyType.NODE_BORDER_COLOR,
+		VisualPropertyType.NODE_SHAPE, VisualPropertyType.NODE_SIZE,
+		VisualPropertyType.NODE_LABEL, VisualPropertyType.NODE_LABEL_COLOR,
+		VisualPropertyType.NODE_FONT_SIZE, VisualPropertyType.NODE_LINE_WIDTH
+	};
+	private static final String[] VALUES = {
+		"255,0,0", "0,0,0", "diamond", "40.0", "bypassed", "0,0,255", "18", "3.0"
+	};
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param args DOCUMENT ME!
+	 */
+	public static void main(String[] args) {
+		final int nodeCount = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+		final int percent = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+		final int repeats = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+
+		final CyAttributes nodeAttrs = Cytoscape.getNodeAttributes();
+		final CyNode[] nodes = new CyNode[nodeCount];
+
+		for (int i = 0; i < nodeCount; i++) {
+			nodes[i] = Cytoscape.getCyNode("bypass node " + i, true);
+
+			if ((i % 100) < percent) {
+				for (int j = 0; j < BYPASSED.length; j++)
+					nodeAttrs.setAttribute(nodes[i].getIdentifier(),
+					                       BYPASSED[j].getBypassAttrName(), VALUES[j]);
+			}
+		}
+
+		final List<VisualPropertyType> bypassedVPs = new ArrayList<VisualPropertyType>();
+
+		for (VisualPropertyType type : VisualPropertyType.values())
+			if (type.isNodeProp()
+			    && (nodeAttrs.getMultiHashMapDefinition()
+			                 .getAttributeValueType(type.getBypassAttrName()) >= 0))
+				bypassedVPs.add(type);
+
+		final NodeAppearanceCalculator nac = new NodeAppearanceCalculator(new VisualPropertyDependencyImpl());
+		final NodeAppearance appr = new NodeAppearance();
+
+		for (int r = 0; r < repeats; r++) {
+			long millis = System.currentTimeMillis();
+
+			for (int i = 0; i < nodeCount; i++) {
+				appr.copy(nac.getDefaultAppearance());
+				parseBypasses(appr, nodes[i], nodeAttrs, bypassedVPs);
+			}
+
+			System.out.println("parsing:    " + (System.currentTimeMillis() - millis) + " ms");
+
+			millis = System.currentTimeMillis();
+
+			for (int i = 0; i < nodeCount; i++) {
+				VisualMappingManager.getByPassedVisProps(nodes[i], bypassedVPs);
+				nac.calculateNodeAppearance(appr, nodes[i], null, bypassedVPs);
+			}
+
+			System.out.println("bypass cache: " + (System.currentTimeMillis() - millis) + " ms");
+		}
+	}
+
+	// What a restyle did for every node before the bypass cache existed: once
+	// to collect bypassed custom graphics and once to apply the bypasses.
+	private static void parseBypasses(final NodeAppearance appr, final CyNode node,
+	                                  final CyAttributes nodeAttrs,
+	                                  final List<VisualPropertyType> bypassedVPs) {
+		final String id = node.getIdentifier();
+
+		for (int pass = 0; pass < 2; pass++) {
+			for (VisualPropertyType type : bypassedVPs) {
+				final Object bypass = Appearance.getBypass(nodeAttrs, id, type);
+
+				if ((bypass != null) && (pass == 1))
+					appr.set(type, bypass);
+			}
+		}
+	}
+}
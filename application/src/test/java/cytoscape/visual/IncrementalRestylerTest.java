@@ -0,0 +1,237 @@
+/*
+  File: IncrementalRestylerTest.java
+
+  Copyright (c) 2006, The Cytoscape Consortium (www.cytoscape.org)
+
+  The Cytoscape Consortium is:
+  - Institute for Systems Biology
+  - University of California San Diego
+  - Memorial Sloan-Kettering Cancer Center
+  - Institut Pasteur
+  - Agilent Technologies
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+
+package cytoscape.visual;
+
+import giny.view.NodeView;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.cytoscape.equations.EqnCompiler;
+
+import cytoscape.CyNetwork;
+import cytoscape.CyNode;
+import cytoscape.Cytoscape;
+import cytoscape.data.CyAttributes;
+import cytoscape.ding.DingNetworkView;
+import cytoscape.visual.calculators.BasicCalculator;
+import cytoscape.visual.mappings.PassThroughMapping;
+import ding.view.DNodeView;
+
+/**
+ * Tests that IncrementalRestyler styles a view just like a full restyle does.
+ */
+public class IncrementalRestylerTest extends TestCase {
+	// Enough nodes for a few changes to stay below the limit.
+	private static final int NODES = 40;
+	private static final String VALUE = "restyle.value";
+	private static final String DOUBLED = "restyle.doubled";
+	private static final String TOOLTIP = "restyle.tooltip";
+	private static final String CUSTOM_GRAPHICS = VisualPropertyType.NODE_CUSTOM_GRAPHICS_1.getBypassAttrName();
+
+	CyNetwork net;
+	CyAttributes nodeAttrs;
+	VisualStyle style;
+	DingNetworkView view;
+	IncrementalRestyler restyler;
+
+	/**
+	 * DOCUMENT ME!
+	 */
+	public void setUp() throws Exception {
+		net = Cytoscape.createNetwork("restyle", false);
+		nodeAttrs = Cytoscape.getNodeAttributes();
+
+		final EqnCompiler compiler = new EqnCompiler();
+		final Map<String, Class> attribNameToTypeMap = new HashMap<String, Class>();
+		attribNameToTypeMap.put(VALUE, Double.class);
+		assertTrue(compiler.compile("=$" + VALUE + " * 2", attribNameToTypeMap));
+
+		for (int i = 0; i < NODES; i++) {
+			final CyNode node = Cytoscape.getCyNode("restyle" + i, true);
+			net.addNode(node);
+			nodeAttrs.setAttribute(node.getIdentifier(), VALUE, Double.valueOf(i));
+			nodeAttrs.setAttribute(node.getIdentifier(), DOUBLED, compiler.getEquation());
+			nodeAttrs.setAttribute(node.getIdentifier(), TOOLTIP, "tooltip" + i);
+		}
+
+		style = new VisualStyle("restyle");
+
+		final NodeAppearanceCalculator nac = style.getNodeAppearanceCalculator();
+		nac.setCalculator(new BasicCalculator("restyle label",
+		                                      new PassThroughMapping(String.class, DOUBLED),
+		                                      VisualPropertyType.NODE_LABEL));
+		nac.setCalculator(new BasicCalculator("restyle tooltip",
+		                                      new PassThroughMapping(String.class, TOOLTIP),
+		                                      VisualPropertyType.NODE_TOOLTIP));
+
+		view = new DingNetworkView(net, "restyle");
+		restyler = new IncrementalRestyler();
+		restyler.listen(nodeAttrs, Cytoscape.getEdgeAttributes());
+		fullRestyle(view);
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 */
+	public void tearDown() throws Exception {
+		for (int i = 0; i < NODES; i++) {
+			nodeAttrs.deleteAttribute("restyle" + i, VALUE);
+			nodeAttrs.deleteAttribute("restyle" + i, DOUBLED);
+			nodeAttrs.deleteAttribute("restyle" + i, TOOLTIP);
+		}
+
+		if (nodeAttrs.getType(CUSTOM_GRAPHICS) != CyAttributes.TYPE_UNDEFINED)
+			nodeAttrs.deleteAttribute("restyle4", CUSTOM_GRAPHICS);
+
+		Cytoscape.destroyNetwork(net);
+	}
+
+	/**
+	 * Only the changed attributes are restyled, and just like in full.
+	 */
+	public void testAttributeChange() {
+		nodeAttrs.setAttribute("restyle3", TOOLTIP, "changed3");
+		nodeAttrs.setAttribute("restyle7", TOOLTIP, "changed7");
+
+		assertTrue(restyler.restyle(net, view, style));
+		assertEquals("changed3", getToolTip(getNodeView(view, "restyle3")));
+		assertEquals("changed7", getToolTip(getNodeView(view, "restyle7")));
+		assertSameStyle();
+	}
+
+	/**
+	 * Editing an attribute that an equation reads restyles the visual
+	 * properties mapped to the equation.
+	 */
+	public void testEquationDependency() {
+		nodeAttrs.setAttribute("restyle5", VALUE, Double.valueOf(100.0));
+
+		assertTrue(restyler.restyle(net, view, style));
+		assertEquals("200.0", getNodeView(view, "restyle5").getLabel().getText());
+		assertSameStyle();
+	}
+
+	/**
+	 * Without recorded changes, the restyle may be due to something the
+	 * restyler does not track, so it is left to a full restyle.
+	 */
+	public void testNoChanges() {
+		assertFalse(restyler.restyle(net, view, style));
+
+		nodeAttrs.setAttribute("restyle1", TOOLTIP, "changed1");
+		assertTrue(restyler.restyle(net, view, style));
+		assertFalse(restyler.restyle(net, view, style));
+	}
+
+	/**
+	 * Custom graphics bypasses are left to a full restyle, which also
+	 * registers the custom graphics in use.
+	 */
+	public void testCustomGraphicsBypass() {
+		nodeAttrs.setAttribute("restyle4", CUSTOM_GRAPHICS, "restyle");
+		assertFalse(restyler.restyle(net, view, style));
+
+		fullRestyle(view);
+		nodeAttrs.setAttribute("restyle4", TOOLTIP, "changed4");
+		nodeAttrs.deleteAttribute("restyle4", CUSTOM_GRAPHICS);
+		assertFalse(restyler.restyle(net, view, style));
+	}
+
+	/**
+	 * After reset(), nothing is restyled incrementally until the next full
+	 * restyle.
+	 */
+	public void testReset() {
+		nodeAttrs.setAttribute("restyle1", TOOLTIP, "changed1");
+		restyler.reset();
+		nodeAttrs.setAttribute("restyle2", TOOLTIP, "changed2");
+		assertFalse(restyler.restyle(net, view, style));
+
+		fullRestyle(view);
+		nodeAttrs.setAttribute("restyle3", TOOLTIP, "changed3");
+		assertTrue(restyler.restyle(net, view, style));
+		assertSameStyle();
+	}
+
+	/*
+	 * Restyles the given view in full the way VisualMappingManager does.
+	 */
+	private void fullRestyle(final DingNetworkView target) {
+		restyler.reset();
+		styleNodes(target);
+		restyler.restyled(net, target, style);
+	}
+
+	private void styleNodes(final DingNetworkView target) {
+		final NodeAppearanceCalculator nac = style.getNodeAppearanceCalculator();
+		final NodeAppearance appr = new NodeAppearance();
+
+		for (int i = 0; i < NODES; i++) {
+			final NodeView nodeView = getNodeView(target, "restyle" + i);
+			nac.calculateNodeAppearance(appr, nodeView.getNode(), net);
+			appr.applyAppearance(nodeView, style.getDependency());
+		}
+	}
+
+	/*
+	 * Checks that the incrementally restyled view looks like a view of the
+	 * same network restyled in full.
+	 */
+	private void assertSameStyle() {
+		final DingNetworkView expected = new DingNetworkView(net, "expected");
+		styleNodes(expected);
+
+		for (int i = 0; i < NODES; i++) {
+			final NodeView nodeView = getNodeView(view, "restyle" + i);
+			final NodeView expectedView = getNodeView(expected, "restyle" + i);
+			assertEquals(expectedView.getLabel().getText(), nodeView.getLabel().getText());
+			assertEquals(getToolTip(expectedView), getToolTip(nodeView));
+		}
+	}
+
+	private static String getToolTip(final NodeView nodeView) {
+		return ((DNodeView) nodeView).getToolTip();
+	}
+
+	private static NodeView getNodeView(final DingNetworkView target, final String id) {
+		return target.getNodeView(Cytoscape.getCyNode(id));
+	}
+}
@@ -138,4 +138,32 @@ public class NodeAppearanceTest extends TestCase {
 		assertEquals("node uniform size", 35.0, ((Double)na.get(NODE_SIZE)).doubleValue(), SLACK);
 		assertEquals("node heigth", 80.0, ((Double)na.get(NODE_HEIGHT)).doubleValue(), SLACK);
 	}
+
+	/**
+	 *  DOCUMENT ME!
+	 */
+	public void testSaveAndRestore() {
+		final VisualPropertyType[] types = { NODE_FILL_COLOR, NODE_SIZE, NODE_LABEL };
+		final Object[] buffer = new Object[2 * types.length];
+
+		NodeAppearance na = new NodeAppearance();
+		na.set(NODE_FILL_COLOR, Color.red);
+		na.set(NODE_SIZE, 12.0);
+		na.set(NODE_LABEL, "first");
+		na.save(types, buffer, 0);
+
+		na.set(NODE_FILL_COLOR, Color.blue);
+		na.set(NODE_LABEL, "second");
+		na.save(types, buffer, types.length);
+
+		NodeAppearance restored = new NodeAppearance();
+		restored.restore(types, buffer, 0);
+		assertEquals(Color.red, restored.get(NODE_FILL_COLOR));
+		assertEquals(12.0, ((Double)restored.get(NODE_SIZE)).doubleValue(), SLACK);
+		assertEquals("first", restored.get(NODE_LABEL));
+
+		restored.restore(types, buffer, types.length);
+		assertEquals(Color.blue, restored.get(NODE_FILL_COLOR));
+		assertEquals("second", restored.get(NODE_LABEL));
+	}
 }
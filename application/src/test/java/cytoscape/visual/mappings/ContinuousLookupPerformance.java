@@ -0,0 +1,123 @@
+/*
+  File: ContinuousLookupPerformance.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  The Cytoscape Consortium is:
+  - Institute for Systems Biology
+  - University of California San Diego
+  - Memorial Sloan-Kettering Cancer Center
+  - Institut Pasteur
+  - Agilent Technologies
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.visual.mappings;
+
+import cytoscape.visual.mappings.continuous.ContinuousMappingPoint;
+import cytoscape.visual.mappings.continuous.ContinuousRangeCalculator;
+
+import java.awt.Color;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+
+/**
+ * Times lookups in a continuous mapping with each kind of interpolator, once
+ * with a new ContinuousRangeCalculator per lookup as ContinuousMapping used
+ * to do and once with a ContinuousLookupTable, checked before every lookup
+ * as ContinuousMapping does.<p>
+ * Usage: ContinuousLookupPerformance [lookups [points [repeats]]]
+ */
+public class ContinuousLookupPerformance {
+	private static Object s_sink;
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param args DOCUMENT ME!
+	 */
+	public static void main(String[] args) {
+		final int lookups = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		final int pointCount = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+		final int repeats = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+
+		final List<ContinuousMappingPoint> numbers = new ArrayList<ContinuousMappingPoint>();
+		final List<ContinuousMappingPoint> colors = new ArrayList<ContinuousMappingPoint>();
+		final Random random = new Random(17);
+
+		for (int i = 0; i < pointCount; i++) {
+			final Double size = new Double(10 + (10 * i));
+			numbers.add(new ContinuousMappingPoint(i, new BoundaryRangeValues(size, size, size)));
+
+			final Color color = new Color(random.nextInt(0x1000000));
+			colors.add(new ContinuousMappingPoint(i, new BoundaryRangeValues(color, color, color)));
+		}
+
+		final Double[] values = new Double[lookups];
+
+		for (int i = 0; i < lookups; i++)
+			values[i] = new Double((random.nextDouble() * (pointCount + 1)) - 1);
+
+		for (int r = 0; r < repeats; r++) {
+			time("number", numbers, new LinearNumberToNumberInterpolator(), values);
+			time("color ", colors, new LinearNumberToColorInterpolator(), values);
+			time("flat  ", colors, new FlatInterpolator(), values);
+		}
+	}
+
+	private static void time(final String name, final List<ContinuousMappingPoint> points,
+	                         final Interpolator interpolator, final Double[] values) {
+		final Map<String, Object> bundle = new HashMap<String, Object>();
+		long nanos = System.nanoTime();
+
+		for (int i = 0; i < values.length; i++) {
+			bundle.put("value", values[i]);
+			s_sink = new ContinuousRangeCalculator(points, interpolator, bundle).calculateRangeValue("value");
+		}
+
+		final long calculatorNanos = System.nanoTime() - nanos;
+
+		nanos = System.nanoTime();
+
+		ContinuousLookupTable table = null;
+
+		for (int i = 0; i < values.length; i++) {
+			if ((table == null) || !table.isCompiledFrom(points, interpolator))
+				table = new ContinuousLookupTable(points, interpolator);
+
+			s_sink = table.getRangeValue(values[i]);
+		}
+
+		final long tableNanos = System.nanoTime() - nanos;
+
+		System.out.println(name + ": calculator " + (calculatorNanos / 1000000) + " ms, table "
+		                   + (tableNanos / 1000000) + " ms");
+	}
+}
@@ -0,0 +1,149 @@
+/*
+  File: ContinuousLookupTableTest.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  The Cytoscape Consortium is:
+  - Institute for Systems Biology
+  - University of California San Diego
+  - Memorial Sloan-Kettering Cancer Center
+  - Institut Pasteur
+  - Agilent Technologies
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.visual.mappings;
+
+import cytoscape.visual.mappings.continuous.ContinuousMappingPoint;
+import cytoscape.visual.mappings.continuous.ContinuousRangeCalculator;
+
+import junit.framework.TestCase;
+
+import java.awt.Color;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+
+/**
+ * Tests that ContinuousLookupTable gives the same results as
+ * ContinuousRangeCalculator.
+ */
+public class ContinuousLookupTableTest extends TestCase {
+	private static final double[] DOMAIN = { -2.0, 0.0, 0.0, 1.5, 7.0 };
+
+	/**
+	 *  DOCUMENT ME!
+	 */
+	public void testNumbers() {
+		final List<ContinuousMappingPoint> points = new ArrayList<ContinuousMappingPoint>();
+
+		for (int i = 0; i < DOMAIN.length; i++)
+			points.add(new ContinuousMappingPoint(DOMAIN[i],
+			                                      new BoundaryRangeValues(new Double(i),
+			                                                              new Double(10 * i),
+			                                                              new Double(i + 0.5))));
+
+		assertSameRanges(points, new LinearNumberToNumberInterpolator());
+		assertSameRanges(points, new FlatInterpolator(FlatInterpolator.UPPER));
+		assertSameRanges(points, null);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 */
+	public void testColors() {
+		final List<ContinuousMappingPoint> points = new ArrayList<ContinuousMappingPoint>();
+		final Color[] colors = { Color.red, new Color(10, 20, 30, 40), Color.white, Color.blue,
+		                         Color.black };
+
+		for (int i = 0; i < DOMAIN.length; i++)
+			points.add(new ContinuousMappingPoint(DOMAIN[i],
+			                                      new BoundaryRangeValues(colors[i], colors[i],
+			                                                              colors[(i + 1) % colors.length])));
+
+		assertSameRanges(points, new LinearNumberToColorInterpolator());
+
+		// A range value that cannot be interpolated.
+		points.get(2).getRange().greaterValue = "not a color";
+		assertSameRanges(points, new LinearNumberToColorInterpolator());
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 */
+	public void testCompiledFrom() {
+		final List<ContinuousMappingPoint> points = new ArrayList<ContinuousMappingPoint>();
+		points.add(new ContinuousMappingPoint(1.0, new BoundaryRangeValues(1.0, 2.0, 3.0)));
+		points.add(new ContinuousMappingPoint(2.0, new BoundaryRangeValues(4.0, 5.0, 6.0)));
+
+		final Interpolator interpolator = new LinearNumberToNumberInterpolator();
+		final ContinuousLookupTable table = new ContinuousLookupTable(points, interpolator);
+		assertTrue(table.isCompiledFrom(points, interpolator));
+		assertFalse(table.isCompiledFrom(points, new LinearNumberToNumberInterpolator()));
+		assertFalse(table.isCompiledFrom(new ArrayList<ContinuousMappingPoint>(points),
+		                                 interpolator));
+
+		points.add(new ContinuousMappingPoint(3.0, new BoundaryRangeValues(7.0, 8.0, 9.0)));
+		assertFalse(table.isCompiledFrom(points, interpolator));
+
+		final ContinuousLookupTable table2 = new ContinuousLookupTable(points, interpolator);
+		assertTrue(table2.isCompiledFrom(points, interpolator));
+		ContinuousLookupTable.invalidateAll();
+		assertFalse(table2.isCompiledFrom(points, interpolator));
+		assertTrue(new ContinuousLookupTable(points, interpolator).isCompiledFrom(points,
+		                                                                          interpolator));
+	}
+
+	private void assertSameRanges(final List<ContinuousMappingPoint> points,
+	                              final Interpolator interpolator) {
+		final ContinuousLookupTable table = new ContinuousLookupTable(points, interpolator);
+		final Map<String, Object> bundle = new HashMap<String, Object>();
+		final ContinuousRangeCalculator calc = new ContinuousRangeCalculator(points, interpolator,
+		                                                                     bundle);
+		final Random random = new Random(17);
+		final List<Number> values = new ArrayList<Number>();
+
+		for (int i = 0; i < DOMAIN.length; i++)
+			values.add(DOMAIN[i]);
+
+		values.add(Double.NaN);
+		values.add(Double.NEGATIVE_INFINITY);
+		values.add(Double.POSITIVE_INFINITY);
+		values.add(1);
+
+		for (int i = 0; i < 1000; i++)
+			values.add((random.nextDouble() * 12.0) - 3.0);
+
+		for (Number value : values) {
+			bundle.put("value", value);
+			assertEquals("range of " + value, calc.calculateRangeValue("value"),
+			             table.getRangeValue(value));
+		}
+	}
+}
@@ -0,0 +1,223 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+
+package ding.view;
+
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import cytoscape.render.immed.GraphGraphics;
+import cytoscape.render.stateful.GraphLOD;
+
+
+/**
+ * Renders frames of an InnerCanvas on a dedicated thread.<p>
+ * Each call to request() supersedes the previous one; the frame being
+ * rendered is cancelled and only the most recent request is rendered next.
+ * Frames are rendered into a back buffer and published as the front frame
+ * once they are complete, so the event dispatch thread only ever copies
+ * finished images to the screen.  Rendering holds the view lock, exactly as
+ * synchronous rendering on the event dispatch thread does.
+ */
+final class BackgroundRenderer implements Runnable {
+	/**
+	 * The parameters of a frame.
+	 */
+	static final class Request {
+		final int width;
+		final int height;
+		final double xCenter;
+		final double yCenter;
+		final double scaleFactor;
+		final GraphLOD lod;
+		final Paint bgPaint;
+		final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+		Request(final int width, final int height, final double xCenter, final double yCenter,
+		        final double scaleFactor, final GraphLOD lod, final Paint bgPaint) {
+			this.width = width;
+			this.height = height;
+			this.xCenter = xCenter;
+			this.yCenter = yCenter;
+			this.scaleFactor = scaleFactor;
+			this.lod = lod;
+			this.bgPaint = bgPaint;
+		}
+	}
+
+	/**
+	 * A completed frame together with the viewport it was rendered for.
+	 */
+	static final class Frame {
+		final Image image;
+		final double xCenter;
+		final double yCenter;
+		final double scaleFactor;
+
+		Frame(final Image image, final Request request) {
+			this.image = image;
+			this.xCenter = request.xCenter;
+			this.yCenter = request.yCenter;
+			this.scaleFactor = request.scaleFactor;
+		}
+	}
+
+	private final InnerCanvas m_canvas;
+	private Thread m_thread = null;
+	private Request m_pending = null;
+	private volatile Request m_current = null;
+	private volatile Frame m_front = null;
+
+	// Two buffers, so that the front frame is never drawn into.
+	private final GraphGraphics[] m_buffers = new GraphGraphics[2];
+	private int m_back = 0;
+
+	BackgroundRenderer(final InnerCanvas canvas) {
+		m_canvas = canvas;
+	}
+
+	/**
+	 * Queues a frame, cancelling the frame that is being rendered, if any.
+	 */
+	synchronized void request(final Request request) {
+		cancel();
+		m_pending = request;
+
+		if (m_thread == null) {
+			m_thread = new Thread(this, "Network view renderer");
+			m_thread.setDaemon(true);
+			m_thread.setPriority(Thread.NORM_PRIORITY - 1);
+			m_thread.start();
+		}
+
+		notifyAll();
+	}
+
+	/**
+	 * Cancels the frame that is being rendered.  This does not block and
+	 * should be called before waiting on the view lock, so that the render
+	 * thread lets go of it quickly.
+	 */
+	void cancel() {
+		final Request current = m_current;
+
+		if (current != null)
+			current.cancelled.set(true);
+	}
+
+	/**
+	 * Returns the most recently completed frame, or null if there is none.
+	 */
+	Frame getFrontFrame() {
+		return m_front;
+	}
+
+	/**
+	 * Stops the render thread.  It is started again by the next request.
+	 */
+	synchronized void dispose() {
+		cancel();
+		m_pending = null;
+
+		if (m_thread != null) {
+			m_thread.interrupt();
+			m_thread = null;
+		}
+
+		m_buffers[0] = m_buffers[1] = null;
+		m_front = null;
+	}
+
+	public void run() {
+		final Thread self = Thread.currentThread();
+
+		while (true) {
+			final Request request;
+
+			synchronized (this) {
+				while ((m_pending == null) && (m_thread == self)) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						// Checked below.
+					}
+				}
+
+				if (m_thread != self)
+					return;
+
+				request = m_pending;
+				m_pending = null;
+				m_current = request;
+			}
+
+			render(request);
+
+			synchronized (this) {
+				if (m_current == request)
+					m_current = null;
+			}
+		}
+	}
+
+	private void render(final Request request) {
+		final GraphGraphics grafx = getBackBuffer(request.width, request.height);
+		final long start = System.nanoTime();
+
+		if (!m_canvas.renderFrame(grafx, request))
+			return;
+
+		m_front = new Frame(grafx.image, request);
+		m_back = 1 - m_back;
+		m_canvas.recordFrame(System.nanoTime() - start);
+		m_canvas.repaint();
+	}
+
+	private GraphGraphics getBackBuffer(final int width, final int height) {
+		GraphGraphics grafx = m_buffers[m_back];
+
+		if ((grafx == null) || (grafx.image.getWidth(null) != width)
+		    || (grafx.image.getHeight(null) != height)) {
+			grafx = new GraphGraphics(new BufferedImage(width, height,
+			                                            BufferedImage.TYPE_INT_ARGB), false);
+			m_buffers[m_back] = grafx;
+		}
+
+		return grafx;
+	}
+}
@@ -43,7 +43,6 @@ import cytoscape.render.immed.GraphGraphics;
 
 import cytoscape.util.intr.IntEnumerator;
 import cytoscape.util.intr.IntIterator;
-import cytoscape.util.intr.IntObjHash;
 import cytoscape.util.intr.MinIntHeap;
 
 import java.awt.Color;
@@ -52,50 +51,98 @@ import java.awt.Paint;
 import java.awt.Stroke;
 
 import java.util.HashMap;
+import java.util.Map;
 
 
 class DEdgeDetails extends IntermediateEdgeDetails {
 	final DGraphView m_view;
-	final IntObjHash m_colorsLowDetail = new IntObjHash();
-	final Object m_deletedEntry = new Object();
-	final HashMap m_segmentThicknesses = new HashMap();
-	final HashMap m_segmentStrokes = new HashMap();
-	final HashMap m_sourceArrows = new HashMap();
-	final HashMap m_sourceArrowPaints = new HashMap();
-	final HashMap m_targetArrows = new HashMap();
-	final HashMap m_targetArrowPaints = new HashMap();
-	final HashMap m_segmentPaints = new HashMap();
+
+	// Overridden values are kept in arrays indexed by the slot m_slots gives
+	// each edge that has any; see DetailArrays for the sentinels marking the
+	// slots that are not overridden.  Only the first label is kept in
+	// arrays, since DEdgeView never sets others.
+	final DetailArrays.Slots m_slots = new DetailArrays.Slots();
+
+	Color[] m_colorsLowDetail = new Color[0];
+	float[] m_segmentThicknesses = new float[0];
+	Stroke[] m_segmentStrokes = new Stroke[0];
+	byte[] m_sourceArrows = new byte[0];
+	Paint[] m_sourceArrowPaints = new Paint[0];
+	byte[] m_targetArrows = new byte[0];
+	Paint[] m_targetArrowPaints = new Paint[0];
+	Paint[] m_segmentPaints = new Paint[0];
 	//final HashMap m_segmentDashLengths = new HashMap();
-	final HashMap m_labelCounts = new HashMap();
-	final HashMap m_labelTexts = new HashMap();
-	final HashMap m_labelFonts = new HashMap();
-	final HashMap m_labelPaints = new HashMap();
-	final HashMap m_labelWidths = new HashMap();
+	int[] m_labelCounts = new int[0];
+	String[] m_labelTexts = new String[0];
+	Font[] m_labelFonts = new Font[0];
+	Paint[] m_labelPaints = new Paint[0];
+	double[] m_labelWidths = new double[0];
+	final Map<Long, String> m_otherLabelTexts = new HashMap<Long, String>();
+	final Map<Long, Font> m_otherLabelFonts = new HashMap<Long, Font>();
+	final Map<Long, Paint> m_otherLabelPaints = new HashMap<Long, Paint>();
+
+	final DetailArrays.Interner<Paint> m_paints = new DetailArrays.Interner<Paint>();
+	final DetailArrays.Interner<Stroke> m_strokes = new DetailArrays.Interner<Stroke>();
+	final DetailArrays.Interner<Font> m_fonts = new DetailArrays.Interner<Font>();
 
 	DEdgeDetails(DGraphView view) {
 		m_view = view;
 	}
 
 	void unregisterEdge(int edge) {
-		final Object o = m_colorsLowDetail.get(edge);
-
-		if ((o != null) && (o != m_deletedEntry))
-			m_colorsLowDetail.put(edge, m_deletedEntry);
-
-		final Integer key = new Integer(edge);
-		m_segmentThicknesses.remove(key);
-		m_segmentStrokes.remove(key);
-		m_sourceArrows.remove(key);
-		m_sourceArrowPaints.remove(key);
-		m_targetArrows.remove(key);
-		m_targetArrowPaints.remove(key);
-		m_segmentPaints.remove(key);
+		final int labelCount = labelCount(edge);
+
+		for (int i = 1; i < labelCount; i++) {
+			final Long lKey = new Long((((long) edge) << 32) | ((long) i));
+			m_otherLabelTexts.remove(lKey);
+			m_otherLabelFonts.remove(lKey);
+			m_otherLabelPaints.remove(lKey);
+		}
+
+		final int slot = m_slots.get(edge);
+
+		if (slot < 0)
+			return;
+
+		if (slot < m_colorsLowDetail.length)
+			m_colorsLowDetail[slot] = null;
+
+		if (slot < m_segmentThicknesses.length)
+			m_segmentThicknesses[slot] = Float.NaN;
+
+		if (slot < m_segmentStrokes.length)
+			m_segmentStrokes[slot] = null;
+
+		if (slot < m_sourceArrows.length)
+			m_sourceArrows[slot] = DetailArrays.DEFAULT_BYTE;
+
+		if (slot < m_sourceArrowPaints.length)
+			m_sourceArrowPaints[slot] = null;
+
+		if (slot < m_targetArrows.length)
+			m_targetArrows[slot] = DetailArrays.DEFAULT_BYTE;
+
+		if (slot < m_targetArrowPaints.length)
+			m_targetArrowPaints[slot] = null;
+
+		if (slot < m_segmentPaints.length)
+			m_segmentPaints[slot] = null;
+
 //		m_segmentDashLengths.remove(key);
-		m_labelCounts.remove(key);
-		m_labelTexts.remove(key);
-		m_labelFonts.remove(key);
-		m_labelPaints.remove(key);
-		m_labelWidths.remove(key);
+		if (slot < m_labelCounts.length)
+			m_labelCounts[slot] = DetailArrays.DEFAULT_INT;
+
+		if (slot < m_labelTexts.length)
+			m_labelTexts[slot] = null;
+
+		if (slot < m_labelFonts.length)
+			m_labelFonts[slot] = null;
+
+		if (slot < m_labelPaints.length)
+			m_labelPaints[slot] = null;
+
+		if (slot < m_labelWidths.length)
+			m_labelWidths[slot] = Double.NaN;
 	}
 
 	/**
@@ -106,12 +153,13 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Color colorLowDetail(int edge) {
-		final Object o = m_colorsLowDetail.get(edge);
+		final Color[] colors = m_colorsLowDetail;
+		final int slot = m_slots.get(edge);
 
-		if ((o == null) || (o == m_deletedEntry))
+		if ((slot < 0) || (slot >= colors.length) || (colors[slot] == null))
 			return super.colorLowDetail(edge);
 
-		return (Color) o;
+		return colors[slot];
 	}
 
 	/*
@@ -119,12 +167,16 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 */
 	void overrideColorLowDetail(int edge, Color color) {
 		if ((color == null) || color.equals(super.colorLowDetail(edge))) {
-			final Object val = m_colorsLowDetail.get(edge);
+			final int slot = m_slots.get(edge);
 
-			if ((val != null) && (val != m_deletedEntry))
-				m_colorsLowDetail.put(edge, m_deletedEntry);
-		} else
-			m_colorsLowDetail.put(edge, color);
+			if ((slot >= 0) && (slot < m_colorsLowDetail.length))
+				m_colorsLowDetail[slot] = null;
+		} else {
+			final int slot = m_slots.add(edge);
+
+			m_colorsLowDetail = DetailArrays.ensure(m_colorsLowDetail, slot);
+			m_colorsLowDetail[slot] = (Color) m_paints.intern(color);
+		}
 	}
 
 	/**
@@ -135,12 +187,13 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public byte sourceArrow(int edge) {
-		final Object o = m_sourceArrows.get(new Integer(edge));
+		final byte[] arrows = m_sourceArrows;
+		final int slot = m_slots.get(edge);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= arrows.length) || (arrows[slot] == DetailArrays.DEFAULT_BYTE))
 			return super.sourceArrow(edge);
 
-		return ((Byte) o).byteValue();
+		return arrows[slot];
 	}
 
 	/*
@@ -148,10 +201,17 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * arrow.
 	 */
 	void overrideSourceArrow(int edge, byte arrowType) {
-		if ((arrowType >= 0) || (arrowType == super.sourceArrow(edge)))
-			m_sourceArrows.remove(new Integer(edge));
-		else
-			m_sourceArrows.put(new Integer(edge), new Byte(arrowType));
+		if ((arrowType >= 0) || (arrowType == super.sourceArrow(edge))) {
+			final int slot = m_slots.get(edge);
+
+			if ((slot >= 0) && (slot < m_sourceArrows.length))
+				m_sourceArrows[slot] = DetailArrays.DEFAULT_BYTE;
+		} else {
+			final int slot = m_slots.add(edge);
+
+			m_sourceArrows = DetailArrays.ensure(m_sourceArrows, slot);
+			m_sourceArrows[slot] = arrowType;
+		}
 	}
 
 	/**
@@ -162,22 +222,30 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Paint sourceArrowPaint(int edge) {
-		final Object o = m_sourceArrowPaints.get(new Integer(edge));
+		final Paint[] paints = m_sourceArrowPaints;
+		final int slot = m_slots.get(edge);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= paints.length) || (paints[slot] == null))
 			return super.sourceArrowPaint(edge);
 
-		return (Paint) o;
+		return paints[slot];
 	}
 
 	/*
 	 * A null paint has the special meaning to remove overridden paint.
 	 */
 	void overrideSourceArrowPaint(int edge, Paint paint) {
-		if ((paint == null) || paint.equals(super.sourceArrowPaint(edge)))
-			m_sourceArrowPaints.remove(new Integer(edge));
-		else
-			m_sourceArrowPaints.put(new Integer(edge), paint);
+		if ((paint == null) || paint.equals(super.sourceArrowPaint(edge))) {
+			final int slot = m_slots.get(edge);
+
+			if ((slot >= 0) && (slot < m_sourceArrowPaints.length))
+				m_sourceArrowPaints[slot] = null;
+		} else {
+			final int slot = m_slots.add(edge);
+
+			m_sourceArrowPaints = DetailArrays.ensure(m_sourceArrowPaints, slot);
+			m_sourceArrowPaints[slot] = m_paints.intern(paint);
+		}
 	}
 
 	/**
@@ -188,12 +256,13 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public byte targetArrow(int edge) {
-		final Object o = m_targetArrows.get(new Integer(edge));
+		final byte[] arrows = m_targetArrows;
+		final int slot = m_slots.get(edge);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= arrows.length) || (arrows[slot] == DetailArrays.DEFAULT_BYTE))
 			return super.targetArrow(edge);
 
-		return ((Byte) o).byteValue();
+		return arrows[slot];
 	}
 
 	/*
@@ -201,10 +270,17 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * arrow.
 	 */
 	void overrideTargetArrow(int edge, byte arrowType) {
-		if ((arrowType >= 0) || (arrowType == super.targetArrow(edge)))
-			m_targetArrows.remove(new Integer(edge));
-		else
-			m_targetArrows.put(new Integer(edge), new Byte(arrowType));
+		if ((arrowType >= 0) || (arrowType == super.targetArrow(edge))) {
+			final int slot = m_slots.get(edge);
+
+			if ((slot >= 0) && (slot < m_targetArrows.length))
+				m_targetArrows[slot] = DetailArrays.DEFAULT_BYTE;
+		} else {
+			final int slot = m_slots.add(edge);
+
+			m_targetArrows = DetailArrays.ensure(m_targetArrows, slot);
+			m_targetArrows[slot] = arrowType;
+		}
 	}
 
 	/**
@@ -215,26 +291,31 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Paint targetArrowPaint(int edge) {
-		final Object o = m_targetArrowPaints.get(new Integer(edge));
+		final Paint[] paints = m_targetArrowPaints;
+		final int slot = m_slots.get(edge);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= paints.length) || (paints[slot] == null))
 			return super.targetArrowPaint(edge);
 
-		return (Paint) o;
+		return paints[slot];
 	}
 
 	/*
 	 * A null paint has the special meaning to remove overridden paint.
 	 */
 	void overrideTargetArrowPaint(int edge, Paint paint) {
-		if ((paint == null) || paint.equals(super.targetArrowPaint(edge)))
-			m_targetArrowPaints.remove(new Integer(edge));
-		else
-			m_targetArrowPaints.put(new Integer(edge), paint);
-	}
+		if ((paint == null) || paint.equals(super.targetArrowPaint(edge))) {
+			final int slot = m_slots.get(edge);
+
+			if ((slot >= 0) && (slot < m_targetArrowPaints.length))
+				m_targetArrowPaints[slot] = null;
+		} else {
+			final int slot = m_slots.add(edge);
 
-	private final MinIntHeap m_heap = new MinIntHeap();
-	private final float[] m_extentsBuff = new float[4];
+			m_targetArrowPaints = DetailArrays.ensure(m_targetArrowPaints, slot);
+			m_targetArrowPaints[slot] = m_paints.intern(paint);
+		}
+	}
 
 	/**
 	 * DOCUMENT ME!
@@ -244,11 +325,14 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public EdgeAnchors anchors(int edge) {
-		final EdgeAnchors returnThis = (EdgeAnchors) (m_view.getEdgeView(~edge));
+		final EdgeAnchors returnThis = m_view.getDEdgeView(~edge);
 
 		if (returnThis.numAnchors() > 0) 
 			return returnThis;
 
+		// Local buffers, since edges may be rendered by several threads at once.
+		final float[] extentsBuff = new float[4];
+
 		final FixedGraph graph = (FixedGraph) m_view.m_drawPersp;
 		final int srcNode = graph.edgeSource(edge);
 		final int trgNode = graph.edgeTarget(edge);
@@ -256,12 +340,12 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 		// Calculate anchors necessary for self edges.
 		if (srcNode == trgNode) { 
 
-			m_view.m_spacial.exists(srcNode, m_extentsBuff, 0);
+			m_view.m_spacial.exists(srcNode, extentsBuff, 0);
 
-			final double w = ((double) m_extentsBuff[2]) - m_extentsBuff[0];
-			final double h = ((double) m_extentsBuff[3]) - m_extentsBuff[1];
-			final double x = (((double) m_extentsBuff[0]) + m_extentsBuff[2]) / 2.0d;
-			final double y = (((double) m_extentsBuff[1]) + m_extentsBuff[3]) / 2.0d;
+			final double w = ((double) extentsBuff[2]) - extentsBuff[0];
+			final double h = ((double) extentsBuff[3]) - extentsBuff[1];
+			final double x = (((double) extentsBuff[0]) + extentsBuff[2]) / 2.0d;
+			final double y = (((double) extentsBuff[1]) + extentsBuff[3]) / 2.0d;
 			final double nodeSize = Math.max(w, h);
 			int i = 0;
 			final IntIterator selfEdges = graph.edgesConnecting(srcNode, srcNode, true, true, true);
@@ -272,7 +356,7 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 				if (e2 == edge)
 					break;
 
-				if (((EdgeAnchors) m_view.getEdgeView(~e2)).numAnchors() == 0)
+				if (m_view.getDEdgeView(~e2).numAnchors() == 0)
 					i++;
 			}
 
@@ -310,12 +394,12 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 			final IntIterator conEdges = graph.edgesConnecting(tmpSrc, tmpTrg,
 			                                                   true, true, true);
 		
-			m_heap.empty();
+			final MinIntHeap heap = new MinIntHeap();
 
 			while (conEdges.hasNext())
-				m_heap.toss(conEdges.nextInt());
+				heap.toss(conEdges.nextInt());
 
-			final IntEnumerator otherEdges = m_heap.orderedElements(false);
+			final IntEnumerator otherEdges = heap.orderedElements(false);
 
 			int otherEdge = otherEdges.nextInt();
 
@@ -325,32 +409,32 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 				break;
 
 			// So we don't count the other edge twice?
-			int i = (((EdgeAnchors) m_view.getEdgeView(~otherEdge)).numAnchors() == 0) ? 1 : 0;
+			int i = (m_view.getDEdgeView(~otherEdge).numAnchors() == 0) ? 1 : 0;
 
 			// Count the number of other edges.
 			while (true) {
 				if (edge == (otherEdge = otherEdges.nextInt()))
 					break;
 
-				if (((EdgeAnchors) m_view.getEdgeView(~otherEdge)).numAnchors() == 0)
+				if (m_view.getDEdgeView(~otherEdge).numAnchors() == 0)
 					i++;
 			}
 
 			final int inx = i;
 
 			// Get source node size and position.
-			m_view.m_spacial.exists(tmpSrc, m_extentsBuff, 0);
-			final double srcW = ((double) m_extentsBuff[2]) - m_extentsBuff[0];
-			final double srcH = ((double) m_extentsBuff[3]) - m_extentsBuff[1];
-			final double srcX = (((double) m_extentsBuff[0]) + m_extentsBuff[2]) / 2.0d;
-			final double srcY = (((double) m_extentsBuff[1]) + m_extentsBuff[3]) / 2.0d;
+			m_view.m_spacial.exists(tmpSrc, extentsBuff, 0);
+			final double srcW = ((double) extentsBuff[2]) - extentsBuff[0];
+			final double srcH = ((double) extentsBuff[3]) - extentsBuff[1];
+			final double srcX = (((double) extentsBuff[0]) + extentsBuff[2]) / 2.0d;
+			final double srcY = (((double) extentsBuff[1]) + extentsBuff[3]) / 2.0d;
 
 			// Get target node size and position.
-			m_view.m_spacial.exists(tmpTrg, m_extentsBuff, 0);
-			final double trgW = ((double) m_extentsBuff[2]) - m_extentsBuff[0];
-			final double trgH = ((double) m_extentsBuff[3]) - m_extentsBuff[1];
-			final double trgX = (((double) m_extentsBuff[0]) + m_extentsBuff[2]) / 2.0d;
-			final double trgY = (((double) m_extentsBuff[1]) + m_extentsBuff[3]) / 2.0d;
+			m_view.m_spacial.exists(tmpTrg, extentsBuff, 0);
+			final double trgW = ((double) extentsBuff[2]) - extentsBuff[0];
+			final double trgH = ((double) extentsBuff[3]) - extentsBuff[1];
+			final double trgX = (((double) extentsBuff[0]) + extentsBuff[2]) / 2.0d;
+			final double trgY = (((double) extentsBuff[1]) + extentsBuff[3]) / 2.0d;
 
 			// Used for determining the space between the edges.
 			final double nodeSize = Math.max(Math.max(Math.max(srcW, srcH), trgW), trgH);
@@ -413,8 +497,8 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public float anchorSize(int edge, int anchorInx) {
-		if (m_view.getEdgeView(~edge).isSelected()
-		    && (((DEdgeView) m_view.getEdgeView(~edge)).numAnchors() > 0))
+		if (m_view.getDEdgeView(~edge).isSelected()
+		    && (m_view.getDEdgeView(~edge).numAnchors() > 0))
 			return m_view.getAnchorSize();
 		else
 
@@ -430,7 +514,7 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Paint anchorPaint(int edge, int anchorInx) {
-		if (((DEdgeView) (m_view.getEdgeView(~edge))).m_lineType == DEdgeView.STRAIGHT_LINES)
+		if (m_view.getDEdgeView(~edge).m_lineType == DEdgeView.STRAIGHT_LINES)
 			anchorInx = anchorInx / 2;
 
 		if (m_view.m_selectedAnchors.count((edge << 6) | anchorInx) > 0)
@@ -448,12 +532,13 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public float segmentThickness(int edge) {
-		final Object o = m_segmentThicknesses.get(new Integer(edge));
+		final float[] thicknesses = m_segmentThicknesses;
+		final int slot = m_slots.get(edge);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= thicknesses.length) || Float.isNaN(thicknesses[slot]))
 			return super.segmentThickness(edge);
 
-		return ((Float) o).floatValue();
+		return thicknesses[slot];
 	}
 
 	/*
@@ -461,10 +546,17 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * thickness.
 	 */
 	void overrideSegmentThickness(int edge, float thickness) {
-		if ((thickness < 0.0f) || (thickness == super.segmentThickness(edge)))
-			m_segmentThicknesses.remove(new Integer(edge));
-		else
-			m_segmentThicknesses.put(new Integer(edge), new Float(thickness));
+		if ((thickness < 0.0f) || (thickness == super.segmentThickness(edge))) {
+			final int slot = m_slots.get(edge);
+
+			if ((slot >= 0) && (slot < m_segmentThicknesses.length))
+				m_segmentThicknesses[slot] = Float.NaN;
+		} else {
+			final int slot = m_slots.add(edge);
+
+			m_segmentThicknesses = DetailArrays.ensure(m_segmentThicknesses, slot);
+			m_segmentThicknesses[slot] = thickness;
+		}
 	}
 
 	/**
@@ -490,12 +582,13 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Stroke segmentStroke(int edge) {
-		final Object o = m_segmentStrokes.get(new Integer(edge));
+		final Stroke[] strokes = m_segmentStrokes;
+		final int slot = m_slots.get(edge);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= strokes.length) || (strokes[slot] == null))
 			return super.segmentStroke(edge);
 
-		return (Stroke) o;
+		return strokes[slot];
 	}
 
 	/*
@@ -511,10 +604,17 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * A null paint has the special meaning to remove overridden paint.
 	 */
 	void overrideSegmentStroke(int edge, Stroke stroke) {
-		if ((stroke == null) || stroke.equals(super.segmentStroke(edge)))
-			m_segmentStrokes.remove(new Integer(edge));
-		else
-			m_segmentStrokes.put(new Integer(edge), stroke);
+		if ((stroke == null) || stroke.equals(super.segmentStroke(edge))) {
+			final int slot = m_slots.get(edge);
+
+			if ((slot >= 0) && (slot < m_segmentStrokes.length))
+				m_segmentStrokes[slot] = null;
+		} else {
+			final int slot = m_slots.add(edge);
+
+			m_segmentStrokes = DetailArrays.ensure(m_segmentStrokes, slot);
+			m_segmentStrokes[slot] = m_strokes.intern(stroke);
+		}
 	}
 
 	/**
@@ -541,12 +641,13 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Paint segmentPaint(int edge) {
-		final Object o = m_segmentPaints.get(new Integer(edge));
+		final Paint[] paints = m_segmentPaints;
+		final int slot = m_slots.get(edge);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= paints.length) || (paints[slot] == null))
 			return super.segmentPaint(edge);
 
-		return (Paint) o;
+		return paints[slot];
 	}
 
 	/*
@@ -566,10 +667,17 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * length.
 	 */
 	void overrideSegmentPaint(int edge, Paint paint) {
-		if ((paint == null) || (paint == super.segmentPaint(edge)))
-			m_segmentPaints.remove(new Integer(edge));
-		else
-			m_segmentPaints.put(new Integer(edge), paint);
+		if ((paint == null) || (paint == super.segmentPaint(edge))) {
+			final int slot = m_slots.get(edge);
+
+			if ((slot >= 0) && (slot < m_segmentPaints.length))
+				m_segmentPaints[slot] = null;
+		} else {
+			final int slot = m_slots.add(edge);
+
+			m_segmentPaints = DetailArrays.ensure(m_segmentPaints, slot);
+			m_segmentPaints[slot] = m_paints.intern(paint);
+		}
 	}
 
 	/**
@@ -580,22 +688,30 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public int labelCount(int edge) {
-		final Object o = m_labelCounts.get(new Integer(edge));
+		final int[] counts = m_labelCounts;
+		final int slot = m_slots.get(edge);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= counts.length) || (counts[slot] == DetailArrays.DEFAULT_INT))
 			return super.labelCount(edge);
 
-		return ((Integer) o).intValue();
+		return counts[slot];
 	}
 
 	/*
 	 * A negative labelCount has the special meaning to remove overridden count.
 	 */
 	void overrideLabelCount(int edge, int labelCount) {
-		if ((labelCount < 0) || (labelCount == super.labelCount(edge)))
-			m_labelCounts.remove(new Integer(edge));
-		else
-			m_labelCounts.put(new Integer(edge), new Integer(labelCount));
+		if ((labelCount < 0) || (labelCount == super.labelCount(edge))) {
+			final int slot = m_slots.get(edge);
+
+			if ((slot >= 0) && (slot < m_labelCounts.length))
+				m_labelCounts[slot] = DetailArrays.DEFAULT_INT;
+		} else {
+			final int slot = m_slots.add(edge);
+
+			m_labelCounts = DetailArrays.ensure(m_labelCounts, slot);
+			m_labelCounts[slot] = labelCount;
+		}
 	}
 
 	/**
@@ -607,25 +723,44 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public String labelText(int edge, int labelInx) {
-		final long key = (((long) edge) << 32) | ((long) labelInx);
-		final Object o = m_labelTexts.get(new Long(key));
+		final String o;
+
+		if (labelInx == 0) {
+			final String[] arr = m_labelTexts;
+			final int slot = m_slots.get(edge);
+			o = ((slot >= 0) && (slot < arr.length)) ? arr[slot] : null;
+		} else
+			o = m_otherLabelTexts.get(new Long((((long) edge) << 32) | ((long) labelInx)));
 
 		if (o == null)
 			return super.labelText(edge, labelInx);
 
-		return (String) o;
+		return o;
 	}
 
 	/*
 	 * A null text has the special meaning to remove overridden text.
 	 */
 	void overrideLabelText(int edge, int labelInx, String text) {
-		final long key = (((long) edge) << 32) | ((long) labelInx);
-
 		if ((text == null) || text.equals(super.labelText(edge, labelInx)))
-			m_labelTexts.remove(new Long(key));
-		else
-			m_labelTexts.put(new Long(key), text);
+			text = null;
+
+		if (labelInx == 0) {
+			final int slot = (text != null) ? m_slots.add(edge) : m_slots.get(edge);
+
+			if (text != null)
+				m_labelTexts = DetailArrays.ensure(m_labelTexts, slot);
+
+			if ((slot >= 0) && (slot < m_labelTexts.length))
+				m_labelTexts[slot] = text;
+		} else {
+			final Long key = new Long((((long) edge) << 32) | ((long) labelInx));
+
+			if (text == null)
+				m_otherLabelTexts.remove(key);
+			else
+				m_otherLabelTexts.put(key, text);
+		}
 	}
 
 	/**
@@ -637,25 +772,46 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Font labelFont(int edge, int labelInx) {
-		final long key = (((long) edge) << 32) | ((long) labelInx);
-		final Object o = m_labelFonts.get(new Long(key));
+		final Font o;
+
+		if (labelInx == 0) {
+			final Font[] arr = m_labelFonts;
+			final int slot = m_slots.get(edge);
+			o = ((slot >= 0) && (slot < arr.length)) ? arr[slot] : null;
+		} else
+			o = m_otherLabelFonts.get(new Long((((long) edge) << 32) | ((long) labelInx)));
 
 		if (o == null)
 			return super.labelFont(edge, labelInx);
 
-		return (Font) o;
+		return o;
 	}
 
 	/*
 	 * A null font has the special meaning to remove overridden font.
 	 */
 	void overrideLabelFont(int edge, int labelInx, Font font) {
-		final long key = (((long) edge) << 32) | ((long) labelInx);
-
 		if ((font == null) || font.equals(super.labelFont(edge, labelInx)))
-			m_labelFonts.remove(new Long(key));
+			font = null;
 		else
-			m_labelFonts.put(new Long(key), font);
+			font = m_fonts.intern(font);
+
+		if (labelInx == 0) {
+			final int slot = (font != null) ? m_slots.add(edge) : m_slots.get(edge);
+
+			if (font != null)
+				m_labelFonts = DetailArrays.ensure(m_labelFonts, slot);
+
+			if ((slot >= 0) && (slot < m_labelFonts.length))
+				m_labelFonts[slot] = font;
+		} else {
+			final Long key = new Long((((long) edge) << 32) | ((long) labelInx));
+
+			if (font == null)
+				m_otherLabelFonts.remove(key);
+			else
+				m_otherLabelFonts.put(key, font);
+		}
 	}
 
 	/**
@@ -667,25 +823,46 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Paint labelPaint(int edge, int labelInx) {
-		final long key = (((long) edge) << 32) | ((long) labelInx);
-		final Object o = m_labelPaints.get(new Long(key));
+		final Paint o;
+
+		if (labelInx == 0) {
+			final Paint[] arr = m_labelPaints;
+			final int slot = m_slots.get(edge);
+			o = ((slot >= 0) && (slot < arr.length)) ? arr[slot] : null;
+		} else
+			o = m_otherLabelPaints.get(new Long((((long) edge) << 32) | ((long) labelInx)));
 
 		if (o == null)
 			return super.labelPaint(edge, labelInx);
 
-		return (Paint) o;
+		return o;
 	}
 
 	/*
 	 * A null paint has the special meaning to remove overridden paint.
 	 */
 	void overrideLabelPaint(int edge, int labelInx, Paint paint) {
-		final long key = (((long) edge) << 32) | ((long) labelInx);
-
 		if ((paint == null) || paint.equals(super.labelPaint(edge, labelInx)))
-			m_labelPaints.remove(new Long(key));
+			paint = null;
 		else
-			m_labelPaints.put(new Long(key), paint);
+			paint = m_paints.intern(paint);
+
+		if (labelInx == 0) {
+			final int slot = (paint != null) ? m_slots.add(edge) : m_slots.get(edge);
+
+			if (paint != null)
+				m_labelPaints = DetailArrays.ensure(m_labelPaints, slot);
+
+			if ((slot >= 0) && (slot < m_labelPaints.length))
+				m_labelPaints[slot] = paint;
+		} else {
+			final Long key = new Long((((long) edge) << 32) | ((long) labelInx));
+
+			if (paint == null)
+				m_otherLabelPaints.remove(key);
+			else
+				m_otherLabelPaints.put(key, paint);
+		}
 	}
 
 	/**
@@ -729,22 +906,30 @@ class DEdgeDetails extends IntermediateEdgeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public double labelWidth(int edge) {
-		final Object o = m_labelWidths.get(new Integer(edge));
+		final double[] widths = m_labelWidths;
+		final int slot = m_slots.get(edge);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= widths.length) || Double.isNaN(widths[slot]))
 			return super.labelWidth(edge);
 
-		return ((Double) o).doubleValue();
+		return widths[slot];
 	}
 
 	/*
 	 * A negative width value has the special meaning to remove overridden width.
 	 */
 	void overrideLabelWidth(int edge, double width) {
-		if ((width < 0.0) || (width == super.labelWidth(edge)))
-			m_labelWidths.remove(new Integer(edge));
-		else
-			m_labelWidths.put(new Integer(edge), new Double(width));
+		if ((width < 0.0) || (width == super.labelWidth(edge))) {
+			final int slot = m_slots.get(edge);
+
+			if ((slot >= 0) && (slot < m_labelWidths.length))
+				m_labelWidths[slot] = Double.NaN;
+		} else {
+			final int slot = m_slots.add(edge);
+
+			m_labelWidths = DetailArrays.ensure(m_labelWidths, slot);
+			m_labelWidths[slot] = width;
+		}
 	}
 
 }
@@ -40,6 +40,7 @@ import giny.view.NodeView;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
@@ -66,9 +67,11 @@ import cytoscape.geom.rtree.RTree;
 import cytoscape.geom.spacial.MutableSpacialIndex2D;
 import cytoscape.geom.spacial.SpacialEntry2DEnumerator;
 import cytoscape.graph.fixed.FixedGraph;
+import cytoscape.render.immed.EdgeAnchors;
 import cytoscape.render.immed.GraphGraphics;
 import cytoscape.render.stateful.GraphLOD;
 import cytoscape.render.stateful.GraphRenderer;
+import cytoscape.render.stateful.TextLayoutCache;
 import cytoscape.util.intr.IntBTree;
 import cytoscape.util.intr.IntEnumerator;
 import cytoscape.util.intr.IntHash;
@@ -156,6 +159,15 @@ public class DGraphView implements GraphView, Printable {
 	 */
 	MutableSpacialIndex2D m_spacialA;
 
+	/**
+	 * How many beginNodeMoves() calls have not been ended yet.  While this is
+	 * positive, the new centers of moved nodes are kept in m_pendingMoves,
+	 * keyed by node index, instead of in m_spacial.  Both are guarded by
+	 * m_lock.
+	 */
+	int m_deferredMoves;
+	final HashMap m_pendingMoves = new HashMap();
+
 	/**
 	 *
 	 */
@@ -247,14 +259,62 @@ public class DGraphView implements GraphView, Printable {
 	final IntBTree m_selectedAnchors;
 
 	/**
-	 * State variable for when nodes have moved.
+	 * State variable for when nodes have moved.  This and m_viewportChanged
+	 * are volatile so that the canvas can poll them without the lock.
 	 */
-	boolean m_contentChanged = false;
+	volatile boolean m_contentChanged = false;
+
+	/**
+	 * The number of node views that show a nested network.  Rendering a
+	 * nested network locks its view, which the render threads of a frame
+	 * must never do, so frames of a view that shows nested networks are
+	 * rendered on one thread.  Guarded by m_lock.
+	 */
+	int m_nestedNetworkCount = 0;
 
 	/**
 	 * State variable for when zooming/panning have changed.
 	 */
-	boolean m_viewportChanged = false;
+	volatile boolean m_viewportChanged = false;
+
+	/**
+	 * State variable for content changes that are confined to a known area,
+	 * such as a node that has moved.  It is set instead of m_contentChanged,
+	 * and the area is accumulated in m_damagedExtents; see damageNode().
+	 */
+	volatile boolean m_contentDamaged = false;
+
+	/**
+	 * State variable for content changes that only affect how nodes look,
+	 * such as a node that has been selected; the edges are drawn as before.
+	 * It is set instead of m_contentChanged so that the canvas can reuse its
+	 * edge layer; see setLayerCaching().
+	 */
+	volatile boolean m_nodeContentChanged = false;
+
+	/**
+	 * xMin, yMin, xMax and yMax of the area, in node coordinates, that has
+	 * been damaged since the last frame.  Guarded by m_lock.
+	 */
+	final float[] m_damagedExtents = new float[] {
+	                                     Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+	                                     Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY
+	                                 };
+	private final float[] m_damageBuff = new float[4];
+	private final float[] m_damageBuff2 = new float[4];
+	private final float[] m_damageBuff3 = new float[2];
+	private final float[] m_damageBuff4 = new float[4];
+
+	/**
+	 * Set while batchUpdate() runs, together with how many nodes and edges
+	 * the batch has damaged so far.  Once a batch has damaged more than
+	 * MAX_BATCH_DAMAGE of them, the whole content is flagged as changed
+	 * instead, since most of it is going to be redrawn anyway.  Guarded by
+	 * m_lock.
+	 */
+	private boolean m_batchUpdate = false;
+	private int m_batchDamage = 0;
+	private static final int MAX_BATCH_DAMAGE = 1000;
 
 	/**
 	 * List of listeners.
@@ -410,7 +470,7 @@ public class DGraphView implements GraphView, Printable {
 				for (int i = 0; i < unselectedNodes.length; i++)
 					((DNodeView) getNodeView(unselectedNodes[i])).unselectInternal();
 
-				m_contentChanged = true;
+				m_nodeContentChanged = true;
 			}
 		}
 
@@ -838,6 +898,7 @@ public class DGraphView implements GraphView, Printable {
 
 			returnThis = (DNodeView) m_nodeViewMap.remove(new Integer(nodeInx));
 			returnThis.unselectInternal();
+			returnThis.setNestedNetworkView(null);
 
 			// If this node was hidden, it won't be in m_drawPersp.
 			m_drawPersp.hideNode(nodeInx);
@@ -846,6 +907,7 @@ public class DGraphView implements GraphView, Printable {
 
 			// If this node was hidden, it won't be in m_spacial.
 			m_spacial.delete(~nodeInx);
+			m_pendingMoves.remove(new Integer(~nodeInx));
 
 			// m_selectedNodes.delete(~nodeInx);
 			returnThis.graphView = null;
@@ -1003,6 +1065,8 @@ public class DGraphView implements GraphView, Printable {
 	 */
 	private void fitContent(final boolean updateView) {
 		synchronized (m_lock) {
+			applyPendingMoves();
+
 			if (m_spacial.queryOverlap(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY,
 			                           Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
 			                           m_extentsBuff, 0, false).numRemaining() == 0) {
@@ -1038,6 +1102,33 @@ public class DGraphView implements GraphView, Printable {
 	}
 	
 
+	/**
+	 * Runs many changes to node and edge views as one update.  The changes
+	 * run holding the lock of this view, so the canvas never draws a frame
+	 * with only some of them.  The damaged area of the changes is tracked as
+	 * usual until the batch has damaged so many nodes and edges that the
+	 * whole content is flagged as changed instead.  Calls may be nested.
+	 *
+	 * @param updates the changes, which must only be made from the calling
+	 *   thread.
+	 */
+	public void batchUpdate(final Runnable updates) {
+		synchronized (m_lock) {
+			final boolean nested = m_batchUpdate;
+
+			if (!nested) {
+				m_batchUpdate = true;
+				m_batchDamage = 0;
+			}
+
+			try {
+				updates.run();
+			} finally {
+				m_batchUpdate = nested;
+			}
+		}
+	}
+
 	/**
 	 * Repaint network canvas.
 	 */
@@ -1047,6 +1138,10 @@ public class DGraphView implements GraphView, Printable {
 		//Thread.dumpStack();
 		//System.out.println("**************** DGraph Redraw Finished *****************\n\n" );
 
+		synchronized (m_lock) {
+			applyPendingMoves();
+		}
+
 		m_networkCanvas.repaint();
 	}
 
@@ -1130,6 +1225,182 @@ public class DGraphView implements GraphView, Printable {
 		}
 	}
 
+	/**
+	 * Same as getNodeView(int), but does not lock m_lock.  This is for the
+	 * node details, which the renderer may call from several threads while
+	 * the rendering thread holds m_lock, so that nothing changes the map.
+	 */
+	DNodeView getDNodeView(int nodeInx) {
+		return (DNodeView) m_nodeViewMap.get(new Integer(nodeInx));
+	}
+
+	/**
+	 * Moves many nodes at once, such as when a layout is applied.  This has
+	 * the same effect as calling setXPosition() and setYPosition() on the
+	 * view of each node, but the spacial index is updated in one batch, which
+	 * is much faster and keeps the index well packed.  Nodes that have no
+	 * view are ignored.  The nodes are moved right away, even between
+	 * beginNodeMoves() and endNodeMoves().
+	 *
+	 * @param nodeInx the RootGraph indices of the nodes.
+	 * @param xPositions the new X coordinates of the centers of the nodes.
+	 * @param yPositions the new Y coordinates of the centers of the nodes.
+	 */
+	public void setNodeOffsets(int[] nodeInx, double[] xPositions, double[] yPositions) {
+		synchronized (m_lock) {
+			int[] objKeys = new int[nodeInx.length];
+			float[] extents = new float[nodeInx.length * 4];
+			int count = 0;
+
+			for (int i = 0; i < nodeInx.length; i++) {
+				if (!m_pendingMoves.isEmpty())
+					m_pendingMoves.remove(new Integer(~nodeInx[i]));
+
+				final boolean nodeVisible = m_spacial.exists(~nodeInx[i], m_extentsBuff, 0);
+				final DNodeView nView = nodeVisible ? null : getDNodeView(nodeInx[i]);
+
+				if (!nodeVisible) {
+					if (nView == null)
+						continue;
+
+					m_extentsBuff[0] = nView.m_hiddenXMin;
+					m_extentsBuff[1] = nView.m_hiddenYMin;
+					m_extentsBuff[2] = nView.m_hiddenXMax;
+					m_extentsBuff[3] = nView.m_hiddenYMax;
+				}
+
+				final double wDiv2 = (((double) m_extentsBuff[2]) - m_extentsBuff[0]) / 2.0d;
+				final double hDiv2 = (((double) m_extentsBuff[3]) - m_extentsBuff[1]) / 2.0d;
+				final float xMin = (float) (xPositions[i] - wDiv2);
+				final float xMax = (float) (xPositions[i] + wDiv2);
+				final float yMin = (float) (yPositions[i] - hDiv2);
+				final float yMax = (float) (yPositions[i] + hDiv2);
+
+				if (!(xMax > xMin))
+					throw new IllegalStateException("width of node has degenerated to zero after "
+					                                + "rounding");
+
+				if (!(yMax > yMin))
+					throw new IllegalStateException("height of node has degenerated to zero after "
+					                                + "rounding");
+
+				// Hidden nodes only keep their extents for when they are
+				// restored.
+				if (!nodeVisible) {
+					nView.m_hiddenXMin = xMin;
+					nView.m_hiddenYMin = yMin;
+					nView.m_hiddenXMax = xMax;
+					nView.m_hiddenYMax = yMax;
+
+					continue;
+				}
+
+				objKeys[count] = ~nodeInx[i];
+				extents[count * 4] = xMin;
+				extents[(count * 4) + 1] = yMin;
+				extents[(count * 4) + 2] = xMax;
+				extents[(count * 4) + 3] = yMax;
+				count++;
+			}
+
+			if (count < nodeInx.length) {
+				final int[] keys = new int[count];
+				final float[] ext = new float[count * 4];
+				System.arraycopy(objKeys, 0, keys, 0, count);
+				System.arraycopy(extents, 0, ext, 0, count * 4);
+				objKeys = keys;
+				extents = ext;
+			}
+
+			if (m_spacial instanceof RTree)
+				((RTree) m_spacial).move(objKeys, extents);
+			else {
+				for (int i = 0; i < objKeys.length; i++) {
+					m_spacial.delete(objKeys[i]);
+					m_spacial.insert(objKeys[i], extents[i * 4], extents[(i * 4) + 1],
+					                 extents[(i * 4) + 2], extents[(i * 4) + 3]);
+				}
+			}
+
+			m_contentChanged = true;
+		}
+	}
+
+	/**
+	 * Starts collecting node moves, so that a layout which places nodes one
+	 * by one updates the spacial index only once, through setNodeOffsets().
+	 * Until the matching endNodeMoves(), setOffset(), setXPosition() and
+	 * setYPosition() of the node views only record the new center of the
+	 * node, which their getters already return.  updateView() and
+	 * fitContent() apply the recorded moves first, so a layout that shows
+	 * its progress still does.  Calls may be nested.
+	 */
+	public void beginNodeMoves() {
+		synchronized (m_lock) {
+			m_deferredMoves++;
+		}
+	}
+
+	/**
+	 * Ends a beginNodeMoves(); the moves recorded since are applied when the
+	 * outermost one ends.
+	 *
+	 * @exception IllegalStateException if there is no beginNodeMoves() to
+	 *   end.
+	 */
+	public void endNodeMoves() {
+		synchronized (m_lock) {
+			if (m_deferredMoves == 0)
+				throw new IllegalStateException("endNodeMoves() without beginNodeMoves()");
+
+			if (--m_deferredMoves == 0)
+				applyPendingMoves();
+		}
+	}
+
+	/*
+	 * Records the new center of the node with the given index while node
+	 * moves are deferred; the caller holds m_lock.
+	 */
+	void deferMove(int node, double x, double y) {
+		m_pendingMoves.put(new Integer(node), new double[] { x, y });
+	}
+
+	/*
+	 * Returns the recorded center of the node with the given index, or null
+	 * if it has none; the caller holds m_lock.
+	 */
+	double[] getPendingMove(int node) {
+		if (m_pendingMoves.isEmpty())
+			return null;
+
+		return (double[]) m_pendingMoves.get(new Integer(node));
+	}
+
+	/*
+	 * Moves the nodes to their recorded centers; the caller holds m_lock.
+	 */
+	private void applyPendingMoves() {
+		if (m_pendingMoves.isEmpty())
+			return;
+
+		final int[] nodeInx = new int[m_pendingMoves.size()];
+		final double[] xPositions = new double[nodeInx.length];
+		final double[] yPositions = new double[nodeInx.length];
+		final Iterator entries = m_pendingMoves.entrySet().iterator();
+
+		for (int i = 0; i < nodeInx.length; i++) {
+			final Map.Entry entry = (Map.Entry) entries.next();
+			final double[] center = (double[]) entry.getValue();
+			nodeInx[i] = ~((Integer) entry.getKey()).intValue();
+			xPositions[i] = center[0];
+			yPositions[i] = center[1];
+		}
+
+		m_pendingMoves.clear();
+		setNodeOffsets(nodeInx, xPositions, yPositions);
+	}
+
 	/*
 	 * Returns a list of all edge views, including those that are currently
 	 * hidden.
@@ -1236,6 +1507,15 @@ public class DGraphView implements GraphView, Printable {
 		}
 	}
 
+	/**
+	 * Same as getEdgeView(int), but does not lock m_lock.  This is for the
+	 * edge details, which the renderer may call from several threads while
+	 * the rendering thread holds m_lock, so that nothing changes the map.
+	 */
+	DEdgeView getDEdgeView(int edgeInx) {
+		return (DEdgeView) m_edgeViewMap.get(new Integer(edgeInx));
+	}
+
 	/*
 	 * Returns an iterator of all edge views, including those that are currently
 	 * hidden.
@@ -2344,6 +2624,390 @@ public class DGraphView implements GraphView, Printable {
 	}
 
 
+	/**
+	 * Turns rendering of the network canvas on a background thread on or
+	 * off.  With background rendering, pans and zooms no longer wait for the
+	 * whole graph to be drawn; a superseded frame is abandoned part way
+	 * through and the previous frame is shown, scaled to the new viewport,
+	 * until the next one is complete.  The default is taken from the
+	 * "cytoscape.render.background" system property.
+	 *
+	 * @param background true to render on a background thread.
+	 */
+	public void setBackgroundRendering(boolean background) {
+		m_networkCanvas.setBackgroundRendering(background);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return true if the network canvas is rendered on a background thread.
+	 */
+	public boolean isBackgroundRendering() {
+		return m_networkCanvas.isBackgroundRendering();
+	}
+
+	/**
+	 * Returns the number of frames of the network canvas rendered so far.
+	 *
+	 * @return the number of completed frames.
+	 */
+	public long getFrameCount() {
+		return m_networkCanvas.getFrameCount();
+	}
+
+	/**
+	 * Returns the number of frames that were abandoned because a newer frame
+	 * was requested before they were completed.
+	 *
+	 * @return the number of cancelled frames.
+	 */
+	public long getCancelledFrameCount() {
+		return m_networkCanvas.getCancelledFrameCount();
+	}
+
+	/**
+	 * Returns the time taken to render the last completed frame.
+	 *
+	 * @return the frame time in milliseconds.
+	 */
+	public double getLastFrameTime() {
+		return m_networkCanvas.getLastFrameTime();
+	}
+
+	/**
+	 * Returns the average time taken to render a completed frame.
+	 *
+	 * @return the average frame time in milliseconds.
+	 */
+	public double getAverageFrameTime() {
+		return m_networkCanvas.getAverageFrameTime();
+	}
+
+	/**
+	 * Adds the area covered by a node, its labels and its edges to the damaged
+	 * area and flags the content as damaged.  Callers that move or resize a
+	 * node call this both before and after changing its extents.  When the
+	 * whole content is to be rendered anyway, or when the canvas has no use
+	 * for damaged areas, the content is simply flagged as changed, which
+	 * takes constant time.  Must be called holding m_lock.
+	 *
+	 * @param node the node, which does nothing if it is not visible.
+	 */
+	void damageNode(final int node) {
+		if (!isDamageTracked())
+			return;
+
+		if (!getNodeReach(node, m_damageBuff))
+			return;
+
+		damage(m_damageBuff);
+
+		final IntEnumerator edges = ((FixedGraph) m_drawPersp).edgesAdjacent(node, true, true,
+		                                                                      true);
+
+		while (edges.numRemaining() > 0)
+			damageEdge(edges.nextInt());
+
+		m_contentDamaged = true;
+	}
+
+	/**
+	 * Adds the area covered by an edge, its arrows and its labels to the
+	 * damaged area and flags the content as damaged.  Callers that move the
+	 * anchors of an edge call this both before and after moving them.  Must
+	 * be called holding m_lock.
+	 *
+	 * @param edge the edge, which does nothing if one of its nodes is not
+	 *   visible.
+	 */
+	void damageEdge(final int edge) {
+		if (!isDamageTracked())
+			return;
+
+		if (!getEdgeReach(edge, m_damageBuff2))
+			return;
+
+		damage(m_damageBuff2);
+		m_contentDamaged = true;
+	}
+
+	/**
+	 * Puts the area that a node, its border, labels and custom graphics may
+	 * cover into extents, erring on the large side.  Must be called holding
+	 * m_lock.
+	 *
+	 * @param extents receives xMin, yMin, xMax and yMax of the area.
+	 * @return false if the node is not visible, in which case extents is
+	 *   left undefined.
+	 */
+	boolean getNodeReach(final int node, final float[] extents) {
+		if (!m_spacial.exists(node, extents, 0))
+			return false;
+
+		final float margin = nodeDamageMargin(node, extents);
+		extents[0] -= margin;
+		extents[1] -= margin;
+		extents[2] += margin;
+		extents[3] += margin;
+
+		return true;
+	}
+
+	/**
+	 * Puts the area that an edge, its arrows and its labels may cover into
+	 * extents, erring on the large side.  Must be called holding m_lock.
+	 *
+	 * @param extents receives xMin, yMin, xMax and yMax of the area.
+	 * @return false if one of the nodes of the edge is not visible, in which
+	 *   case extents is left undefined.
+	 */
+	boolean getEdgeReach(final int edge, final float[] extents) {
+		final FixedGraph graph = (FixedGraph) m_drawPersp;
+
+		if (!m_spacial.exists(graph.edgeSource(edge), extents, 0)
+		    || !m_spacial.exists(graph.edgeTarget(edge), m_damageBuff4, 0))
+			return false;
+
+		// An edge never leaves the box around its end points and anchors.
+		extents[0] = Math.min(extents[0], m_damageBuff4[0]);
+		extents[1] = Math.min(extents[1], m_damageBuff4[1]);
+		extents[2] = Math.max(extents[2], m_damageBuff4[2]);
+		extents[3] = Math.max(extents[3], m_damageBuff4[3]);
+
+		final EdgeAnchors anchors = m_edgeDetails.anchors(edge);
+		final int numAnchors = (anchors == null) ? 0 : anchors.numAnchors();
+
+		for (int i = 0; i < numAnchors; i++) {
+			anchors.getAnchor(i, m_damageBuff3, 0);
+			extents[0] = Math.min(extents[0], m_damageBuff3[0]);
+			extents[1] = Math.min(extents[1], m_damageBuff3[1]);
+			extents[2] = Math.max(extents[2], m_damageBuff3[0]);
+			extents[3] = Math.max(extents[3], m_damageBuff3[1]);
+		}
+
+		final float margin = edgeDamageMargin(edge);
+		extents[0] -= margin;
+		extents[1] -= margin;
+		extents[2] += margin;
+		extents[3] += margin;
+
+		return true;
+	}
+
+	// Whether damaged areas are worth tracking; if not, flags the whole
+	// content as changed instead.
+	private boolean isDamageTracked() {
+		if (m_contentChanged)
+			return false;
+
+		if (!m_networkCanvas.usesDamage()
+		    || (m_batchUpdate && (++m_batchDamage > MAX_BATCH_DAMAGE))) {
+			m_contentChanged = true;
+
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Forgets the damaged area; called once a frame has been rendered.  Must
+	 * be called holding m_lock.
+	 */
+	void clearDamage() {
+		m_damagedExtents[0] = Float.POSITIVE_INFINITY;
+		m_damagedExtents[1] = Float.POSITIVE_INFINITY;
+		m_damagedExtents[2] = Float.NEGATIVE_INFINITY;
+		m_damagedExtents[3] = Float.NEGATIVE_INFINITY;
+		m_contentDamaged = false;
+	}
+
+	private void damage(final float[] extents) {
+		m_damagedExtents[0] = Math.min(m_damagedExtents[0], extents[0]);
+		m_damagedExtents[1] = Math.min(m_damagedExtents[1], extents[1]);
+		m_damagedExtents[2] = Math.max(m_damagedExtents[2], extents[2]);
+		m_damagedExtents[3] = Math.max(m_damagedExtents[3], extents[3]);
+	}
+
+	// How far the border, labels and custom graphics of a node may reach
+	// beyond its extents, erring on the large side.
+	private float nodeDamageMargin(final int node, final float[] extents) {
+		float margin = m_nodeDetails.borderWidth(node);
+
+		if (m_nodeDetails.customGraphicCount(node) > 0)
+			margin += Math.max(extents[2] - extents[0], extents[3] - extents[1]);
+
+		final int labelCount = m_nodeDetails.labelCount(node);
+
+		for (int i = 0; i < labelCount; i++) {
+			final String text = m_nodeDetails.labelText(node, i);
+			final Font font = m_nodeDetails.labelFont(node, i);
+
+			if ((text == null) || (font == null))
+				continue;
+
+			margin = Math.max(margin,
+			                  Math.abs(m_nodeDetails.labelOffsetVectorX(node, i))
+			                  + Math.abs(m_nodeDetails.labelOffsetVectorY(node, i))
+			                  + (font.getSize2D() * text.length()));
+		}
+
+		return margin;
+	}
+
+	// How far the arrows and labels of an edge may reach beyond the box
+	// around its end points and anchors, erring on the large side.
+	private float edgeDamageMargin(final int edge) {
+		float margin = m_edgeDetails.segmentThickness(edge)
+		               + Math.max(m_edgeDetails.sourceArrowSize(edge),
+		                          m_edgeDetails.targetArrowSize(edge));
+		final int labelCount = m_edgeDetails.labelCount(edge);
+
+		for (int i = 0; i < labelCount; i++) {
+			final String text = m_edgeDetails.labelText(edge, i);
+			final Font font = m_edgeDetails.labelFont(edge, i);
+
+			if ((text == null) || (font == null))
+				continue;
+
+			margin = Math.max(margin, font.getSize2D() * text.length());
+		}
+
+		return margin;
+	}
+
+	/**
+	 * Turns the tile cache of the network canvas on or off.  With the cache,
+	 * the canvas is assembled from fixed size tiles that are kept between
+	 * frames, so that panning only renders the tiles that come into view and
+	 * moving a node only renders the tiles around it.  The default is taken
+	 * from the "cytoscape.render.tiles" system property, and the memory the
+	 * cache may use from "cytoscape.render.tiles.budget", in megabytes.
+	 *
+	 * @param tiles true to cache tiles.
+	 */
+	public void setTileCaching(boolean tiles) {
+		m_networkCanvas.setTileCaching(tiles);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return true if the network canvas caches tiles.
+	 */
+	public boolean isTileCaching() {
+		return m_networkCanvas.isTileCaching();
+	}
+
+	/**
+	 * Returns the number of tiles that were found in the tile cache.
+	 *
+	 * @return the number of tile cache hits.
+	 */
+	public long getTileCacheHits() {
+		return m_networkCanvas.getTileCacheHits();
+	}
+
+	/**
+	 * Returns the number of tiles that had to be rendered.
+	 *
+	 * @return the number of tile cache misses.
+	 */
+	public long getTileCacheMisses() {
+		return m_networkCanvas.getTileCacheMisses();
+	}
+
+	/**
+	 * Returns the fraction of tiles that were found in the tile cache.
+	 *
+	 * @return the hit rate, between 0 and 1.
+	 */
+	public double getTileCacheHitRate() {
+		final long hits = getTileCacheHits();
+		final long total = hits + getTileCacheMisses();
+
+		return (total == 0) ? 0.0d : (((double) hits) / total);
+	}
+
+	/**
+	 * Turns caching of the edge layer of the network canvas on or off.  When
+	 * on, the background and the edges are kept as an image between frames,
+	 * and changes that only affect how nodes look, such as selecting nodes,
+	 * only render the nodes again on top of it.  This has no effect while
+	 * tiles are cached.  The default is taken from the
+	 * "cytoscape.render.layers" system property.
+	 *
+	 * @param layers true to cache the edge layer.
+	 */
+	public void setLayerCaching(boolean layers) {
+		m_networkCanvas.setLayerCaching(layers);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return true if the network canvas caches its edge layer.
+	 */
+	public boolean isLayerCaching() {
+		return m_networkCanvas.isLayerCaching();
+	}
+
+	/**
+	 * Turns rendering of only the damaged area of the network canvas on or
+	 * off.  When on, a frame in which only some nodes or edge anchors have
+	 * moved, such as while nodes are dragged, is rendered by rendering the
+	 * area they left and entered on top of the last frame.  The default is
+	 * taken from the "cytoscape.render.damage" system property, and is off.
+	 *
+	 * @param damage true to only render the damaged area.
+	 */
+	public void setDamageRendering(boolean damage) {
+		m_networkCanvas.setDamageRendering(damage);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return true if the network canvas only renders the damaged area of a
+	 *   frame when nothing else has changed.
+	 */
+	public boolean isDamageRendering() {
+		return m_networkCanvas.isDamageRendering();
+	}
+
+	/**
+	 * Returns the cache that the text of node and edge labels is laid out
+	 * with, whose hit and miss counts tell how well labels are reused between
+	 * frames.  The cache is shared by all views.
+	 *
+	 * @return the cache of laid out label text.
+	 */
+	public TextLayoutCache getTextLayoutCache() {
+		return TextLayoutCache.getShared();
+	}
+
+	/**
+	 * Sets the number of threads the network canvas is rendered with.  When
+	 * this is more than one, each frame is split into horizontal bands that
+	 * are rendered at the same time.  The default is taken from the
+	 * "cytoscape.render.threads" system property, or is 1.
+	 *
+	 * @param threads the number of threads, at least 1.
+	 */
+	public void setRenderThreads(int threads) {
+		m_networkCanvas.setRenderThreads(threads);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return the number of threads the network canvas is rendered with.
+	 */
+	public int getRenderThreads() {
+		return m_networkCanvas.getRenderThreads();
+	}
+
 	/**
 	 * Method to return a reference to a DingCanvas object,
 	 * given a canvas id.
@@ -2624,16 +3288,24 @@ public class DGraphView implements GraphView, Printable {
 	 * @return Image of this view.  It is always up-to-date.
 	 */
 	TexturePaint getSnapshot(final double width, final double height) {
-		if (!latest) {
-			// Need to update snapshot.
-			snapshotImage =
-				(BufferedImage)createImage(DEF_SNAPSHOT_SIZE, DEF_SNAPSHOT_SIZE, 1,
-				                           /* skipBackground = */ true);
-			latest = true;
+		final BufferedImage image;
+
+		// Only the thread rendering a frame of the enclosing view asks for
+		// the snapshot; see m_nestedNetworkCount.
+		synchronized (m_lock) {
+			if (!latest) {
+				// Need to update snapshot.
+				snapshotImage =
+					(BufferedImage)createImage(DEF_SNAPSHOT_SIZE, DEF_SNAPSHOT_SIZE, 1,
+					                           /* skipBackground = */ true);
+				latest = true;
+			}
+
+			image = snapshotImage;
 		}
 
 		final Rectangle2D rect = new Rectangle2D.Double(-width / 2, -height / 2, width, height);
-		final TexturePaint texturePaint = new TexturePaint(snapshotImage, rect);
+		final TexturePaint texturePaint = new TexturePaint(image, rect);
 		return texturePaint;
 	}
 
@@ -48,7 +48,6 @@ import java.util.Map;
 
 import cytoscape.render.stateful.CustomGraphic;
 import cytoscape.render.stateful.NodeDetails;
-import cytoscape.util.intr.IntObjHash;
 
 
 /*
@@ -58,26 +57,38 @@ import cytoscape.util.intr.IntObjHash;
 class DNodeDetails extends IntermediateNodeDetails {
 	
 	final DGraphView m_view;
-	final IntObjHash m_colorsLowDetail = new IntObjHash();
-	final Object m_deletedEntry = new Object();
-
-	// The values are Byte objects; the bytes are shapes defined in
-	// cytoscape.render.immed.GraphGraphics.
-	final Map<Integer, Byte> m_shapes = new HashMap<Integer, Byte>();
-	final Map<Integer, Paint> m_fillPaints = new HashMap<Integer, Paint>();
-	final Map<Integer, Float> m_borderWidths = new HashMap<Integer, Float>();
-	final Map<Integer, Paint> m_borderPaints = new HashMap<Integer, Paint>();
-	final Map<Integer, Integer> m_labelCounts = new HashMap<Integer, Integer>();
-	final Map<Long, String> m_labelTexts = new HashMap<Long, String>();
-	final Map<Long, Font> m_labelFonts = new HashMap<Long, Font>();
-	final Map<Long, Paint> m_labelPaints = new HashMap<Long, Paint>();
-	final Map<Integer, Double> m_labelWidths = new HashMap<Integer, Double>();
-	
-	final Map<Integer, Integer> m_labelTextAnchors = new HashMap<Integer, Integer>();
-	final Map<Integer, Integer> m_labelNodeAnchors = new HashMap<Integer, Integer>();
-	final Map<Integer, Integer> m_labelJustifys = new HashMap<Integer, Integer>();
-	final Map<Integer, Double> m_labelOffsetXs = new HashMap<Integer, Double>();
-	final Map<Integer, Double> m_labelOffsetYs = new HashMap<Integer, Double>();
+
+	// Overridden values are kept in arrays indexed by the slot m_slots gives
+	// each node that has any; see DetailArrays for the sentinels marking the
+	// slots that are not overridden.  Only the first label is kept in
+	// arrays, since DNodeView never sets others.
+	final DetailArrays.Slots m_slots = new DetailArrays.Slots();
+
+	Color[] m_colorsLowDetail = new Color[0];
+
+	// The bytes are shapes defined in cytoscape.render.immed.GraphGraphics.
+	byte[] m_shapes = new byte[0];
+	Paint[] m_fillPaints = new Paint[0];
+	float[] m_borderWidths = new float[0];
+	Paint[] m_borderPaints = new Paint[0];
+	int[] m_labelCounts = new int[0];
+	String[] m_labelTexts = new String[0];
+	Font[] m_labelFonts = new Font[0];
+	Paint[] m_labelPaints = new Paint[0];
+	double[] m_labelWidths = new double[0];
+	final Map<Long, String> m_otherLabelTexts = new HashMap<Long, String>();
+	final Map<Long, Font> m_otherLabelFonts = new HashMap<Long, Font>();
+	final Map<Long, Paint> m_otherLabelPaints = new HashMap<Long, Paint>();
+
+	// The bytes are anchors and justifications defined in NodeDetails.
+	byte[] m_labelTextAnchors = new byte[0];
+	byte[] m_labelNodeAnchors = new byte[0];
+	byte[] m_labelJustifys = new byte[0];
+	float[] m_labelOffsetXs = new float[0];
+	float[] m_labelOffsetYs = new float[0];
+
+	final DetailArrays.Interner<Paint> m_paints = new DetailArrays.Interner<Paint>();
+	final DetailArrays.Interner<Font> m_fonts = new DetailArrays.Interner<Font>();
 
 	/**
 	 * This constructor is package-private.
@@ -91,31 +102,64 @@ class DNodeDetails extends IntermediateNodeDetails {
 
 	
 	void unregisterNode(final int node) {
-		final Object o = m_colorsLowDetail.get(node);
-
-		if ((o != null) && (o != m_deletedEntry))
-			m_colorsLowDetail.put(node, m_deletedEntry);
-
-		m_shapes.remove(node);
-		m_fillPaints.remove(node);
-		m_borderWidths.remove(node);
-		m_borderPaints.remove(node);
-		m_labelWidths.remove(node);
-		m_labelTextAnchors.remove(node);
-		m_labelNodeAnchors.remove(node);
-		m_labelJustifys.remove(node);
-		m_labelOffsetXs.remove(node);
-		m_labelOffsetYs.remove(node);
-
-		final Integer intr = m_labelCounts.remove(node);
-		final int labelCount = ((intr == null) ? 0 : intr);
-
-		for (int i = 0; i < labelCount; i++) {
+		final int labelCount = labelCount(node);
+
+		for (int i = 1; i < labelCount; i++) {
 			final Long lKey = new Long((((long) node) << 32) | ((long) i));
-			m_labelTexts.remove(lKey);
-			m_labelFonts.remove(lKey);
-			m_labelPaints.remove(lKey);
+			m_otherLabelTexts.remove(lKey);
+			m_otherLabelFonts.remove(lKey);
+			m_otherLabelPaints.remove(lKey);
 		}
+
+		final int slot = m_slots.get(node);
+
+		if (slot < 0)
+			return;
+
+		if (slot < m_colorsLowDetail.length)
+			m_colorsLowDetail[slot] = null;
+
+		if (slot < m_shapes.length)
+			m_shapes[slot] = DetailArrays.DEFAULT_BYTE;
+
+		if (slot < m_fillPaints.length)
+			m_fillPaints[slot] = null;
+
+		if (slot < m_borderWidths.length)
+			m_borderWidths[slot] = Float.NaN;
+
+		if (slot < m_borderPaints.length)
+			m_borderPaints[slot] = null;
+
+		if (slot < m_labelCounts.length)
+			m_labelCounts[slot] = DetailArrays.DEFAULT_INT;
+
+		if (slot < m_labelTexts.length)
+			m_labelTexts[slot] = null;
+
+		if (slot < m_labelFonts.length)
+			m_labelFonts[slot] = null;
+
+		if (slot < m_labelPaints.length)
+			m_labelPaints[slot] = null;
+
+		if (slot < m_labelWidths.length)
+			m_labelWidths[slot] = Double.NaN;
+
+		if (slot < m_labelTextAnchors.length)
+			m_labelTextAnchors[slot] = DetailArrays.DEFAULT_BYTE;
+
+		if (slot < m_labelNodeAnchors.length)
+			m_labelNodeAnchors[slot] = DetailArrays.DEFAULT_BYTE;
+
+		if (slot < m_labelJustifys.length)
+			m_labelJustifys[slot] = DetailArrays.DEFAULT_BYTE;
+
+		if (slot < m_labelOffsetXs.length)
+			m_labelOffsetXs[slot] = Float.NaN;
+
+		if (slot < m_labelOffsetYs.length)
+			m_labelOffsetYs[slot] = Float.NaN;
 	}
 
 	/**
@@ -126,12 +170,13 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Color colorLowDetail(int node) {
-		final Object o = m_colorsLowDetail.get(node);
+		final Color[] colors = m_colorsLowDetail;
+		final int slot = m_slots.get(node);
 
-		if ((o == null) || (o == m_deletedEntry))
+		if ((slot < 0) || (slot >= colors.length) || (colors[slot] == null))
 			return super.colorLowDetail(node);
 
-		return (Color) o;
+		return colors[slot];
 	}
 
 	
@@ -140,12 +185,16 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 */
 	void overrideColorLowDetail(int node, Color color) {
 		if ((color == null) || color.equals(super.colorLowDetail(node))) {
-			final Object val = m_colorsLowDetail.get(node);
+			final int slot = m_slots.get(node);
 
-			if ((val != null) && (val != m_deletedEntry))
-				m_colorsLowDetail.put(node, m_deletedEntry);
-		} else
-			m_colorsLowDetail.put(node, color);
+			if ((slot >= 0) && (slot < m_colorsLowDetail.length))
+				m_colorsLowDetail[slot] = null;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_colorsLowDetail = DetailArrays.ensure(m_colorsLowDetail, slot);
+			m_colorsLowDetail[slot] = (Color) m_paints.intern(color);
+		}
 	}
 
 	
@@ -157,12 +206,13 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public byte shape(int node) {
-		final Object o = m_shapes.get(new Integer(node));
+		final byte[] shapes = m_shapes;
+		final int slot = m_slots.get(node);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= shapes.length) || (shapes[slot] == DetailArrays.DEFAULT_BYTE))
 			return super.shape(node);
 
-		return ((Byte) o).byteValue();
+		return shapes[slot];
 	}
 
 	/*
@@ -170,10 +220,17 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * A negative shape value has the special meaning to remove overridden shape.
 	 */
 	void overrideShape(int node, byte shape) {
-		if ((shape < 0) || (shape == super.shape(node)))
-			m_shapes.remove(new Integer(node));
-		else
-			m_shapes.put(new Integer(node), new Byte(shape));
+		if ((shape < 0) || (shape == super.shape(node))) {
+			final int slot = m_slots.get(node);
+
+			if ((slot >= 0) && (slot < m_shapes.length))
+				m_shapes[slot] = DetailArrays.DEFAULT_BYTE;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_shapes = DetailArrays.ensure(m_shapes, slot);
+			m_shapes[slot] = shape;
+		}
 	}
 
 	/**
@@ -184,22 +241,30 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Paint fillPaint(int node) {
-		final Object o = m_fillPaints.get(new Integer(node));
+		final Paint[] paints = m_fillPaints;
+		final int slot = m_slots.get(node);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= paints.length) || (paints[slot] == null))
 			return super.fillPaint(node);
 
-		return (Paint) o;
+		return paints[slot];
 	}
 
 	/*
 	 * A null paint has the special meaning to remove overridden paint.
 	 */
 	void overrideFillPaint(int node, Paint paint) {
-		if ((paint == null) || paint.equals(super.fillPaint(node)))
-			m_fillPaints.remove(new Integer(node));
-		else
-			m_fillPaints.put(new Integer(node), paint);
+		if ((paint == null) || paint.equals(super.fillPaint(node))) {
+			final int slot = m_slots.get(node);
+
+			if ((slot >= 0) && (slot < m_fillPaints.length))
+				m_fillPaints[slot] = null;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_fillPaints = DetailArrays.ensure(m_fillPaints, slot);
+			m_fillPaints[slot] = m_paints.intern(paint);
+		}
 	}
 
 	/**
@@ -210,22 +275,30 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public float borderWidth(int node) {
-		final Object o = m_borderWidths.get(new Integer(node));
+		final float[] widths = m_borderWidths;
+		final int slot = m_slots.get(node);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= widths.length) || Float.isNaN(widths[slot]))
 			return super.borderWidth(node);
 
-		return ((Float) o).floatValue();
+		return widths[slot];
 	}
 
 	/*
 	 * A negative width value has the special meaning to remove overridden width.
 	 */
 	void overrideBorderWidth(int node, float width) {
-		if ((width < 0.0f) || (width == super.borderWidth(node)))
-			m_borderWidths.remove(new Integer(node));
-		else
-			m_borderWidths.put(new Integer(node), new Float(width));
+		if ((width < 0.0f) || (width == super.borderWidth(node))) {
+			final int slot = m_slots.get(node);
+
+			if ((slot >= 0) && (slot < m_borderWidths.length))
+				m_borderWidths[slot] = Float.NaN;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_borderWidths = DetailArrays.ensure(m_borderWidths, slot);
+			m_borderWidths[slot] = width;
+		}
 	}
 
 	/**
@@ -236,22 +309,30 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Paint borderPaint(int node) {
-		final Object o = m_borderPaints.get(new Integer(node));
+		final Paint[] paints = m_borderPaints;
+		final int slot = m_slots.get(node);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= paints.length) || (paints[slot] == null))
 			return super.borderPaint(node);
 
-		return (Paint) o;
+		return paints[slot];
 	}
 
 	/*
 	 * A null paint has the special meaning to remove overridden paint.
 	 */
 	void overrideBorderPaint(int node, Paint paint) {
-		if ((paint == null) || paint.equals(super.borderPaint(node)))
-			m_borderPaints.remove(node);
-		else
-			m_borderPaints.put(node, paint);
+		if ((paint == null) || paint.equals(super.borderPaint(node))) {
+			final int slot = m_slots.get(node);
+
+			if ((slot >= 0) && (slot < m_borderPaints.length))
+				m_borderPaints[slot] = null;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_borderPaints = DetailArrays.ensure(m_borderPaints, slot);
+			m_borderPaints[slot] = m_paints.intern(paint);
+		}
 	}
 
 	/**
@@ -262,22 +343,30 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public int labelCount(int node) {
-		final Integer o = m_labelCounts.get(node);
+		final int[] counts = m_labelCounts;
+		final int slot = m_slots.get(node);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= counts.length) || (counts[slot] == DetailArrays.DEFAULT_INT))
 			return super.labelCount(node);
 
-		return o;
+		return counts[slot];
 	}
 
 	/*
 	 * A negative labelCount has the special meaning to remove overridden count.
 	 */
 	void overrideLabelCount(int node, int labelCount) {
-		if ((labelCount < 0) || (labelCount == super.labelCount(node)))
-			m_labelCounts.remove(new Integer(node));
-		else
-			m_labelCounts.put(new Integer(node), new Integer(labelCount));
+		if ((labelCount < 0) || (labelCount == super.labelCount(node))) {
+			final int slot = m_slots.get(node);
+
+			if ((slot >= 0) && (slot < m_labelCounts.length))
+				m_labelCounts[slot] = DetailArrays.DEFAULT_INT;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_labelCounts = DetailArrays.ensure(m_labelCounts, slot);
+			m_labelCounts[slot] = labelCount;
+		}
 	}
 
 	/**
@@ -289,25 +378,44 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public String labelText(int node, int labelInx) {
-		final long key = (((long) node) << 32) | ((long) labelInx);
-		final Object o = m_labelTexts.get(new Long(key));
+		final String o;
+
+		if (labelInx == 0) {
+			final String[] texts = m_labelTexts;
+			final int slot = m_slots.get(node);
+			o = ((slot >= 0) && (slot < texts.length)) ? texts[slot] : null;
+		} else
+			o = m_otherLabelTexts.get(new Long((((long) node) << 32) | ((long) labelInx)));
 
 		if (o == null)
 			return super.labelText(node, labelInx);
 
-		return (String) o;
+		return o;
 	}
 
 	/*
 	 * A null text has the special meaning to remove overridden text.
 	 */
 	void overrideLabelText(int node, int labelInx, String text) {
-		final long key = (((long) node) << 32) | ((long) labelInx);
-
 		if ((text == null) || text.equals(super.labelText(node, labelInx)))
-			m_labelTexts.remove(new Long(key));
-		else
-			m_labelTexts.put(new Long(key), text);
+			text = null;
+
+		if (labelInx == 0) {
+			final int slot = (text != null) ? m_slots.add(node) : m_slots.get(node);
+
+			if (text != null)
+				m_labelTexts = DetailArrays.ensure(m_labelTexts, slot);
+
+			if ((slot >= 0) && (slot < m_labelTexts.length))
+				m_labelTexts[slot] = text;
+		} else {
+			final Long key = new Long((((long) node) << 32) | ((long) labelInx));
+
+			if (text == null)
+				m_otherLabelTexts.remove(key);
+			else
+				m_otherLabelTexts.put(key, text);
+		}
 	}
 
 	/**
@@ -319,25 +427,46 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Font labelFont(int node, int labelInx) {
-		final long key = (((long) node) << 32) | ((long) labelInx);
-		final Object o = m_labelFonts.get(new Long(key));
+		final Font o;
+
+		if (labelInx == 0) {
+			final Font[] fonts = m_labelFonts;
+			final int slot = m_slots.get(node);
+			o = ((slot >= 0) && (slot < fonts.length)) ? fonts[slot] : null;
+		} else
+			o = m_otherLabelFonts.get(new Long((((long) node) << 32) | ((long) labelInx)));
 
 		if (o == null)
 			return super.labelFont(node, labelInx);
 
-		return (Font) o;
+		return o;
 	}
 
 	/*
 	 * A null font has the special meaning to remove overridden font.
 	 */
 	void overrideLabelFont(int node, int labelInx, Font font) {
-		final long key = (((long) node) << 32) | ((long) labelInx);
-
 		if ((font == null) || font.equals(super.labelFont(node, labelInx)))
-			m_labelFonts.remove(new Long(key));
+			font = null;
 		else
-			m_labelFonts.put(new Long(key), font);
+			font = m_fonts.intern(font);
+
+		if (labelInx == 0) {
+			final int slot = (font != null) ? m_slots.add(node) : m_slots.get(node);
+
+			if (font != null)
+				m_labelFonts = DetailArrays.ensure(m_labelFonts, slot);
+
+			if ((slot >= 0) && (slot < m_labelFonts.length))
+				m_labelFonts[slot] = font;
+		} else {
+			final Long key = new Long((((long) node) << 32) | ((long) labelInx));
+
+			if (font == null)
+				m_otherLabelFonts.remove(key);
+			else
+				m_otherLabelFonts.put(key, font);
+		}
 	}
 
 	/**
@@ -349,42 +478,63 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public Paint labelPaint(int node, int labelInx) {
-		final long key = (((long) node) << 32) | ((long) labelInx);
-		final Object o = m_labelPaints.get(new Long(key));
+		final Paint o;
+
+		if (labelInx == 0) {
+			final Paint[] paints = m_labelPaints;
+			final int slot = m_slots.get(node);
+			o = ((slot >= 0) && (slot < paints.length)) ? paints[slot] : null;
+		} else
+			o = m_otherLabelPaints.get(new Long((((long) node) << 32) | ((long) labelInx)));
 
 		if (o == null)
 			return super.labelPaint(node, labelInx);
 
-		return (Paint) o;
+		return o;
 	}
 
 	/*
 	 * A null paint has the special meaning to remove overridden paint.
 	 */
 	void overrideLabelPaint(int node, int labelInx, Paint paint) {
-		final long key = (((long) node) << 32) | ((long) labelInx);
-
 		if ((paint == null) || paint.equals(super.labelPaint(node, labelInx)))
-			m_labelPaints.remove(new Long(key));
+			paint = null;
 		else
-			m_labelPaints.put(new Long(key), paint);
+			paint = m_paints.intern(paint);
+
+		if (labelInx == 0) {
+			final int slot = (paint != null) ? m_slots.add(node) : m_slots.get(node);
+
+			if (paint != null)
+				m_labelPaints = DetailArrays.ensure(m_labelPaints, slot);
+
+			if ((slot >= 0) && (slot < m_labelPaints.length))
+				m_labelPaints[slot] = paint;
+		} else {
+			final Long key = new Long((((long) node) << 32) | ((long) labelInx));
+
+			if (paint == null)
+				m_otherLabelPaints.remove(key);
+			else
+				m_otherLabelPaints.put(key, paint);
+		}
 	}
 
 
 	// overrides NodeDetails.customGraphicCount():
 	public int customGraphicCount(final int node) {
-		final DNodeView dnv = (DNodeView) m_view.getNodeView(~node);	
+		final DNodeView dnv = m_view.getDNodeView(~node);	
 		return dnv.getNumCustomGraphics();
 	}
 
 	// overrides NodeDetails.customGraphics():
 	public Iterator<CustomGraphic> customGraphics (final int node) {
-		final DNodeView dnv = (DNodeView) m_view.getNodeView(~node);
+		final DNodeView dnv = m_view.getDNodeView(~node);
 		return dnv.customGraphicIterator();
     }
 	// overrides NodeDetails.customGraphicLock():
 	public Object customGraphicLock (final int node) {
-		final DNodeView dnv = (DNodeView) m_view.getNodeView(~node);
+		final DNodeView dnv = m_view.getDNodeView(~node);
 		return dnv.customGraphicLock();	
 	}
 
@@ -398,20 +548,28 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return  DOCUMENT ME!
 	 */
 	public byte labelTextAnchor(final int node, final int labelInx) {
-		final Integer p = m_labelTextAnchors.get(node);
+		final byte[] anchors = m_labelTextAnchors;
+		final int slot = m_slots.get(node);
 
-		if (p == null)
+		if ((slot < 0) || (slot >= anchors.length) || (anchors[slot] == DetailArrays.DEFAULT_BYTE))
 			return super.labelTextAnchor(node, labelInx);
 		else
-			return convertG2ND(p);
+			return anchors[slot];
 	}
 
 	
 	void overrideLabelTextAnchor(final int node, final int inx, final int anchor) {
-		if (convertG2ND(anchor) == super.labelTextAnchor(node, inx))
-			m_labelTextAnchors.remove(node);
-		else
-			m_labelTextAnchors.put(new Integer(node), new Integer(anchor));
+		if (convertG2ND(anchor) == super.labelTextAnchor(node, inx)) {
+			final int slot = m_slots.get(node);
+
+			if ((slot >= 0) && (slot < m_labelTextAnchors.length))
+				m_labelTextAnchors[slot] = DetailArrays.DEFAULT_BYTE;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_labelTextAnchors = DetailArrays.ensure(m_labelTextAnchors, slot);
+			m_labelTextAnchors[slot] = convertG2ND(anchor);
+		}
 	}
 
 	/**
@@ -423,19 +581,27 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return  DOCUMENT ME!
 	 */
 	public byte labelNodeAnchor(final int node, final int labelInx) {
-		final Integer o = m_labelNodeAnchors.get(node);
+		final byte[] anchors = m_labelNodeAnchors;
+		final int slot = m_slots.get(node);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= anchors.length) || (anchors[slot] == DetailArrays.DEFAULT_BYTE))
 			return super.labelNodeAnchor(node, labelInx);
 
-		return convertG2ND(o);
+		return anchors[slot];
 	}
 
 	void overrideLabelNodeAnchor(final int node, final int inx, final int anchor) {
-		if (convertG2ND(anchor) == super.labelNodeAnchor(node, inx))
-			m_labelNodeAnchors.remove(new Integer(node));
-		else
-			m_labelNodeAnchors.put(new Integer(node), new Integer(anchor));
+		if (convertG2ND(anchor) == super.labelNodeAnchor(node, inx)) {
+			final int slot = m_slots.get(node);
+
+			if ((slot >= 0) && (slot < m_labelNodeAnchors.length))
+				m_labelNodeAnchors[slot] = DetailArrays.DEFAULT_BYTE;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_labelNodeAnchors = DetailArrays.ensure(m_labelNodeAnchors, slot);
+			m_labelNodeAnchors[slot] = convertG2ND(anchor);
+		}
 	}
 
 	/**
@@ -447,19 +613,27 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return  DOCUMENT ME!
 	 */
 	public float labelOffsetVectorX(final int node, final int labelInx) {
-		final Double o = m_labelOffsetXs.get(node);
+		final float[] offsets = m_labelOffsetXs;
+		final int slot = m_slots.get(node);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= offsets.length) || Float.isNaN(offsets[slot]))
 			return super.labelOffsetVectorX(node, labelInx);
 
-		return o.floatValue();
+		return offsets[slot];
 	}
 
 	void overrideLabelOffsetVectorX(final int node, final int inx, final double x) {
-		if (((float) x) == super.labelOffsetVectorX(node, inx))
-			m_labelOffsetXs.remove(new Integer(node));
-		else
-			m_labelOffsetXs.put(new Integer(node), new Double(x));
+		if (((float) x) == super.labelOffsetVectorX(node, inx)) {
+			final int slot = m_slots.get(node);
+
+			if ((slot >= 0) && (slot < m_labelOffsetXs.length))
+				m_labelOffsetXs[slot] = Float.NaN;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_labelOffsetXs = DetailArrays.ensure(m_labelOffsetXs, slot);
+			m_labelOffsetXs[slot] = (float) x;
+		}
 	}
 
 	/**
@@ -471,19 +645,27 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return  DOCUMENT ME!
 	 */
 	public float labelOffsetVectorY(final int node, final int labelInx) {
-		final Double o = m_labelOffsetYs.get(node);
+		final float[] offsets = m_labelOffsetYs;
+		final int slot = m_slots.get(node);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= offsets.length) || Float.isNaN(offsets[slot]))
 			return super.labelOffsetVectorY(node, labelInx);
 
-		return o.floatValue();
+		return offsets[slot];
 	}
 
 	void overrideLabelOffsetVectorY(final int node, final int inx, final double y) {
-		if (((float) y) == super.labelOffsetVectorY(node, inx))
-			m_labelOffsetYs.remove(new Integer(node));
-		else
-			m_labelOffsetYs.put(new Integer(node), new Double(y));
+		if (((float) y) == super.labelOffsetVectorY(node, inx)) {
+			final int slot = m_slots.get(node);
+
+			if ((slot >= 0) && (slot < m_labelOffsetYs.length))
+				m_labelOffsetYs[slot] = Float.NaN;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_labelOffsetYs = DetailArrays.ensure(m_labelOffsetYs, slot);
+			m_labelOffsetYs[slot] = (float) y;
+		}
 	}
 
 	/**
@@ -495,19 +677,27 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return  DOCUMENT ME!
 	 */
 	public byte labelJustify(final int node, final int labelInx) {
-		Integer o = m_labelJustifys.get(node);
+		final byte[] justifys = m_labelJustifys;
+		final int slot = m_slots.get(node);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= justifys.length) || (justifys[slot] == DetailArrays.DEFAULT_BYTE))
 			return super.labelJustify(node, labelInx);
 
-		return convertG2ND(o);
+		return justifys[slot];
 	}
 
 	void overrideLabelJustify(final int node, final int inx, final int justify) {
-		if (convertG2ND(justify) == super.labelJustify(node, inx))
-			m_labelJustifys.remove(new Integer(node));
-		else
-			m_labelJustifys.put(new Integer(node), new Integer(justify));
+		if (convertG2ND(justify) == super.labelJustify(node, inx)) {
+			final int slot = m_slots.get(node);
+
+			if ((slot >= 0) && (slot < m_labelJustifys.length))
+				m_labelJustifys[slot] = DetailArrays.DEFAULT_BYTE;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_labelJustifys = DetailArrays.ensure(m_labelJustifys, slot);
+			m_labelJustifys[slot] = convertG2ND(justify);
+		}
 	}
 
 	/**
@@ -518,18 +708,19 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * @return DOCUMENT ME!
 	 */
 	public double labelWidth(int node) {
-		final Double o = m_labelWidths.get(node);
+		final double[] widths = m_labelWidths;
+		final int slot = m_slots.get(node);
 
-		if (o == null)
+		if ((slot < 0) || (slot >= widths.length) || Double.isNaN(widths[slot]))
 			return super.labelWidth(node);
 
-		return o;
+		return widths[slot];
 	}
 	
 	
 	@Override
 	public TexturePaint getNestedNetworkTexturePaint(final int node) {
-		final DNodeView dNodeView = (DNodeView) m_view.getNodeView(~node);
+		final DNodeView dNodeView = m_view.getDNodeView(~node);
 		return dNodeView.getNestedNetworkTexturePaint();
 	}
 
@@ -538,10 +729,17 @@ class DNodeDetails extends IntermediateNodeDetails {
 	 * A negative width value has the special meaning to remove overridden width.
 	 */
 	void overrideLabelWidth(int node, double width) {
-		if ((width < 0.0) || (width == super.labelWidth(node)))
-			m_labelWidths.remove(new Integer(node));
-		else
-			m_labelWidths.put(new Integer(node), new Double(width));
+		if ((width < 0.0) || (width == super.labelWidth(node))) {
+			final int slot = m_slots.get(node);
+
+			if ((slot >= 0) && (slot < m_labelWidths.length))
+				m_labelWidths[slot] = Double.NaN;
+		} else {
+			final int slot = m_slots.add(node);
+
+			m_labelWidths = DetailArrays.ensure(m_labelWidths, slot);
+			m_labelWidths[slot] = width;
+		}
 	}
 
 	static byte convertG2ND(int giny) {
@@ -77,8 +77,13 @@ public class DNodeView implements NodeView, Label {
 	private static BufferedImage DEFAULT_NESTED_NETWORK_IMAGE;
 	private static BufferedImage RECURSIVE_NESTED_NETWORK_IMAGE;
 
-	// Used to detect recursive rendering of nested networks.
-	private static int nestedNetworkPaintingDepth = 0;
+	// Used to detect recursive rendering of nested networks.  Kept per thread
+	// because several views may be rendered by different threads at once.
+	private static final ThreadLocal<int[]> nestedNetworkPaintingDepth = new ThreadLocal<int[]>() {
+		protected int[] initialValue() {
+			return new int[1];
+		}
+	};
 
 	static {
 		try {
@@ -255,7 +260,7 @@ public class DNodeView implements NodeView, Label {
 					graphView.m_nodeDetails.overrideColorLowDetail(m_inx,
 							(Color) m_selectedPaint);
 
-				graphView.m_contentChanged = true;
+				graphView.m_nodeContentChanged = true;
 			}
 		}
 	}
@@ -290,7 +295,7 @@ public class DNodeView implements NodeView, Label {
 					graphView.m_nodeDetails.overrideColorLowDetail(m_inx,
 							(Color) m_unselectedPaint);
 
-				graphView.m_contentChanged = true;
+				graphView.m_nodeContentChanged = true;
 			}
 		}
 	}
@@ -314,7 +319,7 @@ public class DNodeView implements NodeView, Label {
 		synchronized (graphView.m_lock) {
 			m_borderPaint = paint;
 			fixBorder();
-			graphView.m_contentChanged = true;
+			graphView.m_nodeContentChanged = true;
 		}
 	}
 
@@ -336,7 +341,7 @@ public class DNodeView implements NodeView, Label {
 	public void setBorderWidth(float width) {
 		synchronized (graphView.m_lock) {
 			graphView.m_nodeDetails.overrideBorderWidth(m_inx, width);
-			graphView.m_contentChanged = true;
+			graphView.m_nodeContentChanged = true;
 		}
 	}
 
@@ -468,11 +473,11 @@ public class DNodeView implements NodeView, Label {
 			if (!(xMax > xMin))
 				throw new IllegalArgumentException("width is too small");
 
+			graphView.damageNode(m_inx);
 			graphView.m_spacial.delete(m_inx);
 			graphView.m_spacial.insert(m_inx, xMin, graphView.m_extentsBuff[1],
 					xMax, graphView.m_extentsBuff[3]);
-
-			graphView.m_contentChanged = true;
+			graphView.damageNode(m_inx);
 
 			return true;
 		}
@@ -521,11 +526,11 @@ public class DNodeView implements NodeView, Label {
 						+ yMax + " min:" + yMin + " center:" + yCenter
 						+ " height:" + height);
 
+			graphView.damageNode(m_inx);
 			graphView.m_spacial.delete(m_inx);
 			graphView.m_spacial.insert(m_inx, graphView.m_extentsBuff[0], yMin,
 					graphView.m_extentsBuff[2], yMax);
-
-			graphView.m_contentChanged = true;
+			graphView.damageNode(m_inx);
 
 			return true;
 		}
@@ -595,9 +600,16 @@ public class DNodeView implements NodeView, Label {
 						"height of node has degenerated to zero after "
 								+ "rounding");
 
+			if (graphView.m_deferredMoves > 0) {
+				graphView.deferMove(m_inx, x, y);
+
+				return;
+			}
+
+			graphView.damageNode(m_inx);
 			graphView.m_spacial.delete(m_inx);
 			graphView.m_spacial.insert(m_inx, xMin, yMin, xMax, yMax);
-			graphView.m_contentChanged = true;
+			graphView.damageNode(m_inx);
 		}
 	}
 
@@ -611,6 +623,11 @@ public class DNodeView implements NodeView, Label {
 			if (!graphView.m_spacial.exists(m_inx, graphView.m_extentsBuff, 0))
 				return null;
 
+			final double[] move = graphView.getPendingMove(m_inx);
+
+			if (move != null)
+				return new Point2D.Double(move[0], move[1]);
+
 			final double xCenter = (((double) graphView.m_extentsBuff[0]) + graphView.m_extentsBuff[2]) / 2.0d;
 			final double yCenter = (((double) graphView.m_extentsBuff[1]) + graphView.m_extentsBuff[3]) / 2.0d;
 
@@ -643,13 +660,20 @@ public class DNodeView implements NodeView, Label {
 						"width of node has degenerated to zero after "
 								+ "rounding");
 
+			if (graphView.m_deferredMoves > 0) {
+				graphView.deferMove(m_inx, xPos, getYPosition());
+
+				return;
+			}
+
 			// If the node is visible, set the extents.
 			if (nodeVisible) {
+				graphView.damageNode(m_inx);
 				graphView.m_spacial.delete(m_inx);
 				graphView.m_spacial.insert(m_inx, xMin,
 						graphView.m_extentsBuff[1], xMax,
 						graphView.m_extentsBuff[3]);
-				graphView.m_contentChanged = true;
+				graphView.damageNode(m_inx);
 
 				// If the node is NOT visible (hidden), then update the hidden
 				// extents. Doing
@@ -682,6 +706,11 @@ public class DNodeView implements NodeView, Label {
 	 */
 	public double getXPosition() {
 		synchronized (graphView.m_lock) {
+			final double[] move = graphView.getPendingMove(m_inx);
+
+			if (move != null)
+				return move[0];
+
 			if (graphView.m_spacial.exists(m_inx, graphView.m_extentsBuff, 0))
 				return (((double) graphView.m_extentsBuff[0]) + graphView.m_extentsBuff[2]) / 2.0d;
 			else
@@ -714,12 +743,19 @@ public class DNodeView implements NodeView, Label {
 						"height of node has degenerated to zero after "
 								+ "rounding");
 
+			if (graphView.m_deferredMoves > 0) {
+				graphView.deferMove(m_inx, getXPosition(), yPos);
+
+				return;
+			}
+
 			// If the node is visible, set the extents.
 			if (nodeVisible) {
+				graphView.damageNode(m_inx);
 				graphView.m_spacial.delete(m_inx);
 				graphView.m_spacial.insert(m_inx, graphView.m_extentsBuff[0],
 						yMin, graphView.m_extentsBuff[2], yMax);
-				graphView.m_contentChanged = true;
+				graphView.damageNode(m_inx);
 
 				// If the node is NOT visible (hidden), then update the hidden
 				// extents. Doing
@@ -752,6 +788,11 @@ public class DNodeView implements NodeView, Label {
 	 */
 	public double getYPosition() {
 		synchronized (graphView.m_lock) {
+			final double[] move = graphView.getPendingMove(m_inx);
+
+			if (move != null)
+				return move[1];
+
 			if (graphView.m_spacial.exists(m_inx, graphView.m_extentsBuff, 0))
 				return (((double) graphView.m_extentsBuff[1]) + graphView.m_extentsBuff[3]) / 2.0d;
 			else
@@ -778,7 +819,7 @@ public class DNodeView implements NodeView, Label {
 			somethingChanged = selectInternal();
 
 			if (somethingChanged)
-				graphView.m_contentChanged = true;
+				graphView.m_nodeContentChanged = true;
 		}
 
 		if (somethingChanged) {
@@ -817,7 +858,7 @@ public class DNodeView implements NodeView, Label {
 			somethingChanged = unselectInternal();
 
 			if (somethingChanged)
-				graphView.m_contentChanged = true;
+				graphView.m_nodeContentChanged = true;
 		}
 
 		if (somethingChanged) {
@@ -939,7 +980,7 @@ public class DNodeView implements NodeView, Label {
 	public void setTextPaint(Paint textPaint) {
 		synchronized (graphView.m_lock) {
 			graphView.m_nodeDetails.overrideLabelPaint(m_inx, 0, textPaint);
-			graphView.m_contentChanged = true;
+			graphView.m_nodeContentChanged = true;
 		}
 	}
 
@@ -988,7 +1029,7 @@ public class DNodeView implements NodeView, Label {
 			else
 				graphView.m_nodeDetails.overrideLabelCount(m_inx, 1);
 
-			graphView.m_contentChanged = true;
+			graphView.m_nodeContentChanged = true;
 		}
 	}
 
@@ -1012,7 +1053,7 @@ public class DNodeView implements NodeView, Label {
 	public void setFont(Font font) {
 		synchronized (graphView.m_lock) {
 			graphView.m_nodeDetails.overrideLabelFont(m_inx, 0, font);
-			graphView.m_contentChanged = true;
+			graphView.m_nodeContentChanged = true;
 		}
 	}
 
@@ -1171,7 +1212,7 @@ public class DNodeView implements NodeView, Label {
 
 	private void ensureContentChanged() {
 		synchronized (graphView.m_lock) {
-			graphView.m_contentChanged = true;
+			graphView.m_nodeContentChanged = true;
 		}
 	}
 
@@ -1343,57 +1384,76 @@ public class DNodeView implements NodeView, Label {
 	public void setLabelWidth(double width) {
 		synchronized (graphView.m_lock) {
 			graphView.m_nodeDetails.overrideLabelWidth(m_inx, width);
-			graphView.m_contentChanged = true;
+			graphView.m_nodeContentChanged = true;
 		}
 	}
 
 	
+	// Called by the renderer, which already holds graphView.m_lock.  Only
+	// the rendering thread itself gets here, since views that show nested
+	// networks are not rendered in bands; see m_nestedNetworkCount.
 	TexturePaint getNestedNetworkTexturePaint() {
-		synchronized (graphView.m_lock) {
-			++nestedNetworkPaintingDepth;
-			try {
-				if (nestedNetworkPaintingDepth > 1
-						|| getNode().getNestedNetwork() == null
-						|| !nestedNetworkVisible)
+		final int[] depth = nestedNetworkPaintingDepth.get();
+		++depth[0];
+		try {
+			if (depth[0] > 1
+					|| graphView.m_structPersp.getNode(~m_inx).getNestedNetwork() == null
+					|| !nestedNetworkVisible)
+				return null;
+
+			final float[] extents = new float[4];
+			if (!graphView.m_spacial.exists(m_inx, extents, 0))
+				return null;
+
+			final double IMAGE_WIDTH = (((double) extents[2]) - extents[0])
+				* NESTED_IMAGE_SCALE_FACTOR;
+			final double IMAGE_HEIGHT = (((double) extents[3]) - extents[1])
+				* NESTED_IMAGE_SCALE_FACTOR;
+
+			// Do we have a node w/ a self-reference?
+			if (graphView == nestedNetworkView) {
+				if (RECURSIVE_NESTED_NETWORK_IMAGE == null)
 					return null;
 
-				final double IMAGE_WIDTH = getWidth()
-					* NESTED_IMAGE_SCALE_FACTOR;
-				final double IMAGE_HEIGHT = getHeight()
-					* NESTED_IMAGE_SCALE_FACTOR;
-
-				// Do we have a node w/ a self-reference?
-				if (graphView == nestedNetworkView) {
-					if (RECURSIVE_NESTED_NETWORK_IMAGE == null)
-						return null;
-
-					final Rectangle2D rect = new Rectangle2D.Double(
-							-IMAGE_WIDTH / 2, -IMAGE_HEIGHT / 2, IMAGE_WIDTH,
-							IMAGE_HEIGHT);
-					return new TexturePaint(RECURSIVE_NESTED_NETWORK_IMAGE,
-							rect);
-				}
-				if (nestedNetworkView != null) {
-					final double scaleFactor = graphView.getGraphLOD().getNestedNetworkImageScaleFactor();
-					return nestedNetworkView.getSnapshot(IMAGE_WIDTH * scaleFactor,
-									     IMAGE_HEIGHT * scaleFactor);
-				} else {
-					if (DEFAULT_NESTED_NETWORK_IMAGE == null)
-						return null;
+				final Rectangle2D rect = new Rectangle2D.Double(
+						-IMAGE_WIDTH / 2, -IMAGE_HEIGHT / 2, IMAGE_WIDTH,
+						IMAGE_HEIGHT);
+				return new TexturePaint(RECURSIVE_NESTED_NETWORK_IMAGE,
+						rect);
+			}
+			if (nestedNetworkView != null) {
+				final double scaleFactor = graphView.getGraphLOD().getNestedNetworkImageScaleFactor();
+				return nestedNetworkView.getSnapshot(IMAGE_WIDTH * scaleFactor,
+								     IMAGE_HEIGHT * scaleFactor);
+			} else {
+				if (DEFAULT_NESTED_NETWORK_IMAGE == null)
+					return null;
 
-					final Rectangle2D rect = new Rectangle2D.Double(
-							-IMAGE_WIDTH / 2, -IMAGE_HEIGHT / 2, IMAGE_WIDTH,
-							IMAGE_HEIGHT);
-					return new TexturePaint(DEFAULT_NESTED_NETWORK_IMAGE, rect);
-				}
-			} finally {
-				--nestedNetworkPaintingDepth;
+				final Rectangle2D rect = new Rectangle2D.Double(
+						-IMAGE_WIDTH / 2, -IMAGE_HEIGHT / 2, IMAGE_WIDTH,
+						IMAGE_HEIGHT);
+				return new TexturePaint(DEFAULT_NESTED_NETWORK_IMAGE, rect);
 			}
+		} finally {
+			--depth[0];
 		}
 	}
 
 	public void setNestedNetworkView(final DGraphView nestedNetworkView) {
-		this.nestedNetworkView = nestedNetworkView;
+		final DGraphView view = graphView;
+
+		if (view == null) {
+			this.nestedNetworkView = nestedNetworkView;
+
+			return;
+		}
+
+		synchronized (view.m_lock) {
+			if ((this.nestedNetworkView == null) != (nestedNetworkView == null))
+				view.m_nestedNetworkCount += ((nestedNetworkView == null) ? (-1) : 1);
+
+			this.nestedNetworkView = nestedNetworkView;
+		}
 	}
 
 	/**
@@ -1443,7 +1503,7 @@ public class DNodeView implements NodeView, Label {
 			graphView.m_nodeDetails.overrideLabelOffsetVectorY(m_inx, 0,
 					labelPosition.getOffsetY());
 
-			graphView.m_contentChanged = true;
+			graphView.m_nodeContentChanged = true;
 		}
 	}
 
@@ -0,0 +1,185 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+
+package ding.view;
+
+import cytoscape.util.intr.IntIntHash;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+
+/*
+ * Helpers for the dense arrays that DNodeDetails and DEdgeDetails keep
+ * overridden visual properties in.  The arrays are indexed by the slot that
+ * a Slots table gives each node or edge of the view, and hold a "default"
+ * sentinel in every slot that is not overridden: DEFAULT_BYTE, DEFAULT_INT,
+ * NaN or null.  They grow on demand and never shrink.
+ */
+final class DetailArrays {
+	static final byte DEFAULT_BYTE = Byte.MIN_VALUE;
+	static final int DEFAULT_INT = -1;
+
+	private DetailArrays() {
+	}
+
+	static byte[] ensure(byte[] arr, final int inx) {
+		if (inx < arr.length)
+			return arr;
+
+		final int oldLength = arr.length;
+		arr = Arrays.copyOf(arr, newLength(oldLength, inx));
+		Arrays.fill(arr, oldLength, arr.length, DEFAULT_BYTE);
+
+		return arr;
+	}
+
+	static int[] ensure(int[] arr, final int inx) {
+		if (inx < arr.length)
+			return arr;
+
+		final int oldLength = arr.length;
+		arr = Arrays.copyOf(arr, newLength(oldLength, inx));
+		Arrays.fill(arr, oldLength, arr.length, DEFAULT_INT);
+
+		return arr;
+	}
+
+	static float[] ensure(float[] arr, final int inx) {
+		if (inx < arr.length)
+			return arr;
+
+		final int oldLength = arr.length;
+		arr = Arrays.copyOf(arr, newLength(oldLength, inx));
+		Arrays.fill(arr, oldLength, arr.length, Float.NaN);
+
+		return arr;
+	}
+
+	static double[] ensure(double[] arr, final int inx) {
+		if (inx < arr.length)
+			return arr;
+
+		final int oldLength = arr.length;
+		arr = Arrays.copyOf(arr, newLength(oldLength, inx));
+		Arrays.fill(arr, oldLength, arr.length, Double.NaN);
+
+		return arr;
+	}
+
+	static <T> T[] ensure(final T[] arr, final int inx) {
+		if (inx < arr.length)
+			return arr;
+
+		return Arrays.copyOf(arr, newLength(arr.length, inx));
+	}
+
+	private static int newLength(final int length, final int inx) {
+		if (inx < 0)
+			throw new IllegalArgumentException("index is negative");
+
+		return (int) Math.min((long) Integer.MAX_VALUE,
+		                      Math.max((long) inx + 1L, ((long) length * 2L) + 1L));
+	}
+
+	/*
+	 * Numbers the nodes or edges of one view densely from zero.  Node and
+	 * edge indices come from the RootGraph, which every network shares, so
+	 * indexing the arrays by them directly would size the arrays of even a
+	 * small view by the largest index in the session.  A node or edge keeps
+	 * its slot once it has one, also when it is removed from the view and
+	 * added back; the slot table is insert-only, like IntIntHash.  get()
+	 * does not modify the table, so several rendering threads may call it
+	 * at once as long as no thread is adding slots.
+	 */
+	static final class Slots {
+		private final IntIntHash m_slots = new IntIntHash();
+
+		/*
+		 * Returns the slot of inx, or -1 if it has none.
+		 */
+		int get(final int inx) {
+			return m_slots.get(inx);
+		}
+
+		/*
+		 * Returns the slot of inx, giving it the next free one if it has none.
+		 */
+		int add(final int inx) {
+			final int slot = m_slots.get(inx);
+
+			if (slot >= 0)
+				return slot;
+
+			final int newSlot = m_slots.size();
+			m_slots.put(inx, newSlot);
+
+			return newSlot;
+		}
+
+		/*
+		 * Returns how many slots have been given out.
+		 */
+		int size() {
+			return m_slots.size();
+		}
+	}
+
+	/*
+	 * Maps equal values onto one instance, so that views styled with the same
+	 * few colors, fonts or strokes share them instead of holding a copy per
+	 * node or edge.  The table is simply dropped once it grows large, as it
+	 * does under continuous mappings where sharing buys little.
+	 */
+	static final class Interner<T> {
+		private static final int MAX_SIZE = 4096;
+		private final HashMap<T, T> m_values = new HashMap<T, T>();
+
+		T intern(final T value) {
+			final T interned = m_values.get(value);
+
+			if (interned != null)
+				return interned;
+
+			if (m_values.size() >= MAX_SIZE)
+				m_values.clear();
+
+			m_values.put(value, value);
+
+			return value;
+		}
+	}
+}
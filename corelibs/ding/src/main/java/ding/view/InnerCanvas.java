@@ -37,7 +37,9 @@ import java.awt.Color;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
 import java.awt.Image;
+import java.awt.Paint;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.datatransfer.Transferable;
@@ -58,6 +60,10 @@ import java.awt.image.BufferedImage;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JComponent;
 import javax.swing.JPopupMenu;
@@ -110,6 +116,35 @@ public class InnerCanvas extends DingCanvas implements MouseListener, MouseMotio
 	private ViewChangeEdit m_undoable_edit;
 	private boolean isPrinting = false;
 
+	// Non-null when frames are rendered off the event dispatch thread.
+	private BackgroundRenderer m_backgroundRenderer = null;
+
+	// Non-null when frames are assembled from cached tiles.  Only used
+	// holding m_lock.
+	private volatile TileCache m_tileCache = null;
+
+	// Non-null when the edge layer is kept between frames.  Not used while
+	// there is a tile cache.  Only used holding m_lock.
+	private volatile LayerCache m_layerCache = null;
+
+	// True if a frame that only differs from the last one in the damaged
+	// area is rendered by rendering that area on top of the last frame.
+	private volatile boolean m_damageRendering;
+
+	// The number of bands frames are split into, each rendered by a thread
+	// of s_renderExecutor.  Frames are rendered by one thread if this is 1.
+	private volatile int m_renderThreads;
+
+	// Shared by all canvases; created when first needed.
+	private static ExecutorService s_renderExecutor = null;
+
+	// Frame timing, guarded by m_frameStatsLock.
+	private final Object m_frameStatsLock = new Object();
+	private long m_frameCount = 0;
+	private long m_cancelledFrameCount = 0;
+	private long m_lastFrameNanos = 0;
+	private long m_totalFrameNanos = 0;
+
 	FontMetrics m_fontMetrics = null;
 	
 	private boolean NodeMovement = true;
@@ -157,9 +192,26 @@ public class InnerCanvas extends DingCanvas implements MouseListener, MouseMotio
 		addKeyListener(this);
 		setFocusable(true);
 
-		dropTarget = new DropTarget(this, // component
-		                            DnDConstants.ACTION_COPY, // actions
-		                            this); // DropTargetListener
+		// Drop targets need a display, which views rendered off screen, such
+		// as in tests, do not have.
+		if (GraphicsEnvironment.isHeadless())
+			dropTarget = null;
+		else
+			dropTarget = new DropTarget(this, // component
+			                            DnDConstants.ACTION_COPY, // actions
+			                            this); // DropTargetListener
+
+		if (Boolean.getBoolean("cytoscape.render.background"))
+			m_backgroundRenderer = new BackgroundRenderer(this);
+
+		if (Boolean.getBoolean("cytoscape.render.tiles"))
+			m_tileCache = new TileCache(view);
+
+		if (Boolean.getBoolean("cytoscape.render.layers"))
+			m_layerCache = new LayerCache(view);
+
+		m_damageRendering = Boolean.getBoolean("cytoscape.render.damage");
+		m_renderThreads = Math.max(1, Integer.getInteger("cytoscape.render.threads", 1).intValue());
 	}
         
         public double getScaleFactor(){
@@ -211,22 +263,83 @@ public class InnerCanvas extends DingCanvas implements MouseListener, MouseMotio
 
 		m_fontMetrics = g.getFontMetrics();
 
-		synchronized (m_lock) {
-			if (m_view.m_contentChanged || m_view.m_viewportChanged) {
-				renderGraph(m_grafx,/* setLastRenderDetail = */ true, m_lod[0]);
-				contentChanged = m_view.m_contentChanged;
-				m_view.m_contentChanged = false;
-				viewportChanged = m_view.m_viewportChanged;
-				xCenter = m_xCenter;
-				yCenter = m_yCenter;
-				scaleFactor = m_scaleFactor;
-				m_view.m_viewportChanged = false;
+		final BackgroundRenderer backgroundRenderer = m_backgroundRenderer;
+
+		if (backgroundRenderer != null) {
+			// Only take the lock if there is something new to render, and
+			// make the render thread let go of it first.
+			if (m_view.m_contentChanged || m_view.m_contentDamaged || m_view.m_nodeContentChanged
+			    || m_view.m_viewportChanged) {
+				backgroundRenderer.cancel();
+
+				synchronized (m_lock) {
+					invalidateCaches();
+					contentChanged = m_view.m_contentChanged || m_view.m_contentDamaged
+					                 || m_view.m_nodeContentChanged;
+					m_view.m_contentChanged = false;
+					m_view.m_nodeContentChanged = false;
+					m_view.clearDamage();
+					viewportChanged = m_view.m_viewportChanged;
+					xCenter = m_xCenter;
+					yCenter = m_yCenter;
+					scaleFactor = m_scaleFactor;
+					m_view.m_viewportChanged = false;
+
+					// m_grafx is no longer drawn on, but it still provides the
+					// transform for hit testing.
+					m_grafx.clear(getBackgroundPaint(), xCenter, yCenter, scaleFactor);
+					backgroundRenderer.request(new BackgroundRenderer.Request(m_img.getWidth(null),
+					                                                          m_img.getHeight(null),
+					                                                          xCenter, yCenter,
+					                                                          scaleFactor,
+					                                                          m_lod[0],
+					                                                          getBackgroundPaint()));
+				}
+			}
+		} else {
+			synchronized (m_lock) {
+				if (m_view.m_contentChanged || m_view.m_contentDamaged
+				    || m_view.m_nodeContentChanged || m_view.m_viewportChanged) {
+					invalidateCaches();
+
+					final long start = System.nanoTime();
+
+					if (m_tileCache != null)
+						m_lastRenderDetail = m_tileCache.render(m_grafx, m_lod[0],
+						                                        getBackgroundPaint(), m_xCenter,
+						                                        m_yCenter, m_scaleFactor, null);
+					else if (m_damageRendering && m_view.m_contentDamaged
+					         && !(m_view.m_contentChanged || m_view.m_nodeContentChanged
+					              || m_view.m_viewportChanged))
+						renderDamage();
+					else if (m_layerCache != null)
+						m_lastRenderDetail = m_layerCache.render(m_grafx, m_lod[0],
+						                                         getBackgroundPaint(), m_xCenter,
+						                                         m_yCenter, m_scaleFactor, null);
+					else
+						renderGraph(m_grafx,/* setLastRenderDetail = */ true, m_lod[0]);
+
+					recordFrame(System.nanoTime() - start);
+					contentChanged = m_view.m_contentChanged || m_view.m_contentDamaged
+					                 || m_view.m_nodeContentChanged;
+					m_view.m_contentChanged = false;
+					m_view.m_nodeContentChanged = false;
+					m_view.clearDamage();
+					viewportChanged = m_view.m_viewportChanged;
+					xCenter = m_xCenter;
+					yCenter = m_yCenter;
+					scaleFactor = m_scaleFactor;
+					m_view.m_viewportChanged = false;
+				}
 			}
 		}
 
 		// if canvas is visible, draw it (could be made invisible via DingCanvas api)
 		if (m_isVisible) {
-			g.drawImage(m_img, 0, 0, null);
+			if (backgroundRenderer != null)
+				drawFrontFrame(g, backgroundRenderer.getFrontFrame());
+			else
+				g.drawImage(m_img, 0, 0, null);
 		}
 
 		if ((m_selectionRect != null) && (this.isSelecting())) {
@@ -250,6 +363,406 @@ public class InnerCanvas extends DingCanvas implements MouseListener, MouseMotio
 		}
 	}
 
+	/**
+	 * Draws the latest frame from the render thread.  If it was rendered for
+	 * a different viewport, it is scaled and shifted to the current one as a
+	 * preview until the new frame is ready.
+	 */
+	private void drawFrontFrame(final Graphics g, final BackgroundRenderer.Frame frame) {
+		if (frame == null)
+			return;
+
+		final double scaleFactor = m_scaleFactor;
+
+		if ((frame.xCenter == m_xCenter) && (frame.yCenter == m_yCenter)
+		    && (frame.scaleFactor == scaleFactor)) {
+			g.drawImage(frame.image, 0, 0, null);
+
+			return;
+		}
+
+		final double k = scaleFactor / frame.scaleFactor;
+		final AffineTransform xform = new AffineTransform();
+		xform.translate(((frame.xCenter - m_xCenter) * scaleFactor) + (0.5d * getWidth())
+		                - (0.5d * k * frame.image.getWidth(null)),
+		                ((frame.yCenter - m_yCenter) * scaleFactor) + (0.5d * getHeight())
+		                - (0.5d * k * frame.image.getHeight(null)));
+		xform.scale(k, k);
+
+		final Graphics2D g2 = (Graphics2D) g;
+		final Paint origPaint = g2.getPaint();
+		g2.setPaint(getBackgroundPaint());
+		g2.fillRect(0, 0, getWidth(), getHeight());
+		g2.setPaint(origPaint);
+		g2.drawImage(frame.image, xform, null);
+	}
+
+	/**
+	 * Renders one frame for the render thread.
+	 *
+	 * @return false if the frame was cancelled and must be discarded.
+	 */
+	boolean renderFrame(final GraphGraphics grafx, final BackgroundRenderer.Request request) {
+		synchronized (m_lock) {
+			if (!request.cancelled.get()) {
+				final int lastRenderDetail;
+
+				if (m_tileCache != null)
+					lastRenderDetail = m_tileCache.render(grafx, request.lod, request.bgPaint,
+					                                      request.xCenter, request.yCenter,
+					                                      request.scaleFactor, request.cancelled);
+				else if (m_layerCache != null)
+					lastRenderDetail = m_layerCache.render(grafx, request.lod, request.bgPaint,
+					                                       request.xCenter, request.yCenter,
+					                                       request.scaleFactor, request.cancelled);
+				else
+					lastRenderDetail = renderGraph(grafx, m_hash, request.lod, request.bgPaint,
+					                               request.xCenter, request.yCenter,
+					                               request.scaleFactor, null,
+					                               request.cancelled,
+					                               GraphRenderer.LAYER_EDGES
+					                               | GraphRenderer.LAYER_NODES);
+
+				if (!request.cancelled.get()) {
+					m_lastRenderDetail = lastRenderDetail;
+
+					return true;
+				}
+			}
+		}
+
+		synchronized (m_frameStatsLock) {
+			m_cancelledFrameCount++;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Drops the tiles and the edge layer that the changes since the last
+	 * frame have made stale.  Must be called holding m_lock.
+	 */
+	private void invalidateCaches() {
+		if (m_tileCache != null) {
+			if (m_view.m_contentChanged || m_view.m_nodeContentChanged)
+				m_tileCache.invalidateAll();
+			else if (m_view.m_contentDamaged)
+				m_tileCache.invalidate(m_view.m_damagedExtents);
+		}
+
+		if ((m_layerCache != null) && (m_view.m_contentChanged || m_view.m_contentDamaged))
+			m_layerCache.invalidate();
+	}
+
+	/**
+	 * Renders the damaged area of the frame in m_img again, leaving the rest
+	 * of the last frame as it is.  The area is rendered with the whole frame
+	 * as its visible area, so that it matches the rest of the frame.  If the
+	 * area covers most of the frame, the whole frame is rendered instead.
+	 * Must be called holding m_lock, when nothing but the damaged area has
+	 * changed since the last frame.
+	 */
+	private void renderDamage() {
+		final int width = m_img.getWidth(null);
+		final int height = m_img.getHeight(null);
+		final float[] damage = m_view.m_damagedExtents;
+
+		// The damaged area in image coordinates, with a pixel to spare for
+		// antialiasing.
+		final int xMin = (int) Math.max(0.0d,
+		                                Math.floor(((damage[0] - m_xCenter) * m_scaleFactor)
+		                                           + (0.5d * width)) - 1.0d);
+		final int yMin = (int) Math.max(0.0d,
+		                                Math.floor(((damage[1] - m_yCenter) * m_scaleFactor)
+		                                           + (0.5d * height)) - 1.0d);
+		final int xMax = (int) Math.min(width,
+		                                Math.ceil(((damage[2] - m_xCenter) * m_scaleFactor)
+		                                          + (0.5d * width)) + 1.0d);
+		final int yMax = (int) Math.min(height,
+		                                Math.ceil(((damage[3] - m_yCenter) * m_scaleFactor)
+		                                          + (0.5d * height)) + 1.0d);
+
+		// Nothing that is visible has changed.
+		if ((xMin >= xMax) || (yMin >= yMax))
+			return;
+
+		if (((((long) (xMax - xMin)) * (yMax - yMin)) * 2L) > (((long) width) * height)) {
+			renderGraph(m_grafx,/* setLastRenderDetail = */ true, m_lod[0]);
+
+			return;
+		}
+
+		final BufferedImage image = new BufferedImage(xMax - xMin, yMax - yMin,
+		                                              BufferedImage.TYPE_INT_ARGB);
+		final float[] visibleExtents = new float[] {
+		                                   (float) (m_xCenter - ((0.5d * width) / m_scaleFactor)),
+		                                   (float) (m_yCenter - ((0.5d * height) / m_scaleFactor)),
+		                                   (float) (m_xCenter + ((0.5d * width) / m_scaleFactor)),
+		                                   (float) (m_yCenter + ((0.5d * height) / m_scaleFactor))
+		                               };
+		m_lastRenderDetail = renderGraph(new GraphGraphics(image, false), m_hash, m_lod[0],
+		                                 getBackgroundPaint(),
+		                                 m_xCenter
+		                                 + ((((xMin + xMax) / 2.0d) - (width / 2.0d))
+		                                    / m_scaleFactor),
+		                                 m_yCenter
+		                                 + ((((yMin + yMax) / 2.0d) - (height / 2.0d))
+		                                    / m_scaleFactor), m_scaleFactor, visibleExtents,
+		                                 null, GraphRenderer.LAYER_EDGES | GraphRenderer.LAYER_NODES);
+		((BufferedImage) m_img).getRaster().setRect(xMin, yMin, image.getRaster());
+	}
+
+	/**
+	 * Turns rendering of only the damaged area of a frame, such as the area
+	 * around nodes that are dragged, on or off.  The default is taken from
+	 * the "cytoscape.render.damage" system property, and is off.
+	 */
+	void setDamageRendering(final boolean damage) {
+		m_damageRendering = damage;
+	}
+
+	/**
+	 * Returns true if only the damaged area of a frame is rendered when
+	 * nothing else has changed.
+	 */
+	boolean isDamageRendering() {
+		return m_damageRendering;
+	}
+
+	/**
+	 * Returns true if the tile cache or damage rendering make use of the
+	 * damaged area of a frame; otherwise the whole frame is rendered.
+	 */
+	boolean usesDamage() {
+		return (m_tileCache != null) || (m_damageRendering && (m_backgroundRenderer == null));
+	}
+
+	/**
+	 * Records the time taken to render a frame.
+	 */
+	void recordFrame(final long nanos) {
+		synchronized (m_frameStatsLock) {
+			m_frameCount++;
+			m_lastFrameNanos = nanos;
+			m_totalFrameNanos += nanos;
+		}
+	}
+
+	/**
+	 * Returns the number of frames rendered so far.
+	 */
+	long getFrameCount() {
+		synchronized (m_frameStatsLock) {
+			return m_frameCount;
+		}
+	}
+
+	/**
+	 * Returns the number of frames that were superseded before they were
+	 * completed.  This is only ever non-zero with background rendering.
+	 */
+	long getCancelledFrameCount() {
+		synchronized (m_frameStatsLock) {
+			return m_cancelledFrameCount;
+		}
+	}
+
+	/**
+	 * Returns the time taken by the last completed frame, in milliseconds.
+	 */
+	double getLastFrameTime() {
+		synchronized (m_frameStatsLock) {
+			return m_lastFrameNanos / 1000000.0d;
+		}
+	}
+
+	/**
+	 * Returns the average time taken by completed frames, in milliseconds.
+	 */
+	double getAverageFrameTime() {
+		synchronized (m_frameStatsLock) {
+			return (m_frameCount == 0) ? 0.0d : (m_totalFrameNanos / (m_frameCount * 1000000.0d));
+		}
+	}
+
+	/**
+	 * Turns rendering on a dedicated thread on or off.  The default is taken
+	 * from the "cytoscape.render.background" system property.
+	 */
+	void setBackgroundRendering(final boolean background) {
+		synchronized (m_lock) {
+			if (background == (m_backgroundRenderer != null))
+				return;
+
+			if (background) {
+				m_backgroundRenderer = new BackgroundRenderer(this);
+			} else {
+				m_backgroundRenderer.dispose();
+				m_backgroundRenderer = null;
+			}
+
+			m_view.m_contentChanged = true;
+		}
+
+		repaint();
+	}
+
+	/**
+	 * Returns true if frames are rendered off the event dispatch thread.
+	 */
+	boolean isBackgroundRendering() {
+		return m_backgroundRenderer != null;
+	}
+
+	/**
+	 * Turns the tile cache on or off.  The default is taken from the
+	 * "cytoscape.render.tiles" system property.
+	 */
+	void setTileCaching(final boolean tiles) {
+		synchronized (m_lock) {
+			if (tiles == (m_tileCache != null))
+				return;
+
+			m_tileCache = tiles ? new TileCache(m_view) : null;
+			m_view.m_contentChanged = true;
+		}
+
+		repaint();
+	}
+
+	/**
+	 * Returns true if frames are assembled from cached tiles.
+	 */
+	boolean isTileCaching() {
+		return m_tileCache != null;
+	}
+
+	/**
+	 * Returns the number of tiles found in the tile cache, or zero if there
+	 * is no tile cache.
+	 */
+	long getTileCacheHits() {
+		final TileCache tileCache = m_tileCache;
+
+		return (tileCache == null) ? 0 : tileCache.getHits();
+	}
+
+	/**
+	 * Returns the number of tiles that were not found in the tile cache, or
+	 * zero if there is no tile cache.
+	 */
+	long getTileCacheMisses() {
+		final TileCache tileCache = m_tileCache;
+
+		return (tileCache == null) ? 0 : tileCache.getMisses();
+	}
+
+	/**
+	 * Turns the edge layer cache on or off.  The default is taken from the
+	 * "cytoscape.render.layers" system property.
+	 */
+	void setLayerCaching(final boolean layers) {
+		synchronized (m_lock) {
+			if (layers == (m_layerCache != null))
+				return;
+
+			m_layerCache = layers ? new LayerCache(m_view) : null;
+			m_view.m_contentChanged = true;
+		}
+
+		repaint();
+	}
+
+	/**
+	 * Returns true if the edge layer is kept between frames.
+	 */
+	boolean isLayerCaching() {
+		return m_layerCache != null;
+	}
+
+	/**
+	 * Sets the number of threads frames are rendered with.  The default is
+	 * taken from the "cytoscape.render.threads" system property.
+	 */
+	void setRenderThreads(final int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("threads must be at least 1");
+
+		m_renderThreads = threads;
+	}
+
+	/**
+	 * Returns the number of threads frames are rendered with.
+	 */
+	int getRenderThreads() {
+		return m_renderThreads;
+	}
+
+	/**
+	 * Renders the network with GraphRenderer, splitting the frame between
+	 * several threads if so configured.  Must be called holding m_lock.
+	 *
+	 * @param layers the layers to render, a bitwise-or'ed value of the
+	 *   GraphRenderer.LAYER_* constants.
+	 */
+	int renderGraph(final GraphGraphics grafx, final IntHash nodeBuff, final GraphLOD lod,
+	                final Paint bgPaint, final double xCenter, final double yCenter,
+	                final double scaleFactor, final float[] visibleExtents,
+	                final AtomicBoolean cancelled, final int layers) {
+		final int threads = m_renderThreads;
+
+		// A render thread may get here while rendering a nested network; it
+		// must not wait for other render threads, which may be waiting for it.
+		// Nested networks are rendered holding the lock of their view, which
+		// the render threads must not take, so views that show them are
+		// rendered on this thread.
+		final ExecutorService executor = ((threads > 1)
+		                                  && !(Thread.currentThread() instanceof RenderThread)
+		                                  && (m_view.m_nestedNetworkCount == 0))
+		                                 ? getRenderExecutor() : null;
+
+		return GraphRenderer.renderGraph((FixedGraph) m_view.m_drawPersp, m_view.m_spacial, lod,
+		                                 m_view.m_nodeDetails, m_view.m_edgeDetails, nodeBuff,
+		                                 grafx, bgPaint, xCenter, yCenter, scaleFactor,
+		                                 visibleExtents, cancelled, layers, executor, threads);
+	}
+
+	private static synchronized ExecutorService getRenderExecutor() {
+		if (s_renderExecutor == null)
+			s_renderExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+					public Thread newThread(final Runnable r) {
+						return new RenderThread(r);
+					}
+				});
+
+		return s_renderExecutor;
+	}
+
+	private static final class RenderThread extends Thread {
+		RenderThread(final Runnable r) {
+			super(r, "Network view band renderer");
+			setDaemon(true);
+		}
+	}
+
+	/**
+	 * Stops the render thread when this canvas is taken off the screen.
+	 */
+	public void removeNotify() {
+		final BackgroundRenderer backgroundRenderer = m_backgroundRenderer;
+
+		if (backgroundRenderer != null) {
+			backgroundRenderer.dispose();
+
+			synchronized (m_lock) {
+				// Render again when we come back.
+				m_view.m_contentChanged = true;
+			}
+		}
+
+		super.removeNotify();
+	}
+
 	/**
 	 * Paint this component using Java2D.
 	 *
@@ -421,8 +934,10 @@ public class InnerCanvas extends DingCanvas implements MouseListener, MouseMotio
 					} else
 						unselectedEdges = new int[0];
 
-					if ((unselectedNodes.length > 0) || (unselectedEdges.length > 0))
+					if (unselectedEdges.length > 0)
 						m_view.m_contentChanged = true;
+					else if (unselectedNodes.length > 0)
+						m_view.m_nodeContentChanged = true;
 				}
 
 				if (chosenNode != 0) {
@@ -437,7 +952,7 @@ public class InnerCanvas extends DingCanvas implements MouseListener, MouseMotio
 					}
 
 					m_button1NodeDrag = true;
-					m_view.m_contentChanged = true;
+					m_view.m_nodeContentChanged = true;
 				}
 
 				if (chosenAnchor >= 0) {
@@ -637,7 +1152,7 @@ public class InnerCanvas extends DingCanvas implements MouseListener, MouseMotio
 									                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                   .selectInternal();
 
 								if (selectedNodes.length > 0)
-									m_view.m_contentChanged = true;
+									m_view.m_nodeContentChanged = true;
 							}
 
 							if (m_view.m_edgeSelection) {
@@ -811,12 +1326,14 @@ public class InnerCanvas extends DingCanvas implements MouseListener, MouseMotio
 						final int anchorInx = edgeAndAnchor & 0x0000003f;
 						final DEdgeView ev = (DEdgeView) m_view.getEdgeView(~edge);
 						ev.getHandleInternal(anchorInx, m_floatBuff1);
+						m_view.damageEdge(edge);
 						ev.moveHandleInternal(anchorInx, m_floatBuff1[0] + deltaX,
 						                      m_floatBuff1[1] + deltaY);
+						m_view.damageEdge(edge);
 					}
 
-					if ((selectedNodes.length > 0) || (m_view.m_selectedAnchors.size() > 0))
-						m_view.m_contentChanged = true;
+					// Moving nodes and anchors has damaged the areas they
+					// left and entered; only those are rendered again.
 				}
 			}
 
@@ -1464,23 +1981,31 @@ public class InnerCanvas extends DingCanvas implements MouseListener, MouseMotio
 		return !(this.NodeMovement);
 	}
 
+	private Color getBackgroundPaint() {
+		// Set color alpha based on opacity setting
+		final int alpha = (m_isOpaque) ? 255 : 0;
+
+		return new Color(m_backgroundColor.getRed(), m_backgroundColor.getGreen(),
+		                 m_backgroundColor.getBlue(), alpha);
+	}
+
 	/**
 	 *  @param setLastRenderDetail if true, "m_lastRenderDetail" will be updated, otherwise it will not be updated.
 	 */
 	private void renderGraph(GraphGraphics graphics, final boolean setLastRenderDetail, final GraphLOD lod) {
-		// Set color alpha based on opacity setting
-		final int alpha = (m_isOpaque) ? 255 : 0;
-
-		final Color backgroundColor = new Color(m_backgroundColor.getRed(), m_backgroundColor.getGreen(),
-							m_backgroundColor.getBlue(), alpha);
+		final Color backgroundColor = getBackgroundPaint();
 
 		synchronized (m_lock) {
-			final int lastRenderDetail = GraphRenderer.renderGraph((FixedGraph) m_view.m_drawPersp,
-									       m_view.m_spacial, lod,
-									       m_view.m_nodeDetails,
-									       m_view.m_edgeDetails, m_hash,
-									       graphics, backgroundColor, m_xCenter,
-									       m_yCenter, m_scaleFactor);
+			final int lastRenderDetail = renderGraph(graphics, m_hash, lod, backgroundColor,
+			                                         m_xCenter, m_yCenter, m_scaleFactor, null,
+			                                         null,
+			                                         GraphRenderer.LAYER_EDGES
+			                                         | GraphRenderer.LAYER_NODES);
+
+			// The edge layer no longer matches what m_hash holds.
+			if (m_layerCache != null)
+				m_layerCache.invalidate();
+
 			if (setLastRenderDetail)
 				m_lastRenderDetail = lastRenderDetail;
 		}
@@ -0,0 +1,149 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package ding.view;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import cytoscape.render.immed.GraphGraphics;
+import cytoscape.render.stateful.GraphLOD;
+import cytoscape.render.stateful.GraphRenderer;
+import cytoscape.util.intr.IntHash;
+
+
+/**
+ * Renders frames of a DGraphView on top of a cached image of the background
+ * and the edges.<p>
+ * A frame is rendered in two layers: the edge layer, which holds the
+ * background, the edges and the edge labels, and the node layer, which holds
+ * the nodes, their labels and their custom graphics.  The edge layer is kept
+ * between frames, so a change that only affects how nodes look, such as
+ * selecting nodes, renders the node layer again on top of a copy of it.  The
+ * edge layer is rendered again when the viewport, the size of the frame, the
+ * level of detail or the background change, or when invalidate() is called.<p>
+ * All methods must be called holding the view lock.
+ */
+final class LayerCache {
+	private final DGraphView m_view;
+
+	// Scratch space for the node layer, which does not fill it.
+	private final IntHash m_hash = new IntHash();
+
+	private BufferedImage m_edgeImage = null;
+	private GraphGraphics m_edgeGrafx = null;
+	private int m_lodBits = 0;
+
+	// The edge layer only stays valid while these stay the same.
+	private boolean m_valid = false;
+	private GraphLOD m_lod = null;
+	private Paint m_bgPaint = null;
+	private double m_xCenter;
+	private double m_yCenter;
+	private double m_scaleFactor;
+
+	LayerCache(final DGraphView view) {
+		m_view = view;
+	}
+
+	/**
+	 * Renders a frame into grafx, rendering the edge layer first if it is
+	 * not cached.  The edge layer is rendered with the node buffer of the
+	 * canvas, which is left as if the whole frame had been rendered.
+	 *
+	 * @return the level of detail of the frame, as GraphRenderer.renderGraph()
+	 *   returns it.  If cancelled is set, the frame is incomplete.
+	 */
+	int render(final GraphGraphics grafx, final GraphLOD lod, final Paint bgPaint,
+	           final double xCenter, final double yCenter, final double scaleFactor,
+	           final AtomicBoolean cancelled) {
+		final int width = grafx.image.getWidth(null);
+		final int height = grafx.image.getHeight(null);
+
+		if (!m_valid || (lod != m_lod) || !bgPaint.equals(m_bgPaint) || (xCenter != m_xCenter)
+		    || (yCenter != m_yCenter) || (scaleFactor != m_scaleFactor)
+		    || (m_edgeImage.getWidth() != width) || (m_edgeImage.getHeight() != height)) {
+			if ((m_edgeImage == null) || (m_edgeImage.getWidth() != width)
+			    || (m_edgeImage.getHeight() != height)) {
+				m_edgeImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+				m_edgeGrafx = new GraphGraphics(m_edgeImage, false);
+			}
+
+			m_lod = lod;
+			m_bgPaint = bgPaint;
+			m_xCenter = xCenter;
+			m_yCenter = yCenter;
+			m_scaleFactor = scaleFactor;
+			m_lodBits = m_view.m_networkCanvas.renderGraph(m_edgeGrafx,
+			                                               m_view.m_networkCanvas.m_hash, lod,
+			                                               bgPaint, xCenter, yCenter,
+			                                               scaleFactor, null, cancelled,
+			                                               GraphRenderer.LAYER_EDGES);
+			m_valid = (cancelled == null) || !cancelled.get();
+
+			if (!m_valid)
+				return m_lodBits;
+		}
+
+		if ((grafx.image instanceof BufferedImage)
+		    && (((BufferedImage) grafx.image).getType() == BufferedImage.TYPE_INT_ARGB))
+			((BufferedImage) grafx.image).getRaster().setRect(m_edgeImage.getRaster());
+		else {
+			final Graphics2D g = (Graphics2D) grafx.image.getGraphics();
+
+			try {
+				g.setComposite(AlphaComposite.Src);
+				g.drawImage(m_edgeImage, 0, 0, null);
+			} finally {
+				g.dispose();
+			}
+		}
+
+		m_view.m_networkCanvas.renderGraph(grafx, m_hash, lod, null, xCenter, yCenter,
+		                                   scaleFactor, null, cancelled, GraphRenderer.LAYER_NODES);
+
+		return m_lodBits;
+	}
+
+	/**
+	 * Drops the edge layer, so that the next frame renders it again.
+	 */
+	void invalidate() {
+		m_valid = false;
+	}
+}
@@ -0,0 +1,475 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+
+package ding.view;
+
+import java.awt.Graphics;
+import java.awt.Paint;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import cytoscape.geom.spacial.SpacialEntry2DEnumerator;
+import cytoscape.graph.fixed.FixedGraph;
+import cytoscape.render.immed.GraphGraphics;
+import cytoscape.render.stateful.GraphLOD;
+import cytoscape.render.stateful.GraphRenderer;
+import cytoscape.util.intr.IntEnumerator;
+import cytoscape.util.intr.IntHash;
+
+
+/**
+ * Renders frames of a DGraphView from square tiles that are kept between
+ * frames.<p>
+ * Tiles are keyed by scale factor and by their position on a grid that is
+ * fixed in image coordinates for that scale factor, so a tile can be reused
+ * by any frame at the same zoom level, however it is panned.  Tiles that are
+ * missing from a frame are rendered together, in as few rectangles as
+ * possible, and each rectangle is rendered with the whole frame as its
+ * visible area so that it matches the rest of the frame.<p>
+ * What a frame rendered in one piece shows depends on the frame: its level
+ * of detail, the nodes in it and the edges of those nodes.  Every cached tile
+ * looks like the same area of the last frame rendered in one piece, so all
+ * tiles are dropped when the level of detail of a frame differs from the
+ * last one, and the tiles that the nodes entering or leaving the frame and
+ * their edges may reach are dropped when it is panned.  The least recently
+ * used tiles are dropped once the cache outgrows its memory budget.<p>
+ * All methods except the counters must be called holding the view lock.
+ */
+final class TileCache {
+	/**
+	 * The width and height of a tile, in pixels.
+	 */
+	static final int TILE_SIZE = 256;
+
+	private static final long TILE_BYTES = TILE_SIZE * TILE_SIZE * 4L;
+
+	// Beyond this many nodes entering or leaving a frame, dropping the tiles
+	// they reach one by one takes longer than rendering all tiles again.
+	private static final int MAX_WINDOW_CHANGES = 256;
+
+	private final DGraphView m_view;
+	private final IntHash m_hash = new IntHash();
+	private final float[] m_visibleExtents = new float[4];
+	private final float[] m_reach = new float[4];
+	private final GraphGraphics m_probe = new GraphGraphics(new BufferedImage(1, 1,
+	                                                                          BufferedImage.TYPE_INT_ARGB),
+	                                                        false);
+	private final LinkedHashMap<Key, Tile> m_tiles = new LinkedHashMap<Key, Tile>(16, 0.75f,
+	                                                                              true);
+	private long m_budget;
+
+	// Tiles only stay valid while these stay the same.
+	private GraphLOD m_lod = null;
+	private Paint m_bgPaint = null;
+	private int m_lodBits = -1;
+	private byte m_renderEdges = 0;
+
+	// The nodes in the last frame, and a buffer for those in this frame.
+	private IntHash m_windowNodes = new IntHash();
+	private IntHash m_frameNodes = new IntHash();
+
+	// Written holding the view lock, but read from any thread.
+	private volatile long m_hits = 0;
+	private volatile long m_misses = 0;
+
+	TileCache(final DGraphView view) {
+		m_view = view;
+		m_budget = Integer.getInteger("cytoscape.render.tiles.budget", 64).intValue() * 1024L * 1024L;
+	}
+
+	/**
+	 * Renders a frame into grafx, rendering the tiles that are not cached.
+	 * The frame is aligned to whole pixels, which moves it by at most half a
+	 * pixel.
+	 *
+	 * @return the level of detail of the frame, as GraphRenderer.renderGraph()
+	 *   returns it.  If cancelled is set, the frame is incomplete.
+	 */
+	int render(final GraphGraphics grafx, final GraphLOD lod, final Paint bgPaint,
+	           final double xCenter, final double yCenter, final double scaleFactor,
+	           final AtomicBoolean cancelled) {
+		if ((lod != m_lod) || !bgPaint.equals(m_bgPaint)) {
+			invalidateAll();
+			m_lod = lod;
+			m_bgPaint = bgPaint;
+		}
+
+		final int width = grafx.image.getWidth(null);
+		final int height = grafx.image.getHeight(null);
+
+		// The top left pixel of the frame, in image coordinates at this scale.
+		final long xOrigin = Math.round((xCenter * scaleFactor) - (0.5d * width));
+		final long yOrigin = Math.round((yCenter * scaleFactor) - (0.5d * height));
+
+		final int tx0 = (int) floorDiv(xOrigin, TILE_SIZE);
+		final int ty0 = (int) floorDiv(yOrigin, TILE_SIZE);
+		final int columns = (int) (floorDiv((xOrigin + width) - 1, TILE_SIZE) - tx0) + 1;
+		final int rows = (int) (floorDiv((yOrigin + height) - 1, TILE_SIZE) - ty0) + 1;
+
+		m_visibleExtents[0] = (float) (xOrigin / scaleFactor);
+		m_visibleExtents[1] = (float) (yOrigin / scaleFactor);
+		m_visibleExtents[2] = (float) ((xOrigin + width) / scaleFactor);
+		m_visibleExtents[3] = (float) ((yOrigin + height) / scaleFactor);
+
+		// Renders no layers, which only determines the level of detail.
+		final int lodBits = GraphRenderer.renderGraph((FixedGraph) m_view.m_drawPersp,
+		                                              m_view.m_spacial, lod,
+		                                              m_view.m_nodeDetails,
+		                                              m_view.m_edgeDetails, m_hash, m_probe,
+		                                              null, xCenter, yCenter, scaleFactor,
+		                                              m_visibleExtents, null, 0);
+		final int visibleNodeCount = updateWindow();
+		final FixedGraph graph = (FixedGraph) m_view.m_drawPersp;
+		final byte renderEdges = lod.renderEdges(visibleNodeCount, graph.nodes().numRemaining(),
+		                                         graph.edges().numRemaining());
+
+		if ((lodBits != m_lodBits) || (renderEdges != m_renderEdges)) {
+			invalidateAll();
+			m_lodBits = lodBits;
+			m_renderEdges = renderEdges;
+		} else
+			invalidateWindowChanges(renderEdges == 0);
+
+		final Tile[][] tiles = new Tile[rows][columns];
+
+		for (int row = 0; row < rows; row++) {
+			for (int column = 0; column < columns; column++) {
+				final Tile tile = m_tiles.get(new Key(scaleFactor, tx0 + column, ty0 + row));
+
+				if (tile != null) {
+					tiles[row][column] = tile;
+					m_hits++;
+				}
+			}
+		}
+
+		for (final int[] area : missingAreas(tiles)) {
+			renderTiles(scaleFactor, tx0, ty0, area, tiles, bgPaint, cancelled);
+
+			if ((cancelled != null) && cancelled.get())
+				return lodBits;
+		}
+
+		grafx.clear(bgPaint, xCenter, yCenter, scaleFactor);
+
+		final Graphics g = grafx.image.getGraphics();
+
+		try {
+			for (int row = 0; row < rows; row++) {
+				for (int column = 0; column < columns; column++)
+					g.drawImage(tiles[row][column].image,
+					            (int) ((((long) (tx0 + column)) * TILE_SIZE) - xOrigin),
+					            (int) ((((long) (ty0 + row)) * TILE_SIZE) - yOrigin), null);
+			}
+		} finally {
+			g.dispose();
+		}
+
+		return lodBits;
+	}
+
+	/**
+	 * Drops all tiles.
+	 */
+	void invalidateAll() {
+		m_tiles.clear();
+	}
+
+	/*
+	 * Puts the nodes in the frame into m_frameNodes, and swaps it with
+	 * m_windowNodes, which then holds the nodes of the last frame in
+	 * m_frameNodes.
+	 *
+	 * @return the number of nodes in the frame.
+	 */
+	private int updateWindow() {
+		final SpacialEntry2DEnumerator nodes = m_view.m_spacial.queryOverlap(m_visibleExtents[0],
+		                                                                      m_visibleExtents[1],
+		                                                                      m_visibleExtents[2],
+		                                                                      m_visibleExtents[3],
+		                                                                      null, 0, false);
+		final int count = nodes.numRemaining();
+		m_frameNodes.empty();
+
+		while (nodes.numRemaining() > 0)
+			m_frameNodes.put(nodes.nextInt());
+
+		final IntHash windowNodes = m_windowNodes;
+		m_windowNodes = m_frameNodes;
+		m_frameNodes = windowNodes;
+
+		return count;
+	}
+
+	/*
+	 * Drops the tiles that the nodes which entered or left the frame since
+	 * the last one may reach, and, if the edges rendered are those of the
+	 * nodes in the frame, the tiles that their edges may reach.
+	 */
+	private void invalidateWindowChanges(final boolean windowEdges) {
+		if (m_tiles.isEmpty())
+			return;
+
+		final IntHash[] from = new IntHash[] { m_windowNodes, m_frameNodes };
+		final IntHash[] to = new IntHash[] { m_frameNodes, m_windowNodes };
+		int changes = 0;
+
+		for (int i = 0; i < from.length; i++) {
+			final IntEnumerator nodes = from[i].elements();
+
+			while (nodes.numRemaining() > 0)
+				if (to[i].get(nodes.nextInt()) < 0)
+					changes++;
+		}
+
+		if (changes > MAX_WINDOW_CHANGES) {
+			invalidateAll();
+
+			return;
+		}
+
+		final FixedGraph graph = (FixedGraph) m_view.m_drawPersp;
+
+		for (int i = 0; i < from.length; i++) {
+			final IntEnumerator nodes = from[i].elements();
+
+			while (nodes.numRemaining() > 0) {
+				final int node = nodes.nextInt();
+
+				if (to[i].get(node) >= 0)
+					continue;
+
+				if (m_view.getNodeReach(node, m_reach))
+					invalidate(m_reach);
+
+				if (!windowEdges)
+					continue;
+
+				final IntEnumerator edges = graph.edgesAdjacent(node, true, true, true);
+
+				while (edges.numRemaining() > 0)
+					if (m_view.getEdgeReach(edges.nextInt(), m_reach))
+						invalidate(m_reach);
+			}
+		}
+	}
+
+	/**
+	 * Drops the tiles that overlap an area in node coordinates.
+	 *
+	 * @param extents xMin, yMin, xMax and yMax of the area.
+	 */
+	void invalidate(final float[] extents) {
+		final Iterator<Key> keys = m_tiles.keySet().iterator();
+
+		while (keys.hasNext()) {
+			final Key key = keys.next();
+			final double tileSize = TILE_SIZE / key.scaleFactor;
+
+			if (((key.x * tileSize) <= extents[2]) && (((key.x + 1) * tileSize) >= extents[0])
+			    && ((key.y * tileSize) <= extents[3]) && (((key.y + 1) * tileSize) >= extents[1]))
+				keys.remove();
+		}
+	}
+
+	/**
+	 * Returns the number of tiles that were found in the cache.
+	 */
+	long getHits() {
+		return m_hits;
+	}
+
+	/**
+	 * Returns the number of tiles that had to be rendered.
+	 */
+	long getMisses() {
+		return m_misses;
+	}
+
+	/**
+	 * Splits the missing tiles into rectangles of column, row, columns and
+	 * rows.  Runs of missing tiles in a row are merged with identical runs in
+	 * the rows below them, so a strip that scrolls into view is one rectangle.
+	 */
+	private static List<int[]> missingAreas(final Tile[][] tiles) {
+		final List<int[]> areas = new ArrayList<int[]>();
+		final boolean[][] covered = new boolean[tiles.length][];
+
+		for (int row = 0; row < tiles.length; row++)
+			covered[row] = new boolean[tiles[row].length];
+
+		for (int row = 0; row < tiles.length; row++) {
+			for (int column = 0; column < tiles[row].length; column++) {
+				if ((tiles[row][column] != null) || covered[row][column])
+					continue;
+
+				int columns = 1;
+
+				while (((column + columns) < tiles[row].length)
+				       && (tiles[row][column + columns] == null)
+				       && !covered[row][column + columns])
+					columns++;
+
+				int rows = 1;
+
+				while (((row + rows) < tiles.length)
+				       && isMissingRun(tiles[row + rows], covered[row + rows], column, columns))
+					rows++;
+
+				for (int i = row; i < (row + rows); i++)
+					for (int j = column; j < (column + columns); j++)
+						covered[i][j] = true;
+
+				areas.add(new int[] { column, row, columns, rows });
+			}
+		}
+
+		return areas;
+	}
+
+	// True if exactly the tiles from column to column + columns - 1 of a row
+	// are missing, so that the run does not grow or shrink.
+	private static boolean isMissingRun(final Tile[] tiles, final boolean[] covered,
+	                                    final int column, final int columns) {
+		for (int j = column; j < (column + columns); j++)
+			if ((tiles[j] != null) || covered[j])
+				return false;
+
+		return ((column == 0) || (tiles[column - 1] != null) || covered[column - 1])
+		       && (((column + columns) == tiles.length) || (tiles[column + columns] != null)
+		          || covered[column + columns]);
+	}
+
+	/**
+	 * Renders a rectangle of missing tiles as one image, then cuts it into
+	 * tiles that are stored in the cache and in the tiles array.
+	 */
+	private void renderTiles(final double scaleFactor, final int tx0, final int ty0,
+	                        final int[] area, final Tile[][] tiles, final Paint bgPaint,
+	                        final AtomicBoolean cancelled) {
+		final int column = area[0];
+		final int row = area[1];
+		final int columns = area[2];
+		final int rows = area[3];
+		final BufferedImage image = new BufferedImage(columns * TILE_SIZE, rows * TILE_SIZE,
+		                                              BufferedImage.TYPE_INT_ARGB);
+		final GraphGraphics grafx = new GraphGraphics(image, false);
+		final double xMin = (((double) (tx0 + column)) * TILE_SIZE) / scaleFactor;
+		final double yMin = (((double) (ty0 + row)) * TILE_SIZE) / scaleFactor;
+		final double xMax = (((double) (tx0 + column + columns)) * TILE_SIZE) / scaleFactor;
+		final double yMax = (((double) (ty0 + row + rows)) * TILE_SIZE) / scaleFactor;
+
+		// The frame is the visible area, so that the tiles show what the
+		// frame rendered in one piece shows, and nothing else.
+		m_view.m_networkCanvas.renderGraph(grafx, m_hash, m_lod, bgPaint, (xMin + xMax) / 2.0d,
+		                                   (yMin + yMax) / 2.0d, scaleFactor, m_visibleExtents,
+		                                   cancelled,
+		                                   GraphRenderer.LAYER_EDGES | GraphRenderer.LAYER_NODES);
+
+		if ((cancelled != null) && cancelled.get())
+			return;
+
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				final BufferedImage tileImage = new BufferedImage(TILE_SIZE, TILE_SIZE,
+				                                                  BufferedImage.TYPE_INT_ARGB);
+				tileImage.getRaster().setRect(-j * TILE_SIZE, -i * TILE_SIZE, image.getRaster());
+
+				final Tile tile = new Tile(tileImage);
+				tiles[row + i][column + j] = tile;
+				m_tiles.put(new Key(scaleFactor, tx0 + column + j, ty0 + row + i), tile);
+				m_misses++;
+			}
+		}
+
+		evict();
+	}
+
+	private void evict() {
+		final long maxTiles = Math.max(1L, m_budget / TILE_BYTES);
+		final Iterator<Key> keys = m_tiles.keySet().iterator();
+
+		while ((m_tiles.size() > maxTiles) && keys.hasNext()) {
+			keys.next();
+			keys.remove();
+		}
+	}
+
+	private static long floorDiv(final long x, final long y) {
+		final long q = x / y;
+
+		return (((x % y) != 0) && ((x < 0) != (y < 0))) ? (q - 1) : q;
+	}
+
+	private static final class Key {
+		final double scaleFactor;
+		final int x;
+		final int y;
+
+		Key(final double scaleFactor, final int x, final int y) {
+			this.scaleFactor = scaleFactor;
+			this.x = x;
+			this.y = y;
+		}
+
+		public boolean equals(final Object o) {
+			if (!(o instanceof Key))
+				return false;
+
+			final Key other = (Key) o;
+
+			return (scaleFactor == other.scaleFactor) && (x == other.x) && (y == other.y);
+		}
+
+		public int hashCode() {
+			final long bits = Double.doubleToLongBits(scaleFactor);
+
+			return (((((int) (bits ^ (bits >>> 32))) * 31) + x) * 31) + y;
+		}
+	}
+
+	private static final class Tile {
+		final BufferedImage image;
+
+		Tile(final BufferedImage image) {
+			this.image = image;
+		}
+	}
+}
@@ -190,12 +190,19 @@ class ViewState {
 
 		if (points != null) {
 			// Use nodes as keys because they are less volatile than views...
-			for (Node n: points.keySet()) {
-				NodeView nv = view.getNodeView(n);
-				Point2D.Double p = points.get(n);
-				nv.setXPosition(p.getX());
-				nv.setYPosition(p.getY());
+			final int[] nodeInx = new int[points.size()];
+			final double[] xPositions = new double[points.size()];
+			final double[] yPositions = new double[points.size()];
+			int i = 0;
+
+			for (Map.Entry<Node, Point2D.Double> entry: points.entrySet()) {
+				nodeInx[i] = entry.getKey().getRootGraphIndex();
+				xPositions[i] = entry.getValue().getX();
+				yPositions[i++] = entry.getValue().getY();
 			}
+
+			// Undoing a layout moves every node, so move them in one batch.
+			view.setNodeOffsets(nodeInx, xPositions, yPositions);
 		}
 
 		view.setZoom(scaleFactor);
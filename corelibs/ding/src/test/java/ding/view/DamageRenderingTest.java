@@ -0,0 +1,180 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package ding.view;
+
+import fing.model.FingRootGraphFactory;
+
+import giny.model.GraphPerspective;
+import giny.model.RootGraph;
+
+import giny.view.NodeView;
+
+import junit.framework.TestCase;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+
+/**
+ * Tests that frames in which only the damaged area is rendered again look
+ * like frames rendered in one piece.
+ */
+public class DamageRenderingTest extends TestCase {
+	private static final int WIDTH = 600;
+	private static final int HEIGHT = 500;
+
+	private DGraphView view;
+	private InnerCanvas canvas;
+	private NodeView[] nodeViews;
+
+	protected void setUp() {
+		System.setProperty("java.awt.headless", "true");
+
+		final RootGraph root = FingRootGraphFactory.instantiateRootGraph();
+		final int[] nodes = root.createNodes(12);
+
+		for (int i = 0; i < nodes.length; i++)
+			root.createEdge(nodes[i], nodes[(i * 5 + 1) % nodes.length]);
+
+		final GraphPerspective persp = root.createGraphPerspective(nodes,
+		                                                           root.getEdgeIndicesArray());
+		view = new DGraphView(persp);
+		nodeViews = new NodeView[nodes.length];
+
+		for (int i = 0; i < nodes.length; i++) {
+			nodeViews[i] = view.addNodeView(nodes[i]);
+			nodeViews[i].setOffset(-220 + ((i % 4) * 140), -160 + ((i / 4) * 150));
+		}
+
+		for (int edge : root.getEdgeIndicesArray())
+			view.addEdgeView(edge);
+
+		canvas = view.m_networkCanvas;
+		canvas.setBounds(0, 0, WIDTH, HEIGHT);
+		canvas.setDamageRendering(true);
+	}
+
+	public void testOffByDefault() {
+		System.clearProperty("cytoscape.render.damage");
+		assertFalse(new DGraphView(view.getGraphPerspective()).isDamageRendering());
+	}
+
+	public void testMatchesFullRender() {
+		paint();
+
+		// A small move, and a move across the frame.
+		moveNode(5, 30.0, -20.0);
+		assertTrue(view.m_contentDamaged);
+		assertFalse(view.m_contentChanged);
+		assertDamageMatchesFullRender();
+
+		moveNode(2, -280.0, 250.0);
+		assertDamageMatchesFullRender();
+	}
+
+	public void testMatchesFullRenderAfterZoom() {
+		view.setZoom(1.6);
+		paint();
+
+		moveNode(6, 15.0, 25.0);
+		assertDamageMatchesFullRender();
+	}
+
+	public void testBatchUpdate() {
+		paint();
+
+		// A small batch is rendered by its damaged area.
+		view.batchUpdate(new Runnable() {
+				public void run() {
+					moveNode(1, 20.0, 10.0);
+					moveNode(9, -15.0, 5.0);
+				}
+			});
+		assertTrue(view.m_contentDamaged);
+		assertFalse(view.m_contentChanged);
+		assertDamageMatchesFullRender();
+
+		// A big one gives up on the damaged area.
+		view.batchUpdate(new Runnable() {
+				public void run() {
+					for (int i = 0; i < 300; i++)
+						moveNode(i % nodeViews.length, 1.0, -1.0);
+				}
+			});
+		assertTrue(view.m_contentChanged);
+	}
+
+	private void assertDamageMatchesFullRender() {
+		final BufferedImage damaged = paint();
+		assertSameImage(fullRender(), damaged);
+	}
+
+	private void moveNode(final int node, final double dx, final double dy) {
+		nodeViews[node].setOffset(nodeViews[node].getXPosition() + dx,
+		                          nodeViews[node].getYPosition() + dy);
+	}
+
+	// Renders the current content in one piece.
+	private BufferedImage fullRender() {
+		view.m_contentChanged = true;
+
+		return paint();
+	}
+
+	private BufferedImage paint() {
+		final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		final Graphics g = image.getGraphics();
+
+		try {
+			canvas.paint(g);
+		} finally {
+			g.dispose();
+		}
+
+		return image;
+	}
+
+	private static void assertSameImage(final BufferedImage expected, final BufferedImage actual) {
+		int differences = 0;
+
+		for (int y = 0; y < expected.getHeight(); y++)
+			for (int x = 0; x < expected.getWidth(); x++)
+				if (expected.getRGB(x, y) != actual.getRGB(x, y))
+					differences++;
+
+		assertEquals("differing pixels", 0, differences);
+	}
+}
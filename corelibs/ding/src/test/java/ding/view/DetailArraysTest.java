@@ -0,0 +1,183 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package ding.view;
+
+import cytoscape.render.immed.GraphGraphics;
+
+import fing.model.FingRootGraphFactory;
+
+import giny.model.GraphPerspective;
+import giny.model.RootGraph;
+
+import junit.framework.TestCase;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Paint;
+
+
+/**
+ * Tests that the overridden visual properties of a view are kept in arrays
+ * sized by the view, not by the RootGraph that all networks share.
+ */
+public class DetailArraysTest extends TestCase {
+	private static final int ROOT_NODES = 5000;
+
+	private RootGraph root;
+	private int[] nodes;
+	private int[] edges;
+	private DGraphView view;
+
+	protected void setUp() {
+		System.setProperty("java.awt.headless", "true");
+
+		root = FingRootGraphFactory.instantiateRootGraph();
+
+		// A big network first, so that the small one has large indices.
+		final int[] all = root.createNodes(ROOT_NODES);
+		nodes = new int[4];
+		System.arraycopy(all, ROOT_NODES - nodes.length, nodes, 0, nodes.length);
+		edges = new int[3];
+
+		for (int i = 0; i < edges.length; i++)
+			edges[i] = root.createEdge(nodes[i], nodes[i + 1]);
+
+		final GraphPerspective persp = root.createGraphPerspective(nodes, edges);
+		view = new DGraphView(persp);
+
+		for (int i = 0; i < nodes.length; i++)
+			view.addNodeView(nodes[i]);
+
+		for (int i = 0; i < edges.length; i++)
+			view.addEdgeView(edges[i]);
+	}
+
+	public void testSlots() {
+		final DetailArrays.Slots slots = new DetailArrays.Slots();
+		assertEquals(-1, slots.get(4999));
+		assertEquals(0, slots.add(4999));
+		assertEquals(1, slots.add(7));
+		assertEquals(0, slots.add(4999));
+		assertEquals(1, slots.get(7));
+		assertEquals(-1, slots.get(8));
+		assertEquals(2, slots.size());
+	}
+
+	public void testNodeArraysSizedByView() {
+		final DNodeDetails details = view.m_nodeDetails;
+
+		for (int i = 0; i < nodes.length; i++) {
+			details.overrideFillPaint(~nodes[i], new Color(i, 0, 0));
+			details.overrideBorderWidth(~nodes[i], 2.0f + i);
+			details.overrideLabelText(~nodes[i], 0, "node " + i);
+			details.overrideLabelNodeAnchor(~nodes[i], 0, DNodeView.NORTH);
+		}
+
+		assertTrue(details.m_fillPaints.length < (2 * nodes.length));
+		assertTrue(details.m_borderWidths.length < (2 * nodes.length));
+		assertTrue(details.m_labelTexts.length < (2 * nodes.length));
+		assertTrue(details.m_labelNodeAnchors.length < (2 * nodes.length));
+
+		for (int i = 0; i < nodes.length; i++) {
+			assertEquals(new Color(i, 0, 0), details.fillPaint(~nodes[i]));
+			assertEquals(2.0f + i, details.borderWidth(~nodes[i]), 0.0f);
+			assertEquals("node " + i, details.labelText(~nodes[i], 0));
+			assertEquals(DNodeDetails.convertG2ND(DNodeView.NORTH),
+			             details.labelNodeAnchor(~nodes[i], 0));
+		}
+	}
+
+	public void testNodeOverridesRemoved() {
+		final DNodeDetails details = view.m_nodeDetails;
+		final int node = ~nodes[2];
+		final Paint fill = details.fillPaint(node);
+		final String text = details.labelText(node, 0);
+		final byte shape = details.shape(node);
+
+		details.overrideFillPaint(node, Color.MAGENTA);
+		details.overrideLabelText(node, 0, "label");
+		details.overrideShape(node, GraphGraphics.SHAPE_DIAMOND);
+		assertEquals(Color.MAGENTA, details.fillPaint(node));
+
+		// Removing one override leaves the others.
+		details.overrideFillPaint(node, null);
+		assertEquals(fill, details.fillPaint(node));
+		assertEquals("label", details.labelText(node, 0));
+
+		// A node removed from the view and added back has no overrides, and
+		// keeps its slot.
+		final int slots = details.m_slots.size();
+		view.removeNodeView(nodes[2]);
+		view.addNodeView(nodes[2]);
+		assertEquals(text, details.labelText(node, 0));
+		assertEquals(shape, details.shape(node));
+		assertEquals(slots, details.m_slots.size());
+
+		// Nodes that never had an override do not get a slot.
+		details.overrideFillPaint(~nodes[3], null);
+		assertEquals(-1, details.m_slots.get(~nodes[3]));
+	}
+
+	public void testEdgeArraysSizedByView() {
+		final DEdgeDetails details = view.m_edgeDetails;
+		final Font font = new Font("SansSerif", Font.BOLD, 14);
+
+		for (int i = 0; i < edges.length; i++) {
+			details.overrideSegmentThickness(~edges[i], 3.0f + i);
+			details.overrideSegmentStroke(~edges[i], new BasicStroke(3.0f + i));
+			details.overrideLabelFont(~edges[i], 0, font);
+		}
+
+		details.overrideSourceArrowPaint(~edges[1], Color.GREEN);
+
+		assertTrue(details.m_segmentThicknesses.length < (2 * edges.length));
+		assertTrue(details.m_labelFonts.length < (2 * edges.length));
+		assertTrue(details.m_sourceArrowPaints.length < (2 * edges.length));
+
+		for (int i = 0; i < edges.length; i++) {
+			assertEquals(3.0f + i, details.segmentThickness(~edges[i]), 0.0f);
+			assertEquals(new BasicStroke(3.0f + i), details.segmentStroke(~edges[i]));
+			assertEquals(font, details.labelFont(~edges[i], 0));
+		}
+
+		assertEquals(Color.GREEN, details.sourceArrowPaint(~edges[1]));
+
+		final float thickness = new DEdgeDetails(view).segmentThickness(~edges[0]);
+		view.removeEdgeView(edges[0]);
+		assertEquals(thickness, details.segmentThickness(~edges[0]), 0.0f);
+	}
+}
@@ -0,0 +1,210 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package ding.view;
+
+import cytoscape.geom.rtree.RTree;
+import cytoscape.geom.spacial.MutableSpacialIndex2D;
+import cytoscape.geom.spacial.SpacialEntry2DEnumerator;
+
+import fing.model.FingRootGraphFactory;
+
+import giny.model.GraphPerspective;
+import giny.model.RootGraph;
+
+import giny.view.NodeView;
+
+import junit.framework.TestCase;
+
+
+/**
+ * Tests that nodes moved between beginNodeMoves() and endNodeMoves(), or by
+ * setNodeOffsets(), end up where moving them one by one puts them.
+ */
+public class NodeMovesTest extends TestCase {
+	private DGraphView view;
+	private NodeView[] nodeViews;
+
+	protected void setUp() {
+		System.setProperty("java.awt.headless", "true");
+
+		final RootGraph root = FingRootGraphFactory.instantiateRootGraph();
+		final int[] nodes = root.createNodes(8);
+		final GraphPerspective persp = root.createGraphPerspective(nodes, new int[0]);
+		view = new DGraphView(persp);
+		nodeViews = new NodeView[nodes.length];
+
+		for (int i = 0; i < nodes.length; i++) {
+			nodeViews[i] = view.addNodeView(nodes[i]);
+			nodeViews[i].setOffset(i * 50, -i * 20);
+		}
+
+		nodeViews[3].setWidth(70.0);
+	}
+
+	public void testDeferredMoves() {
+		final float[] before = extentsOf(3);
+		view.beginNodeMoves();
+		nodeViews[3].setOffset(400.0, 300.0);
+		nodeViews[4].setXPosition(-75.0);
+		nodeViews[4].setYPosition(125.0);
+		nodeViews[5].setYPosition(60.0);
+
+		// The getters see the moves, but the spacial index does not yet.
+		assertEquals(400.0, nodeViews[3].getXPosition(), 0.0);
+		assertEquals(300.0, nodeViews[3].getOffset().getY(), 0.0);
+		assertEquals(-75.0, nodeViews[4].getXPosition(), 0.0);
+		assertEquals(125.0, nodeViews[4].getYPosition(), 0.0);
+		assertEquals(250.0, nodeViews[5].getXPosition(), 0.0);
+		assertEquals(60.0, nodeViews[5].getYPosition(), 0.0);
+		assertSameExtents(before, extentsOf(3));
+
+		view.endNodeMoves();
+		assertCenter(3, 400.0, 300.0);
+		assertEquals(70.0, nodeViews[3].getWidth(), 0.0);
+		assertCenter(4, -75.0, 125.0);
+		assertCenter(5, 250.0, 60.0);
+		assertCenter(6, 300.0, -120.0);
+		assertTrue(view.m_pendingMoves.isEmpty());
+	}
+
+	public void testNestedAndShownMoves() {
+		view.beginNodeMoves();
+		view.beginNodeMoves();
+		nodeViews[1].setOffset(10.0, 20.0);
+		view.endNodeMoves();
+		assertEquals(1, view.m_pendingMoves.size());
+
+		// A layout showing its progress sees the nodes where they are.
+		nodeViews[2].setOffset(-30.0, 40.0);
+		view.updateView();
+		assertCenter(1, 10.0, 20.0);
+		assertCenter(2, -30.0, 40.0);
+
+		nodeViews[1].setXPosition(15.0);
+		view.endNodeMoves();
+		assertCenter(1, 15.0, 20.0);
+
+		try {
+			view.endNodeMoves();
+			fail();
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	public void testHiddenNodes() {
+		view.hideGraphObject(nodeViews[2]);
+		view.beginNodeMoves();
+		nodeViews[2].setXPosition(-90.0);
+		nodeViews[2].setYPosition(-10.0);
+		assertEquals(-90.0, nodeViews[2].getXPosition(), 0.0);
+		view.endNodeMoves();
+
+		view.showGraphObject(nodeViews[2]);
+		assertCenter(2, -90.0, -10.0);
+	}
+
+	public void testSetNodeOffsetsWithoutRTree() {
+		view.m_spacial = new Index((RTree) view.m_spacial);
+
+		final int[] nodeInx = new int[] {
+		                          nodeViews[0].getRootGraphIndex(),
+		                          nodeViews[3].getRootGraphIndex()
+		                      };
+		view.setNodeOffsets(nodeInx, new double[] { -5.0, 500.0 }, new double[] { 5.0, -500.0 });
+		assertCenter(0, -5.0, 5.0);
+		assertCenter(3, 500.0, -500.0);
+		assertEquals(70.0, nodeViews[3].getWidth(), 0.0);
+		assertCenter(1, 50.0, -20.0);
+	}
+
+	private float[] extentsOf(int i) {
+		final float[] extents = new float[4];
+		assertTrue(view.m_spacial.exists(~nodeViews[i].getRootGraphIndex(), extents, 0));
+
+		return extents;
+	}
+
+	private void assertCenter(int i, double x, double y) {
+		final float[] extents = extentsOf(i);
+		assertEquals(x, (((double) extents[0]) + extents[2]) / 2.0d, 0.0001);
+		assertEquals(y, (((double) extents[1]) + extents[3]) / 2.0d, 0.0001);
+		assertEquals(x, nodeViews[i].getXPosition(), 0.0001);
+		assertEquals(y, nodeViews[i].getYPosition(), 0.0001);
+	}
+
+	private static void assertSameExtents(float[] expected, float[] actual) {
+		for (int i = 0; i < expected.length; i++)
+			assertEquals(expected[i], actual[i], 0.0f);
+	}
+
+	/*
+	 * A spacial index that is not an RTree, so that setNodeOffsets() has to
+	 * move the nodes one by one.
+	 */
+	private static final class Index implements MutableSpacialIndex2D {
+		private final RTree tree;
+
+		Index(RTree tree) {
+			this.tree = tree;
+		}
+
+		public void empty() {
+			tree.empty();
+		}
+
+		public void insert(int objKey, float xMin, float yMin, float xMax, float yMax) {
+			tree.insert(objKey, xMin, yMin, xMax, yMax);
+		}
+
+		public boolean delete(int objKey) {
+			return tree.delete(objKey);
+		}
+
+		public int size() {
+			return tree.size();
+		}
+
+		public boolean exists(int objKey, float[] extentsArr, int offset) {
+			return tree.exists(objKey, extentsArr, offset);
+		}
+
+		public SpacialEntry2DEnumerator queryOverlap(float xMin, float yMin, float xMax,
+		                                             float yMax, float[] extentsArr, int offset,
+		                                             boolean reverse) {
+			return tree.queryOverlap(xMin, yMin, xMax, yMax, extentsArr, offset, reverse);
+		}
+	}
+}
@@ -0,0 +1,247 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package ding.view;
+
+import cytoscape.render.immed.GraphGraphics;
+import cytoscape.render.stateful.GraphLOD;
+import cytoscape.render.stateful.GraphRenderer;
+
+import cytoscape.util.intr.IntHash;
+
+import fing.model.FingRootGraphFactory;
+
+import giny.model.GraphPerspective;
+import giny.model.RootGraph;
+
+import giny.view.NodeView;
+
+import junit.framework.TestCase;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * Tests that frames assembled from cached tiles look like frames rendered in
+ * one piece.
+ */
+public class TileCacheTest extends TestCase {
+	private static final int WIDTH = 600;
+	private static final int HEIGHT = 500;
+
+	private DGraphView view;
+	private NodeView[] nodeViews;
+	private int lodBits;
+
+	protected void setUp() {
+		System.setProperty("java.awt.headless", "true");
+
+		final RootGraph root = FingRootGraphFactory.instantiateRootGraph();
+		final int[] nodes = root.createNodes(12);
+
+		for (int i = 0; i < nodes.length; i++)
+			root.createEdge(nodes[i], nodes[(i * 5 + 1) % nodes.length]);
+
+		final GraphPerspective persp = root.createGraphPerspective(nodes,
+		                                                           root.getEdgeIndicesArray());
+		view = new DGraphView(persp);
+		nodeViews = new NodeView[nodes.length];
+
+		for (int i = 0; i < nodes.length; i++) {
+			nodeViews[i] = view.addNodeView(nodes[i]);
+			nodeViews[i].setOffset(-220 + ((i % 4) * 140), -160 + ((i / 4) * 150));
+		}
+
+		for (int edge : root.getEdgeIndicesArray())
+			view.addEdgeView(edge);
+	}
+
+	public void testMatchesFullRender() {
+		synchronized (view.m_lock) {
+			final TileCache cache = new TileCache(view);
+
+			// The centres fall on whole pixels, so the tiles are not moved
+			// to align them.
+			for (double scale : new double[] { 1.0, 0.5, 1.25 }) {
+				assertSameImage(render(null, -8.0, -8.0, scale),
+				                render(cache, -8.0, -8.0, scale));
+			}
+		}
+	}
+
+	public void testReusesTiles() {
+		synchronized (view.m_lock) {
+			final TileCache cache = new TileCache(view);
+			render(cache, 0.0, 0.0, 1.0);
+
+			final long misses = cache.getMisses();
+			assertTrue(misses > 0);
+
+			// Panning by a whole tile only renders the tiles that come into view.
+			assertSameImage(render(null, TileCache.TILE_SIZE, 0.0, 1.0),
+			                render(cache, TileCache.TILE_SIZE, 0.0, 1.0));
+			assertTrue(cache.getHits() > 0);
+			assertTrue(cache.getMisses() < (2 * misses));
+		}
+	}
+
+	public void testPanMatchesFullRender() {
+		synchronized (view.m_lock) {
+			final TileCache cache = new TileCache(view);
+
+			// Zoomed in, each frame shows a few of the nodes, and edges come
+			// into view with their nodes, across tiles that are cached.
+			for (int i = 0; i < 12; i++) {
+				final double xCenter = -220.0 + (i * 45.0);
+				final double yCenter = -160.0 + ((i % 4) * 80.0);
+				assertSameImage(render(null, xCenter, yCenter, 2.0),
+				                render(cache, xCenter, yCenter, 2.0));
+			}
+
+			assertTrue(cache.getHits() > 0);
+		}
+	}
+
+	public void testLodChangeMatchesFullRender() {
+		// Frames with few nodes are rendered in detail, the others are not.
+		final GraphLOD lod = new GraphLOD() {
+			public boolean detail(final int renderNodeCount, final int renderEdgeCount) {
+				return renderNodeCount < 3;
+			}
+		};
+		final Set<Integer> lods = new HashSet<Integer>();
+
+		synchronized (view.m_lock) {
+			final TileCache cache = new TileCache(view);
+
+			for (int i = 0; i < 12; i++) {
+				final double xCenter = -220.0 + (i * 45.0);
+				final double yCenter = -160.0 + ((i % 4) * 80.0);
+				final BufferedImage expected = render(null, lod, xCenter, yCenter, 2.0);
+				lods.add(lodBits);
+				assertSameImage(expected, render(cache, lod, xCenter, yCenter, 2.0));
+			}
+		}
+
+		assertTrue(lods.size() > 1);
+	}
+
+	public void testInvalidatesDamagedArea() {
+		view.m_networkCanvas.setTileCaching(true);
+
+		final TileCache cache = new TileCache(view);
+		final long misses;
+
+		synchronized (view.m_lock) {
+			render(cache, 0.0, 0.0, 1.0);
+			misses = cache.getMisses();
+			view.m_contentChanged = false;
+			view.clearDamage();
+		}
+
+		nodeViews[5].setOffset(nodeViews[5].getXPosition() + 30.0,
+		                       nodeViews[5].getYPosition() - 20.0);
+
+		synchronized (view.m_lock) {
+			assertFalse(view.m_contentChanged);
+			assertTrue(view.m_contentDamaged);
+
+			cache.invalidate(view.m_damagedExtents);
+			assertSameImage(render(null, 0.0, 0.0, 1.0), render(cache, 0.0, 0.0, 1.0));
+
+			// Only the tiles around the node are rendered again.
+			assertTrue(cache.getMisses() - misses < misses);
+		}
+	}
+
+	public void testDamageWithoutConsumers() {
+		view.m_networkCanvas.setTileCaching(false);
+		view.m_networkCanvas.setDamageRendering(false);
+
+		synchronized (view.m_lock) {
+			view.m_contentChanged = false;
+			view.clearDamage();
+		}
+
+		nodeViews[5].setOffset(nodeViews[5].getXPosition() + 30.0,
+		                       nodeViews[5].getYPosition() - 20.0);
+
+		synchronized (view.m_lock) {
+			// Nothing uses the damaged area, so the whole content is flagged.
+			assertTrue(view.m_contentChanged);
+			assertFalse(view.m_contentDamaged);
+		}
+	}
+
+	private BufferedImage render(final TileCache cache, final double xCenter,
+	                             final double yCenter, final double scaleFactor) {
+		return render(cache, view.m_networkCanvas.m_lod[0], xCenter, yCenter, scaleFactor);
+	}
+
+	// Renders a frame from the cache or, if it is null, in one piece.
+	private BufferedImage render(final TileCache cache, final GraphLOD lod,
+	                             final double xCenter, final double yCenter,
+	                             final double scaleFactor) {
+		final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		final GraphGraphics grafx = new GraphGraphics(image, false);
+		final InnerCanvas canvas = view.m_networkCanvas;
+
+		if (cache != null) {
+			lodBits = cache.render(grafx, lod, Color.white, xCenter, yCenter, scaleFactor, null);
+		} else {
+			grafx.clear(Color.white, xCenter, yCenter, scaleFactor);
+			lodBits = canvas.renderGraph(grafx, new IntHash(), lod, Color.white, xCenter,
+			                             yCenter, scaleFactor, null, null,
+			                             GraphRenderer.LAYER_EDGES | GraphRenderer.LAYER_NODES);
+		}
+
+		return image;
+	}
+
+	private static void assertSameImage(final BufferedImage expected, final BufferedImage actual) {
+		int differences = 0;
+
+		for (int y = 0; y < expected.getHeight(); y++)
+			for (int x = 0; x < expected.getWidth(); x++)
+				if (expected.getRGB(x, y) != actual.getRGB(x, y))
+					differences++;
+
+		assertEquals("differing pixels", 0, differences);
+	}
+}
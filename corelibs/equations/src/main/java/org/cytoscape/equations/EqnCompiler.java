@@ -33,18 +33,35 @@ package org.cytoscape.equations;
 import java.util.Map;
 import java.util.Stack;
 import org.cytoscape.equations.EqnParser;
+import org.cytoscape.equations.interpreter.Closure;
 import org.cytoscape.equations.parse_tree.Node;
 
 
 public class EqnCompiler {
+	// Setting this system property to "true" makes compile() generate closures by default.
+	private static final boolean DEFAULT_GENERATE_CLOSURES = Boolean.getBoolean("cytoscape.equations.closures");
+
 	private EqnParser parser;
 	private Equation equation;
 	private String errorMsg;
+	private boolean generateClosures;
 
 	public EqnCompiler() {
 		this.parser = Parser.getParser();
+		this.generateClosures = DEFAULT_GENERATE_CLOSURES;
+	}
+
+	/**
+	 *  @param generateClosures  if true, equations returned by getEquation() will also carry a closure
+	 *                           tree that the Interpreter evaluates directly, without boxing intermediate
+	 *                           floating point and boolean results, instead of interpreting the code array
+	 */
+	public void setGenerateClosures(final boolean generateClosures) {
+		this.generateClosures = generateClosures;
 	}
 
+	public boolean getGenerateClosures() { return generateClosures; }
+
 	public boolean compile(final String equation, final Map<String, Class> attribNameToTypeMap) {
 		this.equation = null;
 		this.errorMsg = null;
@@ -57,8 +74,11 @@ public class EqnCompiler {
 		final Node parseTree = parser.getParseTree();
 
 		final Stack<CodeAndSourceLocation> codeStack = new Stack<CodeAndSourceLocation>();
+		Closure closure = null;
 		try {
 			parseTree.genCode(codeStack);
+			if (generateClosures)
+				closure = parseTree.genClosure();
 		} catch (final IllegalStateException e) {
 			errorMsg = e.getCause().toString();
 			return false;
@@ -73,7 +93,7 @@ public class EqnCompiler {
 		}
 		this.equation = new Equation(equation, parser.getVariableReferences(),
 		                             parser.getDefaultValues(), code, sourceLocations,
-		                             parser.getType());
+		                             parser.getType(), closure);
 
 		errorMsg = null;
 		return true;
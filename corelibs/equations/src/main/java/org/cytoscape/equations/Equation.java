@@ -34,6 +34,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
+import org.cytoscape.equations.interpreter.Closure;
+
 
 public class Equation {
 	private final String equation;
@@ -42,6 +44,7 @@ public class Equation {
 	private final Object[] code;
 	private final int[] sourceLocations;
 	private final Class type;
+	private final Closure closure;
 
 	/**
 	 *  @param equation          the string representing this equation
@@ -53,6 +56,16 @@ public class Equation {
 	Equation(final String equation, final Set<String> attribReferences,
 	         final Map<String, Object> defaultValues, final Object[] code,
 	         final int[] sourceLocations, final Class type)
+	{
+		this(equation, attribReferences, defaultValues, code, sourceLocations, type, null);
+	}
+
+	/**
+	 *  @param closure  the compiled form of this equation, or null if it should be run by the stack interpreter
+	 */
+	Equation(final String equation, final Set<String> attribReferences,
+	         final Map<String, Object> defaultValues, final Object[] code,
+	         final int[] sourceLocations, final Class type, final Closure closure)
 	{
 		this.equation         = equation;
 		this.attribReferences = attribReferences;
@@ -60,6 +73,7 @@ public class Equation {
 		this.code             = code;
 		this.sourceLocations  = sourceLocations;
 		this.type             = type;
+		this.closure          = closure;
 	}
 
 	@Override public String toString() { return equation; }
@@ -78,6 +92,11 @@ public class Equation {
 	public int[] getSourceLocations() { return sourceLocations; }
 	public Class getType() { return type; }
 
+	/**
+	 *  @return the closure tree that the Interpreter runs instead of the code returned by getCode(), or null
+	 */
+	public Closure getClosure() { return closure; }
+
 	/**
 	 *  A factory method that returns an Equation that always fails at runtime.
 	 *
@@ -95,7 +114,7 @@ public class Equation {
 
 		return new Equation(equation, errorEquation.attribReferences,
 		                    errorEquation.defaultValues, errorEquation.code,
-		                    errorEquation.sourceLocations, type);
+		                    errorEquation.sourceLocations, type, errorEquation.closure);
 	}
 
 	private static  String escapeQuotes(final String s) {
@@ -0,0 +1,194 @@
+/*
+  File: BatchInterpreter.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package org.cytoscape.equations.interpreter;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.cytoscape.equations.Equation;
+
+
+/**
+ *  Evaluates a single equation for many objects in one pass.  The values of the attributes that
+ *  are referenced by the equation are passed in as columns, i.e. as arrays that are parallel to
+ *  the array of object IDs, and one interpreter and name-to-descriptor map is reused for all the
+ *  rows that are evaluated by the same thread.
+ */
+public class BatchInterpreter {
+	// Rows are only handed to an executor in chunks of at least this size.
+	private static final int MIN_CHUNK_SIZE = 256;
+
+	private final Equation equation;
+	private final String[] attribReferences;
+	private final Object[] defaultValues;
+	private final boolean referencesID;
+
+	public BatchInterpreter(final Equation equation) throws IllegalStateException {
+		if (equation == null || equation.getCode().length == 0)
+			throw new IllegalStateException("null or empty code!");
+
+		this.equation = equation;
+
+		final List<String> references = new ArrayList<String>(equation.getAttribReferences());
+		this.referencesID = references.remove("ID");
+		this.attribReferences = references.toArray(new String[references.size()]);
+
+		final Map<String, Object> defaults = equation.getDefaultValues();
+		this.defaultValues = new Object[attribReferences.length];
+		for (int i = 0; i < attribReferences.length; ++i)
+			defaultValues[i] = defaults.get(attribReferences[i]);
+	}
+
+	/**
+	 *  @return the names of the attributes, except for "ID", whose values have to be passed into run()
+	 */
+	public String[] getAttribReferences() {
+		return attribReferences.clone();
+	}
+
+	/**
+	 *  Evaluates the equation for each of "ids".  Rows for which the evaluation fails have a null
+	 *  result and, if "errorMessages" is not null, an error message.
+	 *
+	 *  @param ids            the IDs of the objects for which the equation will be evaluated
+	 *  @param columns        maps each name returned by getAttribReferences() to the values of that
+	 *                        attribute; columns.get(name)[i] is the value for ids[i] or null if it is missing
+	 *  @param errorMessages  if not null, must have the same length as "ids"
+	 *  @param executor       if not null, the rows are split into chunks that are evaluated in parallel;
+	 *                        this requires that all functions that are called by the equation are thread-safe
+	 *  @return the results, in the same order as "ids"
+	 *  @throws IllegalArgumentException thrown if a column is missing or has the wrong length
+	 */
+	public Object[] run(final String[] ids, final Map<String, Object[]> columns,
+	                    final String[] errorMessages, final ExecutorService executor)
+		throws IllegalArgumentException
+	{
+		final Object[][] columnValues = new Object[attribReferences.length][];
+		for (int i = 0; i < attribReferences.length; ++i) {
+			columnValues[i] = columns.get(attribReferences[i]);
+			if (columnValues[i] == null || columnValues[i].length != ids.length)
+				throw new IllegalArgumentException("missing or incomplete column for \""
+				                                   + attribReferences[i] + "\"!");
+		}
+		if (errorMessages != null && errorMessages.length != ids.length)
+			throw new IllegalArgumentException("\"errorMessages\" must have the same length as \"ids\"!");
+
+		final Object[] results = new Object[ids.length];
+		final int processorCount = Runtime.getRuntime().availableProcessors();
+		if (executor == null || processorCount == 1 || ids.length < 2 * MIN_CHUNK_SIZE) {
+			runChunk(ids, columnValues, results, errorMessages, 0, ids.length);
+			return results;
+		}
+
+		final int chunkSize = Math.max(MIN_CHUNK_SIZE, (ids.length + processorCount - 1) / processorCount);
+		final List<Future<Object>> futures = new ArrayList<Future<Object>>();
+		for (int start = 0; start < ids.length; start += chunkSize) {
+			final int chunkStart = start;
+			final int chunkEnd = Math.min(ids.length, start + chunkSize);
+			futures.add(executor.submit(new Callable<Object>() {
+					public Object call() {
+						runChunk(ids, columnValues, results, errorMessages, chunkStart, chunkEnd);
+						return null;
+					}
+				}));
+		}
+
+		for (final Future<Object> future : futures) {
+			try {
+				future.get();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted while evaluating an equation!");
+			} catch (final ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException)e.getCause();
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+
+		return results;
+	}
+
+	private void runChunk(final String[] ids, final Object[][] columnValues, final Object[] results,
+	                      final String[] errorMessages, final int start, final int end)
+	{
+		final Map<String, IdentDescriptor> nameToDescriptorMap = new HashMap<String, IdentDescriptor>();
+		final Interpreter interpreter = new Interpreter(equation, nameToDescriptorMap);
+
+		for (int row = start; row < end; ++row) {
+			String errorMessage = bindRow(ids, columnValues, row, nameToDescriptorMap);
+			if (errorMessage == null) {
+				try {
+					results[row] = interpreter.run();
+				} catch (final Exception e) {
+					errorMessage = e.getMessage();
+				}
+			}
+
+			if (errorMessage != null && errorMessages != null)
+				errorMessages[row] = errorMessage;
+		}
+	}
+
+	/**
+	 *  Replaces the descriptors in "nameToDescriptorMap" with those for row "row".
+	 *  @return null upon success, else an error message
+	 */
+	private String bindRow(final String[] ids, final Object[][] columnValues, final int row,
+	                       final Map<String, IdentDescriptor> nameToDescriptorMap)
+	{
+		if (referencesID)
+			nameToDescriptorMap.put("ID", new IdentDescriptor(ids[row]));
+
+		for (int i = 0; i < attribReferences.length; ++i) {
+			Object value = columnValues[i][row];
+			if (value == null) {
+				value = defaultValues[i];
+				if (value == null)
+					return "Missing value for referenced attribute \"" + attribReferences[i] + "\"!";
+			}
+
+			try {
+				nameToDescriptorMap.put(attribReferences[i], new IdentDescriptor(value));
+			} catch (final IllegalArgumentException e) {
+				return "Bad attribute reference to \"" + attribReferences[i] + "\"!";
+			}
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+  File: Closure.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package org.cytoscape.equations.interpreter;
+
+
+import java.util.Map;
+
+import org.cytoscape.equations.FunctionError;
+
+
+/**
+ *  A compiled form of a parse tree node.  Instead of being translated into an instruction
+ *  sequence for the stack interpreter, each parse tree node is translated into a Closure that
+ *  directly evaluates its children.  Closures of floating point and boolean type override
+ *  evalDouble() and evalBoolean() so that nested arithmetic and comparisons never box their
+ *  intermediate results.
+ */
+public abstract class Closure {
+	/**
+	 *  @param nameToDescriptorMap  the values of the attributes that may be referenced
+	 *  @return the boxed value of this closure
+	 */
+	public abstract Object eval(final Map<String, IdentDescriptor> nameToDescriptorMap)
+		throws FunctionError;
+
+	/**
+	 *  @return the value of this closure, which must be a floating point number
+	 */
+	public double evalDouble(final Map<String, IdentDescriptor> nameToDescriptorMap)
+		throws FunctionError
+	{
+		final Object o = eval(nameToDescriptorMap);
+		if (o instanceof Double)
+			return (Double)o;
+
+		throw new IllegalStateException("can't convert a " + o.getClass() + " (" + o + ") to a floating point number!");
+	}
+
+	/**
+	 *  @return the value of this closure, which must be a boolean
+	 */
+	public boolean evalBoolean(final Map<String, IdentDescriptor> nameToDescriptorMap)
+		throws FunctionError
+	{
+		final Object o = eval(nameToDescriptorMap);
+		if (o instanceof Boolean)
+			return (Boolean)o;
+
+		throw new IllegalStateException("can't convert a " + o.getClass() + " to a boolean!");
+	}
+
+	/**
+	 *  @return the value of this closure, which must be a string
+	 */
+	public String evalString(final Map<String, IdentDescriptor> nameToDescriptorMap)
+		throws FunctionError
+	{
+		final Object o = eval(nameToDescriptorMap);
+		if (o instanceof String)
+			return (String)o;
+
+		throw new IllegalStateException("can't convert a " + o.getClass() + " to a string!");
+	}
+}
@@ -0,0 +1,407 @@
+/*
+  File: Closures.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package org.cytoscape.equations.interpreter;
+
+
+import java.util.Map;
+
+import org.cytoscape.equations.Function;
+import org.cytoscape.equations.FunctionError;
+
+
+/**
+ *  Factory methods for the closures that make up a compiled equation.  The semantics of each
+ *  closure are exactly those of the corresponding Interpreter opcode, including the order in
+ *  which operands are evaluated (right to left) and the exceptions that are thrown.
+ */
+public final class Closures {
+	private Closures() { }
+
+	private static abstract class FloatClosure extends Closure {
+		public Object eval(final Map<String, IdentDescriptor> nameToDescriptorMap) throws FunctionError {
+			return evalDouble(nameToDescriptorMap);
+		}
+
+		public abstract double evalDouble(final Map<String, IdentDescriptor> nameToDescriptorMap)
+			throws FunctionError;
+	}
+
+	private static abstract class BooleanClosure extends Closure {
+		public Object eval(final Map<String, IdentDescriptor> nameToDescriptorMap) throws FunctionError {
+			return evalBoolean(nameToDescriptorMap);
+		}
+
+		public abstract boolean evalBoolean(final Map<String, IdentDescriptor> nameToDescriptorMap)
+			throws FunctionError;
+	}
+
+	private static abstract class StringClosure extends Closure {
+		public Object eval(final Map<String, IdentDescriptor> nameToDescriptorMap) throws FunctionError {
+			return evalString(nameToDescriptorMap);
+		}
+
+		public abstract String evalString(final Map<String, IdentDescriptor> nameToDescriptorMap)
+			throws FunctionError;
+	}
+
+	private static final class FloatConstant extends FloatClosure {
+		private final double value;
+		private final Double boxedValue;
+
+		FloatConstant(final double value) {
+			this.value = value;
+			this.boxedValue = value;
+		}
+
+		public Object eval(final Map<String, IdentDescriptor> nameToDescriptorMap) { return boxedValue; }
+		public double evalDouble(final Map<String, IdentDescriptor> nameToDescriptorMap) { return value; }
+	}
+
+	private static final class Constant extends Closure {
+		private final Object value;
+
+		Constant(final Object value) {
+			this.value = value;
+		}
+
+		public Object eval(final Map<String, IdentDescriptor> nameToDescriptorMap) { return value; }
+	}
+
+	private static final class AttribRef extends Closure {
+		private final String attribName;
+		private final Object defaultValue;
+
+		AttribRef(final String attribName, final Object defaultValue) {
+			this.attribName = attribName;
+			this.defaultValue = defaultValue;
+		}
+
+		public Object eval(final Map<String, IdentDescriptor> nameToDescriptorMap) {
+			final IdentDescriptor identDescriptor = nameToDescriptorMap.get(attribName);
+			if (identDescriptor == null)
+				throw new IllegalStateException("unknown attribute reference: \"" + attribName
+				                                + (defaultValue == null ? "\" (1)!" : "\" (2)!"));
+			final Object value = identDescriptor.getValue();
+			if (value != null)
+				return value;
+			if (defaultValue == null)
+				throw new IllegalStateException("undefined attribute reference: \"" + attribName + "\"!");
+			return defaultValue;
+		}
+	}
+
+	private static final class Call extends Closure {
+		private final Function func;
+		private final Closure[] args;
+
+		Call(final Function func, final Closure[] args) {
+			this.func = func;
+			this.args = args;
+		}
+
+		public Object eval(final Map<String, IdentDescriptor> nameToDescriptorMap) throws FunctionError {
+			final Object[] argValues = new Object[args.length];
+			for (int argNo = args.length - 1; argNo >= 0; --argNo)
+				argValues[argNo] = args[argNo].eval(nameToDescriptorMap);
+
+			return func.evaluateFunction(argValues);
+		}
+	}
+
+	/**
+	 *  @param value  a Double, Boolean or String constant
+	 *  @return a closure that always evaluates to "value"
+	 */
+	public static Closure constant(final Object value) {
+		if (value == null)
+			throw new IllegalArgumentException("constant value must not be null!");
+
+		if (value instanceof Double)
+			return new FloatConstant((Double)value);
+
+		return new Constant(value);
+	}
+
+	/**
+	 *  @param attribName    the name of the referenced attribute
+	 *  @param defaultValue  the value to use if the attribute has no value, or null if it must have one
+	 *  @return a closure that corresponds to AREF, or AREF2 if "defaultValue" is not null
+	 */
+	public static Closure attribRef(final String attribName, final Object defaultValue) {
+		return new AttribRef(attribName, defaultValue);
+	}
+
+	/**
+	 *  @param func  the function to call
+	 *  @param args  the function arguments, in calling order
+	 *  @return a closure that corresponds to CALL
+	 */
+	public static Closure call(final Function func, final Closure[] args) {
+		return new Call(func, args.clone());
+	}
+
+	/**
+	 *  @param opCode   one of the unary operator or conversion opcodes
+	 *  @param operand  the closure whose value is operated upon
+	 *  @return a closure equivalent to evaluating "operand" followed by "opCode"
+	 */
+	public static Closure unaryOp(final Instruction opCode, final Closure operand) {
+		switch (opCode) {
+		case FUMINUS:
+			return new FloatClosure() {
+				public double evalDouble(final Map<String, IdentDescriptor> m) throws FunctionError {
+					return -operand.evalDouble(m);
+				}
+			};
+		case FUPLUS:
+			return new FloatClosure() {
+				public double evalDouble(final Map<String, IdentDescriptor> m) throws FunctionError {
+					return +operand.evalDouble(m);
+				}
+			};
+		case FCONVI:
+			return new FloatClosure() {
+				public double evalDouble(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final Object o = operand.eval(m);
+					if (o instanceof Long)
+						return (double)(Long)o;
+					throw new IllegalStateException("can't convert a " + o.getClass() + " (" + o + ") to an integer number!");
+				}
+			};
+		case FCONVB:
+			return new FloatClosure() {
+				public double evalDouble(final Map<String, IdentDescriptor> m) throws FunctionError {
+					return operand.evalBoolean(m) ? 1.0 : 0.0;
+				}
+			};
+		case FCONVS:
+			return new FloatClosure() {
+				public double evalDouble(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final String s = operand.evalString(m);
+					try {
+						return Double.parseDouble(s);
+					} catch(final NumberFormatException e) {
+						throw new IllegalStateException("can't convert \"" + s + "\" to a number!");
+					}
+				}
+			};
+		case SCONVF:
+		case SCONVI:
+			return new StringClosure() {
+				public String evalString(final Map<String, IdentDescriptor> m) throws FunctionError {
+					return operand.eval(m).toString();
+				}
+			};
+		case SCONVB:
+			return new StringClosure() {
+				public String evalString(final Map<String, IdentDescriptor> m) throws FunctionError {
+					operand.eval(m);
+
+					// See Interpreter.sconvb() for why both truth values become the same string.
+					return "\uFFFF\uFFFF\uFFFF";
+				}
+			};
+		default:
+			throw new IllegalStateException("not a unary opcode: " + opCode + "!");
+		}
+	}
+
+	/**
+	 *  @param opCode  one of the binary operator opcodes
+	 *  @param lhs     the left operand
+	 *  @param rhs     the right operand, which is evaluated before "lhs"
+	 *  @return a closure equivalent to evaluating "rhs", "lhs" and then "opCode"
+	 */
+	public static Closure binOp(final Instruction opCode, final Closure lhs, final Closure rhs) {
+		switch (opCode) {
+		case FADD:
+			return new FloatClosure() {
+				public double evalDouble(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final double float2 = rhs.evalDouble(m);
+					return lhs.evalDouble(m) + float2;
+				}
+			};
+		case FSUB:
+			return new FloatClosure() {
+				public double evalDouble(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final double float2 = rhs.evalDouble(m);
+					return lhs.evalDouble(m) - float2;
+				}
+			};
+		case FMUL:
+			return new FloatClosure() {
+				public double evalDouble(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final double float2 = rhs.evalDouble(m);
+					return lhs.evalDouble(m) * float2;
+				}
+			};
+		case FDIV:
+			return new FloatClosure() {
+				public double evalDouble(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final double float2 = rhs.evalDouble(m);
+					final double float1 = lhs.evalDouble(m);
+					if (float2 == 0.0)
+						throw new ArithmeticException("illegal division by zero!");
+					return float1 / float2;
+				}
+			};
+		case FPOW:
+			return new FloatClosure() {
+				public double evalDouble(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final double float2 = rhs.evalDouble(m);
+					return Math.pow(lhs.evalDouble(m), float2);
+				}
+			};
+		case SCONCAT:
+			return new StringClosure() {
+				public String evalString(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final String string2 = rhs.evalString(m);
+					return lhs.evalString(m) + string2;
+				}
+			};
+		case BEQLF:
+		case BNEQLF:
+		case BGTF:
+		case BLTF:
+		case BGTEF:
+		case BLTEF:
+			return floatComparison(opCode, lhs, rhs);
+		case BEQLS:
+		case BNEQLS:
+		case BGTS:
+		case BLTS:
+		case BGTES:
+		case BLTES:
+			return stringComparison(opCode, lhs, rhs);
+		case BEQLB:
+		case BNEQLB:
+		case BGTB:
+		case BLTB:
+		case BGTEB:
+		case BLTEB:
+			return booleanComparison(opCode, lhs, rhs);
+		default:
+			throw new IllegalStateException("not a binary opcode: " + opCode + "!");
+		}
+	}
+
+	private static Closure floatComparison(final Instruction opCode, final Closure lhs, final Closure rhs) {
+		switch (opCode) {
+		case BEQLF:
+			return new BooleanClosure() {
+				public boolean evalBoolean(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final double float2 = rhs.evalDouble(m);
+					return lhs.evalDouble(m) == float2;
+				}
+			};
+		case BNEQLF:
+			return new BooleanClosure() {
+				public boolean evalBoolean(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final double float2 = rhs.evalDouble(m);
+					return lhs.evalDouble(m) != float2;
+				}
+			};
+		case BGTF:
+			return new BooleanClosure() {
+				public boolean evalBoolean(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final double float2 = rhs.evalDouble(m);
+					return lhs.evalDouble(m) > float2;
+				}
+			};
+		case BLTF:
+			return new BooleanClosure() {
+				public boolean evalBoolean(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final double float2 = rhs.evalDouble(m);
+					return lhs.evalDouble(m) < float2;
+				}
+			};
+		case BGTEF:
+			return new BooleanClosure() {
+				public boolean evalBoolean(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final double float2 = rhs.evalDouble(m);
+					return lhs.evalDouble(m) >= float2;
+				}
+			};
+		default: // BLTEF
+			return new BooleanClosure() {
+				public boolean evalBoolean(final Map<String, IdentDescriptor> m) throws FunctionError {
+					final double float2 = rhs.evalDouble(m);
+					return lhs.evalDouble(m) <= float2;
+				}
+			};
+		}
+	}
+
+	private static Closure stringComparison(final Instruction opCode, final Closure lhs, final Closure rhs) {
+		return new BooleanClosure() {
+			public boolean evalBoolean(final Map<String, IdentDescriptor> m) throws FunctionError {
+				final String string2 = rhs.evalString(m);
+				final String string1 = lhs.evalString(m);
+				switch (opCode) {
+				case BEQLS:
+					return string1.equals(string2);
+				case BNEQLS:
+					return !string1.equals(string2);
+				case BGTS:
+					return string1.compareTo(string2) > 0;
+				case BLTS:
+					return string1.compareTo(string2) < 0;
+				case BGTES:
+					return string1.compareTo(string2) >= 0;
+				default: // BLTES
+					return string1.compareTo(string2) <= 0;
+				}
+			}
+		};
+	}
+
+	private static Closure booleanComparison(final Instruction opCode, final Closure lhs, final Closure rhs) {
+		return new BooleanClosure() {
+			public boolean evalBoolean(final Map<String, IdentDescriptor> m) throws FunctionError {
+				final boolean bool2 = rhs.evalBoolean(m);
+				final boolean bool1 = lhs.evalBoolean(m);
+				switch (opCode) {
+				case BEQLB:
+					return bool1 == bool2;
+				case BNEQLB:
+					return bool1 != bool2;
+				case BGTB:
+					return bool1 && !bool2;
+				case BLTB:
+					return !bool1 && bool2;
+				case BGTEB:
+					return (bool1 && !bool2) || (bool1 == bool2);
+				default: // BLTEB
+					return (!bool1 && bool2) || (bool1 == bool2);
+				}
+			}
+		};
+	}
+}
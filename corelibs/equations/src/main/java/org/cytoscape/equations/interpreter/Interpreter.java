@@ -48,6 +48,7 @@ public class Interpreter {
 	private final int[] sourceLocations;
 	private final Stack<Object> argumentStack;
 	private final Map<String, IdentDescriptor> nameToDescriptorMap;
+	private final Closure closure;
 
 	public Interpreter(final Equation equation, final Map<String, IdentDescriptor> nameToDescriptorMap)
 		throws IllegalStateException
@@ -57,18 +58,24 @@ public class Interpreter {
 
 		this.code                = equation.getCode();
 		this.sourceLocations     = equation.getSourceLocations();
-		this.argumentStack       = new Stack<Object>();
+		this.closure             = equation.getClosure();
+		this.argumentStack       = closure == null ? new Stack<Object>() : null;
 		this.nameToDescriptorMap = nameToDescriptorMap;
 	}
 
 	/**
-	 *  Executes the code that was passed into the constructor.
+	 *  Executes the code that was passed into the constructor.  An interpreter may be run
+	 *  repeatedly, e.g. after the contents of its name-to-descriptor map have been replaced.
 	 *  @return a Double, Boolean or String object that is the result of a successful execution.
 	 *  @throws ArithmeticException thrown if an arithmetic error was detected like a division by zero etc.
 	 *  @throws IllegalArgumentException thrown if a function invocation resulted in a function detecting an invalid argument
 	 *  @throws IllegalStateException thrown if an invalid interpreter internal state was reached
 	 */
 	public Object run() throws ArithmeticException, IllegalArgumentException, IllegalStateException {
+		if (closure != null)
+			return runClosure();
+
+		argumentStack.clear();
 		int index = -1;
 		try {
 			for (index = 0; index < code.length; ++index) {
@@ -195,7 +202,21 @@ public class Interpreter {
 
 		if (argumentStack.size() != 1)
 			throw new IllegalStateException("invalid argument stack size " + argumentStack.size() + ", must be 1!");
-		final Object retVal = argumentStack.peek();
+		return checkResultType(argumentStack.peek());
+	}
+
+	/**
+	 *  Evaluates the equation's closure tree instead of its code.
+	 */
+	private Object runClosure() throws ArithmeticException, IllegalArgumentException, IllegalStateException {
+		try {
+			return checkResultType(closure.eval(nameToDescriptorMap));
+		} catch (final FunctionError e) {
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+
+	private Object checkResultType(final Object retVal) throws IllegalStateException {
 		final Class retValClass = retVal.getClass();
 		if (retValClass == Double.class || retValClass == String.class || retValClass == Boolean.class || retValClass == Long.class
 		    || retValClass == DoubleList.class || retValClass == BooleanList.class || retValClass == LongList.class
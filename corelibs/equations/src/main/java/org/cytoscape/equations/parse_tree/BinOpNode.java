@@ -34,6 +34,8 @@ import java.util.Stack;
 
 import org.cytoscape.equations.CodeAndSourceLocation;
 import org.cytoscape.equations.Token;
+import org.cytoscape.equations.interpreter.Closure;
+import org.cytoscape.equations.interpreter.Closures;
 import org.cytoscape.equations.interpreter.Instruction;
 
 
@@ -76,50 +78,43 @@ public class BinOpNode extends Node {
 	public void genCode(final Stack<CodeAndSourceLocation> codeStack) {
 		rhs.genCode(codeStack);
 		lhs.genCode(codeStack);
+		codeStack.push(new CodeAndSourceLocation(getOpCode(), getSourceLocation()));
+	}
+
+	public Closure genClosure() {
+		final Closure lhsClosure = lhs.genClosure();
+		final Closure rhsClosure = rhs.genClosure();
+		if (lhsClosure == null || rhsClosure == null)
+			return null;
+		return Closures.binOp(getOpCode(), lhsClosure, rhsClosure);
+	}
 
+	private Instruction getOpCode() {
 		switch (operator) {
 		case CARET:
-			codeStack.push(new CodeAndSourceLocation(Instruction.FPOW, getSourceLocation()));
-			break;
+			return Instruction.FPOW;
 		case PLUS:
-			codeStack.push(new CodeAndSourceLocation(Instruction.FADD, getSourceLocation()));
-			break;
+			return Instruction.FADD;
 		case MINUS:
-			codeStack.push(new CodeAndSourceLocation(Instruction.FSUB, getSourceLocation()));
-			break;
+			return Instruction.FSUB;
 		case DIV:
-			codeStack.push(new CodeAndSourceLocation(Instruction.FDIV, getSourceLocation()));
-			break;
+			return Instruction.FDIV;
 		case MUL:
-			codeStack.push(new CodeAndSourceLocation(Instruction.FMUL, getSourceLocation()));
-			break;
+			return Instruction.FMUL;
 		case EQUAL:
-			codeStack.push(new CodeAndSourceLocation(determineOpCode(Instruction.BEQLF, Instruction.BEQLS, Instruction.BEQLB),
-			                                         getSourceLocation()));
-			break;
+			return determineOpCode(Instruction.BEQLF, Instruction.BEQLS, Instruction.BEQLB);
 		case NOT_EQUAL:
-			codeStack.push(new CodeAndSourceLocation(determineOpCode(Instruction.BNEQLF, Instruction.BNEQLS, Instruction.BNEQLB),
-			                                         getSourceLocation()));
-			break;
+			return determineOpCode(Instruction.BNEQLF, Instruction.BNEQLS, Instruction.BNEQLB);
 		case GREATER_THAN:
-			codeStack.push(new CodeAndSourceLocation(determineOpCode(Instruction.BGTF, Instruction.BGTS, Instruction.BGTB),
-			                                         getSourceLocation()));
-			break;
+			return determineOpCode(Instruction.BGTF, Instruction.BGTS, Instruction.BGTB);
 		case LESS_THAN:
-			codeStack.push(new CodeAndSourceLocation(determineOpCode(Instruction.BLTF, Instruction.BLTS, Instruction.BLTB),
-			                                         getSourceLocation()));
-			break;
+			return determineOpCode(Instruction.BLTF, Instruction.BLTS, Instruction.BLTB);
 		case GREATER_OR_EQUAL:
-			codeStack.push(new CodeAndSourceLocation(determineOpCode(Instruction.BGTEF, Instruction.BGTES, Instruction.BGTEB),
-			                                         getSourceLocation()));
-			break;
+			return determineOpCode(Instruction.BGTEF, Instruction.BGTES, Instruction.BGTEB);
 		case LESS_OR_EQUAL:
-			codeStack.push(new CodeAndSourceLocation(determineOpCode(Instruction.BLTEF, Instruction.BLTES, Instruction.BLTEB),
-			                                         getSourceLocation()));
-			break;
+			return determineOpCode(Instruction.BLTEF, Instruction.BLTES, Instruction.BLTEB);
 		case AMPERSAND:
-			codeStack.push(new CodeAndSourceLocation(Instruction.SCONCAT, getSourceLocation()));
-			break;
+			return Instruction.SCONCAT;
 		default:
 			throw new IllegalStateException(getSourceLocation() + ": unknown operator: " + operator + "!");
 		}
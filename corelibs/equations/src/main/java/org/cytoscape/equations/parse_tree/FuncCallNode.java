@@ -34,6 +34,8 @@ import java.util.Stack;
 
 import org.cytoscape.equations.CodeAndSourceLocation;
 import org.cytoscape.equations.Function;
+import org.cytoscape.equations.interpreter.Closure;
+import org.cytoscape.equations.interpreter.Closures;
 import org.cytoscape.equations.interpreter.Instruction;
 
 
@@ -86,4 +88,14 @@ public class FuncCallNode extends Node {
 		codeStack.push(new CodeAndSourceLocation(func, -1));
 		codeStack.push(new CodeAndSourceLocation(Instruction.CALL, getSourceLocation()));
 	}
+
+	public Closure genClosure() {
+		final Closure[] argClosures = new Closure[args.length];
+		for (int i = 0; i < args.length; ++i) {
+			argClosures[i] = args[i].genClosure();
+			if (argClosures[i] == null)
+				return null;
+		}
+		return Closures.call(func, argClosures);
+	}
 }
@@ -33,6 +33,8 @@ package org.cytoscape.equations.parse_tree;
 import java.util.Stack;
 
 import org.cytoscape.equations.CodeAndSourceLocation;
+import org.cytoscape.equations.interpreter.Closure;
+import org.cytoscape.equations.interpreter.Closures;
 import org.cytoscape.equations.interpreter.Instruction;
 
 
@@ -81,4 +83,8 @@ public class IdentNode extends Node {
 		codeStack.push(new CodeAndSourceLocation(attribName, -1));
 		codeStack.push(new CodeAndSourceLocation(defaultValue == null ? Instruction.AREF : Instruction.AREF2, getSourceLocation()));
 	}
+
+	public Closure genClosure() {
+		return Closures.attribRef(attribName, defaultValue);
+	}
 }
@@ -33,6 +33,7 @@ package org.cytoscape.equations.parse_tree;
 import java.util.Stack;
 
 import org.cytoscape.equations.CodeAndSourceLocation;
+import org.cytoscape.equations.interpreter.Closure;
 
 
 /**
@@ -54,4 +55,13 @@ public abstract class Node {
 	public abstract Node getLeftChild();
 	public abstract Node getRightChild();
 	public abstract void genCode(final Stack<CodeAndSourceLocation> codeStack);
+
+	/**
+	 *  Alternative to genCode(), see EqnCompiler.  Nodes that can't be compiled into a
+	 *  closure return null, in which case the whole equation is run by the stack interpreter.
+	 *  @return the closure that evaluates this node, or null
+	 */
+	public Closure genClosure() {
+		return null;
+	}
 }
@@ -33,6 +33,8 @@ package org.cytoscape.equations.parse_tree;
 import java.util.Stack;
 
 import org.cytoscape.equations.CodeAndSourceLocation;
+import org.cytoscape.equations.interpreter.Closure;
+import org.cytoscape.equations.interpreter.Closures;
 import org.cytoscape.equations.interpreter.Instruction;
 
 
@@ -73,14 +75,22 @@ public class SConvNode extends Node {
 
 	public void genCode(final Stack<CodeAndSourceLocation> codeStack) {
 		convertee.genCode(codeStack);
+		codeStack.push(new CodeAndSourceLocation(getOpCode(), getSourceLocation()));
+	}
+
+	public Closure genClosure() {
+		final Closure converteeClosure = convertee.genClosure();
+		return converteeClosure == null ? null : Closures.unaryOp(getOpCode(), converteeClosure);
+	}
 
+	private Instruction getOpCode() {
 		final Class type = convertee.getType();
 		if (type == Double.class)
-			codeStack.push(new CodeAndSourceLocation(Instruction.SCONVF, getSourceLocation()));
+			return Instruction.SCONVF;
 		else if (type == Long.class)
-			codeStack.push(new CodeAndSourceLocation(Instruction.SCONVI, getSourceLocation()));
+			return Instruction.SCONVI;
 		else if (type == Boolean.class)
-			codeStack.push(new CodeAndSourceLocation(Instruction.SCONVB, getSourceLocation()));
+			return Instruction.SCONVB;
 		else
 			throw new IllegalStateException("unknown type: " + type + "!");
 	}
@@ -33,6 +33,8 @@ package org.cytoscape.equations.parse_tree;
 import java.util.Stack;
 
 import org.cytoscape.equations.CodeAndSourceLocation;
+import org.cytoscape.equations.interpreter.Closure;
+import org.cytoscape.equations.interpreter.Closures;
 
 
 /**
@@ -66,4 +68,8 @@ public class StringConstantNode extends Node {
 	public void genCode(final Stack<CodeAndSourceLocation> codeStack) {
 		codeStack.push(new CodeAndSourceLocation(value, getSourceLocation()));
 	}
+
+	public Closure genClosure() {
+		return Closures.constant(value);
+	}
 }
@@ -34,6 +34,8 @@ import java.util.Stack;
 
 import org.cytoscape.equations.CodeAndSourceLocation;
 import org.cytoscape.equations.Token;
+import org.cytoscape.equations.interpreter.Closure;
+import org.cytoscape.equations.interpreter.Closures;
 import org.cytoscape.equations.interpreter.Instruction;
 
 
@@ -72,14 +74,20 @@ public class UnaryOpNode extends Node {
 
 	public void genCode(final Stack<CodeAndSourceLocation> codeStack) {
 		operand.genCode(codeStack);
+		codeStack.push(new CodeAndSourceLocation(getOpCode(), getSourceLocation()));
+	}
+
+	public Closure genClosure() {
+		final Closure operandClosure = operand.genClosure();
+		return operandClosure == null ? null : Closures.unaryOp(getOpCode(), operandClosure);
+	}
 
+	private Instruction getOpCode() {
 		switch (operator) {
 		case PLUS:
-			codeStack.push(new CodeAndSourceLocation(Instruction.FUPLUS, getSourceLocation()));
-			break;
+			return Instruction.FUPLUS;
 		case MINUS:
-			codeStack.push(new CodeAndSourceLocation(Instruction.FUMINUS, getSourceLocation()));
-			break;
+			return Instruction.FUMINUS;
 		default:
 			throw new IllegalStateException("invalid unary operation: " + operator + "!");
 		}
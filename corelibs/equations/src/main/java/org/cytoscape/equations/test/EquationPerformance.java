@@ -0,0 +1,141 @@
+/*
+  File: EquationPerformance.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package org.cytoscape.equations.test;
+
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cytoscape.equations.EqnCompiler;
+import org.cytoscape.equations.Equation;
+import org.cytoscape.equations.interpreter.IdentDescriptor;
+import org.cytoscape.equations.interpreter.Interpreter;
+
+
+/**
+ *  Compares the stack interpreter with closure-compiled equations.  For each equation, both
+ *  backends are warmed up and then timed over the same number of evaluations, with the attribute
+ *  values changing between evaluations the way they would when an equation is evaluated over
+ *  an attribute column.<p>
+ *  Usage: EquationPerformance [numEvaluations]
+ */
+public class EquationPerformance {
+	private static final String[] EQUATIONS = {
+		"=$x + $y * 2 - $x / 3",
+		"=($x - $y) ^ 2 + ($y - 1.5) ^ 2 > 10",
+		"=ABS($x) + SQRT(ABS($y)) * LN(2) + EXP($x / 1000)",
+		"=IF($x > $y, $x - $y, $y - $x)",
+		"=ROUND($x * 100, 1) - TRUNC($y)",
+		"=MAX($x, $y, 3.5) + MIN($x, $y) + AVERAGE($x, $y, $n)",
+		"=AND($b, $x < $y) = OR($b, NOT($b))",
+		"=SIN($x) + COS($y) + TAN($x / 7) + LOG($n + 1, 10)",
+		"=$n * 2 + ${x:7}",
+		"=UPPER($s) & LEFT($s, 2) & LOWER($s)",
+	};
+
+	public static void main(final String[] args) {
+		final int numEvaluations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+		final Map<String, Class> attribNameToTypeMap = new HashMap<String, Class>();
+		attribNameToTypeMap.put("x", Double.class);
+		attribNameToTypeMap.put("y", Double.class);
+		attribNameToTypeMap.put("n", Long.class);
+		attribNameToTypeMap.put("s", String.class);
+		attribNameToTypeMap.put("b", Boolean.class);
+
+		// One set of attribute values per "row".
+		final int numRows = 1000;
+		final Map<String, IdentDescriptor>[] rows = new Map[numRows];
+		for (int i = 0; i < numRows; ++i) {
+			rows[i] = new HashMap<String, IdentDescriptor>();
+			rows[i].put("x", new IdentDescriptor(i * 0.37 + 1.0));
+			rows[i].put("y", new IdentDescriptor(i * -0.11 + 2.0));
+			rows[i].put("n", new IdentDescriptor(new Long(i)));
+			rows[i].put("s", new IdentDescriptor("row" + i));
+			rows[i].put("b", new IdentDescriptor((i & 1) == 0));
+		}
+
+		final EqnCompiler interpreterCompiler = new EqnCompiler();
+		interpreterCompiler.setGenerateClosures(false);
+		final EqnCompiler closureCompiler = new EqnCompiler();
+		closureCompiler.setGenerateClosures(true);
+
+		long totalInterpreter = 0L, totalClosure = 0L;
+		System.out.println("interpreter[ms]\tclosures[ms]\tspeedup\tequation");
+		for (final String equation : EQUATIONS) {
+			if (!interpreterCompiler.compile(equation, attribNameToTypeMap)
+			    || !closureCompiler.compile(equation, attribNameToTypeMap))
+				throw new IllegalStateException("failed to compile " + equation + ": "
+				                                + interpreterCompiler.getLastErrorMsg());
+			final Equation interpreted = interpreterCompiler.getEquation();
+			final Equation compiled = closureCompiler.getEquation();
+
+			// Make sure that we are comparing apples with apples.
+			for (int i = 0; i < numRows; ++i) {
+				if (!run(interpreted, rows[i]).equals(run(compiled, rows[i])))
+					throw new IllegalStateException("backends disagree on " + equation + "!");
+			}
+
+			// Warm up.
+			time(interpreted, rows, numEvaluations);
+			time(compiled, rows, numEvaluations);
+
+			final long interpreterMillis = time(interpreted, rows, numEvaluations);
+			final long closureMillis = time(compiled, rows, numEvaluations);
+			totalInterpreter += interpreterMillis;
+			totalClosure += closureMillis;
+			System.out.println(interpreterMillis + "\t" + closureMillis + "\t"
+			                   + speedup(interpreterMillis, closureMillis) + "\t" + equation);
+		}
+		System.out.println(totalInterpreter + "\t" + totalClosure + "\t"
+		                   + speedup(totalInterpreter, totalClosure) + "\ttotal");
+	}
+
+	private static Object run(final Equation equation, final Map<String, IdentDescriptor> row) {
+		return new Interpreter(equation, row).run();
+	}
+
+	private static long time(final Equation equation, final Map<String, IdentDescriptor>[] rows,
+	                         final int numEvaluations)
+	{
+		final long millisBegin = System.currentTimeMillis();
+		int hash = 0;
+		for (int i = 0; i < numEvaluations; ++i)
+			hash += run(equation, rows[i % rows.length]).hashCode();
+		final long millisEnd = System.currentTimeMillis();
+		if (hash == 42)
+			System.err.print(""); // Keep the JIT from discarding the results.
+		return millisEnd - millisBegin;
+	}
+
+	private static String speedup(final long baseline, final long millis) {
+		return millis == 0L ? "-" : String.valueOf(Math.round(baseline * 10.0 / millis) / 10.0) + "x";
+	}
+}
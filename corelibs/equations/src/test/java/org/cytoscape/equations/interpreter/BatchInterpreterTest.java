@@ -0,0 +1,126 @@
+/*
+  File: BatchInterpreterTest.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package org.cytoscape.equations.interpreter;
+
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import junit.framework.*;
+import org.cytoscape.equations.EqnCompiler;
+import org.cytoscape.equations.Equation;
+
+
+public class BatchInterpreterTest extends TestCase {
+	private final EqnCompiler compiler = new EqnCompiler();
+
+	private Equation compile(final String formula) {
+		final Map<String, Class> attribNameToTypeMap = new HashMap<String, Class>();
+		attribNameToTypeMap.put("x", Double.class);
+		attribNameToTypeMap.put("y", Double.class);
+		attribNameToTypeMap.put("ID", String.class);
+		assertTrue(compiler.compile(formula, attribNameToTypeMap));
+		return compiler.getEquation();
+	}
+
+	public void testColumnEvaluation() throws Exception {
+		final BatchInterpreter batch = new BatchInterpreter(compile("=${x} * ${y:2} + LEN(${ID})"));
+		assertEquals(2, batch.getAttribReferences().length);
+
+		final String[] ids = { "a", "bb", "c", "d" };
+		final Map<String, Object[]> columns = new HashMap<String, Object[]>();
+		columns.put("x", new Object[] { 1.5, 2.0, null, 4.0 });
+		columns.put("y", new Object[] { 2.0, null, 1.0, "bad" });
+		final String[] errorMessages = new String[ids.length];
+		final Object[] results = batch.run(ids, columns, errorMessages, null);
+
+		assertEquals(4.0, results[0]);
+		assertNull(errorMessages[0]);
+		assertEquals(6.0, results[1]);
+		assertNull(results[2]);
+		assertEquals("Missing value for referenced attribute \"x\"!", errorMessages[2]);
+		assertNull(results[3]);
+		assertNotNull(errorMessages[3]);
+	}
+
+	public void testMissingColumn() throws Exception {
+		final BatchInterpreter batch = new BatchInterpreter(compile("=${x} + 1"));
+		try {
+			batch.run(new String[] { "a" }, new HashMap<String, Object[]>(), null, null);
+			fail();
+		} catch (final IllegalArgumentException e) {
+			// Expected!
+		}
+	}
+
+	public void testAgreesWithInterpreter() throws Exception {
+		final Equation equation = compile("=IF(${x} > ${y}, ${x} / ${y}, ${y} - ${x})");
+		final BatchInterpreter batch = new BatchInterpreter(equation);
+
+		final int rowCount = 5000;
+		final String[] ids = new String[rowCount];
+		final Object[] xs = new Object[rowCount];
+		final Object[] ys = new Object[rowCount];
+		for (int row = 0; row < rowCount; ++row) {
+			ids[row] = "n" + row;
+			xs[row] = (double)(row % 97);
+			ys[row] = (double)(row % 13);
+		}
+		final Map<String, Object[]> columns = new HashMap<String, Object[]>();
+		columns.put("x", xs);
+		columns.put("y", ys);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		final String[] errorMessages = new String[rowCount];
+		final Object[] results;
+		try {
+			results = batch.run(ids, columns, errorMessages, executor);
+		} finally {
+			executor.shutdown();
+		}
+
+		final Map<String, IdentDescriptor> nameToDescriptorMap = new HashMap<String, IdentDescriptor>();
+		for (int row = 0; row < rowCount; ++row) {
+			nameToDescriptorMap.put("x", new IdentDescriptor(xs[row]));
+			nameToDescriptorMap.put("y", new IdentDescriptor(ys[row]));
+			final Interpreter interpreter = new Interpreter(equation, nameToDescriptorMap);
+			Object expected = null;
+			String expectedError = null;
+			try {
+				expected = interpreter.run();
+			} catch (final Exception e) {
+				expectedError = e.getMessage();
+			}
+			assertEquals(expected, results[row]);
+			assertEquals(expectedError, errorMessages[row]);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+  File: ClosureInterpreterTest.java
+
+  Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+  This library is free software; you can redistribute it and/or modify it
+  under the terms of the GNU Lesser General Public License as published
+  by the Free Software Foundation; either version 2.1 of the License, or
+  any later version.
+
+  This library is distributed in the hope that it will be useful, but
+  WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+  MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+  documentation provided hereunder is on an "as is" basis, and the
+  Institute for Systems Biology and the Whitehead Institute
+  have no obligations to provide maintenance, support,
+  updates, enhancements or modifications.  In no event shall the
+  Institute for Systems Biology and the Whitehead Institute
+  be liable to any party for direct, indirect, special,
+  incidental or consequential damages, including lost profits, arising
+  out of the use of this software and its documentation, even if the
+  Institute for Systems Biology and the Whitehead Institute
+  have been advised of the possibility of such damage.  See
+  the GNU Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General Public License
+  along with this library; if not, write to the Free Software Foundation,
+  Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package org.cytoscape.equations.interpreter;
+
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Stack;
+import junit.framework.*;
+import org.cytoscape.equations.CodeAndSourceLocation;
+import org.cytoscape.equations.EqnCompiler;
+import org.cytoscape.equations.Equation;
+import org.cytoscape.equations.Token;
+import org.cytoscape.equations.parse_tree.BinOpNode;
+import org.cytoscape.equations.parse_tree.FloatConstantNode;
+import org.cytoscape.equations.parse_tree.Node;
+import org.cytoscape.equations.parse_tree.UnaryOpNode;
+
+
+/**
+ *  Runs all of the InterpreterTest tests against closure-compiled equations and checks that
+ *  both backends agree on a number of builtins.
+ */
+public class ClosureInterpreterTest extends InterpreterTest {
+	private static final String[] EQUATIONS = {
+		"=ABS($x) + SQRT(ABS($y)) * LN(2)",
+		"=IF($x > $y, $x - $y, $y / $x)",
+		"=ROUND($x * 100, 1) - TRUNC($y)",
+		"=MAX($x, $y, 3.5) + MIN($x, $y) + AVERAGE($x, $y, $n)",
+		"=AND($b, $x < 2) = OR($b, NOT($b))",
+		"=UPPER($s) & LOWER(\"ABC\") & LEN($s) & LEFT($s, 2)",
+		"=CONCATENATE($s, \"-\", $x)",
+		"=$n * 2 + ${missing:7}",
+		"=$x ^ 2 - -$y >= $n",
+		"=\"abc\" < $s",
+		"=$b = TRUE",
+		"=SIN($x) + COS($y) + EXP(1) - LOG(100, 10) + PI()",
+		"=1 / ($x - $x)",
+		"=VALUE(\"12.5\") + $s",
+	};
+
+	protected void setUp() {
+		compiler.setGenerateClosures(true);
+	}
+
+	public void testClosureIsGenerated() throws Exception {
+		assertTrue(compiler.compile("=1 + 2", new HashMap<String, Class>()));
+		assertNotNull(compiler.getEquation().getClosure());
+
+		final EqnCompiler interpreterCompiler = new EqnCompiler();
+		interpreterCompiler.setGenerateClosures(false);
+		assertTrue(interpreterCompiler.compile("=1 + 2", new HashMap<String, Class>()));
+		assertNull(interpreterCompiler.getEquation().getClosure());
+	}
+
+	public void testNodeWithoutClosure() throws Exception {
+		// A node type that only implements genCode(), as parse tree nodes did before closures.
+		final Node node = new Node(0) {
+			public String toString() { return "Legacy"; }
+			public Class getType() { return Double.class; }
+			public Node getLeftChild() { return null; }
+			public Node getRightChild() { return null; }
+			public void genCode(final Stack<CodeAndSourceLocation> codeStack) { }
+		};
+
+		assertNull(node.genClosure());
+		assertNull(new UnaryOpNode(0, Token.MINUS, node).genClosure());
+		assertNull(new BinOpNode(0, Token.PLUS, new FloatConstantNode(0, 1.0), node).genClosure());
+		assertNotNull(new BinOpNode(0, Token.PLUS, new FloatConstantNode(0, 1.0),
+		                            new FloatConstantNode(0, 2.0)).genClosure());
+	}
+
+	public void testBackendsAgree() throws Exception {
+		final Map<String, Class> attribNameToTypeMap = new HashMap<String, Class>();
+		attribNameToTypeMap.put("x", Double.class);
+		attribNameToTypeMap.put("y", Double.class);
+		attribNameToTypeMap.put("n", Long.class);
+		attribNameToTypeMap.put("s", String.class);
+		attribNameToTypeMap.put("b", Boolean.class);
+		attribNameToTypeMap.put("missing", Double.class);
+
+		final Map<String, IdentDescriptor> nameToDescriptorMap = new HashMap<String, IdentDescriptor>();
+		nameToDescriptorMap.put("x", new IdentDescriptor(1.75));
+		nameToDescriptorMap.put("y", new IdentDescriptor(-4.5));
+		nameToDescriptorMap.put("n", new IdentDescriptor(new Long(3)));
+		nameToDescriptorMap.put("s", new IdentDescriptor("xyz"));
+		nameToDescriptorMap.put("b", new IdentDescriptor(true));
+
+		final EqnCompiler interpreterCompiler = new EqnCompiler();
+		interpreterCompiler.setGenerateClosures(false);
+
+		for (final String equation : EQUATIONS) {
+			assertTrue(equation + ": " + compiler.getLastErrorMsg(),
+			           compiler.compile(equation, attribNameToTypeMap));
+			final Equation compiled = compiler.getEquation();
+			assertTrue(equation, interpreterCompiler.compile(equation, attribNameToTypeMap));
+			final Equation interpreted = interpreterCompiler.getEquation();
+
+			Object expected, actual;
+			try {
+				expected = new Interpreter(interpreted, nameToDescriptorMap).run();
+			} catch (final RuntimeException e) {
+				expected = e.getClass();
+			}
+			try {
+				actual = new Interpreter(compiled, nameToDescriptorMap).run();
+			} catch (final RuntimeException e) {
+				actual = e.getClass();
+			}
+			assertEquals(equation, expected, actual);
+		}
+	}
+}
@@ -52,7 +52,7 @@ public class InterpreterTest extends TestCase {
 		public List<Class> getPossibleArgTypes(final Class[] leadingArgs) { return null; }
 	}
 
-	private final EqnCompiler compiler = new EqnCompiler();
+	protected final EqnCompiler compiler = new EqnCompiler();
 
 	public void testSimpleStringConcatExpr() throws Exception {
 		final Map<String, Class> attribNameToTypeMap = new HashMap<String, Class>();
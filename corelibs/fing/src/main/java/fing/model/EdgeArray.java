@@ -90,4 +90,20 @@ class EdgeArray {
 			m_edgeArr[index] = edge;
 		}
 	}
+
+	// Grows the underlying array so that it can hold at least minCapacity
+	// elements without further reallocation.  Never shrinks the array.
+	// Growth is at least geometric so that repeated calls with slowly
+	// increasing capacities don't cause quadratic copying.
+	void ensureCapacity(int minCapacity) {
+		if (minCapacity <= m_edgeArr.length)
+			return;
+
+		final int newArrSize = (int) Math.min((long) Integer.MAX_VALUE,
+		                                      Math.max((((long) m_edgeArr.length) * 2L) + 1L,
+		                                               (long) minCapacity));
+		Edge[] newArr = new Edge[newArrSize];
+		System.arraycopy(m_edgeArr, 0, newArr, 0, m_edgeArr.length);
+		m_edgeArr = newArr;
+	}
 }
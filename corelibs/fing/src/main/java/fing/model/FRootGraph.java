@@ -62,7 +62,7 @@ import java.util.NoSuchElementException;
 
 // Package visible class.  Use factory to get instance.
 // This implementation of giny.model is safe to use with a single thread only.
-class FRootGraph implements RootGraph, DynamicGraph {
+class FRootGraph implements RootGraph, DynamicGraph, FingBulkLoadRootGraph {
 	////////////////////////////////////
 	/**
 	 *  DOCUMENT ME!
@@ -305,7 +305,98 @@ class FRootGraph implements RootGraph, DynamicGraph {
 	 * @param edges DOCUMENT ME!
 	 */
 	public void ensureCapacity(int nodes, int edges) {
-		System.out.println("The secret easter egg module has been activated.");
+		if (nodes > 0)
+			m_nodes.ensureCapacity(nodes);
+
+		if (edges > 0)
+			m_edges.ensureCapacity(edges);
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param expectedNodes DOCUMENT ME!
+	 * @param expectedEdges DOCUMENT ME!
+	 */
+	public void beginBulkLoad(int expectedNodes, int expectedEdges) {
+		if (m_bulkLoad)
+			throw new IllegalStateException("bulk load already in progress");
+
+		m_bulkLoad = true;
+		m_bulkRemoval = false;
+		m_bulkNodes.empty();
+		m_bulkEdges.empty();
+
+		// Node and edge values of the underlying DynamicGraph are dense, so
+		// current count plus expected count is a good upper bound.
+		ensureCapacity((int) Math.min((long) Integer.MAX_VALUE - 1L,
+		                              (long) getNodeCount() + (long) Math.max(0, expectedNodes)),
+		               (int) Math.min((long) Integer.MAX_VALUE - 1L,
+		                              (long) getEdgeCount() + (long) Math.max(0, expectedEdges)));
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 */
+	public void commitBulkLoad() {
+		if (!m_bulkLoad)
+			throw new IllegalStateException("no bulk load in progress");
+
+		m_bulkLoad = false;
+
+		final int[] createdNodes = bulkCreated(m_bulkNodes, true);
+		final int[] createdEdges = bulkCreated(m_bulkEdges, false);
+		m_bulkNodes.empty();
+		m_bulkEdges.empty();
+
+		if (createdNodes.length > 0)
+			m_lis.rootGraphChanged(new RootGraphNodesCreatedEvent(this, createdNodes));
+
+		if (createdEdges.length > 0)
+			m_lis.rootGraphChanged(new RootGraphEdgesCreatedEvent(this, createdEdges));
+	}
+
+	// Filters out elements that were removed again during the bulk load, as
+	// well as duplicates that arise from index re-use.  Filtering is only
+	// necessary if something was removed during the bulk load.
+	private int[] bulkCreated(final IntStack created, final boolean nodes) {
+		if (!m_bulkRemoval) {
+			final IntEnumerator elements = created.elements();
+			final int[] returnThis = new int[elements.numRemaining()];
+
+			for (int i = 0; i < returnThis.length; i++)
+				returnThis[i] = elements.nextInt();
+
+			return returnThis;
+		}
+
+		m_hash.empty();
+
+		final IntEnumerator elements = created.elements();
+
+		while (elements.numRemaining() > 0) {
+			final int inx = elements.nextInt();
+
+			if (nodes ? m_graph.nodeExists(~inx) : (m_graph.edgeType(~inx) >= 0))
+				m_hash.put(~inx);
+		}
+
+		final IntEnumerator unique = m_hash.elements();
+		final int[] returnThis = new int[unique.numRemaining()];
+
+		for (int i = 0; i < returnThis.length; i++)
+			returnThis[i] = ~unique.nextInt();
+
+		return returnThis;
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public boolean isBulkLoading() {
+		return m_bulkLoad;
 	}
 
 	/**
@@ -470,6 +561,9 @@ class FRootGraph implements RootGraph, DynamicGraph {
 		if (!m_graph.nodeExists(nativeNodeInx))
 			return 0;
 
+		if (m_bulkLoad)
+			m_bulkRemoval = true;
+
 		// BEGIN: Remove node from meta structure.
 		final int metaElement = m_nativeToMetaNodeInxMap.get(nativeNodeInx);
 
@@ -622,6 +716,9 @@ class FRootGraph implements RootGraph, DynamicGraph {
 		Node newNode = m_nodeDepot.getNode(this, returnThis, null);
 		m_nodes.setNodeAtIndex(newNode, nativeNodeInx);
 
+		if (m_bulkLoad)
+			m_bulkNodes.push(returnThis);
+
 		return returnThis;
 	}
 
@@ -725,6 +822,7 @@ class FRootGraph implements RootGraph, DynamicGraph {
 	 */
 	public int[] createNodes(int numNewNodes) {
 		final int[] returnThis = new int[numNewNodes];
+		ensureCapacity(getNodeCount() + numNewNodes, 0);
 
 		for (int i = 0; i < returnThis.length; i++)
 			returnThis[i] = createNode();
@@ -760,6 +858,9 @@ class FRootGraph implements RootGraph, DynamicGraph {
 		if (m_graph.edgeType(nativeEdgeInx) < 0)
 			return 0;
 
+		if (m_bulkLoad)
+			m_bulkRemoval = true;
+
 		// BEGIN: Remove edge from meta structure.
 		final int metaEdge = m_nativeToMetaEdgeInxMap.get(nativeEdgeInx);
 
@@ -895,6 +996,9 @@ class FRootGraph implements RootGraph, DynamicGraph {
 		Edge newEdge = m_edgeDepot.getEdge(this, returnThis, null);
 		m_edges.setEdgeAtIndex(newEdge, nativeEdgeInx);
 
+		if (m_bulkLoad)
+			m_bulkEdges.push(returnThis);
+
 		return returnThis;
 	}
 
@@ -912,6 +1016,7 @@ class FRootGraph implements RootGraph, DynamicGraph {
 			throw new IllegalArgumentException("input arrays not same length");
 
 		final int[] returnThis = new int[sourceNodeIndices.length];
+		ensureCapacity(0, getEdgeCount() + returnThis.length);
 
 		for (int i = 0; i < returnThis.length; i++)
 			returnThis[i] = createEdge(sourceNodeIndices[i], targetNodeIndices[i], directed);
@@ -2373,7 +2478,7 @@ class FRootGraph implements RootGraph, DynamicGraph {
 	// The relationship between indices (both node and edge) in this
 	// RootGraph and in the DynamicGraph is "flip the bits":
 	// rootGraphIndex == ~(dynamicGraphIndex)
-	private final DynamicGraph m_graph = DynamicGraphFactory.instantiateDynamicGraph();
+	private final DynamicGraph m_graph;
 
 	// For the most part, there will always be a listener registered with this
 	// RootGraph (all GraphPerspectives will have registered listeners).  So,
@@ -2405,6 +2510,14 @@ class FRootGraph implements RootGraph, DynamicGraph {
 	// This is our index-to-edge mapping.
 	private final EdgeArray m_edges = new EdgeArray();
 
+	// While a bulk load is in progress, the RootGraph indices of all created
+	// nodes and edges are collected here so that they can be announced in
+	// one event each when the bulk load is committed.
+	private boolean m_bulkLoad = false;
+	private boolean m_bulkRemoval = false;
+	private final IntStack m_bulkNodes = new IntStack();
+	private final IntStack m_bulkEdges = new IntStack();
+
 	// This is our meta-relationships graph where nodes in the meta-graph
 	// are edges and nodes in the original graph, and directed edges in the
 	// meta-graph are parent->child relationships.  Note that only nodes
@@ -2431,6 +2544,16 @@ class FRootGraph implements RootGraph, DynamicGraph {
 
 	// Package visible constructor.
 	FRootGraph(FingNodeDepot nodeDepot, FingEdgeDepot edgeDepot) {
+		this(nodeDepot, edgeDepot, DynamicGraphFactory.instantiateDynamicGraph());
+	}
+
+	// Package visible constructor.  The graph must be empty.
+	FRootGraph(FingNodeDepot nodeDepot, FingEdgeDepot edgeDepot, DynamicGraph graph) {
+		if (graph == null)
+			throw new NullPointerException("graph is null");
+
+		m_graph = graph;
+
 		if (nodeDepot == null)
 			throw new NullPointerException("nodeDepot is null");
 
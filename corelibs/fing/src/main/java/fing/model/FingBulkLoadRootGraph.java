@@ -0,0 +1,80 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package fing.model;
+
+import giny.model.RootGraph;
+
+
+/**
+ * A RootGraph that can be populated with a large number of nodes and edges
+ * more efficiently than by creating them one at a time.  Every RootGraph
+ * returned by FingRootGraphFactory implements this interface.<p>
+ * A bulk load is started with beginBulkLoad() and finished with
+ * commitBulkLoad().  In between, nodes and edges are created through the
+ * ordinary RootGraph methods.  Internal index structures are sized once when
+ * the bulk load begins, and instead of being announced individually, all
+ * nodes and edges created during the bulk load are announced to root graph
+ * listeners in one nodes-created event and one edges-created event when the
+ * bulk load is committed.
+ * @see FingRootGraphFactory
+ */
+public interface FingBulkLoadRootGraph extends RootGraph {
+	/**
+	 * Starts a bulk load.
+	 *
+	 * @param expectedNodes the number of nodes that are expected to be
+	 *   created during this bulk load; this is a hint only.
+	 * @param expectedEdges the number of edges that are expected to be
+	 *   created during this bulk load; this is a hint only.
+	 * @exception IllegalStateException if a bulk load is already in
+	 *   progress.
+	 */
+	public void beginBulkLoad(int expectedNodes, int expectedEdges);
+
+	/**
+	 * Finishes the bulk load in progress and fires the coalesced created
+	 * events for all nodes and edges that were created since beginBulkLoad()
+	 * and that still exist.
+	 *
+	 * @exception IllegalStateException if no bulk load is in progress.
+	 */
+	public void commitBulkLoad();
+
+	/**
+	 * Returns true if and only if a bulk load is in progress.
+	 */
+	public boolean isBulkLoading();
+}
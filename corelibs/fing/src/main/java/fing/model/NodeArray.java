@@ -90,4 +90,20 @@ class NodeArray {
 			m_nodeArr[index] = node;
 		}
 	}
+
+	// Grows the underlying array so that it can hold at least minCapacity
+	// elements without further reallocation.  Never shrinks the array.
+	// Growth is at least geometric so that repeated calls with slowly
+	// increasing capacities don't cause quadratic copying.
+	void ensureCapacity(int minCapacity) {
+		if (minCapacity <= m_nodeArr.length)
+			return;
+
+		final int newArrSize = (int) Math.min((long) Integer.MAX_VALUE,
+		                                      Math.max((((long) m_nodeArr.length) * 2L) + 1L,
+		                                               (long) minCapacity));
+		Node[] newArr = new Node[newArrSize];
+		System.arraycopy(m_nodeArr, 0, newArr, 0, m_nodeArr.length);
+		m_nodeArr = newArr;
+	}
 }
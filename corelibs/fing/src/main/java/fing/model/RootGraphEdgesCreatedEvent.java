@@ -40,14 +40,13 @@ import giny.model.Edge;
 import giny.model.RootGraph;
 
 
-// This class is not currently being used.  Thus its constructor is private.
 final class RootGraphEdgesCreatedEvent extends RootGraphChangeEventAdapter {
 	private final int[] m_createdEdgeInx;
 
 	// Note that no copy of the array createdEdgeInx is made - the exact
 	// array reference is kept.  Methods on this class return this same
 	// array reference.
-	private RootGraphEdgesCreatedEvent(RootGraph rootGraph, int[] createdEdgeInx) {
+	RootGraphEdgesCreatedEvent(RootGraph rootGraph, int[] createdEdgeInx) {
 		super(rootGraph);
 		m_createdEdgeInx = createdEdgeInx;
 	}
@@ -40,14 +40,13 @@ import giny.model.Node;
 import giny.model.RootGraph;
 
 
-// This class is currently not being used.  Thus its constructor is private.
 final class RootGraphNodesCreatedEvent extends RootGraphChangeEventAdapter {
 	private final int[] m_createdNodeInx;
 
 	// Note that no copy of the array createdNodeInx is made - the exact
 	// array reference is kept.  Methods on this class return this same
 	// array reference.
-	private RootGraphNodesCreatedEvent(RootGraph rootGraph, int[] createdNodeInx) {
+	RootGraphNodesCreatedEvent(RootGraph rootGraph, int[] createdNodeInx) {
 		super(rootGraph);
 		m_createdNodeInx = createdNodeInx;
 	}
@@ -54,7 +54,11 @@ public class ARowanBugTest {
 	 * @param args DOCUMENT ME!
 	 */
 	public static void main(String[] args) {
-		final RootGraph root = FingRootGraphFactory.instantiateRootGraph();
+		runTest(FingRootGraphFactory.instantiateRootGraph());
+		runTest(FingRootGraphFactory.instantiateArrayRootGraph());
+	}
+
+	private static void runTest(final RootGraph root) {
 		final int n1 = root.createNode();
 		final int n2 = root.createNode();
 		final int e1 = root.createEdge(n1, n1, /* directed */
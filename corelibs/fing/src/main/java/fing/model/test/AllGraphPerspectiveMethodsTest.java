@@ -62,7 +62,11 @@ public final class AllGraphPerspectiveMethodsTest {
 	 * @param args DOCUMENT ME!
 	 */
 	public static final void main(String[] args) {
-		final RootGraph root = FingRootGraphFactory.instantiateRootGraph();
+		runTest(FingRootGraphFactory.instantiateRootGraph());
+		runTest(FingRootGraphFactory.instantiateArrayRootGraph());
+	}
+
+	private static void runTest(final RootGraph root) {
 		final GraphPerspective persp = root.createGraphPerspective((int[]) null, (int[]) null);
 		int[] nodeInx = new int[5];
 
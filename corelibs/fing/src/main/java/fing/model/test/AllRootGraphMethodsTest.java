@@ -60,8 +60,8 @@ public final class AllRootGraphMethodsTest {
 	 * @param args DOCUMENT ME!
 	 */
 	public static final void main(String[] args) {
-		final RootGraph root = FingRootGraphFactory.instantiateRootGraph();
-		runTest(root);
+		runTest(FingRootGraphFactory.instantiateRootGraph());
+		runTest(FingRootGraphFactory.instantiateArrayRootGraph());
 	}
 
 	// Package visible so other classes can call this.
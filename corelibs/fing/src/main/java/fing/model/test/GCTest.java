@@ -52,7 +52,11 @@ public class GCTest {
 	 * @param args DOCUMENT ME!
 	 */
 	public static void main(String[] args) {
-		final RootGraph root = FingRootGraphFactory.instantiateRootGraph();
+		runTest(FingRootGraphFactory.instantiateRootGraph());
+		runTest(FingRootGraphFactory.instantiateArrayRootGraph());
+	}
+
+	private static void runTest(final RootGraph root) {
 		final int[] nodeInx = root.createNodes(10000);
 		final int[] edgeInx = new int[100000];
 
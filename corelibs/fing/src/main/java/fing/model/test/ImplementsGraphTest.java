@@ -56,7 +56,11 @@ public class ImplementsGraphTest {
 	 * @param args DOCUMENT ME!
 	 */
 	public static void main(String[] args) {
-		final RootGraph root = FingRootGraphFactory.instantiateRootGraph();
+		runTest(FingRootGraphFactory.instantiateRootGraph());
+		runTest(FingRootGraphFactory.instantiateArrayRootGraph());
+	}
+
+	private static void runTest(final RootGraph root) {
 		final DynamicGraph dGraph = (DynamicGraph) root;
 		dGraph.nodes();
 
@@ -55,7 +55,11 @@ public final class RepeatedAllRootGraphMethodsTest {
 	 * @param args DOCUMENT ME!
 	 */
 	public static final void main(String[] args) {
-		final RootGraph root = FingRootGraphFactory.instantiateRootGraph();
+		runTest(FingRootGraphFactory.instantiateRootGraph());
+		runTest(FingRootGraphFactory.instantiateArrayRootGraph());
+	}
+
+	private static void runTest(final RootGraph root) {
 		final int numIterations = 100000;
 
 		for (int i = 0; i < numIterations; i++) {
@@ -125,6 +125,8 @@ public final class RootGraphAddRemoveTest {
 	    throws ClassNotFoundException, InstantiationException, IllegalAccessException {
 		if ((mainArgs.length > 0) && mainArgs[0].equalsIgnoreCase("luna"))
 			return (RootGraph) Class.forName("luna.LunaRootGraph").newInstance();
+		else if ((mainArgs.length > 0) && mainArgs[0].equalsIgnoreCase("array"))
+			return FingRootGraphFactory.instantiateArrayRootGraph();
 		else
 
 			return FingRootGraphFactory.instantiateRootGraph();
@@ -36,6 +36,7 @@
 
 package fing.model.test;
 
+import fing.model.FingBulkLoadRootGraph;
 import fing.model.FingRootGraphFactory;
 
 import giny.model.RootGraph;
@@ -112,12 +113,40 @@ public final class RootGraphPerformanceTest {
 
 		long millisEnd5 = System.currentTimeMillis();
 		System.out.println("add/remove test took " + (millisEnd5 - millisBegin5) + " milliseconds");
+
+		if (root instanceof FingBulkLoadRootGraph) {
+			// Alternate between the two modes and collect garbage before each
+			// run so that neither one pays for the graphs left by the other.
+			for (int i = 0; i < 3; i++) {
+				System.gc();
+
+				long millisBegin6 = System.currentTimeMillis();
+				testLoad(getRootGraph(args), nodes.length, sourceInxCreatedEdges,
+				         targetInxCreatedEdges, directednessCreatedEdges, false);
+
+				long millisEnd6 = System.currentTimeMillis();
+				System.out.println("incremental load test took " + (millisEnd6 - millisBegin6)
+				                   + " milliseconds");
+
+				System.gc();
+
+				long millisBegin7 = System.currentTimeMillis();
+				testLoad(getRootGraph(args), nodes.length, sourceInxCreatedEdges,
+				         targetInxCreatedEdges, directednessCreatedEdges, true);
+
+				long millisEnd7 = System.currentTimeMillis();
+				System.out.println("bulk load test took " + (millisEnd7 - millisBegin7)
+				                   + " milliseconds");
+			}
+		}
 	}
 
 	private static final RootGraph getRootGraph(String[] mainArgs)
 	    throws ClassNotFoundException, InstantiationException, IllegalAccessException {
 		if ((mainArgs.length > 3) && mainArgs[3].equalsIgnoreCase("luna"))
 			return (RootGraph) Class.forName("luna.LunaRootGraph").newInstance();
+		else if ((mainArgs.length > 3) && mainArgs[3].equalsIgnoreCase("array"))
+			return FingRootGraphFactory.instantiateArrayRootGraph();
 		else
 
 			return FingRootGraphFactory.instantiateRootGraph();
@@ -313,4 +342,39 @@ public final class RootGraphPerformanceTest {
 				throw new IllegalStateException("node/edge count not what expected");
 		}
 	}
+
+	/**
+	 *  Populates an empty RootGraph with the given nodes and edges, either
+	 *  one element at a time or in a bulk load.
+	 *
+	 * @param root DOCUMENT ME!
+	 * @param numNodes DOCUMENT ME!
+	 * @param edgeSources DOCUMENT ME!
+	 * @param edgeTargets DOCUMENT ME!
+	 * @param edgeDirectedness DOCUMENT ME!
+	 * @param bulk DOCUMENT ME!
+	 */
+	public static final void testLoad(RootGraph root, int numNodes, int[] edgeSources,
+	                                  int[] edgeTargets, boolean[] edgeDirectedness, boolean bulk) {
+		final int[] nodes;
+
+		if (bulk) {
+			((FingBulkLoadRootGraph) root).beginBulkLoad(numNodes, edgeSources.length);
+			nodes = root.createNodes(numNodes);
+		} else {
+			nodes = new int[numNodes];
+
+			for (int i = 0; i < numNodes; i++)
+				nodes[i] = root.createNode();
+		}
+
+		for (int i = 0; i < edgeSources.length; i++)
+			root.createEdge(nodes[edgeSources[i]], nodes[edgeTargets[i]], edgeDirectedness[i]);
+
+		if (bulk)
+			((FingBulkLoadRootGraph) root).commitBulkLoad();
+
+		if ((root.getNodeCount() != numNodes) || (root.getEdgeCount() != edgeSources.length))
+			throw new IllegalStateException("node/edge count not what expected");
+	}
 }
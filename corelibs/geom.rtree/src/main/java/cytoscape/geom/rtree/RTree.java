@@ -43,6 +43,7 @@ import cytoscape.util.intr.IntEnumerator;
 import cytoscape.util.intr.IntObjHash;
 import cytoscape.util.intr.IntStack;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 
@@ -58,6 +59,14 @@ public final class RTree implements MutableSpacialIndex2D, java.io.Serializable
 	 * @deprecated Use the no-arg constructor.
 	 */
 	public final static int DEFAULT_MAX_BRANCHES = 11;
+
+	// A batch move rebuilds the tree once it moves at least one entry in
+	// this many.
+	private final static int REBUILD_FRACTION = 8;
+
+	// Bulk-loaded leaf nodes are left with room for this many more entries,
+	// so that the insertions that follow do not split them right away.
+	private final static int BULK_LOAD_SLACK = 2;
 	private final float[] m_MBR; // { xMin, yMin, xMax, yMax }.
 	private final int m_maxBranches;
 	private final int m_minBranches;
@@ -123,6 +132,49 @@ public final class RTree implements MutableSpacialIndex2D, java.io.Serializable
 		m_nodeStack = new ObjStack();
 	}
 
+	/**
+	 * Instantiates a new R-tree that contains the specified entries.  The
+	 * tree is bulk-loaded with the Sort-Tile-Recursive algorithm, which is
+	 * much faster than inserting the entries one at a time and which packs
+	 * the entries into fewer nodes that overlap less, so that queries on the
+	 * resulting tree are faster too.
+	 * @param objKeys the user-defined unique identifiers of the entries;
+	 *   these identifiers must be non-negative.
+	 * @param extentsArr the extents of the entries; the extents of the entry
+	 *   objKeys[i] are xMin, yMin, xMax, and yMax at indices 4 * i through
+	 *   4 * i + 3.
+	 * @exception IllegalStateException if an objKey occurs more than once.
+	 * @exception IllegalArgumentException if an objKey is negative,
+	 *   if an xMin is not less than or equal to its xMax, or
+	 *   if a yMin is not less than or equal to its yMax.
+	 */
+	public RTree(final int[] objKeys, final float[] extentsArr) {
+		this();
+
+		final int count = objKeys.length;
+		final float[] xMins = new float[count];
+		final float[] yMins = new float[count];
+		final float[] xMaxs = new float[count];
+		final float[] yMaxs = new float[count];
+
+		for (int i = 0; i < count; i++) {
+			if (objKeys[i] < 0)
+				throw new IllegalArgumentException("objKey is negative");
+
+			checkExtents(extentsArr, i * 4);
+
+			if (m_entryMap.put(objKeys[i], m_deletedEntry) != null)
+				throw new IllegalStateException("objkey " + objKeys[i] + " is used more than once");
+
+			xMins[i] = extentsArr[i * 4];
+			yMins[i] = extentsArr[(i * 4) + 1];
+			xMaxs[i] = extentsArr[(i * 4) + 2];
+			yMaxs[i] = extentsArr[(i * 4) + 3];
+		}
+
+		load(objKeys, xMins, yMins, xMaxs, yMaxs, count);
+	}
+
 	/**
 	 * Empties this R-tree of all entries.  This method returns in constant
 	 * time (note however that garbage collection will take place in the
@@ -1379,6 +1431,298 @@ public final class RTree implements MutableSpacialIndex2D, java.io.Serializable
 		return true;
 	}
 
+	/**
+	 * Changes the extents of several existing entries at once.  This has the
+	 * same effect as deleting each entry and inserting it again with its new
+	 * extents.  When many of the entries in this tree are moved, the whole
+	 * tree is bulk-loaded again instead, which is faster and leaves a better
+	 * packed tree.
+	 * @param objKeys the identifiers of the entries to move; identifiers that
+	 *   do not exist in this R-tree are ignored.
+	 * @param extentsArr the new extents of the entries; the new extents of the
+	 *   entry objKeys[i] are xMin, yMin, xMax, and yMax at indices 4 * i
+	 *   through 4 * i + 3.
+	 * @return the number of entries that were moved.
+	 * @exception IllegalArgumentException if an xMin is not less than or
+	 *   equal to its xMax, or if a yMin is not less than or equal to its
+	 *   yMax; in this case no entry is moved.
+	 */
+	public final int move(final int[] objKeys, final float[] extentsArr) {
+		for (int i = 0; i < objKeys.length; i++)
+			checkExtents(extentsArr, i * 4);
+
+		int moved = 0;
+
+		if ((objKeys.length * REBUILD_FRACTION) < size()) {
+			for (int i = 0; i < objKeys.length; i++) {
+				if (delete(objKeys[i])) {
+					insert(objKeys[i], extentsArr[i * 4], extentsArr[(i * 4) + 1],
+					       extentsArr[(i * 4) + 2], extentsArr[(i * 4) + 3]);
+					moved++;
+				}
+			}
+
+			return moved;
+		}
+
+		// Write the new extents into the leaf nodes, which leaves the MBRs of
+		// the internal nodes wrong until the tree is loaded again.
+		for (int i = 0; i < objKeys.length; i++) {
+			if (objKeys[i] < 0)
+				continue;
+
+			final Object o = m_entryMap.get(objKeys[i]);
+
+			if ((o == null) || (o == m_deletedEntry))
+				continue;
+
+			final Node n = (Node) o;
+			int j = -1;
+
+			while (n.objKeys[++j] != objKeys[i])
+				;
+
+			n.xMins[j] = extentsArr[i * 4];
+			n.yMins[j] = extentsArr[(i * 4) + 1];
+			n.xMaxs[j] = extentsArr[(i * 4) + 2];
+			n.yMaxs[j] = extentsArr[(i * 4) + 3];
+			moved++;
+		}
+
+		if (moved == 0)
+			return 0;
+
+		final int count = size();
+		final int[] keys = new int[count];
+		final float[] xMins = new float[count];
+		final float[] yMins = new float[count];
+		final float[] xMaxs = new float[count];
+		final float[] yMaxs = new float[count];
+		final ObjStack nodes = new ObjStack();
+		int inx = 0;
+		nodes.push(m_root);
+
+		while (nodes.size() > 0) {
+			final Node n = (Node) nodes.pop();
+
+			for (int i = 0; i < n.entryCount; i++) {
+				if (isLeafNode(n)) {
+					keys[inx] = n.objKeys[i];
+					xMins[inx] = n.xMins[i];
+					yMins[inx] = n.yMins[i];
+					xMaxs[inx] = n.xMaxs[i];
+					yMaxs[inx++] = n.yMaxs[i];
+				} else {
+					nodes.push(n.data.children[i]);
+				}
+			}
+		}
+
+		m_entryMap = new IntObjHash();
+		load(keys, xMins, yMins, xMaxs, yMaxs, count);
+
+		return moved;
+	}
+
+	/*
+	 * Throws IllegalArgumentException unless the extents at offset in
+	 * extentsArr are valid extents of an entry.
+	 */
+	private final static void checkExtents(final float[] extentsArr, final int offset) {
+		if (!(extentsArr[offset] <= extentsArr[offset + 2]))
+			throw new IllegalArgumentException("xMin <= xMax not true");
+
+		if (!(extentsArr[offset + 1] <= extentsArr[offset + 3]))
+			throw new IllegalArgumentException("yMin <= yMax not true");
+	}
+
+	/*
+	 * Builds this tree from scratch out of the specified entries, using the
+	 * Sort-Tile-Recursive algorithm: the entries are packed into leaf nodes,
+	 * the leaf nodes are packed into full parents the same way, and so on
+	 * until a single root is left.  The entries must be valid and their keys unique;
+	 * m_entryMap must contain no other keys.
+	 */
+	private final void load(final int[] objKeys, final float[] xMins, final float[] yMins,
+	                        final float[] xMaxs, final float[] yMaxs, final int count) {
+		m_deletedEntries = 0;
+
+		if (count == 0) {
+			m_root = new Node(m_maxBranches, true);
+			m_MBR[0] = Float.POSITIVE_INFINITY;
+			m_MBR[1] = Float.POSITIVE_INFINITY;
+			m_MBR[2] = Float.NEGATIVE_INFINITY;
+			m_MBR[3] = Float.NEGATIVE_INFINITY;
+			m_mapExpansionThreshold = IntObjHash.maxCapacity(m_entryMap.size());
+
+			return;
+		}
+
+		int[] order = new int[count];
+		int[] nodeStarts = packSTR(xMins, yMins, xMaxs, yMaxs, count,
+		                           Math.max(m_minBranches, m_maxBranches - BULK_LOAD_SLACK), order);
+		int levelCount = nodeStarts.length - 1;
+		Node[] level = new Node[levelCount];
+		float[] levelXMins = new float[levelCount];
+		float[] levelYMins = new float[levelCount];
+		float[] levelXMaxs = new float[levelCount];
+		float[] levelYMaxs = new float[levelCount];
+
+		for (int k = 0; k < levelCount; k++) {
+			final Node leaf = new Node(m_maxBranches, true);
+
+			for (int j = nodeStarts[k]; j < nodeStarts[k + 1]; j++) {
+				final int i = order[j];
+				final int newInx = leaf.entryCount++;
+				leaf.objKeys[newInx] = objKeys[i];
+				leaf.xMins[newInx] = xMins[i];
+				leaf.yMins[newInx] = yMins[i];
+				leaf.xMaxs[newInx] = xMaxs[i];
+				leaf.yMaxs[newInx] = yMaxs[i];
+				m_entryMap.put(objKeys[i], leaf);
+			}
+
+			level[k] = leaf;
+			computeMBR(leaf, levelXMins, levelYMins, levelXMaxs, levelYMaxs, k);
+		}
+
+		while (levelCount > 1) {
+			order = new int[levelCount];
+			nodeStarts = packSTR(levelXMins, levelYMins, levelXMaxs, levelYMaxs, levelCount,
+			                     m_maxBranches, order);
+
+			final int parentCount = nodeStarts.length - 1;
+			final Node[] parents = new Node[parentCount];
+			final float[] parentXMins = new float[parentCount];
+			final float[] parentYMins = new float[parentCount];
+			final float[] parentXMaxs = new float[parentCount];
+			final float[] parentYMaxs = new float[parentCount];
+
+			for (int k = 0; k < parentCount; k++) {
+				final Node parent = new Node(m_maxBranches, false);
+
+				for (int j = nodeStarts[k]; j < nodeStarts[k + 1]; j++) {
+					final int i = order[j];
+					final Node child = level[i];
+					final int newInx = parent.entryCount++;
+					child.parent = parent;
+					parent.data.children[newInx] = child;
+					parent.xMins[newInx] = levelXMins[i];
+					parent.yMins[newInx] = levelYMins[i];
+					parent.xMaxs[newInx] = levelXMaxs[i];
+					parent.yMaxs[newInx] = levelYMaxs[i];
+					parent.data.deepCount += (isLeafNode(child) ? child.entryCount
+					                                            : child.data.deepCount);
+				}
+
+				parents[k] = parent;
+				computeMBR(parent, parentXMins, parentYMins, parentXMaxs, parentYMaxs, k);
+			}
+
+			level = parents;
+			levelXMins = parentXMins;
+			levelYMins = parentYMins;
+			levelXMaxs = parentXMaxs;
+			levelYMaxs = parentYMaxs;
+			levelCount = parentCount;
+		}
+
+		m_root = level[0];
+		m_MBR[0] = levelXMins[0];
+		m_MBR[1] = levelYMins[0];
+		m_MBR[2] = levelXMaxs[0];
+		m_MBR[3] = levelYMaxs[0];
+		m_mapExpansionThreshold = IntObjHash.maxCapacity(m_entryMap.size());
+	}
+
+	/*
+	 * Writes the overall MBR of n's entries into the arrays at index inx.
+	 */
+	private final static void computeMBR(final Node n, final float[] xMins, final float[] yMins,
+	                                     final float[] xMaxs, final float[] yMaxs,
+	                                     final int inx) {
+		xMins[inx] = n.xMins[0];
+		yMins[inx] = n.yMins[0];
+		xMaxs[inx] = n.xMaxs[0];
+		yMaxs[inx] = n.yMaxs[0];
+
+		for (int i = 1; i < n.entryCount; i++) {
+			xMins[inx] = Math.min(xMins[inx], n.xMins[i]);
+			yMins[inx] = Math.min(yMins[inx], n.yMins[i]);
+			xMaxs[inx] = Math.max(xMaxs[inx], n.xMaxs[i]);
+			yMaxs[inx] = Math.max(yMaxs[inx], n.yMaxs[i]);
+		}
+	}
+
+	/*
+	 * Groups count rectangles into nodes of at most capacity rectangles
+	 * each.  The rectangles are sorted by the X coordinates of their centers
+	 * and cut into about sqrt(count / capacity) vertical slices, and each
+	 * slice is sorted by the Y coordinates of the centers and cut into nodes.
+	 * Slices, and nodes within a slice, are made as equal in size as
+	 * possible, so that no node is much emptier than the others.  order is
+	 * populated with the indices of the rectangles in the order in which they
+	 * are to be placed into nodes.  The returned array holds, for every node,
+	 * the index in order of its first rectangle, followed by count.
+	 */
+	private final static int[] packSTR(final float[] xMins, final float[] yMins,
+	                                   final float[] xMaxs, final float[] yMaxs,
+	                                   final int count, final int capacity,
+	                                   final int[] order) {
+		final int nodeCount = (int) ((((long) count) + capacity - 1) / capacity);
+		final int sliceCount = (int) Math.ceil(Math.sqrt((double) nodeCount));
+		final long[] sortKeys = new long[count];
+
+		// Sorting the index along with the coordinate in one long avoids
+		// sorting objects.
+		for (int i = 0; i < count; i++)
+			sortKeys[i] = (((long) sortableBits((xMins[i] + xMaxs[i]) / 2.0f)) << 32) | i;
+
+		Arrays.sort(sortKeys);
+
+		final int[] nodeStarts = new int[nodeCount + sliceCount + 1];
+		int nodeInx = 0;
+
+		for (int slice = 0; slice < sliceCount; slice++) {
+			final int sliceBegin = (int) ((((long) count) * slice) / sliceCount);
+			final int sliceEnd = (int) ((((long) count) * (slice + 1)) / sliceCount);
+			final int sliceSize = sliceEnd - sliceBegin;
+
+			for (int j = sliceBegin; j < sliceEnd; j++) {
+				final int i = (int) sortKeys[j];
+				sortKeys[j] = (((long) sortableBits((yMins[i] + yMaxs[i]) / 2.0f)) << 32) | i;
+			}
+
+			Arrays.sort(sortKeys, sliceBegin, sliceEnd);
+
+			for (int j = sliceBegin; j < sliceEnd; j++)
+				order[j] = (int) sortKeys[j];
+
+			final int sliceNodes = (sliceSize + capacity - 1) / capacity;
+
+			for (int k = 0; k < sliceNodes; k++)
+				nodeStarts[nodeInx++] = sliceBegin
+				                        + (int) ((((long) sliceSize) * k) / sliceNodes);
+		}
+
+		nodeStarts[nodeInx++] = count;
+
+		final int[] returnThis = new int[nodeInx];
+		System.arraycopy(nodeStarts, 0, returnThis, 0, nodeInx);
+
+		return returnThis;
+	}
+
+	/*
+	 * Returns an int whose signed order is the same as the order of the
+	 * specified float value.
+	 */
+	private final static int sortableBits(final float value) {
+		final int bits = Float.floatToIntBits(value);
+
+		return (bits < 0) ? (bits ^ 0x7fffffff) : bits;
+	}
+
 	/*
 	 * This does not re-insert orphaned nodes and entries - instead, the
 	 * stack eliminatedNodes is populated so that the caller of this function
@@ -1111,5 +1111,116 @@ public class BasicQuietRTreeTest {
 			if (iter.numRemaining() != 0)
 				throw new IllegalStateException("more elements remain in iteration");
 		} // END REVERSE QUERY TEST.
+
+		{ // BEGIN BULK LOAD TEST: Compare bulk-loaded trees with built ones.
+
+			final java.util.Random random = new java.util.Random(7);
+			final int[] objKeys = new int[5000];
+			final float[] extents = new float[objKeys.length * 4];
+
+			for (int i = 0; i < objKeys.length; i++) {
+				objKeys[i] = i * 3;
+				extents[i * 4] = random.nextFloat() * 100.0f;
+				extents[(i * 4) + 1] = random.nextFloat() * 100.0f;
+				extents[(i * 4) + 2] = extents[i * 4] + random.nextFloat();
+				extents[(i * 4) + 3] = extents[(i * 4) + 1] + random.nextFloat();
+			}
+
+			final RTree bulkTree = new RTree(objKeys, extents);
+			tree = new RTree();
+
+			for (int i = 0; i < objKeys.length; i++)
+				tree.insert(objKeys[i], extents[i * 4], extents[(i * 4) + 1],
+				            extents[(i * 4) + 2], extents[(i * 4) + 3]);
+
+			assertSameTrees(tree, bulkTree, objKeys);
+
+			if (new RTree(new int[0], new float[0]).size() != 0)
+				throw new IllegalStateException("expected empty bulk-loaded tree");
+
+			try {
+				new RTree(new int[] { 1, 1 }, new float[8]);
+				throw new IllegalStateException("expected duplicate keys to be rejected");
+			} catch (IllegalStateException e) {
+				if (!e.getMessage().startsWith("objkey"))
+					throw e;
+			}
+
+			// A few entries are moved one at a time, many by loading again.
+			for (int moveCount = 10; moveCount <= objKeys.length; moveCount *= 10) {
+				final int[] moveKeys = new int[moveCount + 1];
+				final float[] moveExtents = new float[moveKeys.length * 4];
+
+				for (int i = 0; i < moveCount; i++) {
+					moveKeys[i] = objKeys[random.nextInt(objKeys.length)];
+					moveExtents[i * 4] = random.nextFloat() * 100.0f;
+					moveExtents[(i * 4) + 1] = random.nextFloat() * 100.0f;
+					moveExtents[(i * 4) + 2] = moveExtents[i * 4] + random.nextFloat();
+					moveExtents[(i * 4) + 3] = moveExtents[(i * 4) + 1] + random.nextFloat();
+				}
+
+				moveKeys[moveCount] = 1; // Does not exist.
+
+				int moved = 0;
+
+				for (int i = 0; i < moveKeys.length; i++) {
+					if (tree.delete(moveKeys[i])) {
+						tree.insert(moveKeys[i], moveExtents[i * 4], moveExtents[(i * 4) + 1],
+						            moveExtents[(i * 4) + 2], moveExtents[(i * 4) + 3]);
+						moved++;
+					}
+				}
+
+				if (bulkTree.move(moveKeys, moveExtents) != moved)
+					throw new IllegalStateException("wrong number of entries moved");
+
+				assertSameTrees(tree, bulkTree, objKeys);
+			}
+		} // END BULK LOAD TEST.
+	}
+
+	private static void assertSameTrees(final RTree expected, final RTree actual,
+	                                    final int[] objKeys) {
+		if (expected.size() != actual.size())
+			throw new IllegalStateException("trees differ in size");
+
+		final float[] expectedExtents = new float[4];
+		final float[] actualExtents = new float[4];
+
+		for (int i = 0; i < objKeys.length; i++) {
+			if (!expected.exists(objKeys[i], expectedExtents, 0)
+			    || !actual.exists(objKeys[i], actualExtents, 0))
+				throw new IllegalStateException("expected objKey " + objKeys[i] + " to exist");
+
+			for (int j = 0; j < 4; j++)
+				if (expectedExtents[j] != actualExtents[j])
+					throw new IllegalStateException("extents of objKey " + objKeys[i] + " differ");
+		}
+
+		for (int x = 0; x < 100; x += 7) {
+			for (int y = 0; y < 100; y += 7) {
+				final IntEnumerator expectedIter = expected.queryOverlap(x, y, x + 10.0f,
+				                                                         y + 10.0f,
+				                                                         expectedExtents, 0,
+				                                                         false);
+				final IntEnumerator actualIter = actual.queryOverlap(x, y, x + 10.0f, y + 10.0f,
+				                                                     actualExtents, 0, false);
+				final IntBTree found = new IntBTree();
+
+				if (expectedIter.numRemaining() != actualIter.numRemaining())
+					throw new IllegalStateException("queries differ in size");
+
+				while (expectedIter.numRemaining() > 0)
+					found.insert(expectedIter.nextInt());
+
+				while (actualIter.numRemaining() > 0)
+					if (!found.delete(actualIter.nextInt()))
+						throw new IllegalStateException("queries differ");
+
+				for (int j = 0; j < 4; j++)
+					if (expectedExtents[j] != actualExtents[j])
+						throw new IllegalStateException("query extents differ");
+			}
+		}
 	}
 }
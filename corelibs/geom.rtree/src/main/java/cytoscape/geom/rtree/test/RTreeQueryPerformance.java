@@ -57,7 +57,10 @@ public class RTreeQueryPerformance {
 	 * by the input stream, which in most cases will be a randomly generated
 	 * stream of bytes.  Please see the actual code for an explanation of
 	 * how the input stream of bytes is converted into the rectangle
-	 * information.
+	 * information.<p>
+	 * If a third argument "bulk" is given, the tree is bulk-loaded from all
+	 * rectangles at once instead of being built by inserting them one at a
+	 * time; the query results are the same either way.
 	 */
 	public static void main(String[] args) throws Exception {
 		final RTree tree;
@@ -65,7 +68,9 @@ public class RTreeQueryPerformance {
 		{
 			int branches = Integer.parseInt(args[0]);
 			int N = Integer.parseInt(args[1]);
-			tree = new RTree(branches);
+			boolean bulk = (args.length > 2) && "bulk".equals(args[2]);
+			int[] objKeys = new int[N];
+			float[] data = new float[N * 4];
 
 			double sqrtN = Math.sqrt((double) N);
 			InputStream in = System.in;
@@ -93,14 +98,37 @@ public class RTreeQueryPerformance {
 				nonnegative = 0x7fffffff & assembleInt(buff, 12);
 
 				double height = (((double) nonnegative) / ((double) 0x7fffffff)) / sqrtN;
-				tree.insert(inx, (float) (centerX - (width / 2.0d)),
-				            (float) (centerY - (height / 2.0d)),
-				            (float) (centerX + (width / 2.0d)), (float) (centerY + (height / 2.0d)));
+				objKeys[inx] = inx;
+				data[inx * 4] = (float) (centerX - (width / 2.0d));
+				data[(inx * 4) + 1] = (float) (centerY - (height / 2.0d));
+				data[(inx * 4) + 2] = (float) (centerX + (width / 2.0d));
+				data[(inx * 4) + 3] = (float) (centerY + (height / 2.0d));
 				inx++;
 			}
 
 			if (inx < N)
 				throw new IOException("premature end of input");
+
+			final long millisBegin = System.currentTimeMillis();
+
+			if (bulk) {
+				if (branches != RTree.DEFAULT_MAX_BRANCHES)
+					throw new IllegalArgumentException("bulk loading uses "
+					                                   + RTree.DEFAULT_MAX_BRANCHES
+					                                   + " branches");
+
+				tree = new RTree(objKeys, data);
+			} else {
+				tree = new RTree(branches);
+
+				for (inx = 0; inx < N; inx++)
+					tree.insert(inx, data[inx * 4], data[(inx * 4) + 1], data[(inx * 4) + 2],
+					            data[(inx * 4) + 3]);
+			}
+
+			final long millisEnd = System.currentTimeMillis();
+			System.err.println((bulk ? "bulk load took " : "insertions took ")
+			                   + (millisEnd - millisBegin) + " milliseconds");
 		}
 
 		final MinIntHeap[] pointQueries;
@@ -54,15 +54,20 @@ public class RTreeUpdatePerformance {
 	 * by the input stream, which in most cases will be a randomly generated
 	 * stream of bytes.  Please see the actual code for an explanation of
 	 * how the input stream of bytes is converted into the rectangle
-	 * information.
+	 * information.<p>
+	 * The timings of a tree built by inserting one entry at a time are
+	 * followed by the timings of a bulk-loaded tree that is updated in
+	 * batches, if the default number of branches is used.
 	 */
 	public static void main(String[] args) throws Exception {
 		final float[] data;
+		final int[] objKeys;
 		final int N = Integer.parseInt(args[1]);
 		final int branches = Integer.parseInt(args[0]);
 		// Populate the array with entries.
 		{
 			data = new float[N * 4];
+			objKeys = new int[N];
 
 			double sqrtN = Math.sqrt((double) N);
 			InputStream in = System.in;
@@ -94,6 +99,7 @@ public class RTreeUpdatePerformance {
 				data[(inx * 4) + 1] = (float) (centerY - (height / 2.0d));
 				data[(inx * 4) + 2] = (float) (centerX + (width / 2.0d));
 				data[(inx * 4) + 3] = (float) (centerY + (height / 2.0d));
+				objKeys[inx] = inx;
 				inx++;
 			}
 
@@ -101,9 +107,32 @@ public class RTreeUpdatePerformance {
 				throw new IOException("premature end of input");
 		}
 
-		final RTree tree = new RTree(branches);
+		runTests(new RTree(branches), data, objKeys, false);
+
+		if (branches == RTree.DEFAULT_MAX_BRANCHES)
+			runTests(null, data, objKeys, true);
+	}
+
+	private static void runTests(final RTree incrementalTree, final float[] data,
+	                             final int[] objKeys, final boolean bulk)
+	    throws Exception {
+		final int N = objKeys.length;
+		final RTree tree;
 		// Initial insertion test.
-		{
+		if (bulk) {
+			for (int i = 0; i < 2; i++) {
+				System.gc();
+				Thread.sleep(1000);
+			}
+
+			final long millisBegin = System.currentTimeMillis();
+			tree = new RTree(objKeys, data);
+
+			final long millisEnd = System.currentTimeMillis();
+			System.err.println("bulk load took " + (millisEnd - millisBegin) + " milliseconds");
+		} else {
+			tree = incrementalTree;
+
 			for (int i = 0; i < 2; i++) {
 				System.gc();
 				Thread.sleep(1000);
@@ -186,16 +215,22 @@ public class RTreeUpdatePerformance {
 				}
 
 				final long millisBegin = System.currentTimeMillis();
-				int objKey = 0;
-				int inx = 0;
 
-				while (objKey < N) {
-					tree.delete(objKey);
-					tree.insert(objKey++, data[inx++], data[inx++], data[inx++], data[inx++]);
+				if (bulk) {
+					tree.move(objKeys, data);
+				} else {
+					int objKey = 0;
+					int inx = 0;
+
+					while (objKey < N) {
+						tree.delete(objKey);
+						tree.insert(objKey++, data[inx++], data[inx++], data[inx++], data[inx++]);
+					}
 				}
 
 				final long millisEnd = System.currentTimeMillis();
-				System.err.println("updates took " + (millisEnd - millisBegin) + " milliseconds");
+				System.err.println((bulk ? "batch updates took " : "updates took ")
+				                   + (millisEnd - millisBegin) + " milliseconds");
 			}
 			// Repeated area query test.
 			{
@@ -0,0 +1,150 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.graph.dynamic.test;
+
+import cytoscape.graph.dynamic.DynamicGraph;
+import cytoscape.graph.dynamic.util.DynamicGraphFactory;
+
+import cytoscape.util.intr.IntEnumerator;
+
+import java.util.Random;
+
+
+/**
+ * Compares the object-based and the array-based DynamicGraph
+ * implementations with respect to memory consumed per edge and the
+ * speed of iterating over adjacent edges.<p>
+ * Usage: DynamicGraphPerformance numNodes numEdges [array|objects]<p>
+ * If the last argument is omitted both implementations are measured, one
+ * after the other.
+ */
+public final class DynamicGraphPerformance {
+	// No constructor.
+	private DynamicGraphPerformance() {
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @param args DOCUMENT ME!
+	 *
+	 * @throws InterruptedException DOCUMENT ME!
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		final int numNodes = Integer.parseInt(args[0]);
+		final int numEdges = Integer.parseInt(args[1]);
+		final String which = (args.length > 2) ? args[2] : "both";
+
+		if (!which.equalsIgnoreCase("array"))
+			runTest("objects", numNodes, numEdges, false);
+
+		if (!which.equalsIgnoreCase("objects"))
+			runTest("array", numNodes, numEdges, true);
+	}
+
+	private static void runTest(final String name, final int numNodes, final int numEdges,
+	                            final boolean arrayBacked) throws InterruptedException {
+		final long memBefore = usedMemory();
+		long millisBegin = System.currentTimeMillis();
+		DynamicGraph graph = arrayBacked ? DynamicGraphFactory.instantiateArrayDynamicGraph()
+		                                 : DynamicGraphFactory.instantiateDynamicGraph();
+		final int[] nodes = new int[numNodes];
+
+		for (int i = 0; i < nodes.length; i++)
+			nodes[i] = graph.nodeCreate();
+
+		final Random random = new Random(numNodes ^ numEdges);
+
+		for (int i = 0; i < numEdges; i++)
+			graph.edgeCreate(nodes[random.nextInt(numNodes)], nodes[random.nextInt(numNodes)],
+			                 (i & 1) == 0);
+
+		long millisEnd = System.currentTimeMillis();
+		System.out.println(name + ": creating graph took " + (millisEnd - millisBegin)
+		                   + " milliseconds");
+
+		final long memAfter = usedMemory();
+		System.out.println(name + ": graph uses approximately "
+		                   + ((memAfter - memBefore) / Math.max(1, numNodes + numEdges))
+		                   + " bytes per node and edge");
+
+		// Warm up.
+		long checksum = iterateAdjacentEdges(graph, nodes);
+		millisBegin = System.currentTimeMillis();
+
+		for (int i = 0; i < 10; i++)
+			checksum += iterateAdjacentEdges(graph, nodes);
+
+		millisEnd = System.currentTimeMillis();
+		System.out.println(name + ": 10 passes of adjacent edge iteration took "
+		                   + (millisEnd - millisBegin) + " milliseconds (checksum " + checksum
+		                   + ")");
+
+		millisBegin = System.currentTimeMillis();
+
+		for (int i = 0; i < nodes.length; i++)
+			graph.nodeRemove(nodes[i]);
+
+		millisEnd = System.currentTimeMillis();
+		System.out.println(name + ": removing all nodes took " + (millisEnd - millisBegin)
+		                   + " milliseconds");
+		graph = null;
+	}
+
+	private static long iterateAdjacentEdges(final DynamicGraph graph, final int[] nodes) {
+		long checksum = 0;
+
+		for (int i = 0; i < nodes.length; i++) {
+			final IntEnumerator adj = graph.edgesAdjacent(nodes[i], true, true, true);
+
+			while (adj.numRemaining() > 0)
+				checksum += adj.nextInt();
+		}
+
+		return checksum;
+	}
+
+	private static long usedMemory() throws InterruptedException {
+		final Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,813 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.graph.dynamic.util;
+
+import cytoscape.graph.dynamic.DynamicGraph;
+
+import cytoscape.util.intr.IntEnumerator;
+import cytoscape.util.intr.IntIterator;
+import cytoscape.util.intr.IntStack;
+
+
+/**
+ * A DynamicGraph that keeps its nodes and edges in primitive arrays instead
+ * of one Node or Edge object per element.<p>
+ *
+ * Every node occupies a record of eight consecutive ints in the node slab
+ * and every edge a record of four consecutive ints in the edge slab (plus
+ * one byte for its type).  The edges adjacent to a node are kept in two
+ * growable int arrays per node (one for edges leaving the node, one for
+ * edges entering it), so that iterating over adjacent edges reads
+ * contiguous memory.  Each adjacency entry packs the edge together with its
+ * directedness and whether it is a self-edge, which lets the adjacency
+ * enumeration filter edges without touching the edge records at all.  Edges
+ * are removed from the adjacency arrays by moving the last entry into the
+ * vacated slot, so removal stays constant time.  Removed node and edge
+ * records are chained into free lists and re-used by subsequent create
+ * operations.<p>
+ *
+ * Time complexities are those of DynamicGraphRepresentation.  Because of
+ * the packed adjacency entries, edges created by this graph are strictly
+ * less than Integer.MAX_VALUE / 4.
+ */
+final class ArrayDynamicGraphRepresentation implements DynamicGraph, java.io.Externalizable {
+	private static final long serialVersionUID = 20101018L;
+	private static final int INITIAL_CAPACITY = 16;
+	private static final int INITIAL_ADJACENCY_CAPACITY = 2;
+
+	// Node record layout.  A node record whose SELF_EDGES slot is negative
+	// is not in use; its NEXT slot then chains the free list.
+	private static final int NODE_SHIFT = 3;
+	private static final int NODE_NEXT = 0;
+	private static final int NODE_PREV = 1;
+	private static final int NODE_OUT_SIZE = 2;
+	private static final int NODE_IN_SIZE = 3;
+	private static final int NODE_OUT_DEGREE = 4;
+	private static final int NODE_IN_DEGREE = 5;
+	private static final int NODE_UND_DEGREE = 6;
+	private static final int NODE_SELF_EDGES = 7;
+	private static final int MAX_NODE = (Integer.MAX_VALUE >> NODE_SHIFT) - 1;
+
+	// Edge record layout.  An edge whose type is negative is not in use; its
+	// OUT_POS slot then chains the free list.
+	private static final int EDGE_SHIFT = 2;
+	private static final int EDGE_SOURCE = 0;
+	private static final int EDGE_TARGET = 1;
+	private static final int EDGE_OUT_POS = 2;
+	private static final int EDGE_IN_POS = 3;
+	private static final int MAX_EDGE = (Integer.MAX_VALUE >> 2) - 1;
+
+	// Adjacency entries are (edge << 2) | flags.
+	private static final int ADJ_DIRECTED = 1;
+	private static final int ADJ_SELF = 2;
+
+	private int m_nodeCount;
+	private int m_maxNode;
+	private int m_edgeCount;
+	private int m_maxEdge;
+	private int m_firstNode;
+	private int m_freeNode;
+	private int m_freeEdge;
+	private int[] m_nodeSlab;
+	private int[][] m_outAdj;
+	private int[][] m_inAdj;
+	private int[] m_edgeSlab;
+	private byte[] m_edgeTypes;
+
+	// Use this as a bag of integers in various operations.  Don't forget to
+	// empty() it before using it.
+	private final IntStack m_stack;
+
+	/**
+	 * Creates a new ArrayDynamicGraphRepresentation object.
+	 */
+	public ArrayDynamicGraphRepresentation() // Must be public for Externalizable.
+	 {
+		m_nodeCount = 0;
+		m_maxNode = -1;
+		m_edgeCount = 0;
+		m_maxEdge = -1;
+		m_firstNode = -1;
+		m_freeNode = -1;
+		m_freeEdge = -1;
+		m_nodeSlab = new int[INITIAL_CAPACITY << NODE_SHIFT];
+		m_outAdj = new int[INITIAL_CAPACITY][];
+		m_inAdj = new int[INITIAL_CAPACITY][];
+		m_edgeSlab = new int[INITIAL_CAPACITY << EDGE_SHIFT];
+		m_edgeTypes = new byte[INITIAL_CAPACITY];
+		m_stack = new IntStack();
+	}
+
+	// Returns the new length of an array that has to hold at least minLength
+	// elements and currently has length elements.
+	private static int grownLength(final int length, final int minLength, final int maxLength) {
+		return (int) Math.min((long) maxLength,
+		                      Math.max(((long) length) * 2L, (long) minLength));
+	}
+
+	private final void ensureNodeCapacity(final int node) {
+		if (node < m_outAdj.length)
+			return;
+
+		final int newCapacity = grownLength(m_outAdj.length, node + 1, MAX_NODE + 1);
+		final int[] newSlab = new int[newCapacity << NODE_SHIFT];
+		System.arraycopy(m_nodeSlab, 0, newSlab, 0, m_nodeSlab.length);
+		m_nodeSlab = newSlab;
+
+		final int[][] newOut = new int[newCapacity][];
+		System.arraycopy(m_outAdj, 0, newOut, 0, m_outAdj.length);
+		m_outAdj = newOut;
+
+		final int[][] newIn = new int[newCapacity][];
+		System.arraycopy(m_inAdj, 0, newIn, 0, m_inAdj.length);
+		m_inAdj = newIn;
+	}
+
+	private final void ensureEdgeCapacity(final int edge) {
+		if (edge < m_edgeTypes.length)
+			return;
+
+		final int newCapacity = grownLength(m_edgeTypes.length, edge + 1, MAX_EDGE + 1);
+		final int[] newSlab = new int[newCapacity << EDGE_SHIFT];
+		System.arraycopy(m_edgeSlab, 0, newSlab, 0, m_edgeSlab.length);
+		m_edgeSlab = newSlab;
+
+		final byte[] newTypes = new byte[newCapacity];
+		System.arraycopy(m_edgeTypes, 0, newTypes, 0, m_edgeTypes.length);
+		m_edgeTypes = newTypes;
+	}
+
+	// Appends entry to the adjacency array adj[node], which currently holds
+	// size entries.  Returns the position of the new entry.
+	private static int adjacencyAppend(final int[][] adj, final int node, final int size,
+	                                   final int entry) {
+		int[] list = adj[node];
+
+		if (list == null) {
+			list = (adj[node] = new int[INITIAL_ADJACENCY_CAPACITY]);
+		} else if (size == list.length) {
+			final int[] newList = new int[grownLength(list.length, size + 1, Integer.MAX_VALUE)];
+			System.arraycopy(list, 0, newList, 0, size);
+			list = (adj[node] = newList);
+		}
+
+		list[size] = entry;
+
+		return size;
+	}
+
+	private final boolean isNode(final int node) {
+		if ((node < 0) || (node > m_maxNode))
+			return false;
+
+		return m_nodeSlab[(node << NODE_SHIFT) + NODE_SELF_EDGES] >= 0;
+	}
+
+	private final boolean isEdge(final int edge) {
+		if ((edge < 0) || (edge > m_maxEdge))
+			return false;
+
+		return m_edgeTypes[edge] >= 0;
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final IntEnumerator nodes() {
+		return new NodesEnumerator(m_nodeCount, m_firstNode);
+	}
+
+	private final class NodesEnumerator implements IntEnumerator {
+		private int numRemaining;
+		private int node;
+
+		NodesEnumerator(final int nodeCount, final int firstNode) {
+			numRemaining = nodeCount;
+			node = firstNode;
+		}
+
+		public final int numRemaining() {
+			return numRemaining;
+		}
+
+		public final int nextInt() {
+			final int returnThis = node;
+			node = m_nodeSlab[(node << NODE_SHIFT) + NODE_NEXT];
+			numRemaining--;
+
+			return returnThis;
+		}
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final IntEnumerator edges() {
+		return new EdgesEnumerator(m_edgeCount, m_firstNode);
+	}
+
+	private final class EdgesEnumerator implements IntEnumerator {
+		private int numRemaining;
+		private int nextNode;
+		private int[] list = null;
+		private int listSize = 0;
+		private int listIndex = 0;
+
+		EdgesEnumerator(final int edgeCount, final int firstNode) {
+			numRemaining = edgeCount;
+			nextNode = firstNode;
+		}
+
+		public final int numRemaining() {
+			return numRemaining;
+		}
+
+		public final int nextInt() {
+			while (listIndex == listSize) {
+				final int off = nextNode << NODE_SHIFT;
+				list = m_outAdj[nextNode];
+				listSize = m_nodeSlab[off + NODE_OUT_SIZE];
+				listIndex = 0;
+				nextNode = m_nodeSlab[off + NODE_NEXT];
+			}
+
+			numRemaining--;
+
+			return list[listIndex++] >>> 2;
+		}
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final int nodeCreate() {
+		final int node;
+
+		if (m_freeNode >= 0) {
+			node = m_freeNode;
+			m_freeNode = m_nodeSlab[(node << NODE_SHIFT) + NODE_NEXT];
+		} else {
+			if (m_maxNode >= MAX_NODE)
+				throw new IllegalStateException("too many nodes");
+
+			node = ++m_maxNode;
+			ensureNodeCapacity(node);
+		}
+
+		final int[] nodeSlab = m_nodeSlab;
+		final int off = node << NODE_SHIFT;
+		nodeSlab[off + NODE_NEXT] = m_firstNode;
+		nodeSlab[off + NODE_PREV] = -1;
+		nodeSlab[off + NODE_OUT_SIZE] = 0;
+		nodeSlab[off + NODE_IN_SIZE] = 0;
+		nodeSlab[off + NODE_OUT_DEGREE] = 0;
+		nodeSlab[off + NODE_IN_DEGREE] = 0;
+		nodeSlab[off + NODE_UND_DEGREE] = 0;
+		nodeSlab[off + NODE_SELF_EDGES] = 0;
+
+		if (m_firstNode >= 0)
+			nodeSlab[(m_firstNode << NODE_SHIFT) + NODE_PREV] = node;
+
+		m_firstNode = node;
+		m_nodeCount++;
+
+		return node;
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param node DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final boolean nodeRemove(final int node) {
+		final IntEnumerator edges = edgesAdjacent(node, true, true, true);
+
+		if (edges == null)
+			return false;
+
+		m_stack.empty();
+
+		while (edges.numRemaining() > 0)
+			m_stack.push(edges.nextInt());
+
+		while (m_stack.size() > 0)
+			edgeRemove(m_stack.pop());
+
+		final int[] nodeSlab = m_nodeSlab;
+		final int off = node << NODE_SHIFT;
+		final int next = nodeSlab[off + NODE_NEXT];
+		final int prev = nodeSlab[off + NODE_PREV];
+
+		if (prev >= 0)
+			nodeSlab[(prev << NODE_SHIFT) + NODE_NEXT] = next;
+		else
+			m_firstNode = next;
+
+		if (next >= 0)
+			nodeSlab[(next << NODE_SHIFT) + NODE_PREV] = prev;
+
+		// The adjacency arrays are kept; a node re-using this record will
+		// re-use them as well.
+		nodeSlab[off + NODE_SELF_EDGES] = -1;
+		nodeSlab[off + NODE_NEXT] = m_freeNode;
+		m_freeNode = node;
+		m_nodeCount--;
+
+		return true;
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param sourceNode DOCUMENT ME!
+	 * @param targetNode DOCUMENT ME!
+	 * @param directed DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final int edgeCreate(final int sourceNode, final int targetNode, final boolean directed) {
+		if (!isNode(sourceNode) || !isNode(targetNode))
+			return -1;
+
+		final int edge;
+
+		if (m_freeEdge >= 0) {
+			edge = m_freeEdge;
+			m_freeEdge = m_edgeSlab[(edge << EDGE_SHIFT) + EDGE_OUT_POS];
+		} else {
+			if (m_maxEdge >= MAX_EDGE)
+				throw new IllegalStateException("too many edges");
+
+			edge = ++m_maxEdge;
+			ensureEdgeCapacity(edge);
+		}
+
+		final int[] nodeSlab = m_nodeSlab;
+		final int sourceOff = sourceNode << NODE_SHIFT;
+		final int targetOff = targetNode << NODE_SHIFT;
+
+		if (directed) {
+			nodeSlab[sourceOff + NODE_OUT_DEGREE]++;
+			nodeSlab[targetOff + NODE_IN_DEGREE]++;
+		} else {
+			nodeSlab[sourceOff + NODE_UND_DEGREE]++;
+			nodeSlab[targetOff + NODE_UND_DEGREE]++;
+		}
+
+		if (sourceNode == targetNode) { // Self-edge.
+
+			if (directed)
+				nodeSlab[sourceOff + NODE_SELF_EDGES]++;
+			else
+				nodeSlab[sourceOff + NODE_UND_DEGREE]--;
+		}
+
+		final int entry = (edge << 2) | (directed ? ADJ_DIRECTED : 0)
+		                  | ((sourceNode == targetNode) ? ADJ_SELF : 0);
+		final int off = edge << EDGE_SHIFT;
+		final int[] edgeSlab = m_edgeSlab;
+		edgeSlab[off + EDGE_SOURCE] = sourceNode;
+		edgeSlab[off + EDGE_TARGET] = targetNode;
+		edgeSlab[off + EDGE_OUT_POS] = adjacencyAppend(m_outAdj, sourceNode,
+		                                               nodeSlab[sourceOff + NODE_OUT_SIZE]++,
+		                                               entry);
+		edgeSlab[off + EDGE_IN_POS] = adjacencyAppend(m_inAdj, targetNode,
+		                                              nodeSlab[targetOff + NODE_IN_SIZE]++,
+		                                              entry);
+		m_edgeTypes[edge] = directed ? DIRECTED_EDGE : UNDIRECTED_EDGE;
+		m_edgeCount++;
+
+		return edge;
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param edge DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final boolean edgeRemove(final int edge) {
+		if (!isEdge(edge))
+			return false;
+
+		final int[] nodeSlab = m_nodeSlab;
+		final int[] edgeSlab = m_edgeSlab;
+		final int off = edge << EDGE_SHIFT;
+		final int sourceNode = edgeSlab[off + EDGE_SOURCE];
+		final int targetNode = edgeSlab[off + EDGE_TARGET];
+		final int sourceOff = sourceNode << NODE_SHIFT;
+		final int targetOff = targetNode << NODE_SHIFT;
+		final boolean directed = m_edgeTypes[edge] == DIRECTED_EDGE;
+
+		{ // Move the last entry of the out-list into the vacated slot.
+
+			final int[] list = m_outAdj[sourceNode];
+			final int pos = edgeSlab[off + EDGE_OUT_POS];
+			final int last = list[--nodeSlab[sourceOff + NODE_OUT_SIZE]];
+			list[pos] = last;
+			edgeSlab[((last >>> 2) << EDGE_SHIFT) + EDGE_OUT_POS] = pos;
+		}
+
+		{ // Likewise for the in-list.
+
+			final int[] list = m_inAdj[targetNode];
+			final int pos = edgeSlab[off + EDGE_IN_POS];
+			final int last = list[--nodeSlab[targetOff + NODE_IN_SIZE]];
+			list[pos] = last;
+			edgeSlab[((last >>> 2) << EDGE_SHIFT) + EDGE_IN_POS] = pos;
+		}
+
+		if (directed) {
+			nodeSlab[sourceOff + NODE_OUT_DEGREE]--;
+			nodeSlab[targetOff + NODE_IN_DEGREE]--;
+		} else {
+			nodeSlab[sourceOff + NODE_UND_DEGREE]--;
+			nodeSlab[targetOff + NODE_UND_DEGREE]--;
+		}
+
+		if (sourceNode == targetNode) { // Self-edge.
+
+			if (directed)
+				nodeSlab[sourceOff + NODE_SELF_EDGES]--;
+			else
+				nodeSlab[sourceOff + NODE_UND_DEGREE]++;
+		}
+
+		m_edgeTypes[edge] = -1;
+		edgeSlab[off + EDGE_OUT_POS] = m_freeEdge;
+		m_freeEdge = edge;
+		m_edgeCount--;
+
+		return true;
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param node DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final boolean nodeExists(final int node) {
+		return isNode(node);
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param edge DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final byte edgeType(final int edge) {
+		if (!isEdge(edge))
+			return -1;
+
+		return m_edgeTypes[edge];
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param edge DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final int edgeSource(final int edge) {
+		if (!isEdge(edge))
+			return -1;
+
+		return m_edgeSlab[(edge << EDGE_SHIFT) + EDGE_SOURCE];
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param edge DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final int edgeTarget(final int edge) {
+		if (!isEdge(edge))
+			return -1;
+
+		return m_edgeSlab[(edge << EDGE_SHIFT) + EDGE_TARGET];
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param node DOCUMENT ME!
+	 * @param outgoing DOCUMENT ME!
+	 * @param incoming DOCUMENT ME!
+	 * @param undirected DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final IntEnumerator edgesAdjacent(final int node, final boolean outgoing,
+	                                         final boolean incoming, final boolean undirected) {
+		if (!isNode(node))
+			return null;
+
+		final int[] nodeSlab = m_nodeSlab;
+		final int off = node << NODE_SHIFT;
+		int tentativeEdgeCount = 0;
+
+		if (outgoing)
+			tentativeEdgeCount += nodeSlab[off + NODE_OUT_DEGREE];
+
+		if (incoming)
+			tentativeEdgeCount += nodeSlab[off + NODE_IN_DEGREE];
+
+		if (undirected)
+			tentativeEdgeCount += nodeSlab[off + NODE_UND_DEGREE];
+
+		if (outgoing && incoming)
+			tentativeEdgeCount -= nodeSlab[off + NODE_SELF_EDGES];
+
+		return new EdgesAdjacentEnumerator(tentativeEdgeCount, m_outAdj[node],
+		                                   nodeSlab[off + NODE_OUT_SIZE], m_inAdj[node],
+		                                   outgoing, incoming, undirected);
+	}
+
+	// Walks the out-list first and then the in-list of a node.  Self-edges
+	// appear in both lists, so the in-list pass skips those self-edges that
+	// were already accepted by the out-list pass.
+	private static final class EdgesAdjacentEnumerator implements IntEnumerator {
+		private int numRemaining;
+		private int[] list;
+		private int index;
+		private int outSize;
+		private final int[] inList;
+		private final boolean outgoing;
+		private final boolean incoming;
+		private final boolean undirected;
+
+		EdgesAdjacentEnumerator(final int edgeCount, final int[] outList, final int outSize,
+		                        final int[] inList, final boolean outgoing,
+		                        final boolean incoming, final boolean undirected) {
+			this.numRemaining = edgeCount;
+			this.inList = inList;
+			this.outgoing = outgoing;
+			this.incoming = incoming;
+			this.undirected = undirected;
+
+			if (outgoing || undirected) {
+				this.list = outList;
+				this.outSize = outSize;
+			} else {
+				this.list = inList;
+				this.outSize = -1;
+			}
+		}
+
+		public final int numRemaining() {
+			return numRemaining;
+		}
+
+		public final int nextInt() {
+			if (outSize >= 0) {
+				final int[] outList = list;
+
+				while (index < outSize) {
+					final int entry = outList[index++];
+
+					if (((entry & ADJ_DIRECTED) != 0) ? outgoing : undirected) {
+						numRemaining--;
+
+						return entry >>> 2;
+					}
+				}
+
+				list = inList;
+				index = 0;
+				outSize = -1;
+			}
+
+			final int[] inList = list;
+
+			while (true) {
+				final int entry = inList[index++];
+				final boolean directed = (entry & ADJ_DIRECTED) != 0;
+
+				if (!(directed ? incoming : undirected))
+					continue;
+
+				if (((entry & ADJ_SELF) != 0) && (directed ? outgoing : undirected))
+					continue;
+
+				numRemaining--;
+
+				return entry >>> 2;
+			}
+		}
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param node0 DOCUMENT ME!
+	 * @param node1 DOCUMENT ME!
+	 * @param outgoing DOCUMENT ME!
+	 * @param incoming DOCUMENT ME!
+	 * @param undirected DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public final IntIterator edgesConnecting(final int node0, final int node1,
+	                                         final boolean outgoing, final boolean incoming,
+	                                         final boolean undirected) {
+		final IntEnumerator node0Adj = edgesAdjacent(node0, outgoing, incoming, undirected);
+		final IntEnumerator node1Adj = edgesAdjacent(node1, incoming, outgoing, undirected);
+
+		if ((node0Adj == null) || (node1Adj == null))
+			return null;
+
+		if (node0Adj.numRemaining() <= node1Adj.numRemaining())
+			return new ConnectingEdgesIterator(node0Adj, node0, node1);
+		else
+			return new ConnectingEdgesIterator(node1Adj, node1, node0);
+	}
+
+	private final class ConnectingEdgesIterator implements IntIterator {
+		private int nextEdge = -1;
+		private final IntEnumerator theAdj;
+		private final int nodeZero;
+		private final int nodeOne;
+
+		ConnectingEdgesIterator(final IntEnumerator theAdj, final int nodeZero,
+		                        final int nodeOne) {
+			this.theAdj = theAdj;
+			this.nodeZero = nodeZero;
+			this.nodeOne = nodeOne;
+		}
+
+		private void ensureComputeNext() {
+			if (nextEdge != -1)
+				return;
+
+			final int[] edgeSlab = m_edgeSlab;
+
+			while (theAdj.numRemaining() > 0) {
+				final int edge = theAdj.nextInt();
+				final int off = edge << EDGE_SHIFT;
+
+				if (nodeOne == (nodeZero ^ edgeSlab[off + EDGE_SOURCE]
+				               ^ edgeSlab[off + EDGE_TARGET])) {
+					nextEdge = edge;
+
+					return;
+				}
+			}
+
+			nextEdge = -2;
+		}
+
+		public final boolean hasNext() {
+			ensureComputeNext();
+
+			return nextEdge >= 0;
+		}
+
+		public final int nextInt() {
+			ensureComputeNext();
+
+			final int returnThis = nextEdge;
+			nextEdge = -1;
+
+			return returnThis;
+		}
+	}
+
+	// Externalizable methods.
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param out DOCUMENT ME!
+	 *
+	 */
+	public final void writeExternal(final java.io.ObjectOutput out) throws java.io.IOException {
+		out.writeInt(m_nodeCount);
+		out.writeInt(m_maxNode);
+		out.writeInt(m_edgeCount);
+		out.writeInt(m_maxEdge);
+		out.writeInt(m_firstNode);
+		out.writeInt(m_freeNode);
+		out.writeInt(m_freeEdge);
+
+		final int nodeLen = (m_maxNode + 1) << NODE_SHIFT;
+
+		for (int i = 0; i < nodeLen; i++)
+			out.writeInt(m_nodeSlab[i]);
+
+		for (int node = 0; node <= m_maxNode; node++) {
+			final int off = node << NODE_SHIFT;
+
+			if (m_nodeSlab[off + NODE_SELF_EDGES] < 0)
+				continue;
+
+			for (int i = 0; i < m_nodeSlab[off + NODE_OUT_SIZE]; i++)
+				out.writeInt(m_outAdj[node][i]);
+
+			for (int i = 0; i < m_nodeSlab[off + NODE_IN_SIZE]; i++)
+				out.writeInt(m_inAdj[node][i]);
+		}
+
+		final int edgeLen = (m_maxEdge + 1) << EDGE_SHIFT;
+
+		for (int i = 0; i < edgeLen; i++)
+			out.writeInt(m_edgeSlab[i]);
+
+		out.write(m_edgeTypes, 0, m_maxEdge + 1);
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param in DOCUMENT ME!
+	 *
+	 */
+	public final void readExternal(final java.io.ObjectInput in) throws java.io.IOException {
+		m_nodeCount = in.readInt();
+		m_maxNode = in.readInt();
+		m_edgeCount = in.readInt();
+		m_maxEdge = in.readInt();
+		m_firstNode = in.readInt();
+		m_freeNode = in.readInt();
+		m_freeEdge = in.readInt();
+		ensureNodeCapacity(m_maxNode);
+		ensureEdgeCapacity(m_maxEdge);
+
+		final int nodeLen = (m_maxNode + 1) << NODE_SHIFT;
+
+		for (int i = 0; i < nodeLen; i++)
+			m_nodeSlab[i] = in.readInt();
+
+		for (int node = 0; node <= m_maxNode; node++) {
+			final int off = node << NODE_SHIFT;
+
+			if (m_nodeSlab[off + NODE_SELF_EDGES] < 0)
+				continue;
+
+			final int outSize = m_nodeSlab[off + NODE_OUT_SIZE];
+			final int inSize = m_nodeSlab[off + NODE_IN_SIZE];
+			m_outAdj[node] = new int[Math.max(INITIAL_ADJACENCY_CAPACITY, outSize)];
+			m_inAdj[node] = new int[Math.max(INITIAL_ADJACENCY_CAPACITY, inSize)];
+
+			for (int i = 0; i < outSize; i++)
+				m_outAdj[node][i] = in.readInt();
+
+			for (int i = 0; i < inSize; i++)
+				m_inAdj[node][i] = in.readInt();
+		}
+
+		final int edgeLen = (m_maxEdge + 1) << EDGE_SHIFT;
+
+		for (int i = 0; i < edgeLen; i++)
+			m_edgeSlab[i] = in.readInt();
+
+		in.readFully(m_edgeTypes, 0, m_maxEdge + 1);
+	}
+}
@@ -134,7 +134,17 @@ import cytoscape.graph.dynamic.DynamicGraph;
  *     completely traversed in O(min(E, F)) time, where E is the total number
  *     of edges touching one node and F is the total number of edges touching
  *     the other node.</td>
- * </tr></table></blockquote>
+ * </tr></table></blockquote><p>
+ *
+ * instantiateArrayDynamicGraph() returns an alternative implementation with
+ * identical semantics and time complexities that keeps nodes and edges in
+ * primitive arrays instead of one object per node and edge, and that keeps
+ * the edges adjacent to each node in contiguous arrays.  It requires roughly
+ * 34 bytes per node and edge, creates no garbage as the graph is modified and
+ * iterates over adjacent edges considerably faster than the default
+ * implementation.
+ * Edges created by that implementation are strictly less than
+ * Integer.MAX_VALUE / 4.
  */
 public final class DynamicGraphFactory {
 	// "No constructor".
@@ -147,4 +157,12 @@ public final class DynamicGraphFactory {
 	public static DynamicGraph instantiateDynamicGraph() {
 		return new DynamicGraphRepresentation();
 	}
+
+	/**
+	 * Returns a new instance of the array-backed DynamicGraph with every
+	 * invocation.
+	 */
+	public static DynamicGraph instantiateArrayDynamicGraph() {
+		return new ArrayDynamicGraphRepresentation();
+	}
 }
@@ -41,9 +41,16 @@ import cytoscape.graph.dynamic.util.DynamicGraphFactory;
 import junit.framework.*;
 
 public class AddRemoveTest extends TestCase {
+	/**
+	 * Returns a new instance of the implementation under test.
+	 */
+	protected DynamicGraph instantiateGraph() {
+		return DynamicGraphFactory.instantiateDynamicGraph();
+	}
+
 
 	public void testAddRemove() {
-		final DynamicGraph graph = DynamicGraphFactory.instantiateDynamicGraph();
+		final DynamicGraph graph = instantiateGraph();
 		final int[][] nodesArr = new int[][] { new int[100000], new int[99980], new int[100010] };
 		final int[] edges = new int[1000000];
 		final int iterations = 3;
@@ -0,0 +1,252 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.graph.dynamic;
+
+import cytoscape.graph.dynamic.util.DynamicGraphFactory;
+
+import cytoscape.util.intr.IntEnumerator;
+import cytoscape.util.intr.IntIterator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.*;
+
+public class ArrayGraphTest extends TestCase {
+
+	public void testAgainstReferenceGraph() {
+		final DynamicGraph reference = DynamicGraphFactory.instantiateDynamicGraph();
+		final DynamicGraph graph = DynamicGraphFactory.instantiateArrayDynamicGraph();
+		final Random random = new Random(42L);
+		final int[] refNodes = new int[200];
+		final int[] nodes = new int[200];
+		final int[] refEdges = new int[2000];
+		final int[] edges = new int[2000];
+
+		for (int i = 0; i < nodes.length; i++) {
+			refNodes[i] = reference.nodeCreate();
+			nodes[i] = graph.nodeCreate();
+		}
+
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < edges.length; i++) {
+				final int source = random.nextInt(nodes.length);
+				final int target = (random.nextInt(10) == 0) ? source : random.nextInt(nodes.length);
+				final boolean directed = random.nextBoolean();
+				refEdges[i] = reference.edgeCreate(refNodes[source], refNodes[target], directed);
+				edges[i] = graph.edgeCreate(nodes[source], nodes[target], directed);
+			}
+
+			assertSameTopology(reference, refNodes, refEdges, graph, nodes, edges);
+
+			for (int i = 0; i < edges.length; i += 3) {
+				assertEquals(reference.edgeRemove(refEdges[i]), graph.edgeRemove(edges[i]));
+				refEdges[i] = -1;
+				edges[i] = -1;
+			}
+
+			assertSameTopology(reference, refNodes, refEdges, graph, nodes, edges);
+
+			for (int i = round; i < nodes.length; i += 7) {
+				assertTrue(reference.nodeRemove(refNodes[i]));
+				assertTrue(graph.nodeRemove(nodes[i]));
+				assertFalse(graph.nodeExists(nodes[i]));
+				assertNull(graph.edgesAdjacent(nodes[i], true, true, true));
+				refNodes[i] = reference.nodeCreate();
+				nodes[i] = graph.nodeCreate();
+			}
+
+			for (int i = 0; i < edges.length; i++) {
+				if (graph.edgeType(edges[i]) < 0) {
+					refEdges[i] = -1;
+					edges[i] = -1;
+				}
+			}
+
+			assertSameTopology(reference, refNodes, refEdges, graph, nodes, edges);
+
+			for (int i = 0; i < edges.length; i++) {
+				reference.edgeRemove(refEdges[i]);
+				graph.edgeRemove(edges[i]);
+			}
+		}
+
+		assertEquals(-1, graph.edgeCreate(-1, nodes[0], true));
+		assertEquals(-1, graph.edgeCreate(nodes[0], Integer.MAX_VALUE, true));
+		assertFalse(graph.edgeRemove(Integer.MAX_VALUE));
+		assertEquals(-1, graph.edgeSource(-1));
+	}
+
+	public void testArrayGraphSerialization() throws Exception {
+		DynamicGraph graph = DynamicGraphFactory.instantiateArrayDynamicGraph();
+		final int[] nodes = new int[100];
+		final int[] edges = new int[1000];
+
+		for (int i = 0; i < nodes.length; i++)
+			nodes[i] = graph.nodeCreate();
+
+		for (int i = 0; i < edges.length; i++)
+			edges[i] = graph.edgeCreate(nodes[i % nodes.length], nodes[(i * 3) % nodes.length],
+			                            (i % 2) == 0);
+
+		for (int i = 0; i < nodes.length; i += 2)
+			graph.nodeRemove(nodes[i]);
+
+		final ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+		final ObjectOutputStream objOut = new ObjectOutputStream(byteOut);
+		objOut.writeObject(graph);
+		objOut.flush();
+		objOut.close();
+
+		final ObjectInputStream objIn = new ObjectInputStream(new ByteArrayInputStream(byteOut
+		                                                                                 .toByteArray()));
+		final DynamicGraph restored = (DynamicGraph) objIn.readObject();
+		objIn.close();
+
+		assertEquals(graph.nodes().numRemaining(), restored.nodes().numRemaining());
+		assertEquals(graph.edges().numRemaining(), restored.edges().numRemaining());
+
+		for (int i = 0; i < nodes.length; i++) {
+			assertEquals(graph.nodeExists(nodes[i]), restored.nodeExists(nodes[i]));
+
+			if (graph.nodeExists(nodes[i]))
+				assertTrue(Arrays.equals(sorted(graph.edgesAdjacent(nodes[i], true, true, true)),
+				                         sorted(restored.edgesAdjacent(nodes[i], true, true, true))));
+		}
+
+		// The restored graph must remain fully usable.
+		final int node = restored.nodeCreate();
+		assertTrue(restored.edgeCreate(node, nodes[1], true) >= 0);
+	}
+
+	private static void assertSameTopology(final DynamicGraph reference, final int[] refNodes,
+	                                       final int[] refEdges, final DynamicGraph graph,
+	                                       final int[] nodes, final int[] edges) {
+		assertEquals(reference.nodes().numRemaining(), graph.nodes().numRemaining());
+		assertEquals(reference.edges().numRemaining(), graph.edges().numRemaining());
+		assertEquals(graph.nodes().numRemaining(), drain(graph.nodes()).length);
+		assertEquals(graph.edges().numRemaining(), drain(graph.edges()).length);
+
+		// Translate edges of "graph" into indices into the edges array, so that
+		// they can be compared with the edges of the reference graph.
+		for (int n = 0; n < nodes.length; n++) {
+			for (int i = 0; i < 8; i++) {
+				final boolean outgoing = (i & 1) != 0;
+				final boolean incoming = (i & 2) != 0;
+				final boolean undirected = (i & 4) != 0;
+				final IntEnumerator refAdj = reference.edgesAdjacent(refNodes[n], outgoing,
+				                                                     incoming, undirected);
+				final IntEnumerator adj = graph.edgesAdjacent(nodes[n], outgoing, incoming,
+				                                              undirected);
+				assertEquals(refAdj.numRemaining(), adj.numRemaining());
+				assertTrue(Arrays.equals(positions(drain(refAdj), refEdges),
+				                         positions(drain(adj), edges)));
+			}
+
+			final int other = nodes[(n * 13) % nodes.length];
+			final IntIterator refConn = reference.edgesConnecting(refNodes[n],
+			                                                      refNodes[(n * 13) % nodes.length],
+			                                                      true, false, true);
+			final IntIterator conn = graph.edgesConnecting(nodes[n], other, true, false, true);
+			assertTrue(Arrays.equals(positions(drain(refConn), refEdges),
+			                         positions(drain(conn), edges)));
+		}
+
+		for (int i = 0; i < edges.length; i++) {
+			if (edges[i] < 0)
+				continue;
+
+			assertEquals(reference.edgeType(refEdges[i]), graph.edgeType(edges[i]));
+			assertEquals(position(reference.edgeSource(refEdges[i]), refNodes),
+			             position(graph.edgeSource(edges[i]), nodes));
+			assertEquals(position(reference.edgeTarget(refEdges[i]), refNodes),
+			             position(graph.edgeTarget(edges[i]), nodes));
+		}
+	}
+
+	private static int[] drain(final IntEnumerator enumx) {
+		final int[] returnThis = new int[enumx.numRemaining()];
+
+		for (int i = 0; i < returnThis.length; i++)
+			returnThis[i] = enumx.nextInt();
+
+		return returnThis;
+	}
+
+	private static int[] drain(final IntIterator iter) {
+		int[] returnThis = new int[0];
+
+		while (iter.hasNext()) {
+			returnThis = Arrays.copyOf(returnThis, returnThis.length + 1);
+			returnThis[returnThis.length - 1] = iter.nextInt();
+		}
+
+		return returnThis;
+	}
+
+	private static int[] sorted(final IntEnumerator enumx) {
+		final int[] returnThis = drain(enumx);
+		Arrays.sort(returnThis);
+
+		return returnThis;
+	}
+
+	private static int[] positions(final int[] elements, final int[] all) {
+		final int[] returnThis = new int[elements.length];
+
+		for (int i = 0; i < elements.length; i++)
+			returnThis[i] = position(elements[i], all);
+
+		Arrays.sort(returnThis);
+
+		return returnThis;
+	}
+
+	private static int position(final int element, final int[] all) {
+		for (int i = 0; i < all.length; i++)
+			if (all[i] == element)
+				return i;
+
+		fail("element " + element + " not found");
+
+		return -1;
+	}
+}
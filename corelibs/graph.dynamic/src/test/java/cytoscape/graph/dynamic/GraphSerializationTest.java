@@ -46,8 +46,15 @@ import java.io.ObjectOutputStream;
 import junit.framework.*;
 
 public class GraphSerializationTest extends TestCase {
+	/**
+	 * Returns a new instance of the implementation under test.
+	 */
+	protected DynamicGraph instantiateGraph() {
+		return DynamicGraphFactory.instantiateDynamicGraph();
+	}
+
 	public void testGraphSerialization() throws Exception {
-		DynamicGraph graph = DynamicGraphFactory.instantiateDynamicGraph();
+		DynamicGraph graph = instantiateGraph();
 		ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
 		ObjectOutputStream objOut = new ObjectOutputStream(byteOut);
 		objOut.writeObject(graph);
@@ -64,7 +71,7 @@ public class GraphSerializationTest extends TestCase {
 		assertEquals("expected restored graph to be empty", 0,graph.nodes().numRemaining());
 		assertEquals("expected restored graph to be empty", 0,graph.edges().numRemaining());
 
-		graph = DynamicGraphFactory.instantiateDynamicGraph();
+		graph = instantiateGraph();
 
 		int[] nodes = new int[10];
 
@@ -97,7 +104,7 @@ public class GraphSerializationTest extends TestCase {
 	}
 
 	public void testGraphSerialization2() throws Exception {
-		DynamicGraph graph = DynamicGraphFactory.instantiateDynamicGraph();
+		DynamicGraph graph = instantiateGraph();
 		int[] nodes = new int[100000];
 		int[] edges = new int[1000000];
 
@@ -147,7 +154,7 @@ public class GraphSerializationTest extends TestCase {
 		
 	public void testGraphSerialization3() throws Exception {
 		DynamicGraph[] graphs = new DynamicGraph[2];
-		graphs[0] = DynamicGraphFactory.instantiateDynamicGraph();
+		graphs[0] = instantiateGraph();
 		graphs[1] = graphs[0];
 
 		ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
@@ -44,9 +44,16 @@ import cytoscape.util.intr.IntIterator;
 import junit.framework.*;
 
 public class GraphTest extends TestCase {
+	/**
+	 * Returns a new instance of the implementation under test.
+	 */
+	protected DynamicGraph instantiateGraph() {
+		return DynamicGraphFactory.instantiateDynamicGraph();
+	}
+
 
 	public void testGraph() {
-		final DynamicGraph graph = DynamicGraphFactory.instantiateDynamicGraph();
+		final DynamicGraph graph = instantiateGraph();
 		//System.out.println("Creating 10 nodes...");
 		long begin = System.nanoTime();
 
@@ -0,0 +1,298 @@
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+ */
+package cytoscape.render.immed;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+
+/**
+ * Counts of the edges that pass through each pixel of an image.  When a view
+ * shows more edges than it has pixels, drawing every edge as a line only
+ * yields a solid blob; accumulating the lines and drawing each pixel once, in
+ * a color that depends on how many edges pass through it, shows where the
+ * edges are dense and costs a fraction of the time.<p>
+ * Lines are rasterized the way drawLine() rasterizes them, one pixel per
+ * column or row.  The color of a pixel is the mean color of the edges through
+ * it, and its opacity grows with the logarithm of their number.  The opacity
+ * does not depend on other pixels, so images that are pieces of a larger
+ * frame fit together.  Once a pixel is opaque, further edges through it are
+ * not counted.
+ */
+final class EdgeDensityBuffer {
+	// The opacity of a pixel with one edge through it.
+	private static final int MIN_ALPHA = 96;
+
+	// Pixels with at least this many edges through them are opaque.
+	private static final int SATURATION = 4096;
+
+	private static final int[] ALPHAS = new int[SATURATION + 1];
+
+	static {
+		for (int i = 1; i <= SATURATION; i++)
+			ALPHAS[i] = MIN_ALPHA
+			            + (int) Math.round(((255 - MIN_ALPHA) * Math.log(i)) / Math.log(SATURATION));
+	}
+
+	// The sums of the red, green and blue components of the edge colors of a
+	// pixel are packed in 21 bits each; they cannot overflow since at most
+	// SATURATION edges are counted.
+	private static final int RED_SHIFT = 42;
+	private static final int GREEN_SHIFT = 21;
+	private static final long SUM_MASK = 0x1fffffL;
+
+	private final int m_width;
+	private final int m_height;
+
+	// Most views have a single low detail edge color, so the color sums are
+	// only kept once edges of a second color are added.  Until then, every
+	// edge has the color m_rgb.
+	private final short[] m_counts;
+	private long[] m_sums = null;
+	private boolean m_mixed = false;
+	private int m_rgb;
+	private long m_sum;
+	private final BufferedImage m_image;
+	private final int[] m_pixels;
+	private final double[] m_p = new double[4];
+	private final double[] m_q = new double[4];
+
+	// The rows that have edges through them.
+	private int m_yMin;
+	private int m_yMax;
+
+	EdgeDensityBuffer(final int width, final int height) {
+		m_width = width;
+		m_height = height;
+		m_counts = new short[width * height];
+		m_image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		m_pixels = ((DataBufferInt) m_image.getRaster().getDataBuffer()).getData();
+		m_yMin = height;
+		m_yMax = -1;
+	}
+
+	int getWidth() {
+		return m_width;
+	}
+
+	int getHeight() {
+		return m_height;
+	}
+
+	/**
+	 * Returns true if and only if no edges have been added since this buffer
+	 * was last drawn or reset.
+	 */
+	boolean isEmpty() {
+		return m_yMax < m_yMin;
+	}
+
+	/**
+	 * Adds an edge from (x0, y0) to (x1, y1), in image coordinates.  The parts
+	 * of the edge outside of the image are ignored.
+	 */
+	void addEdge(final double x0, final double y0, final double x1, final double y1,
+	             final int rgb) {
+		// Clip the edge to the image, so that long edges that mostly lie
+		// outside of it cost nothing.
+		final double dx = x1 - x0;
+		final double dy = y1 - y0;
+		double tMin = 0.0d;
+		double tMax = 1.0d;
+		final double[] p = m_p;
+		final double[] q = m_q;
+		p[0] = -dx;
+		p[1] = dx;
+		p[2] = -dy;
+		p[3] = dy;
+		q[0] = x0;
+		q[1] = m_width - x0;
+		q[2] = y0;
+		q[3] = m_height - y0;
+
+		for (int i = 0; i < 4; i++) {
+			if (p[i] == 0.0d) {
+				if (q[i] < 0.0d)
+					return;
+			} else {
+				final double t = q[i] / p[i];
+
+				if (p[i] < 0.0d) {
+					if (t > tMin)
+						tMin = t;
+				} else if (t < tMax)
+					tMax = t;
+			}
+		}
+
+		if (tMin > tMax)
+			return;
+
+		final int xNot = clamp((int) Math.floor(x0 + (tMin * dx)), m_width);
+		final int yNot = clamp((int) Math.floor(y0 + (tMin * dy)), m_height);
+		final int xOne = clamp((int) Math.floor(x0 + (tMax * dx)), m_width);
+		final int yOne = clamp((int) Math.floor(y0 + (tMax * dy)), m_height);
+		setColor(rgb & 0xffffff);
+
+		// Bresenham's algorithm.
+		final int xStep = (xOne < xNot) ? -1 : 1;
+		final int yStep = (yOne < yNot) ? -1 : 1;
+		final int xDist = Math.abs(xOne - xNot);
+		final int yDist = Math.abs(yOne - yNot);
+		int x = xNot;
+		int y = yNot;
+
+		if (xDist >= yDist) {
+			int err = xDist / 2;
+
+			for (int i = 0; i <= xDist; i++) {
+				add((y * m_width) + x);
+				x += xStep;
+				err -= yDist;
+
+				if (err < 0) {
+					y += yStep;
+					err += xDist;
+				}
+			}
+		} else {
+			int err = yDist / 2;
+
+			for (int i = 0; i <= yDist; i++) {
+				add((y * m_width) + x);
+				y += yStep;
+				err -= xDist;
+
+				if (err < 0) {
+					x += xStep;
+					err += yDist;
+				}
+			}
+		}
+
+		m_yMin = Math.min(m_yMin, Math.min(yNot, yOne));
+		m_yMax = Math.max(m_yMax, Math.max(yNot, yOne));
+	}
+
+	private static int clamp(final int value, final int length) {
+		return Math.max(0, Math.min(length - 1, value));
+	}
+
+	private void setColor(final int rgb) {
+		if (isEmpty())
+			m_rgb = rgb;
+		else if (!m_mixed && (rgb != m_rgb)) {
+			// Start keeping color sums, for the edges added so far too.
+			if (m_sums == null)
+				m_sums = new long[m_counts.length];
+
+			final long sum = pack(m_rgb);
+			final int to = (m_yMax + 1) * m_width;
+
+			for (int inx = m_yMin * m_width; inx < to; inx++)
+				m_sums[inx] = m_counts[inx] * sum;
+
+			m_mixed = true;
+		}
+
+		m_sum = pack(rgb);
+	}
+
+	private static long pack(final int rgb) {
+		return (((long) ((rgb >> 16) & 0xff)) << RED_SHIFT)
+		       | (((long) ((rgb >> 8) & 0xff)) << GREEN_SHIFT) | (rgb & 0xff);
+	}
+
+	private void add(final int inx) {
+		if (m_counts[inx] < SATURATION) {
+			m_counts[inx]++;
+
+			if (m_mixed)
+				m_sums[inx] += m_sum;
+		}
+	}
+
+	/**
+	 * Draws the pixels that edges pass through on top of what is in g, then
+	 * resets this buffer.
+	 */
+	void draw(final Graphics2D g) {
+		if (isEmpty())
+			return;
+
+		final int from = m_yMin * m_width;
+		final int to = (m_yMax + 1) * m_width;
+
+		for (int inx = from; inx < to; inx++) {
+			final int count = m_counts[inx];
+
+			if (count == 0)
+				m_pixels[inx] = 0;
+			else if (!m_mixed)
+				m_pixels[inx] = (ALPHAS[count] << 24) | m_rgb;
+			else {
+				final long sums = m_sums[inx];
+				final int red = (int) ((sums >>> RED_SHIFT) & SUM_MASK) / count;
+				final int green = (int) ((sums >>> GREEN_SHIFT) & SUM_MASK) / count;
+				final int blue = (int) (sums & SUM_MASK) / count;
+				m_pixels[inx] = (ALPHAS[count] << 24) | (red << 16) | (green << 8) | blue;
+			}
+		}
+
+		g.drawImage(m_image, 0, m_yMin, m_width, m_yMax + 1, 0, m_yMin, m_width, m_yMax + 1, null);
+		reset();
+	}
+
+	/**
+	 * Forgets the edges added to this buffer.
+	 */
+	void reset() {
+		if (isEmpty())
+			return;
+
+		final int from = m_yMin * m_width;
+		final int to = (m_yMax + 1) * m_width;
+		Arrays.fill(m_counts, from, to, (short) 0);
+
+		if (m_mixed)
+			Arrays.fill(m_sums, from, to, 0L);
+
+		m_mixed = false;
+		m_yMin = m_height;
+		m_yMax = -1;
+	}
+}
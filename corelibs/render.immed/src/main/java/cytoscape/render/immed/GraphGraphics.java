@@ -178,8 +178,14 @@ public final class GraphGraphics {
 
 	static {
 		dummyGraphics = new GraphGraphics(null, false);
-		
-		nodeShapes = new HashMap<Byte,NodeShape>();
+		nodeShapes = createNodeShapes();
+		arrows = createArrows();
+	}
+
+	// Node shapes and arrows reuse a Shape object for every call, so each
+	// instance has its own; that way instances can render concurrently.
+	static Map<Byte,NodeShape> createNodeShapes() {
+		final Map<Byte,NodeShape> nodeShapes = new HashMap<Byte,NodeShape>();
 
 		nodeShapes.put(SHAPE_RECTANGLE, new RectangleNodeShape()); 
 		nodeShapes.put(SHAPE_ELLIPSE, new EllipseNodeShape()); 
@@ -191,7 +197,11 @@ public final class GraphGraphics {
 		nodeShapes.put(SHAPE_TRIANGLE, new TriangleNodeShape()); 
 		nodeShapes.put(SHAPE_VEE, new VeeNodeShape());
 
-		arrows = new HashMap<Byte,Arrow>();
+		return nodeShapes;
+	}
+
+	private static Map<Byte,Arrow> createArrows() {
+		final Map<Byte,Arrow> arrows = new HashMap<Byte,Arrow>();
 
 		arrows.put(ARROW_NONE, new NoArrow() );
 		arrows.put(ARROW_DELTA, new DeltaArrow() );
@@ -201,6 +211,8 @@ public final class GraphGraphics {
 		arrows.put(ARROW_ARROWHEAD, new ArrowheadArrow() );
 		arrows.put(ARROW_HALF_TOP, new HalfTopArrow() );
 		arrows.put(ARROW_HALF_BOTTOM, new HalfBottomArrow() );
+
+		return arrows;
 	}
 
 	private static final float DEF_SHAPE_SIZE = 32;
@@ -210,6 +222,8 @@ public final class GraphGraphics {
 	 */
 	public final Image image;
 	private final boolean m_debug;
+	private final Map<Byte,NodeShape> m_nodeShapes = createNodeShapes();
+	private final Map<Byte,Arrow> m_arrows = createArrows();
 	private final AffineTransform m_currXform = new AffineTransform();
 	private final AffineTransform m_currNativeXform = new AffineTransform();
 	private final AffineTransform m_xformUtil = new AffineTransform();
@@ -219,6 +233,7 @@ public final class GraphGraphics {
 	private final GeneralPath m_path2dPrime = new GeneralPath();
 	private final Line2D.Double m_line2d = new Line2D.Double();
 	private final double[] m_ptsBuff = new double[4];
+	private EdgeDensityBuffer m_edgeDensity = null;
 
 	// package scoped for unit testing
 	final EdgeAnchors m_noAnchors = new EdgeAnchors() {
@@ -294,7 +309,8 @@ public final class GraphGraphics {
 	 * @param bgPaint
 	 *            paint to use when clearing the image before painting a new
 	 *            frame; translucency is honored, provided that the underlying
-	 *            image supports it.
+	 *            image supports it.  May be null, in which case the image is
+	 *            left as it is and the new frame is painted on top of it.
 	 * @param xCenter
 	 *            the X component of the translation transform for the frame
 	 *            about to be rendered; a node whose center is at the X
@@ -339,11 +355,17 @@ public final class GraphGraphics {
 
 		m_g2d = (Graphics2D) image.getGraphics();
 
-		final Composite origComposite = m_g2d.getComposite();
-		m_g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC));
-		m_g2d.setPaint(bgPaint);
-		m_g2d.fillRect(0, 0, image.getWidth(null), image.getHeight(null));
-		m_g2d.setComposite(origComposite);
+		if (m_edgeDensity != null) {
+			m_edgeDensity.reset();
+		}
+
+		if (bgPaint != null) {
+			final Composite origComposite = m_g2d.getComposite();
+			m_g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC));
+			m_g2d.setPaint(bgPaint);
+			m_g2d.fillRect(0, 0, image.getWidth(null), image.getHeight(null));
+			m_g2d.setComposite(origComposite);
+		}
 		
 		// For detailed view, render high quality image as much as possible.
 		
@@ -480,11 +502,13 @@ public final class GraphGraphics {
 		m_currXform.transform(m_ptsBuff, 0, m_ptsBuff, 0, 2);
 
 		// Here, double values outside of the range of ints will be cast to
-		// the nearest int without overflow.
-		final int xNot = (int) m_ptsBuff[0];
-		final int yNot = (int) m_ptsBuff[1];
-		final int xOne = (int) m_ptsBuff[2];
-		final int yOne = (int) m_ptsBuff[3];
+		// the nearest int without overflow.  Rounding down rather than toward
+		// zero puts points left of or above the image in the same place as in
+		// a larger image that contains them.
+		final int xNot = (int) Math.floor(m_ptsBuff[0]);
+		final int yNot = (int) Math.floor(m_ptsBuff[1]);
+		final int xOne = (int) Math.floor(m_ptsBuff[2]);
+		final int yOne = (int) Math.floor(m_ptsBuff[3]);
 		m_gMinimal.setColor(fillColor);
 		m_gMinimal.fillRect(xNot, yNot, Math.max(1, xOne - xNot), // Overflow will
 		                                Math.max(1, yOne - yNot)); // be problem.
@@ -597,6 +621,118 @@ public final class GraphGraphics {
 		m_g2d.fill(sx);
 	}
 
+	/**
+	 * Draws a node that is small on screen by copying a pre-rasterized image
+	 * of it, which is much faster than drawNodeFull() when many nodes of the
+	 * same look are drawn.  The image is rendered as drawNodeFull() renders
+	 * the node, except that the node is snapped to whole pixels: its width
+	 * and height are rounded to whole pixels and its border width to quarters
+	 * of a pixel.
+	 * <p>
+	 * Only nodes of the built-in shapes, filled with a Color, whose border (if
+	 * any) is a Color, and whose width and height on screen do not exceed
+	 * maxSize pixels can be drawn this way.  For any other node this method
+	 * draws nothing and returns false, and drawNodeFull() should be used
+	 * instead.
+	 * <p>
+	 * This method will not work unless clear() has been called at least once
+	 * previously.
+	 * 
+	 * @param nodeShape
+	 *            the shape of the node to draw (one of the SHAPE_* constants).
+	 * @param xMin
+	 *            an extent of the node shape to draw, in node coordinate
+	 *            space; the drawn shape will theoretically contain a point that
+	 *            lies on this X coordinate.
+	 * @param yMin
+	 *            an extent of the node shape to draw, in node coordinate
+	 *            space; the drawn shape will theoretically contain a point that
+	 *            lies on this Y coordinate.
+	 * @param xMax
+	 *            an extent of the node shape to draw, in node coordinate
+	 *            space; the drawn shape will theoretically contain a point that
+	 *            lies on this X coordinate.
+	 * @param yMax
+	 *            an extent of the node shape to draw, in node coordinate
+	 *            space; the drawn shape will theoretically contain a point that
+	 *            lies on this Y coordinate.
+	 * @param fillPaint
+	 *            the paint to use when drawing the node area minus the border
+	 *            (the "interior" of the node).
+	 * @param borderWidth
+	 *            the border width, in node coordinate space; if this value is
+	 *            zero, the rendering engine skips over the process of rendering
+	 *            the border, which gives a significant performance boost.
+	 * @param borderPaint
+	 *            if borderWidth is not zero, this paint is used for rendering
+	 *            the node border; otherwise, this parameter is ignored (and may
+	 *            be null).
+	 * @param maxSize
+	 *            the largest width and height of the node on screen, in pixels,
+	 *            for which it is drawn from an image.
+	 * @return true if the node was drawn, or false if it must be drawn with
+	 *         drawNodeFull().
+	 */
+	public final boolean drawNodeSprite(final byte nodeShape, final float xMin,
+			final float yMin, final float xMax, final float yMax,
+			final Paint fillPaint, final float borderWidth,
+			final Paint borderPaint, final int maxSize) {
+		if (m_debug) {
+			checkDispatchThread();
+			checkCleared();
+			checkOrder(xMin,xMax,"x");
+			checkOrder(yMin,yMax,"y");
+		}
+
+		if ((nodeShape < 0) || (nodeShape > s_last_shape)
+				|| !(fillPaint instanceof Color)
+				|| ((borderWidth > 0.0f) && !(borderPaint instanceof Color))) {
+			return false;
+		}
+
+		m_ptsBuff[0] = xMin;
+		m_ptsBuff[1] = yMin;
+		m_ptsBuff[2] = xMax;
+		m_ptsBuff[3] = yMax;
+		m_currXform.transform(m_ptsBuff, 0, m_ptsBuff, 0, 2);
+
+		final double width = m_ptsBuff[2] - m_ptsBuff[0];
+		final double height = m_ptsBuff[3] - m_ptsBuff[1];
+		final int maxPixels = Math.min(maxSize, NodeSpriteCache.MAX_SIZE);
+
+		if (!((width <= maxPixels) && (height <= maxPixels))) {
+			return false;
+		}
+
+		// The scale is the same in both directions.
+		final int quarterBorderWidth = (int) Math.round(4.0d * borderWidth
+				* m_currXform.getScaleX());
+
+		if (quarterBorderWidth > 255) {
+			return false;
+		}
+
+		final int pixelWidth = Math.max(1, (int) Math.round(width));
+		final int pixelHeight = Math.max(1, (int) Math.round(height));
+		final BufferedImage sprite = NodeSpriteCache.getShared().getSprite(nodeShape,
+				(Color) fillPaint, quarterBorderWidth,
+				(quarterBorderWidth == 0) ? null : (Color) borderPaint,
+				pixelWidth, pixelHeight);
+
+		if (m_gMinimal == null) {
+			makeMinimalGraphics();
+		}
+
+		// Keep the node centered where it would be drawn by drawNodeFull().
+		final int x = (int) Math.floor((0.5d * (m_ptsBuff[0] + m_ptsBuff[2]))
+				- (0.5d * pixelWidth) + 0.5d) - NodeSpriteCache.MARGIN;
+		final int y = (int) Math.floor((0.5d * (m_ptsBuff[1] + m_ptsBuff[3]))
+				- (0.5d * pixelHeight) + 0.5d) - NodeSpriteCache.MARGIN;
+		m_gMinimal.drawImage(sprite, x, y, null);
+
+		return true;
+	}
+
 	/**
 	 * Computes the path a node shape takes; this method is useful if a user
 	 * interface would allow user selection of nodes, for example. Use the same
@@ -786,7 +922,7 @@ public final class GraphGraphics {
 			throw new IllegalStateException( "too many custom node shapes are already defined");
 
 		m_lastCustomShapeType++;
-		nodeShapes.put(nextCustomShapeType, new LegacyCustomNodeShape(polyCoords,nextCustomShapeType));
+		m_nodeShapes.put(nextCustomShapeType, new LegacyCustomNodeShape(polyCoords,nextCustomShapeType));
 
 		return nextCustomShapeType;
 	}
@@ -835,7 +971,7 @@ public final class GraphGraphics {
 		if ( !customNodeShapeExists(customShape) )
 			return null;
 
-		LegacyCustomNodeShape ns = (LegacyCustomNodeShape)(nodeShapes.get(customShape));
+		LegacyCustomNodeShape ns = (LegacyCustomNodeShape)(m_nodeShapes.get(customShape));
 		return ns.getCoords();
 	}
 
@@ -861,15 +997,15 @@ public final class GraphGraphics {
 					"a custom node shape is already defined in this GraphGraphics");
 		}
 
-		for (Map.Entry<Byte, NodeShape> entry : grafx.nodeShapes.entrySet()) {
-			nodeShapes.put(entry.getKey(), entry.getValue());
+		for (final byte shape : grafx.getCustomNodeShapes()) {
+			m_nodeShapes.put(shape, ((LegacyCustomNodeShape) grafx.m_nodeShapes.get(shape)).copy());
 			m_lastCustomShapeType++;
 		}
 	}
 
 	private final Shape getShape(final byte nodeShape, final float xMin,
 			final float yMin, final float xMax, final float yMax) {
-		NodeShape ns = nodeShapes.get(nodeShape);
+		NodeShape ns = m_nodeShapes.get(nodeShape);
 		if ( ns != null )
 			return ns.getShape(xMin,yMin,xMax,yMax);
 		else
@@ -960,14 +1096,96 @@ public final class GraphGraphics {
 		m_ptsBuff[3] = y1;
 		m_currXform.transform(m_ptsBuff, 0, m_ptsBuff, 0, 2);
 
-		final int xNot = (int) m_ptsBuff[0];
-		final int yNot = (int) m_ptsBuff[1];
-		final int xOne = (int) m_ptsBuff[2];
-		final int yOne = (int) m_ptsBuff[3];
+		// See drawNodeLow() about rounding.
+		final int xNot = (int) Math.floor(m_ptsBuff[0]);
+		final int yNot = (int) Math.floor(m_ptsBuff[1]);
+		final int xOne = (int) Math.floor(m_ptsBuff[2]);
+		final int yOne = (int) Math.floor(m_ptsBuff[3]);
 		m_gMinimal.setColor(edgeColor);
 		m_gMinimal.drawLine(xNot, yNot, xOne, yOne);
 	}
 
+	/**
+	 * Adds an edge to the edge density of this frame, which is drawn by
+	 * drawEdgeDensity(). This is the fastest way to render a very large
+	 * number of edges; an edge is not drawn by itself, instead the pixels it
+	 * passes through are counted. Rendering all edges of a view this way and
+	 * then calling drawEdgeDensity() shows where edges are dense, where
+	 * drawing them with drawEdgeLow() only shows where there are any.
+	 * <p>
+	 * The endpoints are specified in the node coordinate space, as with
+	 * drawEdgeLow(). Edges added are forgotten by clear().
+	 * <p>
+	 * This method will not work unless clear() has been called at least once
+	 * previously.
+	 * 
+	 * @param x0
+	 *            the X coordinate of the begin point of edge to render.
+	 * @param y0
+	 *            the Y coordinate of the begin point of edge to render.
+	 * @param x1
+	 *            the X coordinate of the end point of edge to render.
+	 * @param y1
+	 *            the Y coordinate of the end point of edge to render.
+	 * @param edgeColor
+	 *            the color of the edge; the color of a pixel is the mean of
+	 *            the colors of the edges through it, and translucency is
+	 *            ignored.
+	 */
+	public final void addEdgeDensity(final float x0, final float y0,
+			final float x1, final float y1, final Color edgeColor) {
+		if (m_debug) {
+			checkDispatchThread();
+			checkCleared();
+		}
+
+		// This following statement has to be consistent with the low edge
+		// rendering logic.
+		if ((x0 == x1) && (y0 == y1)) {
+			return;
+		}
+
+		if (m_edgeDensity == null) {
+			m_edgeDensity = new EdgeDensityBuffer(image.getWidth(null),
+					image.getHeight(null));
+		}
+
+		m_ptsBuff[0] = x0;
+		m_ptsBuff[1] = y0;
+		m_ptsBuff[2] = x1;
+		m_ptsBuff[3] = y1;
+		m_currXform.transform(m_ptsBuff, 0, m_ptsBuff, 0, 2);
+		m_edgeDensity.addEdge(m_ptsBuff[0], m_ptsBuff[1], m_ptsBuff[2],
+				m_ptsBuff[3], edgeColor.getRGB());
+	}
+
+	/**
+	 * Draws the edges added by addEdgeDensity() since the last call to this
+	 * method or to clear(). Each pixel that edges pass through is drawn once,
+	 * in the mean color of those edges; the more edges pass through it, the
+	 * more opaque it is, on a logarithmic scale. Pixels with a few thousand
+	 * edges through them are opaque.
+	 * <p>
+	 * This method will not work unless clear() has been called at least once
+	 * previously.
+	 */
+	public final void drawEdgeDensity() {
+		if (m_debug) {
+			checkDispatchThread();
+			checkCleared();
+		}
+
+		if ((m_edgeDensity == null) || m_edgeDensity.isEmpty()) {
+			return;
+		}
+
+		if (m_gMinimal == null) {
+			makeMinimalGraphics();
+		}
+
+		m_edgeDensity.draw(m_gMinimal);
+	}
+
 	/**
 	 * Draws an edge with medium to high detail, depending on parameters
 	 * specified. Something is rendered in all cases except where the length of
@@ -1256,7 +1474,7 @@ public final class GraphGraphics {
 			throw new IllegalArgumentException("edgeThickness < 0");
 		}
 
-		if ( !arrows.containsKey( arrow0Type ) )
+		if ( !m_arrows.containsKey( arrow0Type ) )
 			throw new IllegalArgumentException("arrow0Type is not recognized");
 
 		if ( arrow0Type != ARROW_NONE )
@@ -1264,7 +1482,7 @@ public final class GraphGraphics {
 				throw new IllegalArgumentException(
 						"arrow size must be at least as large as edge thickness");
 
-		if ( !arrows.containsKey( arrow1Type ) )
+		if ( !m_arrows.containsKey( arrow1Type ) )
 			throw new IllegalArgumentException("arrow1Type is not recognized");
 
 		if ( arrow1Type != ARROW_NONE )
@@ -1456,10 +1674,10 @@ public final class GraphGraphics {
 		if (m_debug) {
 			checkDispatchThread();
 
-			if ( !arrows.containsKey( arrow0Type ) )
+			if ( !m_arrows.containsKey( arrow0Type ) )
 				throw new IllegalArgumentException("arrow0Type is not recognized");
 
-			if ( !arrows.containsKey( arrow1Type ) )
+			if ( !m_arrows.containsKey( arrow1Type ) )
 				throw new IllegalArgumentException("arrow1Type is not recognized");
 
 			if (anchors.numAnchors() > MAX_EDGE_ANCHORS) {
@@ -1513,7 +1731,7 @@ public final class GraphGraphics {
 	 * specified. 
 	 */
 	private final Shape computeUntransformedArrow(final byte arrowType) {
-		Arrow a = arrows.get(arrowType);
+		Arrow a = m_arrows.get(arrowType);
 		if ( a != null )
 			return a.getArrowShape();
 		else
@@ -1526,7 +1744,7 @@ public final class GraphGraphics {
 	 * only if a cap is necessary for the arrow type specified. 
 	 */
 	private final Shape computeUntransformedArrowCap(final byte arrowType, final double ratio) {
-		Arrow a = arrows.get(arrowType);
+		Arrow a = m_arrows.get(arrowType);
 		if ( a != null )
 			return a.getCapShape(ratio);
 		else
@@ -1791,7 +2009,7 @@ public final class GraphGraphics {
 			}
 		}
 
-		NodeShape ns = nodeShapes.get(nodeShape);
+		NodeShape ns = m_nodeShapes.get(nodeShape);
 		if (ns == null)
 			return false;
 		else
@@ -1979,6 +2197,73 @@ public final class GraphGraphics {
 		m_g2d.setTransform(m_currNativeXform);
 	}
 
+	/**
+	 * Renders text that has already been measured, with high detail.  This
+	 * is the same as drawTextFull(Font, double, String, float, float, float,
+	 * Paint, boolean), except that the caller supplies the bounds and, when
+	 * drawing text as shape, the outline that that method would compute.
+	 * This lets callers keep them between frames.
+	 * <p>
+	 * This method will not work unless clear() has been called at least once
+	 * previously.
+	 *
+	 * @param font
+	 *            the font the text was measured with.
+	 * @param scaleFactor
+	 *            the additional scaling of the font; see drawTextFull().
+	 * @param text
+	 *            the text to render.
+	 * @param textBounds
+	 *            the logical bounds of the text, measured with font and the
+	 *            context returned by getFontRenderContextFull().
+	 * @param textShape
+	 *            the outline of the glyphs of the text, laid out with font and
+	 *            the context returned by getFontRenderContextFull(), to fill
+	 *            instead of drawing the string; null to draw the string.
+	 * @param xCenter
+	 *            the X coordinate to center the text on (in the node
+	 *            coordinate system).
+	 * @param yCenter
+	 *            the Y coordinate to center the text on (in the node
+	 *            coordinate system).
+	 * @param theta
+	 *            in radians, specifies the angle of the text.
+	 * @param paint
+	 *            the paint to use in rendering the text.
+	 */
+	public final void drawTextFull(final Font font, final double scaleFactor,
+			final String text, final Rectangle2D textBounds, final Shape textShape,
+			final float xCenter, final float yCenter, final float theta,
+			final Paint paint) {
+		if (font.getSize() == 0) return;
+		if (m_debug) {
+			checkDispatchThread();
+			checkCleared();
+			if (scaleFactor < 0.0) {
+				throw new IllegalArgumentException("scaleFactor must be positive");
+			}
+		}
+
+		m_g2d.translate(xCenter, yCenter);
+		m_g2d.scale(scaleFactor, scaleFactor);
+
+		if (theta != 0.0f) {
+			m_g2d.rotate(theta);
+		}
+
+		m_g2d.setPaint(paint);
+		m_g2d.translate(-textBounds.getCenterX(), -textBounds.getCenterY());
+
+		if (textShape != null) {
+			m_g2d.fill(textShape);
+		} else {
+			m_g2d.setFont(font);
+			m_g2d.drawString(text, 0.0f, 0.0f);
+		}
+
+		m_g2d.setTransform(m_currNativeXform);
+	}
+
 	/**
 	 * Returns the context that is used by drawTextFull() to produce text shapes
 	 * to be drawn to the screen. This context always has the identity
@@ -2030,12 +2315,14 @@ public final class GraphGraphics {
 	}
 
 	private Stroke getStroke(float borderWidth) {
-		Stroke s = borderStrokes.get(borderWidth);
-		if ( s == null ) {
-			s = new BasicStroke(borderWidth);
-			borderStrokes.put(borderWidth, s);
+		synchronized (borderStrokes) {
+			Stroke s = borderStrokes.get(borderWidth);
+			if ( s == null ) {
+				s = new BasicStroke(borderWidth);
+				borderStrokes.put(borderWidth, s);
+			}
+			return s; 
 		}
-		return s; 
 	}
 
 	private void checkDispatchThread() {
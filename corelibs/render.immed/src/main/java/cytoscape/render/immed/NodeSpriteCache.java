@@ -0,0 +1,185 @@
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+ */
+package cytoscape.render.immed;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import cytoscape.render.immed.nodeshape.NodeShape;
+
+
+/**
+ * Small pre-rasterized images of nodes, shared by all instances of
+ * GraphGraphics.  A node that is only a few pixels across on screen looks the
+ * same for every node of the same shape, colors and size in whole pixels, so
+ * it is rendered once into an image, which is then copied onto the screen for
+ * every such node.  The least recently used images are dropped once the
+ * memory they hold exceeds a limit.  All methods of this class are thread
+ * safe.
+ */
+final class NodeSpriteCache {
+	/**
+	 * The largest width and height, in pixels, of a node drawn from an image.
+	 */
+	static final int MAX_SIZE = 128;
+
+	// The image of a node is larger than the node by this many pixels on each
+	// side, for anti-aliased edges that fall outside of it.
+	static final int MARGIN = 1;
+
+	private static final long MAX_BYTES = 8L * 1024L * 1024L;
+	private static final NodeSpriteCache SHARED = new NodeSpriteCache();
+
+	// Node shape objects are not thread safe, so this cache has its own.
+	private final Map<Byte, NodeShape> m_nodeShapes = GraphGraphics.createNodeShapes();
+	private final LinkedHashMap<Key, BufferedImage> m_sprites = new LinkedHashMap<Key, BufferedImage>(64,
+	                                                                                                 0.75f,
+	                                                                                                 true);
+	private long m_bytes = 0;
+
+	static NodeSpriteCache getShared() {
+		return SHARED;
+	}
+
+	/*
+	 * Returns the image of a node of the given built-in shape, colors and size
+	 * in pixels, whose border width is in quarters of a pixel.  The node is
+	 * drawn MARGIN pixels from the top left corner of the image.
+	 */
+	synchronized BufferedImage getSprite(final byte nodeShape, final Color fillColor,
+	                                     final int quarterBorderWidth, final Color borderColor,
+	                                     final int width, final int height) {
+		final Key key = new Key(nodeShape, fillColor.getRGB(),
+		                        (borderColor == null) ? 0 : borderColor.getRGB(),
+		                        quarterBorderWidth, width, height);
+		BufferedImage sprite = m_sprites.get(key);
+
+		if (sprite != null)
+			return sprite;
+
+		sprite = createSprite(nodeShape, fillColor, quarterBorderWidth / 4.0f, borderColor, width,
+		                      height);
+		m_sprites.put(key, sprite);
+		m_bytes += bytes(sprite);
+
+		final Iterator<BufferedImage> eldest = m_sprites.values().iterator();
+
+		while ((m_bytes > MAX_BYTES) && eldest.hasNext()) {
+			m_bytes -= bytes(eldest.next());
+			eldest.remove();
+		}
+
+		return sprite;
+	}
+
+	synchronized void clear() {
+		m_sprites.clear();
+		m_bytes = 0;
+	}
+
+	synchronized int size() {
+		return m_sprites.size();
+	}
+
+	private static long bytes(final BufferedImage sprite) {
+		return 4L * sprite.getWidth() * sprite.getHeight();
+	}
+
+	// Renders the node as GraphGraphics.drawNodeFull() does.
+	private BufferedImage createSprite(final byte nodeShape, final Color fillColor,
+	                                   final float borderWidth, final Color borderColor,
+	                                   final int width, final int height) {
+		final BufferedImage sprite = new BufferedImage(width + (2 * MARGIN),
+		                                               height + (2 * MARGIN),
+		                                               BufferedImage.TYPE_INT_ARGB_PRE);
+		final Graphics2D g = sprite.createGraphics();
+		g.setComposite(AlphaComposite.SrcOver);
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+
+		final float off = borderWidth / 2.0f;
+		final Shape shape = m_nodeShapes.get(nodeShape)
+		                                .getShape(MARGIN + off, MARGIN + off,
+		                                          (MARGIN + width) - off, (MARGIN + height) - off);
+
+		if ((borderWidth > 0.0f) && (borderColor != null)) {
+			g.setPaint(borderColor);
+			g.setStroke(new BasicStroke(borderWidth));
+			g.draw(shape);
+		}
+
+		g.setPaint(fillColor);
+		g.fill(shape);
+		g.dispose();
+
+		return sprite;
+	}
+
+	private static final class Key {
+		private final int fillRGB;
+		private final int borderRGB;
+		private final int dims; // Shape, border width, width and height.
+
+		Key(final byte nodeShape, final int fillRGB, final int borderRGB,
+		    final int quarterBorderWidth, final int width, final int height) {
+			this.fillRGB = fillRGB;
+			this.borderRGB = borderRGB;
+			this.dims = (nodeShape << 24) | (quarterBorderWidth << 16) | (width << 8) | height;
+		}
+
+		public int hashCode() {
+			return (((31 * fillRGB) + borderRGB) * 31) + dims;
+		}
+
+		public boolean equals(final Object o) {
+			if (!(o instanceof Key))
+				return false;
+
+			final Key other = (Key) o;
+
+			return (fillRGB == other.fillRGB) && (borderRGB == other.borderRGB)
+			       && (dims == other.dims);
+		}
+	}
+}
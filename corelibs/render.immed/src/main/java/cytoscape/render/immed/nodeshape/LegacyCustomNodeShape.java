@@ -56,6 +56,14 @@ public class LegacyCustomNodeShape extends AbstractNodeShape {
 		xform = new AffineTransform(); 
 	}
 
+	/**
+	 * Returns a shape with the same coordinates.  getShape() reuses the Shape
+	 * it returns, so shapes must not be shared by GraphGraphics instances.
+	 */
+	public LegacyCustomNodeShape copy() {
+		return new LegacyCustomNodeShape(coords, getType());
+	}
+
 	public float[] getCoords() {
 		final float[] returnThis = new float[coords.length];
 
@@ -141,6 +141,68 @@ public class GraphGraphicsTest extends TestCase {
 		}
 	}
 
+	public void testDrawNodeSprite() {
+		final BufferedImage fullImage = new BufferedImage(100,100,BufferedImage.TYPE_INT_ARGB);
+		final GraphGraphics full = new GraphGraphics(fullImage,false);
+		full.clear(Color.white,0,0,1.0);
+		final BufferedImage spriteImage = new BufferedImage(100,100,BufferedImage.TYPE_INT_ARGB);
+		final GraphGraphics sprite = new GraphGraphics(spriteImage,false);
+		sprite.clear(Color.white,0,0,1.0);
+
+		full.drawNodeFull(GraphGraphics.SHAPE_ELLIPSE,-10f,-6f,10f,6f,Color.blue,2f,Color.yellow);
+		assertTrue(sprite.drawNodeSprite(GraphGraphics.SHAPE_ELLIPSE,-10f,-6f,10f,6f,
+		                                 Color.blue,2f,Color.yellow,24));
+
+		// The node is snapped to whole pixels, but its interior and border
+		// are where drawNodeFull() puts them.
+		assertEquals(fullImage.getRGB(50,50),spriteImage.getRGB(50,50));
+		assertEquals(fullImage.getRGB(50,45),spriteImage.getRGB(50,45));
+		assertEquals(Color.white.getRGB(),spriteImage.getRGB(30,50));
+
+		// Nodes that can't be drawn from an image are left alone.
+		assertFalse(sprite.drawNodeSprite(GraphGraphics.SHAPE_ELLIPSE,-30f,-30f,30f,30f,
+		                                  Color.blue,2f,Color.yellow,24));
+		assertFalse(sprite.drawNodeSprite(GraphGraphics.SHAPE_ELLIPSE,-10f,-6f,10f,6f,
+		                                  new java.awt.GradientPaint(0f,0f,Color.red,1f,1f,Color.blue),
+		                                  0f,null,24));
+		assertFalse(sprite.drawNodeSprite(sprite.defineCustomNodeShape(new float[] {-1f,-1f,1f,-1f,0f,1f},0,3),
+		                                  -10f,-6f,10f,6f,Color.blue,0f,null,24));
+		assertEquals(Color.white.getRGB(),spriteImage.getRGB(25,25));
+	}
+
+	public void testDrawEdgeDensity() {
+		final BufferedImage image = new BufferedImage(100,100,BufferedImage.TYPE_INT_ARGB);
+		final GraphGraphics grafx = new GraphGraphics(image,false);
+		grafx.clear(Color.white,0,0,1.0);
+
+		// One edge is drawn translucent, many edges are drawn opaque.
+		grafx.addEdgeDensity(-40f,-20f,40f,-20f,Color.red);
+		for ( int i = 0; i < 5000; i++ )
+			grafx.addEdgeDensity(-40f,20f,40f,20f,Color.red);
+		grafx.drawEdgeDensity();
+
+		final Color sparse = new Color(image.getRGB(50,30));
+		assertEquals(255,sparse.getRed());
+		assertTrue(sparse.getGreen() < 255 && sparse.getGreen() > 0);
+		assertEquals(Color.red.getRGB(),image.getRGB(50,70));
+		assertEquals(Color.white.getRGB(),image.getRGB(50,50));
+		assertEquals(Color.white.getRGB(),image.getRGB(95,70));
+
+		// The color of a pixel is the mean color of its edges.
+		for ( int i = 0; i < 2100; i++ ) {
+			grafx.addEdgeDensity(0f,-100f,0f,100f,Color.red);
+			grafx.addEdgeDensity(0f,-100f,0f,100f,Color.blue);
+		}
+		grafx.drawEdgeDensity();
+		assertEquals(new Color(127,0,127).getRGB(),image.getRGB(50,10));
+
+		// Edges that are not drawn before clear() are forgotten.
+		grafx.addEdgeDensity(-40f,0f,40f,0f,Color.red);
+		grafx.clear(Color.white,0,0,1.0);
+		grafx.drawEdgeDensity();
+		assertEquals(Color.white.getRGB(),image.getRGB(20,50));
+	}
+
 	private long drawCurrentFull(Random rand) {
 		final float nodeSizeFactor = 50f;
 		float size = (float) canvasSize;
@@ -38,6 +38,18 @@ package cytoscape.render.stateful;
  * sense to become familiar with the API cytoscape.render.immed.GraphGraphics.
  */
 public class GraphLOD {
+	/**
+	 * A value for renderEdges() to return in order to render the edges that
+	 * touch a visible node as an edge density image when rendering at low
+	 * detail.  Instead of drawing each edge as a line, the renderer counts the
+	 * edges through every pixel and draws each pixel once, in a color that
+	 * depends on the count; see GraphGraphics.drawEdgeDensity().  This is a
+	 * lot faster than drawing the lines, and unlike the lines it shows where
+	 * the edges of very dense views are.  At full detail edges are rendered
+	 * as if renderEdges() had returned zero.
+	 */
+	public static final byte RENDER_EDGES_DENSITY = Byte.MAX_VALUE;
+
 	/**
 	 * Determines whether or not to render all edges in a graph, no edges, or
 	 * only those edges which touch a visible node.  By default
@@ -50,7 +62,9 @@ public class GraphLOD {
 	 * will have a value which reflects the decision made by the return value
 	 * of this method call.<p>
 	 * Note that rendering all edges leads to a dramatic performance decrease
-	 * when rendering large graphs.
+	 * when rendering large graphs.  RENDER_EDGES_DENSITY, although positive,
+	 * is special; it renders the same edges as zero does, drawn as a density
+	 * image at low detail.
 	 * @param visibleNodeCount the number of nodes visible in the current
 	 *   viewport; note that a visible node is not necessarily a rendered node,
 	 *   because visible nodes with zero width or height are not rendered.
@@ -60,7 +74,9 @@ public class GraphLOD {
 	 *   being rendered.
 	 * @return zero if only edges touching a visible node are to be rendered,
 	 *   positive if all edges are to be rendered, or negative if no edges
-	 *   are to be rendered.
+	 *   are to be rendered; RENDER_EDGES_DENSITY if edges touching a visible
+	 *   node are to be rendered as a density image at low detail.
+	 * @see #RENDER_EDGES_DENSITY
 	 */
 	public byte renderEdges(final int visibleNodeCount, final int totalNodeCount,
 	                        final int totalEdgeCount) {
@@ -79,11 +95,11 @@ public class GraphLOD {
 	 *         <th>full detail</th>
 	 *         <th>low detail</th>                                          </tr>
 	 *   <tr>  <th>nodes</th>
-	 *         <td>drawNodeFull()</td>
+	 *         <td>drawNodeFull() or drawNodeSprite()</td>
 	 *         <td>drawNodeLow()</td>                                       </tr>
 	 *   <tr>  <th>edges</th>
 	 *         <td>drawEdgeFull()</td>
-	 *         <td>drawEdgeLow()</td>                                       </tr>
+	 *         <td>drawEdgeLow() or addEdgeDensity()</td>                   </tr>
 	 *   <tr>  <th>node labels</th>
 	 *         <td>drawTextFull()</td>
 	 *         <td>not rendered</td>                                        </tr>
@@ -228,5 +244,24 @@ public class GraphLOD {
 		return false;
 	}
 
+	/**
+	 * Determines the largest size on screen, in pixels, at which nodes are
+	 * drawn from pre-rasterized images rather than rendered shape by shape.
+	 * This is a level of detail between full and low detail: nodes keep their
+	 * shapes, colors and borders, but are snapped to whole pixels.  By
+	 * default this method returns zero, which turns this off.<p>
+	 * This method affects only nodes filled with a solid color at the full
+	 * detail level.  If low detail is chosen, the output of this method is
+	 * ignored.
+	 * @param renderNodeCount the number of nodes that are about to be rendered.
+	 * @param renderEdgeCount the number of edges that are about to be rendered.
+	 * @return the largest width and height, in pixels, of nodes that are
+	 *   drawn from images, or zero to render all nodes shape by shape.
+	 * @see #detail(int, int)
+	 */
+	public int nodeSpriteSize(final int renderNodeCount, final int renderEdgeCount) {
+		return 0;
+	}
+
 	public double getNestedNetworkImageScaleFactor() { return 1.0; }
 }
@@ -36,13 +36,24 @@
 
 package cytoscape.render.stateful;
 
+import java.awt.AlphaComposite;
 import java.awt.Font;
+import java.awt.Graphics2D;
 import java.awt.Paint;
 import java.awt.Stroke;
 import java.awt.TexturePaint;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.PathIterator;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import cytoscape.geom.spacial.SpacialEntry2DEnumerator;
 import cytoscape.geom.spacial.SpacialIndex2D;
@@ -103,6 +114,33 @@ public final class GraphRenderer {
 	 */
 	public final static int LOD_CUSTOM_GRAPHICS = 0x100;
 
+	/**
+	 * A bit representing that small nodes are drawn from pre-rasterized
+	 * images; see GraphLOD.nodeSpriteSize().
+	 */
+	public final static int LOD_NODE_SPRITES = 0x200;
+
+	/**
+	 * A bit representing that edges are drawn as an edge density image; see
+	 * GraphLOD.RENDER_EDGES_DENSITY.
+	 */
+	public final static int LOD_EDGE_DENSITY = 0x400;
+
+	/**
+	 * A bit representing the edge layer: the background, edges and edge
+	 * labels.
+	 */
+	public final static int LAYER_EDGES = 0x1;
+
+	/**
+	 * A bit representing the node layer: nodes, node labels and custom
+	 * graphics, which are rendered on top of the edge layer.
+	 */
+	public final static int LAYER_NODES = 0x2;
+
+	// Frames are not split into bands less than this many pixels high.
+	private final static int MIN_BAND_HEIGHT = 32;
+
 	// No constructor.
 	private GraphRenderer() {
 	}
@@ -144,6 +182,106 @@ public final class GraphRenderer {
 	                                    final GraphGraphics grafx, final Paint bgPaint,
 	                                    final double xCenter, final double yCenter,
 	                                    final double scaleFactor) {
+		return renderGraph(graph, nodePositions, lod, nodeDetails, edgeDetails, nodeBuff, grafx,
+		                   bgPaint, xCenter, yCenter, scaleFactor, null);
+	}
+
+	/**
+	 * Renders a graph, giving up part way through if asked to.  This is the
+	 * same as the method above, except that cancelled is checked before each
+	 * node is processed; once it is true this method returns immediately and
+	 * whatever has been rendered into grafx so far is an incomplete frame
+	 * that the caller should discard.
+	 * @param cancelled set to true, typically from another thread, to stop
+	 *   rendering; may be null, in which case the frame is always completed.
+	 * @return bits representing the level of detail that was rendered; the
+	 *   return value is a bitwise-or'ed value of the LOD_* constants.
+	 */
+	public final static int renderGraph(final FixedGraph graph, final SpacialIndex2D nodePositions,
+	                                    final GraphLOD lod, final NodeDetails nodeDetails,
+	                                    final EdgeDetails edgeDetails, final IntHash nodeBuff,
+	                                    final GraphGraphics grafx, final Paint bgPaint,
+	                                    final double xCenter, final double yCenter,
+	                                    final double scaleFactor, final AtomicBoolean cancelled) {
+		return renderGraph(graph, nodePositions, lod, nodeDetails, edgeDetails, nodeBuff, grafx,
+		                   bgPaint, xCenter, yCenter, scaleFactor, null, cancelled);
+	}
+
+	/**
+	 * Renders part of a larger frame.  This is the same as the method above,
+	 * except that the nodes to render are queried from visibleExtents rather
+	 * than from the area covered by grafx.  When grafx covers only a piece of
+	 * a frame, passing the extents of the whole frame makes that piece look
+	 * exactly like the same area of the whole frame: the same level of detail
+	 * is chosen and the same edges are rendered, including edges that cross
+	 * the piece without touching a node in it.
+	 * @param visibleExtents an array of four values, xMin, yMin, xMax and yMax
+	 *   of the visible window in node coordinate space; may be null, in which
+	 *   case the area covered by grafx is used.
+	 * @param cancelled set to true, typically from another thread, to stop
+	 *   rendering; may be null, in which case the frame is always completed.
+	 * @return bits representing the level of detail that was rendered; the
+	 *   return value is a bitwise-or'ed value of the LOD_* constants.
+	 */
+	public final static int renderGraph(final FixedGraph graph, final SpacialIndex2D nodePositions,
+	                                    final GraphLOD lod, final NodeDetails nodeDetails,
+	                                    final EdgeDetails edgeDetails, final IntHash nodeBuff,
+	                                    final GraphGraphics grafx, final Paint bgPaint,
+	                                    final double xCenter, final double yCenter,
+	                                    final double scaleFactor, final float[] visibleExtents,
+	                                    final AtomicBoolean cancelled) {
+		return renderGraph(graph, nodePositions, lod, nodeDetails, edgeDetails, nodeBuff, grafx,
+		                   bgPaint, xCenter, yCenter, scaleFactor, visibleExtents, cancelled,
+		                   LAYER_EDGES | LAYER_NODES);
+	}
+
+	/**
+	 * Renders some layers of a graph.  This is the same as the method above,
+	 * except that only the layers specified are rendered.  The edge layer of
+	 * a frame may be kept, and the node layer rendered on top of a copy of it
+	 * with a null bgPaint; the result is the same as rendering both layers at
+	 * once.  This way a change to how nodes look does not require rendering
+	 * the edges again.
+	 * @param bgPaint the background paint to use when calling grafx.clear();
+	 *   may be null, in which case grafx is not cleared.
+	 * @param layers a bitwise-or'ed value of the LAYER_* constants.  If
+	 *   LAYER_EDGES is not included, no edges are rendered and nodeBuff is
+	 *   left empty.
+	 * @return bits representing the level of detail that was rendered; the
+	 *   return value is a bitwise-or'ed value of the LOD_* constants.  The
+	 *   level of detail does not depend on the layers rendered.
+	 */
+	public final static int renderGraph(final FixedGraph graph, final SpacialIndex2D nodePositions,
+	                                    final GraphLOD lod, final NodeDetails nodeDetails,
+	                                    final EdgeDetails edgeDetails, final IntHash nodeBuff,
+	                                    final GraphGraphics grafx, final Paint bgPaint,
+	                                    final double xCenter, final double yCenter,
+	                                    final double scaleFactor, final float[] visibleExtents,
+	                                    final AtomicBoolean cancelled, final int layers) {
+		return renderGraph(graph, nodePositions, lod, nodeDetails, edgeDetails, nodeBuff, grafx,
+		                   bgPaint, xCenter, yCenter, scaleFactor, visibleExtents, cancelled,
+		                   layers, null);
+	}
+
+	/*
+	 * Renders some layers of a graph, leaving out the nodes and edges that
+	 * cannot reach clipExtents, an array of four values, xMin, yMin, xMax
+	 * and yMax in node coordinate space; if clipExtents is null, nothing is
+	 * left out.  The level of detail and the edges rendered still depend on
+	 * the visible window only, so what is left out is exactly what would
+	 * not have touched clipExtents.  Nodes are queried from clipExtents only
+	 * when neither their labels nor their custom graphics are rendered,
+	 * since those may reach far beyond a node.
+	 */
+	private final static int renderGraph(final FixedGraph graph,
+	                                     final SpacialIndex2D nodePositions, final GraphLOD lod,
+	                                     final NodeDetails nodeDetails,
+	                                     final EdgeDetails edgeDetails, final IntHash nodeBuff,
+	                                     final GraphGraphics grafx, final Paint bgPaint,
+	                                     final double xCenter, final double yCenter,
+	                                     final double scaleFactor, final float[] visibleExtents,
+	                                     final AtomicBoolean cancelled, final int layers,
+	                                     final float[] clipExtents) {
 		
 		nodeBuff.empty(); // Make sure we keep our promise.
 
@@ -158,10 +296,18 @@ public final class GraphRenderer {
 
 		// Define the visible window in node coordinate space.
 		final float yMax;
-		xMin = (float) (xCenter - ((0.5d * grafx.image.getWidth(null)) / scaleFactor));
-		yMin = (float) (yCenter - ((0.5d * grafx.image.getHeight(null)) / scaleFactor));
-		xMax = (float) (xCenter + ((0.5d * grafx.image.getWidth(null)) / scaleFactor));
-		yMax = (float) (yCenter + ((0.5d * grafx.image.getHeight(null)) / scaleFactor));
+
+		if (visibleExtents != null) {
+			xMin = visibleExtents[0];
+			yMin = visibleExtents[1];
+			xMax = visibleExtents[2];
+			yMax = visibleExtents[3];
+		} else {
+			xMin = (float) (xCenter - ((0.5d * grafx.image.getWidth(null)) / scaleFactor));
+			yMin = (float) (yCenter - ((0.5d * grafx.image.getHeight(null)) / scaleFactor));
+			xMax = (float) (xCenter + ((0.5d * grafx.image.getWidth(null)) / scaleFactor));
+			yMax = (float) (yCenter + ((0.5d * grafx.image.getHeight(null)) / scaleFactor));
+		}
 
 		// Define buffers.  These are of the few objects we're instantiating
 		// directly in this method.
@@ -198,6 +344,7 @@ public final class GraphRenderer {
 		final int renderNodeCount;
 		final int renderEdgeCount;
 		final byte renderEdges;
+		final boolean edgeDensity;
 
 		{
 			final SpacialEntry2DEnumerator nodeHits = nodePositions.queryOverlap(xMin, yMin, xMax,
@@ -206,7 +353,10 @@ public final class GraphRenderer {
 			final int visibleNodeCount = nodeHits.numRemaining();
 			final int totalNodeCount = graph.nodes().numRemaining();
 			final int totalEdgeCount = graph.edges().numRemaining();
-			renderEdges = lod.renderEdges(visibleNodeCount, totalNodeCount, totalEdgeCount);
+			final byte renderEdgesTemp = lod.renderEdges(visibleNodeCount, totalNodeCount,
+			                                             totalEdgeCount);
+			edgeDensity = (renderEdgesTemp == GraphLOD.RENDER_EDGES_DENSITY);
+			renderEdges = edgeDensity ? 0 : renderEdgesTemp;
 
 			if (renderEdges > 0) {
 				int runningNodeCount = 0;
@@ -265,6 +415,7 @@ public final class GraphRenderer {
 
 		// Based on number of objects we are going to render, determine LOD.
 		final int lodBits;
+		int nodeSpriteSize = 0;
 
 		{
 			int lodTemp = 0;
@@ -296,7 +447,13 @@ public final class GraphRenderer {
 
 				if (lod.customGraphics(renderNodeCount, renderEdgeCount))
 					lodTemp |= LOD_CUSTOM_GRAPHICS;
-			}
+
+				nodeSpriteSize = lod.nodeSpriteSize(renderNodeCount, renderEdgeCount);
+
+				if (nodeSpriteSize > 0)
+					lodTemp |= LOD_NODE_SPRITES;
+			} else if (edgeDensity)
+				lodTemp |= LOD_EDGE_DENSITY;
 
 			lodBits = lodTemp;
 		}
@@ -308,7 +465,7 @@ public final class GraphRenderer {
 		// Render the edges first.  No edge shall be rendered twice.  Render edge
 		// labels.  A label is not necessarily on top of every edge; it is only
 		// on top of the edge it belongs to.
-		if (renderEdges >= 0) {
+		if ((renderEdges >= 0) && ((layers & LAYER_EDGES) != 0)) {
 			final SpacialEntry2DEnumerator nodeHits;
 
 			if (renderEdges > 0)
@@ -327,6 +484,9 @@ public final class GraphRenderer {
 				final int nodeHitCount = nodeHits.numRemaining();
 
 				for (int i = 0; i < nodeHitCount; i++) {
+					if ((cancelled != null) && cancelled.get())
+						return lodBits;
+
 					final int node = nodeHits.nextExtents(floatBuff1, 0);
 
 					// Casting to double and then back we could achieve better accuracy
@@ -344,20 +504,39 @@ public final class GraphRenderer {
 
 						if (nodeBuff.get(otherNode) < 0) { // Has not yet been rendered.
 							nodePositions.exists(otherNode, floatBuff2, 0);
-							grafx.drawEdgeLow(nodeX, nodeY, 
+
 							// Again, casting issue - tradeoff between
 							// accuracy and performance.
-							(floatBuff2[0] + floatBuff2[2]) / 2,
-							                  (floatBuff2[1] + floatBuff2[3]) / 2,
-							                  edgeDetails.colorLowDetail(edge));
+							final float otherNodeX = (floatBuff2[0] + floatBuff2[2]) / 2;
+							final float otherNodeY = (floatBuff2[1] + floatBuff2[3]) / 2;
+
+							// A low detail edge is a line between the centers.
+							if ((clipExtents != null) && ((lodBits & LOD_EDGE_DENSITY) == 0)
+							    && ((Math.max(nodeX, otherNodeX) < clipExtents[0])
+							       || (Math.max(nodeY, otherNodeY) < clipExtents[1])
+							       || (Math.min(nodeX, otherNodeX) > clipExtents[2])
+							       || (Math.min(nodeY, otherNodeY) > clipExtents[3])))
+								continue;
+
+							if ((lodBits & LOD_EDGE_DENSITY) != 0)
+								grafx.addEdgeDensity(nodeX, nodeY, otherNodeX, otherNodeY,
+								                     edgeDetails.colorLowDetail(edge));
+							else
+								grafx.drawEdgeLow(nodeX, nodeY, otherNodeX, otherNodeY,
+								                  edgeDetails.colorLowDetail(edge));
 						}
 					}
 
 					nodeBuff.put(node);
 				}
+
+				grafx.drawEdgeDensity();
 			} else { // High detail.
 
 				while (nodeHits.numRemaining() > 0) {
+					if ((cancelled != null) && cancelled.get())
+						return lodBits;
+
 					final int node = nodeHits.nextExtents(floatBuff1, 0);
 					final byte nodeShape = nodeDetails.shape(node);
 					final IntEnumerator touchingEdges = graph.edgesAdjacent(node, true, true, true);
@@ -372,6 +551,11 @@ public final class GraphRenderer {
 							if (!nodePositions.exists(otherNode, floatBuff2, 0))
 								throw new IllegalStateException("nodePositions not recognizing node that exists in graph");
 
+							if ((clipExtents != null)
+							    && !edgeReaches(edgeDetails, edge, lodBits, floatBuff1, floatBuff2,
+							                    clipExtents, floatBuff4))
+								continue;
+
 							final byte otherNodeShape = nodeDetails.shape(otherNode);
 
 							// Compute node shapes, center positions, and extents.
@@ -608,7 +792,7 @@ public final class GraphRenderer {
 										                                + edgeAnchor);
 
 									final MeasuredLineCreator measuredText = 
-										new MeasuredLineCreator(text,font,
+										TextLayoutCache.getShared().measure(text,font,
 										                         grafx.getFontRenderContextFull(),
 										                         fontScaleFactor, 
 										                         (lodBits&LOD_TEXT_AS_SHAPE)!= 0, 
@@ -642,16 +826,27 @@ public final class GraphRenderer {
 		}
 		// Render nodes and labels.  A label is not necessarily on top of every
 		// node; it is only on top of the node it belongs to.
-		{
-			final SpacialEntry2DEnumerator nodeHits = nodePositions.queryOverlap(xMin, yMin, xMax,
-			                                                                     yMax, null, 0,
-			                                                                     false);
+		if ((layers & LAYER_NODES) != 0) {
+			final SpacialEntry2DEnumerator nodeHits;
+
+			if ((clipExtents != null)
+			    && ((lodBits & (LOD_NODE_LABELS | LOD_CUSTOM_GRAPHICS)) == 0))
+				nodeHits = nodePositions.queryOverlap(Math.max(xMin, clipExtents[0]),
+				                                      Math.max(yMin, clipExtents[1]),
+				                                      Math.min(xMax, clipExtents[2]),
+				                                      Math.min(yMax, clipExtents[3]), null, 0,
+				                                      false);
+			else
+				nodeHits = nodePositions.queryOverlap(xMin, yMin, xMax, yMax, null, 0, false);
 
 			if ((lodBits & LOD_HIGH_DETAIL) == 0) { // Low detail.
 
 				final int nodeHitCount = nodeHits.numRemaining();
 
 				for (int i = 0; i < nodeHitCount; i++) {
+					if ((cancelled != null) && cancelled.get())
+						return lodBits;
+
 					final int node = nodeHits.nextExtents(floatBuff1, 0);
 
 					if ((floatBuff1[0] != floatBuff1[2]) && (floatBuff1[1] != floatBuff1[3]))
@@ -660,9 +855,13 @@ public final class GraphRenderer {
 				}
 			} else { // High detail.
 				while (nodeHits.numRemaining() > 0) {
+					if ((cancelled != null) && cancelled.get())
+						return lodBits;
+
 					final int node = nodeHits.nextExtents(floatBuff1, 0);
 					
-					renderNodeHigh(graph, grafx, node, floatBuff1, doubleBuff1, doubleBuff2, nodeDetails, lodBits);
+					renderNodeHigh(graph, grafx, node, floatBuff1, doubleBuff1, doubleBuff2, nodeDetails, lodBits,
+					               nodeSpriteSize);
 				
 
 					// Take care of label rendering.
@@ -699,7 +898,7 @@ public final class GraphRenderer {
 
 							final double nodeAnchorPointX = doubleBuff2[0];
 							final double nodeAnchorPointY = doubleBuff2[1];
-							final MeasuredLineCreator measuredText = new MeasuredLineCreator(
+							final MeasuredLineCreator measuredText = TextLayoutCache.getShared().measure(
 							    text, font, grafx.getFontRenderContextFull(), fontScaleFactor,
 							    (lodBits & LOD_TEXT_AS_SHAPE) != 0, nodeLabelWidth);
 
@@ -728,6 +927,249 @@ public final class GraphRenderer {
 		return lodBits;
 	}
 
+	/**
+	 * Renders a graph in horizontal bands, using several threads.  This is
+	 * the same as the method above, except that the frame is split into bands
+	 * and each band is rendered into an image of its own by a task run on
+	 * executor.  The bands are then copied into grafx, so that the frame
+	 * looks the same as a frame rendered by the method above.  The level of
+	 * detail and the edges rendered are chosen from the whole visible window,
+	 * so they do not depend on the number of bands, but each band only
+	 * renders the nodes and edges that reach it.<p>
+	 * The methods of graph, lod, nodeDetails and edgeDetails, and the
+	 * exists() method of nodePositions, are called by several threads at once
+	 * and must be safe for concurrent readers; queryOverlap() calls on
+	 * nodePositions are serialized by this method.  Nothing may modify these
+	 * objects until this method returns.  This method returns only once all
+	 * bands are finished.<p>
+	 * If executor is null, if grafx does not render into a BufferedImage, or
+	 * if the frame is too small to be split, the graph is rendered on the
+	 * calling thread.
+	 * @param layers a bitwise-or'ed value of the LAYER_* constants.
+	 * @param executor runs the tasks that render the bands; may be null.
+	 * @param bands the largest number of bands to split the frame into.
+	 * @return bits representing the level of detail that was rendered; the
+	 *   return value is a bitwise-or'ed value of the LOD_* constants.
+	 */
+	public final static int renderGraph(final FixedGraph graph, final SpacialIndex2D nodePositions,
+	                                    final GraphLOD lod, final NodeDetails nodeDetails,
+	                                    final EdgeDetails edgeDetails, final IntHash nodeBuff,
+	                                    final GraphGraphics grafx, final Paint bgPaint,
+	                                    final double xCenter, final double yCenter,
+	                                    final double scaleFactor, final float[] visibleExtents,
+	                                    final AtomicBoolean cancelled, final int layers,
+	                                    final ExecutorService executor, final int bands) {
+		final int width = grafx.image.getWidth(null);
+		final int height = grafx.image.getHeight(null);
+		final int bandCount = Math.min(bands, height / MIN_BAND_HEIGHT);
+
+		if ((executor == null) || (bandCount < 2) || !(grafx.image instanceof BufferedImage))
+			return renderGraph(graph, nodePositions, lod, nodeDetails, edgeDetails, nodeBuff,
+			                   grafx, bgPaint, xCenter, yCenter, scaleFactor, visibleExtents,
+			                   cancelled, layers);
+
+		final float[] extents;
+
+		if (visibleExtents != null)
+			extents = visibleExtents;
+		else
+			extents = new float[] {
+			              (float) (xCenter - ((0.5d * width) / scaleFactor)),
+			              (float) (yCenter - ((0.5d * height) / scaleFactor)),
+			              (float) (xCenter + ((0.5d * width) / scaleFactor)),
+			              (float) (yCenter + ((0.5d * height) / scaleFactor))
+			          };
+
+		final int imageType = (((BufferedImage) grafx.image).getType() == BufferedImage.TYPE_CUSTOM)
+		                      ? BufferedImage.TYPE_INT_ARGB : ((BufferedImage) grafx.image).getType();
+		final SpacialIndex2D bandPositions = new SerializedQueries(nodePositions);
+		final int[] tops = new int[bandCount + 1];
+		final BufferedImage[] images = new BufferedImage[bandCount];
+		final List<FutureTask<Integer>> tasks = new ArrayList<FutureTask<Integer>>(bandCount);
+
+		for (int i = 0; i <= bandCount; i++)
+			tops[i] = (int) ((((long) height) * i) / bandCount);
+
+		for (int i = 0; i < bandCount; i++) {
+			final BufferedImage image = new BufferedImage(width, tops[i + 1] - tops[i], imageType);
+
+			// Without a background, a band is rendered on top of what is
+			// already in its part of the frame.
+			if (bgPaint == null)
+				image.setData(((BufferedImage) grafx.image).getRaster()
+				              .createChild(0, tops[i], width, tops[i + 1] - tops[i], 0, 0, null));
+			final double bandYCenter = yCenter
+			                           + ((((tops[i] + tops[i + 1]) / 2.0d) - (height / 2.0d))
+			                              / scaleFactor);
+
+			// The area of the band, one pixel larger on every side, so that
+			// rounding never leaves out a node or an edge touching it.
+			final float[] bandExtents = new float[] {
+			                                (float) (xCenter - (((0.5d * width) + 1.0d) / scaleFactor)),
+			                                (float) (yCenter
+			                                + ((tops[i] - (0.5d * height) - 1.0d) / scaleFactor)),
+			                                (float) (xCenter + (((0.5d * width) + 1.0d) / scaleFactor)),
+			                                (float) (yCenter
+			                                + ((tops[i + 1] - (0.5d * height) + 1.0d) / scaleFactor))
+			                            };
+
+			// Every band fills its own nodeBuff with the same nodes, so the
+			// first band can keep our promise about nodeBuff.
+			final IntHash bandNodeBuff = (i == 0) ? nodeBuff : new IntHash();
+			final GraphGraphics bandGrafx = new GraphGraphics(image, false);
+			bandGrafx.importCustomNodeShapes(grafx);
+
+			final FutureTask<Integer> task = new FutureTask<Integer>(new Callable<Integer>() {
+					public Integer call() {
+						return Integer.valueOf(renderGraph(graph, bandPositions, lod, nodeDetails,
+						                                   edgeDetails, bandNodeBuff, bandGrafx,
+						                                   bgPaint, xCenter, bandYCenter,
+						                                   scaleFactor, extents, cancelled,
+						                                   layers, bandExtents));
+					}
+				});
+			images[i] = image;
+			tasks.add(task);
+
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException e) {
+				task.run();
+			}
+		}
+
+		// Wait for every band, even after an error or an interrupt, since the
+		// bands read the graph that the caller is free to modify once we return.
+		int lodBits = 0;
+		Throwable failure = null;
+		boolean interrupted = false;
+
+		for (int i = 0; i < bandCount;) {
+			try {
+				lodBits = tasks.get(i).get().intValue();
+				i++;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			} catch (ExecutionException e) {
+				if (failure == null)
+					failure = e.getCause();
+
+				i++;
+			}
+		}
+
+		if (interrupted)
+			Thread.currentThread().interrupt();
+
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		else if (failure instanceof Error)
+			throw (Error) failure;
+		else if (failure != null)
+			throw new IllegalStateException(failure);
+
+		grafx.clear(bgPaint, xCenter, yCenter, scaleFactor);
+
+		if ((cancelled != null) && cancelled.get())
+			return lodBits;
+
+		final Graphics2D g = (Graphics2D) grafx.image.getGraphics();
+
+		try {
+			g.setComposite(AlphaComposite.Src);
+
+			for (int i = 0; i < bandCount; i++)
+				g.drawImage(images[i], 0, tops[i], null);
+		} finally {
+			g.dispose();
+		}
+
+		return lodBits;
+	}
+
+	/*
+	 * Serializes the queryOverlap() calls of the bands of one frame, since a
+	 * query uses buffers of the index it is run on.  Running through the
+	 * returned enumeration and calling exists() does not.
+	 */
+	private final static class SerializedQueries implements SpacialIndex2D {
+		private final SpacialIndex2D m_index;
+
+		SerializedQueries(final SpacialIndex2D index) {
+			m_index = index;
+		}
+
+		public int size() {
+			return m_index.size();
+		}
+
+		public boolean exists(final int objKey, final float[] extentsArr, final int offset) {
+			return m_index.exists(objKey, extentsArr, offset);
+		}
+
+		public synchronized SpacialEntry2DEnumerator queryOverlap(final float xMin,
+		                                                          final float yMin,
+		                                                          final float xMax,
+		                                                          final float yMax,
+		                                                          final float[] extentsArr,
+		                                                          final int offset,
+		                                                          final boolean reverse) {
+			return m_index.queryOverlap(xMin, yMin, xMax, yMax, extentsArr, offset, reverse);
+		}
+	}
+
+	/*
+	 * Returns false if a high detail edge cannot reach clipExtents.  An edge
+	 * never leaves the box around its end nodes and anchors; the box is
+	 * widened by the stroke, whose joins reach at most five times its
+	 * thickness, by twice the size of the larger arrow and by the anchor
+	 * squares, erring on the large side.  Labels may be anywhere.  The
+	 * details of an edge are only looked up if the box around its end nodes
+	 * does not reach clipExtents.
+	 */
+	private final static boolean edgeReaches(final EdgeDetails edgeDetails, final int edge,
+	                                         final int lodBits, final float[] nodeExtents,
+	                                         final float[] otherNodeExtents,
+	                                         final float[] clipExtents, final float[] floatBuff) {
+		float xMin = Math.min(nodeExtents[0], otherNodeExtents[0]);
+		float yMin = Math.min(nodeExtents[1], otherNodeExtents[1]);
+		float xMax = Math.max(nodeExtents[2], otherNodeExtents[2]);
+		float yMax = Math.max(nodeExtents[3], otherNodeExtents[3]);
+
+		if ((xMax >= clipExtents[0]) && (yMax >= clipExtents[1]) && (xMin <= clipExtents[2])
+		    && (yMin <= clipExtents[3]))
+			return true;
+
+		if (((lodBits & LOD_EDGE_LABELS) != 0) && (edgeDetails.labelCount(edge) > 0))
+			return true;
+
+		float margin = 5.0f * edgeDetails.segmentThickness(edge);
+
+		if ((lodBits & LOD_EDGE_ARROWS) != 0) {
+			if (edgeDetails.sourceArrow(edge) != GraphGraphics.ARROW_NONE)
+				margin = Math.max(margin, 2.0f * edgeDetails.sourceArrowSize(edge));
+
+			if (edgeDetails.targetArrow(edge) != GraphGraphics.ARROW_NONE)
+				margin = Math.max(margin, 2.0f * edgeDetails.targetArrowSize(edge));
+		}
+
+		final EdgeAnchors anchors = ((lodBits & LOD_EDGE_ANCHORS) == 0) ? null
+		                                                                 : edgeDetails.anchors(edge);
+		final int numAnchors = (anchors == null) ? 0 : anchors.numAnchors();
+
+		for (int i = 0; i < numAnchors; i++) {
+			anchors.getAnchor(i, floatBuff, 0);
+			xMin = Math.min(xMin, floatBuff[0]);
+			yMin = Math.min(yMin, floatBuff[1]);
+			xMax = Math.max(xMax, floatBuff[0]);
+			yMax = Math.max(yMax, floatBuff[1]);
+			margin = Math.max(margin, edgeDetails.anchorSize(edge, i));
+		}
+
+		return ((xMax + margin) >= clipExtents[0]) && ((yMax + margin) >= clipExtents[1])
+		       && ((xMin - margin) <= clipExtents[2]) && ((yMin - margin) <= clipExtents[3]);
+	}
+
 	private final static void lemma_computeAnchor(final byte anchor, final double[] input4x,
 	                                              final double[] rtrn2x) {
 		switch (anchor) {
@@ -1035,7 +1477,7 @@ public final class GraphRenderer {
 	 */
 	private static final void renderNodeHigh(final FixedGraph graph, final GraphGraphics grafx, 
 			final int node, final float[] floatBuff1, final double[] doubleBuff1, final double[] doubleBuff2, 
-			final NodeDetails nodeDetails, final int lodBits) {
+			final NodeDetails nodeDetails, final int lodBits, final int nodeSpriteSize) {
 		if ((floatBuff1[0] != floatBuff1[2]) && (floatBuff1[1] != floatBuff1[3])) {
 						
 			// Compute visual attributes that do not depend on LOD.
@@ -1058,8 +1500,12 @@ public final class GraphRenderer {
 					borderPaint = nodeDetails.borderPaint(node);
 			}
 
-			// Draw the node.
-			grafx.drawNodeFull(shape, floatBuff1[0], floatBuff1[1], floatBuff1[2], floatBuff1[3], fillPaint, borderWidth, borderPaint);
+			// Draw the node, from an image if it is small enough.
+			if (((lodBits & LOD_NODE_SPRITES) == 0)
+			    || !grafx.drawNodeSprite(shape, floatBuff1[0], floatBuff1[1], floatBuff1[2],
+			                             floatBuff1[3], fillPaint, borderWidth, borderPaint,
+			                             nodeSpriteSize))
+				grafx.drawNodeFull(shape, floatBuff1[0], floatBuff1[1], floatBuff1[2], floatBuff1[3], fillPaint, borderWidth, borderPaint);
 		}
 
 		// Take care of custom graphic rendering.
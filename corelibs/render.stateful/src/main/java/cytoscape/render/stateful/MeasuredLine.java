@@ -36,6 +36,9 @@
 
 package cytoscape.render.stateful;
 
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+
 /**
  * A simple class to hold the width and height of a given string in terms
  * of specific fonts, rendering contexts, etc.. 
@@ -45,11 +48,16 @@ class MeasuredLine {
 	private final String line;
 	private final double width;
 	private final double height;
+	private final Rectangle2D bounds;
+	private final Shape outline;
 
-	public MeasuredLine(final String line, final double width, final double height) {
+	public MeasuredLine(final String line, final double width, final double height,
+	                    final Rectangle2D bounds, final Shape outline) {
 		this.line = line;
 		this.width = width;
 		this.height = height;
+		this.bounds = bounds;
+		this.outline = outline;
 	}
 
 	public String getLine() {
@@ -64,6 +72,21 @@ class MeasuredLine {
 		return height;
 	}
 
+	/**
+	 * @return the unscaled logical bounds of the line, as used for drawing it.
+	 */
+	public Rectangle2D getBounds() {
+		return bounds;
+	}
+
+	/**
+	 * @return the outline of the glyphs of the line, or null if the line is
+	 * not drawn as shape.
+	 */
+	public Shape getOutline() {
+		return outline;
+	}
+
 	public String toString() {
 		return "'" + line + "'  w:" + width + " h:" + height;
 	}
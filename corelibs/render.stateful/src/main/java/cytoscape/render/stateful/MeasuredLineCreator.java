@@ -64,6 +64,11 @@ class MeasuredLineCreator {
 	private final double fontScaleFactor;
 	private final boolean textAsShape;
 	private final List<MeasuredLine> measuredLines;
+
+	// The glyphs and bounds of the first raw line, so that a label of a single
+	// short line, i.e. the norm, is only laid out once.
+	private GlyphVector firstGlyphs;
+	private Rectangle2D firstBounds;
 	
 	public MeasuredLineCreator(final String rawLine, final Font font, 
 	                            final FontRenderContext frc, final double fontScaleFactor, 
@@ -90,6 +95,8 @@ class MeasuredLineCreator {
 		totalHeight = 0;
 		for ( String line : rawLines ) { 
 			final Rectangle2D bounds = calcBounds(line);
+			if ( firstBounds == null ) 
+				firstBounds = bounds;
 			updateBounds(bounds.getWidth()*fontScaleFactor,bounds.getHeight()*fontScaleFactor);
 		}
 	}
@@ -110,9 +117,9 @@ class MeasuredLineCreator {
 		final Rectangle2D bounds;
 
 		if (textAsShape) {
-			final char[] charBuff = s.toCharArray(); 
-			final GlyphVector glyphV = font.layoutGlyphVector( frc, charBuff, 0,
-			                                charBuff.length, Font.LAYOUT_NO_LIMIT_CONTEXT);
+			final GlyphVector glyphV = layoutGlyphs(s);
+			if ( firstGlyphs == null ) 
+				firstGlyphs = glyphV;
 			bounds = glyphV.getLogicalBounds();
 		} else {
 			bounds = font.getStringBounds(s, frc);
@@ -121,6 +128,26 @@ class MeasuredLineCreator {
 		return bounds;
 	}
 
+	private GlyphVector layoutGlyphs(final String s) {
+		final char[] charBuff = s.toCharArray(); 
+		return font.layoutGlyphVector( frc, charBuff, 0,
+		                               charBuff.length, Font.LAYOUT_NO_LIMIT_CONTEXT);
+	}
+
+	/**
+	 * Creates a line to be drawn, along with the bounds and outline that
+	 * GraphGraphics.drawTextFull() would otherwise compute for it on every frame.
+	 */
+	private MeasuredLine createLine(final String line, final double width, final double height) {
+		if (textAsShape) {
+			final GlyphVector glyphV = layoutGlyphs(line);
+			return new MeasuredLine(line, width, height, glyphV.getLogicalBounds(),
+			                        glyphV.getOutline());
+		} else {
+			return new MeasuredLine(line, width, height, font.getStringBounds(line, frc), null);
+		}
+	}
+
 	/**
 	 * Splits the raw lines according to how many lines are present and if any of 
 	 * the lines are too long.  Recalculates the maxLineWidth and totalHeight based
@@ -130,7 +157,8 @@ class MeasuredLineCreator {
 
 		// There's only one line and it's short, i.e. what usually happens.
 		if ( rawLines.length == 1 && labelWidth > maxLineWidth ) {
-			measuredLines.add(new MeasuredLine(rawLines[0],maxLineWidth,totalHeight));
+			measuredLines.add(new MeasuredLine(rawLines[0],maxLineWidth,totalHeight,firstBounds,
+			                                   textAsShape ? firstGlyphs.getOutline() : null));
 			return;
 		}
 
@@ -161,8 +189,8 @@ class MeasuredLineCreator {
 				if (currentWidth + wordWidth >= labelWidth) {
 					// only write the string if something is there
 					if ( currentWidth > 0 ) {
-						measuredLines.add( new MeasuredLine(currentLine.toString(),
-					   	                                    currentWidth,wordHeight) );
+						measuredLines.add( createLine(currentLine.toString(),
+					   	                                  currentWidth,wordHeight) );
 						updateBounds(currentWidth,wordHeight);
 						currentLine.delete(0,currentLine.length());
 					}
@@ -170,7 +198,7 @@ class MeasuredLineCreator {
 					// if the word itself is >= the label width,
 					// make the word itself a new line
 					if ( wordWidth >= labelWidth ) {
-						measuredLines.add(new MeasuredLine(word,wordWidth,wordHeight) );
+						measuredLines.add(createLine(word,wordWidth,wordHeight) );
 						updateBounds(wordWidth,wordHeight);
 						currentWidth = 0;
 
@@ -189,8 +217,8 @@ class MeasuredLineCreator {
 
 			// add the last line if there's anything there
 			if ( currentWidth > 0 ) {
-				measuredLines.add( new MeasuredLine(currentLine.toString(),
-			                                        currentWidth, wordHeight) );
+				measuredLines.add( createLine(currentLine.toString(),
+			                                      currentWidth, wordHeight) );
 				updateBounds(currentWidth,wordHeight);
 			}
 		}
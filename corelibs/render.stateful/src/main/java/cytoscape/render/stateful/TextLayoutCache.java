@@ -0,0 +1,296 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+
+package cytoscape.render.stateful;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.PathIterator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+
+/**
+ * A cache of laid out label text, shared by all renderings.<p>
+ * Measuring, wrapping and laying out the glyphs of a label is by far the most
+ * expensive part of drawing it, and it yields the same result on every frame
+ * for the same text, font, label width and font scale factor.  Text is laid
+ * out with a context that has the identity transform, so the result does not
+ * depend on the zoom level.  The least recently used layouts are dropped once
+ * the estimated memory held by the cache exceeds its limit.<p>
+ * Entries are keyed by everything that determines a layout, so a label
+ * whose text or font changes simply misses the cache; nothing needs to be
+ * invalidated.  All methods of this class are thread safe.<p>
+ * The cache may be turned off with the system property
+ * cytoscape.render.textcache set to false.
+ */
+public final class TextLayoutCache {
+	/**
+	 * The default limit of the memory held by the cache, in bytes.
+	 */
+	public static final long DEFAULT_MAX_BYTES = 32L * 1024L * 1024L;
+
+	private static final TextLayoutCache SHARED = new TextLayoutCache(DEFAULT_MAX_BYTES);
+
+	// Rough estimates of the memory held by a cache entry.
+	private static final int ENTRY_BYTES = 200;
+	private static final int LINE_BYTES = 100;
+	private static final int SEGMENT_BYTES = 28;
+
+	private final LinkedHashMap<Key, Entry> m_entries = new LinkedHashMap<Key, Entry>(64, 0.75f,
+	                                                                                 true);
+	private final long m_maxBytes;
+	private long m_bytes = 0;
+	private long m_hits = 0;
+	private long m_misses = 0;
+	private volatile boolean m_enabled = Boolean.valueOf(System.getProperty("cytoscape.render.textcache",
+	                                                                        "true"));
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param maxBytes the limit of the memory held by the cache, in bytes.
+	 * @exception IllegalArgumentException if maxBytes is negative.
+	 */
+	public TextLayoutCache(final long maxBytes) {
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("maxBytes is negative");
+
+		m_maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns the cache that GraphRenderer lays out labels with.
+	 */
+	public static TextLayoutCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Turns this cache on or off.  Turning it off empties it.
+	 */
+	public void setEnabled(final boolean enabled) {
+		m_enabled = enabled;
+
+		if (!enabled)
+			clear();
+	}
+
+	/**
+	 * Returns whether this cache is turned on.
+	 */
+	public boolean isEnabled() {
+		return m_enabled;
+	}
+
+	/**
+	 * Empties this cache.  The hit and miss counts are kept.
+	 */
+	public synchronized void clear() {
+		m_entries.clear();
+		m_bytes = 0;
+	}
+
+	/**
+	 * Returns the number of layouts that were found in this cache.
+	 */
+	public synchronized long getHitCount() {
+		return m_hits;
+	}
+
+	/**
+	 * Returns the number of layouts that were not found in this cache and had
+	 * to be computed.
+	 */
+	public synchronized long getMissCount() {
+		return m_misses;
+	}
+
+	/**
+	 * Returns the fraction of lookups that were found in this cache, or zero
+	 * if there were none.
+	 */
+	public synchronized double getHitRate() {
+		final long lookups = m_hits + m_misses;
+
+		return (lookups == 0) ? 0.0d : (((double) m_hits) / lookups);
+	}
+
+	/**
+	 * Returns the estimated memory held by this cache, in bytes.
+	 */
+	public synchronized long getByteCount() {
+		return m_bytes;
+	}
+
+	/**
+	 * Returns the number of layouts in this cache.
+	 */
+	public synchronized int size() {
+		return m_entries.size();
+	}
+
+	/*
+	 * Returns the layout of the text, from this cache if possible.  The
+	 * returned layout must not be modified.
+	 */
+	MeasuredLineCreator measure(final String text, final Font font,
+	                            final FontRenderContext frc, final double fontScaleFactor,
+	                            final boolean textAsShape, final double labelWidth) {
+		if (!m_enabled)
+			return new MeasuredLineCreator(text, font, frc, fontScaleFactor, textAsShape,
+			                               labelWidth);
+
+		final Key key = new Key(text, font, frc, fontScaleFactor, textAsShape, labelWidth);
+
+		synchronized (this) {
+			final Entry entry = m_entries.get(key);
+
+			if (entry != null) {
+				m_hits++;
+
+				return entry.measuredText;
+			}
+
+			m_misses++;
+		}
+
+		// Lay out the text outside of the lock; if another thread lays out the
+		// same text meanwhile, one of the two equal layouts is kept.
+		final MeasuredLineCreator measuredText = new MeasuredLineCreator(text, font, frc,
+		                                                                 fontScaleFactor,
+		                                                                 textAsShape, labelWidth);
+		final Entry entry = new Entry(measuredText, estimateBytes(text, measuredText));
+
+		synchronized (this) {
+			final Entry old = m_entries.put(key, entry);
+
+			if (old != null)
+				m_bytes -= old.bytes;
+
+			m_bytes += entry.bytes;
+
+			final Iterator<Entry> eldest = m_entries.values().iterator();
+
+			while ((m_bytes > m_maxBytes) && eldest.hasNext()) {
+				m_bytes -= eldest.next().bytes;
+				eldest.remove();
+			}
+		}
+
+		return measuredText;
+	}
+
+	private static int estimateBytes(final String text, final MeasuredLineCreator measuredText) {
+		int bytes = ENTRY_BYTES + (2 * text.length());
+
+		for (MeasuredLine line : measuredText.getMeasuredLines()) {
+			bytes += (LINE_BYTES + (2 * line.getLine().length()));
+
+			final Shape outline = line.getOutline();
+
+			if (outline != null) {
+				for (PathIterator path = outline.getPathIterator(null); !path.isDone();
+				     path.next())
+					bytes += SEGMENT_BYTES;
+			}
+		}
+
+		return bytes;
+	}
+
+	private static final class Entry {
+		final MeasuredLineCreator measuredText;
+		final int bytes;
+
+		Entry(final MeasuredLineCreator measuredText, final int bytes) {
+			this.measuredText = measuredText;
+			this.bytes = bytes;
+		}
+	}
+
+	private static final class Key {
+		private final String text;
+		private final Font font;
+		private final FontRenderContext frc;
+		private final double fontScaleFactor;
+		private final boolean textAsShape;
+		private final double labelWidth;
+		private final int hash;
+
+		Key(final String text, final Font font, final FontRenderContext frc,
+		    final double fontScaleFactor, final boolean textAsShape, final double labelWidth) {
+			this.text = text;
+			this.font = font;
+			this.frc = frc;
+			this.fontScaleFactor = fontScaleFactor;
+			this.textAsShape = textAsShape;
+			this.labelWidth = labelWidth;
+
+			int h = text.hashCode();
+			h = (31 * h) + font.hashCode();
+			h = (31 * h) + frc.hashCode();
+			h = (31 * h) + hashDouble(fontScaleFactor);
+			h = (31 * h) + (textAsShape ? 1 : 0);
+			h = (31 * h) + hashDouble(labelWidth);
+			hash = h;
+		}
+
+		private static int hashDouble(final double d) {
+			final long bits = Double.doubleToLongBits(d);
+
+			return (int) (bits ^ (bits >>> 32));
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(final Object o) {
+			if (!(o instanceof Key))
+				return false;
+
+			final Key other = (Key) o;
+
+			return (hash == other.hash) && (textAsShape == other.textAsShape)
+			       && (Double.doubleToLongBits(fontScaleFactor) == Double.doubleToLongBits(other.fontScaleFactor))
+			       && (Double.doubleToLongBits(labelWidth) == Double.doubleToLongBits(other.labelWidth))
+			       && text.equals(other.text) && font.equals(other.font)
+			       && frc.equals(other.frc);
+		}
+	}
+}
@@ -90,9 +90,9 @@ final class TextRenderingUtils {
 			else
 				throw new IllegalStateException("textJustify value unrecognized");
 
-			grafx.drawTextFull(font, fontScaleFactor, line.getLine(), 
-			                   (float) xCenter, (float) yCenter, 0,
-			                   paint, textAsShape);
+			grafx.drawTextFull(font, fontScaleFactor, line.getLine(), line.getBounds(),
+			                   line.getOutline(), (float) xCenter, (float) yCenter, 0,
+			                   paint);
 			currHeight += line.getHeight();
 		}
 	}
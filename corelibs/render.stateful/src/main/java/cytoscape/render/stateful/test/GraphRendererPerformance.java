@@ -0,0 +1,125 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+
+package cytoscape.render.stateful.test;
+
+import cytoscape.render.immed.GraphGraphics;
+
+import cytoscape.render.stateful.EdgeDetails;
+import cytoscape.render.stateful.GraphLOD;
+import cytoscape.render.stateful.GraphRenderer;
+import cytoscape.render.stateful.NodeDetails;
+
+import cytoscape.util.intr.IntHash;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ *
+ */
+public class GraphRendererPerformance {
+	/**
+	 * Measures how long it takes to render a frame of a lattice of N by N
+	 * nodes, at full detail, split into 1 to B bands.  The frame is 1000 by
+	 * 800 pixels and shows the whole lattice.  The first argument is N, the
+	 * second is B, and an optional third argument is the number of frames
+	 * to render for each number of bands, 20 by default.  A frame rendered
+	 * in one band is rendered on the calling thread.
+	 */
+	public static void main(String[] args) throws Exception {
+		final int n = Integer.parseInt(args[0]);
+		final int maxBands = Integer.parseInt(args[1]);
+		final int frames = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+		final LatticeGraph lattice = new LatticeGraph(n, n, 30.0f, 20.0f);
+		final GraphLOD lod = new GraphLOD() {
+			public byte renderEdges(int visibleNodeCount, int totalNodeCount,
+			                        int totalEdgeCount) {
+				return 1;
+			}
+
+			public boolean detail(int renderNodeCount, int renderEdgeCount) {
+				return true;
+			}
+		};
+		final NodeDetails nodeDetails = new NodeDetails();
+		final EdgeDetails edgeDetails = new EdgeDetails() {
+			public float segmentThickness(int edge) {
+				return 1.0f;
+			}
+		};
+		final BufferedImage image = new BufferedImage(1000, 800, BufferedImage.TYPE_INT_ARGB);
+		final GraphGraphics grafx = new GraphGraphics(image, false);
+		final double center = (30.0d * n) / 2.0d;
+		final double scaleFactor = 760.0d / (30.0d * n);
+		final IntHash nodeBuff = new IntHash();
+		final ExecutorService executor = Executors.newFixedThreadPool(maxBands);
+
+		try {
+			for (int bands = 1; bands <= maxBands; bands++) {
+				// Warm up.
+				for (int i = 0; i < 3; i++)
+					GraphRenderer.renderGraph(lattice, lattice, lod, nodeDetails, edgeDetails,
+					                          nodeBuff, grafx, Color.white, center, center,
+					                          scaleFactor, null, null,
+					                          GraphRenderer.LAYER_EDGES
+					                          | GraphRenderer.LAYER_NODES,
+					                          (bands > 1) ? executor : null, bands);
+
+				final long millisBegin = System.currentTimeMillis();
+
+				for (int i = 0; i < frames; i++)
+					GraphRenderer.renderGraph(lattice, lattice, lod, nodeDetails, edgeDetails,
+					                          nodeBuff, grafx, Color.white, center, center,
+					                          scaleFactor, null, null,
+					                          GraphRenderer.LAYER_EDGES
+					                          | GraphRenderer.LAYER_NODES,
+					                          (bands > 1) ? executor : null, bands);
+
+				final long millisEnd = System.currentTimeMillis();
+				System.err.println(bands + " band(s): "
+				                   + ((millisEnd - millisBegin) / (double) frames)
+				                   + " milliseconds per frame");
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
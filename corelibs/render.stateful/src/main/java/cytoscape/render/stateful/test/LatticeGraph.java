@@ -0,0 +1,333 @@
+
+/*
+ Copyright (c) 2006, 2007, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+
+package cytoscape.render.stateful.test;
+
+import cytoscape.geom.spacial.SpacialEntry2DEnumerator;
+import cytoscape.geom.spacial.SpacialIndex2D;
+
+import cytoscape.graph.fixed.FixedGraph;
+
+import cytoscape.util.intr.IntEnumerator;
+import cytoscape.util.intr.IntIterator;
+
+
+/**
+ * A graph whose nodes are laid out on a grid, which is also the spacial
+ * index of its nodes.  Node row * columns + column is a square at column *
+ * spacing, row * spacing.  Every node has a directed edge to its right
+ * neighbour, and one to the node three rows down and one column right, so
+ * that some edges cross several rows.  Queries return nodes row by row, so
+ * the index has the subquery order-preserving property.
+ */
+public final class LatticeGraph implements FixedGraph, SpacialIndex2D {
+	private final int m_rows;
+	private final int m_columns;
+	private final float m_spacing;
+	private final float m_size;
+
+	/**
+	 * Creates a lattice.
+	 *
+	 * @param rows the number of rows.
+	 * @param columns the number of columns.
+	 * @param spacing the distance between the corners of neighbouring nodes.
+	 * @param size the width and height of a node.
+	 */
+	public LatticeGraph(final int rows, final int columns, final float spacing, final float size) {
+		if ((rows < 1) || (columns < 1) || !(spacing > 0.0f) || !(size > 0.0f))
+			throw new IllegalArgumentException("all arguments must be positive");
+
+		m_rows = rows;
+		m_columns = columns;
+		m_spacing = spacing;
+		m_size = size;
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public IntEnumerator nodes() {
+		return range(0, m_rows * m_columns);
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public IntEnumerator edges() {
+		int count = 0;
+
+		for (int edge = 0; edge < (2 * m_rows * m_columns); edge++)
+			if (edgeExists(edge))
+				count++;
+
+		final int[] edges = new int[count];
+		count = 0;
+
+		for (int edge = 0; edge < (2 * m_rows * m_columns); edge++)
+			if (edgeExists(edge))
+				edges[count++] = edge;
+
+		return array(edges, edges.length);
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param node DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public boolean nodeExists(final int node) {
+		return (node >= 0) && (node < (m_rows * m_columns));
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param edge DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public byte edgeType(final int edge) {
+		return edgeExists(edge) ? DIRECTED_EDGE : -1;
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param edge DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public int edgeSource(final int edge) {
+		return edgeExists(edge) ? (edge / 2) : -1;
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param edge DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public int edgeTarget(final int edge) {
+		if (!edgeExists(edge))
+			return -1;
+
+		return ((edge % 2) == 0) ? ((edge / 2) + 1) : ((edge / 2) + (3 * m_columns) + 1);
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param node DOCUMENT ME!
+	 * @param outgoing DOCUMENT ME!
+	 * @param incoming DOCUMENT ME!
+	 * @param undirected DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public IntEnumerator edgesAdjacent(final int node, final boolean outgoing,
+	                                   final boolean incoming, final boolean undirected) {
+		if (!nodeExists(node))
+			return null;
+
+		final int[] edges = new int[4];
+		int count = 0;
+
+		if (outgoing) {
+			if (edgeExists(2 * node))
+				edges[count++] = 2 * node;
+
+			if (edgeExists((2 * node) + 1))
+				edges[count++] = (2 * node) + 1;
+		}
+
+		if (incoming) {
+			if (edgeExists(2 * (node - 1)) && (edgeTarget(2 * (node - 1)) == node))
+				edges[count++] = 2 * (node - 1);
+
+			final int source = node - (3 * m_columns) - 1;
+
+			if (edgeExists((2 * source) + 1) && (edgeTarget((2 * source) + 1) == node))
+				edges[count++] = (2 * source) + 1;
+		}
+
+		return array(edges, count);
+	}
+
+	/**
+	 * Not supported.
+	 */
+	public IntIterator edgesConnecting(final int node0, final int node1, final boolean outgoing,
+	                                   final boolean incoming, final boolean undirected) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public int size() {
+		return m_rows * m_columns;
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param objKey DOCUMENT ME!
+	 * @param extentsArr DOCUMENT ME!
+	 * @param offset DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public boolean exists(final int objKey, final float[] extentsArr, final int offset) {
+		if (!nodeExists(objKey))
+			return false;
+
+		if (extentsArr != null)
+			extents(objKey, extentsArr, offset);
+
+		return true;
+	}
+
+	/**
+	 * DOCUMENT ME!
+	 *
+	 * @param xMin DOCUMENT ME!
+	 * @param yMin DOCUMENT ME!
+	 * @param xMax DOCUMENT ME!
+	 * @param yMax DOCUMENT ME!
+	 * @param extentsArr DOCUMENT ME!
+	 * @param offset DOCUMENT ME!
+	 * @param reverse DOCUMENT ME!
+	 *
+	 * @return DOCUMENT ME!
+	 */
+	public SpacialEntry2DEnumerator queryOverlap(final float xMin, final float yMin,
+	                                             final float xMax, final float yMax,
+	                                             final float[] extentsArr, final int offset,
+	                                             final boolean reverse) {
+		final int columnMin = Math.max(0, (int) Math.ceil((xMin - m_size) / m_spacing));
+		final int columnMax = Math.min(m_columns - 1, (int) Math.floor(xMax / m_spacing));
+		final int rowMin = Math.max(0, (int) Math.ceil((yMin - m_size) / m_spacing));
+		final int rowMax = Math.min(m_rows - 1, (int) Math.floor(yMax / m_spacing));
+		final int columns = Math.max(0, (columnMax - columnMin) + 1);
+		final int rows = Math.max(0, (rowMax - rowMin) + 1);
+		final int count = rows * columns;
+
+		if ((extentsArr != null) && (count > 0)) {
+			extentsArr[offset] = columnMin * m_spacing;
+			extentsArr[offset + 1] = rowMin * m_spacing;
+			extentsArr[offset + 2] = (columnMax * m_spacing) + m_size;
+			extentsArr[offset + 3] = (rowMax * m_spacing) + m_size;
+		}
+
+		return new SpacialEntry2DEnumerator() {
+				private int m_inx = 0;
+
+				public int numRemaining() {
+					return count - m_inx;
+				}
+
+				public int nextInt() {
+					final int inx = reverse ? (count - 1 - m_inx++) : m_inx++;
+
+					return ((rowMin + (inx / columns)) * m_columns) + columnMin + (inx % columns);
+				}
+
+				public int nextExtents(final float[] extentsArr, final int offset) {
+					final int node = nextInt();
+					extents(node, extentsArr, offset);
+
+					return node;
+				}
+			};
+	}
+
+	private boolean edgeExists(final int edge) {
+		if ((edge < 0) || (edge >= (2 * m_rows * m_columns)))
+			return false;
+
+		final int source = edge / 2;
+
+		if ((source % m_columns) == (m_columns - 1))
+			return false;
+
+		return ((edge % 2) == 0) || ((source / m_columns) < (m_rows - 3));
+	}
+
+	private void extents(final int node, final float[] extentsArr, final int offset) {
+		extentsArr[offset] = (node % m_columns) * m_spacing;
+		extentsArr[offset + 1] = (node / m_columns) * m_spacing;
+		extentsArr[offset + 2] = extentsArr[offset] + m_size;
+		extentsArr[offset + 3] = extentsArr[offset + 1] + m_size;
+	}
+
+	private static IntEnumerator range(final int begin, final int end) {
+		return new IntEnumerator() {
+				private int m_next = begin;
+
+				public int numRemaining() {
+					return end - m_next;
+				}
+
+				public int nextInt() {
+					return m_next++;
+				}
+			};
+	}
+
+	private static IntEnumerator array(final int[] elements, final int count) {
+		return new IntEnumerator() {
+				private int m_inx = 0;
+
+				public int numRemaining() {
+					return count - m_inx;
+				}
+
+				public int nextInt() {
+					return elements[m_inx++];
+				}
+			};
+	}
+}
@@ -38,10 +38,22 @@ package cytoscape.render.stateful;
 
 import junit.framework.*;
 
+import cytoscape.geom.spacial.SpacialEntry2DEnumerator;
+import cytoscape.geom.spacial.SpacialIndex2D;
+import cytoscape.graph.fixed.FixedGraph;
 import cytoscape.render.immed.GraphGraphics;
 import cytoscape.render.immed.EdgeAnchors;
+import cytoscape.render.stateful.test.LatticeGraph;
+import cytoscape.util.intr.IntEnumerator;
+import cytoscape.util.intr.IntHash;
+import cytoscape.util.intr.IntIterator;
+import java.awt.Color;
+import java.awt.Paint;
 import java.awt.image.BufferedImage;
 import java.awt.Image;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class GraphRendererTest extends TestCase {
 
@@ -271,6 +283,170 @@ public class GraphRendererTest extends TestCase {
 	}
 
 
+	public void testRenderGraph() {
+		renderSingleNode(new AtomicBoolean(false));
+		assertFalse(Color.white.getRGB() == ((BufferedImage) grafx.image).getRGB(250, 250));
+	}
+
+	public void testRenderGraphCancelled() {
+		renderSingleNode(new AtomicBoolean(true));
+		assertEquals(Color.white.getRGB(), ((BufferedImage) grafx.image).getRGB(250, 250));
+	}
+
+	public void testRenderGraphBands() {
+		renderSingleNode(null);
+
+		final BufferedImage img = new BufferedImage(500, 500, BufferedImage.TYPE_INT_ARGB);
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			// The node crosses the border between the second and third bands.
+			GraphRenderer.renderGraph(new SingleNodeGraph(), new SingleNodeIndex(),
+			                          new GraphLOD(), new NodeDetails(), new EdgeDetails(),
+			                          new IntHash(), new GraphGraphics(img, false), Color.white,
+			                          150.0d, 150.0d, 1.0d, null, null,
+			                          GraphRenderer.LAYER_EDGES | GraphRenderer.LAYER_NODES,
+			                          executor, 3);
+		} finally {
+			executor.shutdown();
+		}
+
+		assertSameImage((BufferedImage) grafx.image, img);
+	}
+
+	public void testRenderGraphBandsLattice() {
+		final LatticeGraph lattice = new LatticeGraph(12, 12, 40.0f, 20.0f);
+		final EdgeDetails edgeDetails = new EdgeDetails() {
+			public float segmentThickness(int edge) { return 2.0f; }
+			public Paint segmentPaint(int edge) { return Color.black; }
+			public byte targetArrow(int edge) { return GraphGraphics.ARROW_DELTA; }
+			public float targetArrowSize(int edge) { return 8.0f; }
+			public Paint targetArrowPaint(int edge) { return Color.blue; }
+		};
+		final GraphLOD lowDetail = new GraphLOD() {
+			public boolean detail(int renderNodeCount, int renderEdgeCount) { return false; }
+		};
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			// The whole lattice, then part of it, so that some edges cross
+			// bands without touching a node in them.
+			for (GraphLOD lod : new GraphLOD[] { new GraphLOD(), lowDetail }) {
+				for (double scale : new double[] { 1.0d, 2.5d }) {
+					final BufferedImage expected = new BufferedImage(500, 500,
+					                                                 BufferedImage.TYPE_INT_ARGB);
+					final BufferedImage actual = new BufferedImage(500, 500,
+					                                               BufferedImage.TYPE_INT_ARGB);
+					GraphRenderer.renderGraph(lattice, lattice, lod, new NodeDetails(),
+					                          edgeDetails, new IntHash(),
+					                          new GraphGraphics(expected, false), Color.white,
+					                          230.0d, 230.0d, scale, null, null,
+					                          GraphRenderer.LAYER_EDGES
+					                          | GraphRenderer.LAYER_NODES);
+					GraphRenderer.renderGraph(lattice, lattice, lod, new NodeDetails(),
+					                          edgeDetails, new IntHash(),
+					                          new GraphGraphics(actual, false), Color.white,
+					                          230.0d, 230.0d, scale, null, null,
+					                          GraphRenderer.LAYER_EDGES
+					                          | GraphRenderer.LAYER_NODES, executor, 3);
+					assertSameImage(expected, actual);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	public void testRenderGraphLayers() {
+		renderSingleNode(null);
+
+		final BufferedImage img = new BufferedImage(500, 500, BufferedImage.TYPE_INT_ARGB);
+		final GraphGraphics layerGrafx = new GraphGraphics(img, false);
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			GraphRenderer.renderGraph(new SingleNodeGraph(), new SingleNodeIndex(),
+			                          new GraphLOD(), new NodeDetails(), new EdgeDetails(),
+			                          new IntHash(), layerGrafx, Color.white,
+			                          150.0d, 150.0d, 1.0d, null, null, GraphRenderer.LAYER_EDGES);
+			assertEquals(Color.white.getRGB(), img.getRGB(250, 250));
+
+			// The nodes are rendered on top of the edge layer.
+			GraphRenderer.renderGraph(new SingleNodeGraph(), new SingleNodeIndex(),
+			                          new GraphLOD(), new NodeDetails(), new EdgeDetails(),
+			                          new IntHash(), layerGrafx, null,
+			                          150.0d, 150.0d, 1.0d, null, null, GraphRenderer.LAYER_NODES,
+			                          executor, 3);
+		} finally {
+			executor.shutdown();
+		}
+
+		assertSameImage((BufferedImage) grafx.image, img);
+	}
+
+	private static void assertSameImage(final BufferedImage expected, final BufferedImage actual) {
+		for (int y = 0; y < expected.getHeight(); y++)
+			for (int x = 0; x < expected.getWidth(); x++)
+				assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+	}
+
+	// Renders one node, whose extents are 100,100 - 200,200, in the middle of the image.
+	private void renderSingleNode(AtomicBoolean cancelled) {
+		GraphRenderer.renderGraph(new SingleNodeGraph(), new SingleNodeIndex(), new GraphLOD(),
+		                          new NodeDetails(), new EdgeDetails(), new IntHash(), grafx,
+		                          Color.white, 150.0d, 150.0d, 1.0d, cancelled);
+	}
+
+	private static IntEnumerator enumerate(final int[] elements) {
+		return new IntEnumerator() {
+			private int inx = 0;
+			public int numRemaining() { return elements.length - inx; }
+			public int nextInt() { return elements[inx++]; }
+		};
+	}
+
+	private class SingleNodeGraph implements FixedGraph {
+		public IntEnumerator nodes() { return enumerate(new int[] { 0 }); }
+		public IntEnumerator edges() { return enumerate(new int[0]); }
+		public boolean nodeExists(int node) { return node == 0; }
+		public byte edgeType(int edge) { return -1; }
+		public int edgeSource(int edge) { return -1; }
+		public int edgeTarget(int edge) { return -1; }
+		public IntEnumerator edgesAdjacent(int node, boolean outgoing, boolean incoming,
+		                                   boolean undirected) {
+			return enumerate(new int[0]);
+		}
+		public IntIterator edgesConnecting(int node0, int node1, boolean outgoing,
+		                                   boolean incoming, boolean undirected) {
+			return null;
+		}
+	}
+
+	private class SingleNodeIndex implements SpacialIndex2D {
+		private final float[] extents = { 100.0f, 100.0f, 200.0f, 200.0f };
+		public int size() { return 1; }
+		public boolean exists(int objKey, float[] extentsArr, int offset) {
+			if (objKey != 0)
+				return false;
+			if (extentsArr != null)
+				System.arraycopy(extents, 0, extentsArr, offset, 4);
+			return true;
+		}
+		public SpacialEntry2DEnumerator queryOverlap(float xMin, float yMin, float xMax,
+		                                             float yMax, float[] extentsArr,
+		                                             int offset, boolean reverseOrder) {
+			return new SpacialEntry2DEnumerator() {
+				private boolean done = false;
+				public int numRemaining() { return done ? 0 : 1; }
+				public int nextInt() { done = true; return 0; }
+				public int nextExtents(float[] extentsArr, int offset) {
+					System.arraycopy(extents, 0, extentsArr, offset, 4);
+					return nextInt();
+				}
+			};
+		}
+	}
+
 	private class SingleEdgeAnchor implements EdgeAnchors {
 		private float[] pt;	
 		SingleEdgeAnchor(float[] pt) {
@@ -0,0 +1,117 @@
+
+/*
+ Copyright (c) 2009, The Cytoscape Consortium (www.cytoscape.org)
+
+ The Cytoscape Consortium is:
+ - Institute for Systems Biology
+ - University of California San Diego
+ - Memorial Sloan-Kettering Cancer Center
+ - Institut Pasteur
+ - Agilent Technologies
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+package cytoscape.render.stateful;
+
+import junit.framework.*;
+
+import java.awt.Font;
+import java.awt.font.*;
+import java.awt.GraphicsEnvironment;
+
+public class TextLayoutCacheTest extends TestCase {
+
+	Font serif;
+	FontRenderContext frc;
+	TextLayoutCache cache;
+
+	public void setUp() {
+		// Forces a GraphicsEnvironment to be created, as in MeasuredLineCreatorTest.
+		GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
+
+		serif = new Font("Serif",Font.PLAIN,10);
+		frc = new FontRenderContext(null,true,true);
+		cache = new TextLayoutCache(TextLayoutCache.DEFAULT_MAX_BYTES);
+	}
+
+	public void testHit() {
+		MeasuredLineCreator first = cache.measure("homer",serif,frc,2.0,true,100);
+		MeasuredLineCreator second = cache.measure(new String("homer"),new Font("Serif",Font.PLAIN,10),
+		                                           frc,2.0,true,100);
+		assertSame(first,second);
+		assertEquals(1,cache.getHitCount());
+		assertEquals(1,cache.getMissCount());
+		assertEquals(0.5,cache.getHitRate(),0.0);
+	}
+
+	public void testKeyedByAllParameters() {
+		MeasuredLineCreator mlc = cache.measure("homer bart",serif,frc,2.0,true,100);
+		assertNotSame(mlc,cache.measure("homer bart",serif.deriveFont(12.0f),frc,2.0,true,100));
+		assertNotSame(mlc,cache.measure("homer bart",serif,frc,1.0,true,100));
+		assertNotSame(mlc,cache.measure("homer bart",serif,frc,2.0,false,100));
+		assertNotSame(mlc,cache.measure("homer bart",serif,frc,2.0,true,10));
+		assertEquals(0,cache.getHitCount());
+		assertEquals(5,cache.size());
+	}
+
+	public void testSameAsUncached() {
+		MeasuredLineCreator cached = cache.measure("homer bart lisa marge",serif,frc,2.0,true,10);
+		MeasuredLineCreator mlc = new MeasuredLineCreator("homer bart lisa marge",serif,frc,2.0,true,10);
+		assertEquals(mlc.getMaxLineWidth(),cached.getMaxLineWidth(),0.0);
+		assertEquals(mlc.getTotalHeight(),cached.getTotalHeight(),0.0);
+		assertEquals(mlc.getMeasuredLines().size(),cached.getMeasuredLines().size());
+		for ( MeasuredLine line : cached.getMeasuredLines() ) {
+			assertNotNull(line.getBounds());
+			assertNotNull(line.getOutline());
+		}
+	}
+
+	public void testMemoryCap() {
+		cache = new TextLayoutCache(2000);
+		for ( int i = 0; i < 100; i++ )
+			cache.measure("homer " + i,serif,frc,2.0,false,100);
+		assertTrue(cache.getByteCount() <= 2000);
+		assertTrue(cache.size() < 100);
+
+		// The most recently used layouts are kept.
+		cache.measure("homer 99",serif,frc,2.0,false,100);
+		assertEquals(1,cache.getHitCount());
+	}
+
+	public void testDisabled() {
+		cache.setEnabled(false);
+		MeasuredLineCreator first = cache.measure("homer",serif,frc,2.0,true,100);
+		assertNotSame(first,cache.measure("homer",serif,frc,2.0,true,100));
+		assertEquals(0,cache.size());
+	}
+
+	public void testNegativeMaxBytes() {
+		try {
+			new TextLayoutCache(-1);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
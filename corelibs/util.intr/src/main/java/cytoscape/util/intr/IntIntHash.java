@@ -49,6 +49,8 @@ package cytoscape.util.intr;
  * Underlying size expansions are implemented such that the operation of
  * expanding in size is amortized over the contstant time complexity needed to
  * insert new elements.<p>
+ * get() does not modify this hashtable, so several threads may call it at
+ * once as long as no thread is modifying the hashtable.<p>
  * An instance of this class is serializable; however, serialized instances of
  * this class should not be stored in a persistent manner because the
  * serialization implemented in this class makes no attempt at handling
@@ -69,10 +71,9 @@ public final class IntIntHash implements java.io.Serializable {
 	private int m_size;
 	private int m_thresholdSize;
 
-	// These are caching variables.  The idea is that programmers will
-	// frequently first do a get(), and based on that result, will perform
-	// some other operations and then maybe do a put() operation with the same
-	// key as the previous get() operation.
+	// These are caching variables.  put() remembers the slot of the key it
+	// last stored so that a following get() or put() of the same key does
+	// not probe again.  get() only reads them.
 	private int m_prevKey;
 	private int m_prevInx;
 
@@ -161,18 +162,20 @@ public final class IntIntHash implements java.io.Serializable {
 		if (key < 0)
 			throw new IllegalArgumentException("key is negative");
 
-		if (key != m_prevKey) {
-			int incr = 0;
+		if (key == m_prevKey)
+			return m_vals[m_prevInx];
 
-			for (m_prevInx = key % m_size; (m_keys[m_prevInx] >= 0) && (m_keys[m_prevInx] != key);
-			     m_prevInx = (m_prevInx + incr) % m_size)
-				if (incr == 0)
-					incr = 1 + (key % (m_size - 1));
+		// Probe with a local index; get() never writes to this hashtable so
+		// that several threads may read it at once.
+		int incr = 0;
+		int inx;
 
-			m_prevKey = key;
-		}
+		for (inx = key % m_size; (m_keys[inx] >= 0) && (m_keys[inx] != key);
+		     inx = (inx + incr) % m_size)
+			if (incr == 0)
+				incr = 1 + (key % (m_size - 1));
 
-		return m_vals[m_prevInx];
+		return m_vals[inx];
 	}
 
 	/**
@@ -0,0 +1,215 @@
+/*
+ Copyright (c) 2010, The Cytoscape Consortium (www.cytoscape.org)
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published
+ by the Free Software Foundation; either version 2.1 of the License, or
+ any later version.
+
+ This library is distributed in the hope that it will be useful, but
+ WITHOUT ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF
+ MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  The software and
+ documentation provided hereunder is on an "as is" basis, and the
+ Institute for Systems Biology and the Whitehead Institute
+ have no obligations to provide maintenance, support,
+ updates, enhancements or modifications.  In no event shall the
+ Institute for Systems Biology and the Whitehead Institute
+ be liable to any party for direct, indirect, special,
+ incidental or consequential damages, including lost profits, arising
+ out of the use of this software and its documentation, even if the
+ Institute for Systems Biology and the Whitehead Institute
+ have been advised of the possibility of such damage.  See
+ the GNU Lesser General Public License for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.
+*/
+
+
+package browser;
+
+import cytoscape.Cytoscape;
+
+import cytoscape.data.CyAttributes;
+import cytoscape.data.CyAttributesImpl;
+
+import org.cytoscape.equations.Equation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.undo.AbstractUndoableEdit;
+
+
+/**
+ * Assigns one equation to an attribute of all nodes, edges or networks.  The
+ * equations are evaluated in a single pass and listeners are notified with a
+ * single ATTRIBUTES_CHANGED event instead of one edit per table row.
+ */
+public class EquationColumnEdit extends AbstractUndoableEdit {
+	final DataTableModel table;
+	final DataObjectType graphObjectType;
+	final CyAttributes attrData;
+	final String attributeName;
+	final Equation equation;
+	final List<String> ids;
+	final List<Object> old_values;
+
+	/**
+	 * Creates a new EquationColumnEdit object.  Nothing is changed until
+	 * apply() is called.
+	 *
+	 * @param table  DOCUMENT ME!
+	 * @param graphObjectType  DOCUMENT ME!
+	 * @param attributeName  DOCUMENT ME!
+	 * @param equation  DOCUMENT ME!
+	 */
+	public EquationColumnEdit(final DataTableModel table, final DataObjectType graphObjectType,
+	                          final String attributeName, final Equation equation)
+	{
+		this.table = table;
+		this.graphObjectType = graphObjectType;
+		this.attrData = graphObjectType.getAssociatedAttributes();
+		this.attributeName = attributeName;
+		this.equation = equation;
+		this.ids = new ArrayList<String>();
+		this.old_values = new ArrayList<Object>();
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public String getPresentationName() {
+		return "Attribute " + attributeName + " changed.";
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public String getRedoPresentationName() {
+		return "Redo: " + attributeName + " to:" + equation;
+	}
+
+	/**
+	 *  DOCUMENT ME!
+	 *
+	 * @return  DOCUMENT ME!
+	 */
+	public String getUndoPresentationName() {
+		return "Undo: " + attributeName + " back from:" + equation;
+	}
+
+	/**
+	 *  Assigns the equation to all objects.  If this fails for any object, the
+	 *  previous values are restored.
+	 *
+	 *  @return true upon success, else false and an error message will have been appended to "errorMessage"
+	 */
+	public boolean apply(final StringBuilder errorMessage) {
+		for (final String id : graphObjectType.getAssociatedIdentifiers()) {
+			final Equation oldEquation = attrData.getEquation(id, attributeName);
+			ids.add(id);
+			old_values.add(oldEquation != null ? oldEquation : attrData.getAttribute(id, attributeName));
+
+			try {
+				attrData.setAttribute(id, attributeName, equation);
+			} catch (final Exception e) {
+				errorMessage.append(e.getMessage());
+				restoreOldValues();
+				return false;
+			}
+		}
+
+		evaluateEquations();
+		refresh();
+		return true;
+	}
+
+	// put back the new values
+	/**
+	 *  DOCUMENT ME!
+	 */
+	public void redo() {
+		for (final String id : ids)
+			attrData.setAttribute(id, attributeName, equation);
+
+		evaluateEquations();
+		refresh();
+	}
+
+	// put back the old values
+	/**
+	 *  DOCUMENT ME!
+	 */
+	public void undo() {
+		restoreOldValues();
+		refresh();
+	}
+
+	private void restoreOldValues() {
+		for (int i = 0; i < ids.size(); ++i) {
+			final String id = ids.get(i);
+			final Object value = old_values.get(i);
+
+			if (value == null)
+				attrData.getMultiHashMap().removeAllAttributeValues(id, attributeName);
+			else if (value instanceof Equation)
+				attrData.setAttribute(id, attributeName, (Equation) value);
+			else if (value instanceof Integer)
+				attrData.setAttribute(id, attributeName, (Integer) value);
+			else if (value instanceof Double)
+				attrData.setAttribute(id, attributeName, (Double) value);
+			else if (value instanceof Boolean)
+				attrData.setAttribute(id, attributeName, (Boolean) value);
+			else if (value instanceof String)
+				attrData.setAttribute(id, attributeName, (String) value);
+			else if (value instanceof List)
+				attrData.setListAttribute(id, attributeName, (List) value);
+			else if (value instanceof Map)
+				attrData.setMapAttribute(id, attributeName, (Map) value);
+		}
+	}
+
+	/**
+	 *  Evaluates the new equations up front so that refreshing the table only
+	 *  reads cached results.  Set "cytoscape.equations.parallel" to true to
+	 *  spread the work over all processors.
+	 */
+	private void evaluateEquations() {
+		// Other implementations evaluate each equation when it is first read.
+		if (!(attrData instanceof CyAttributesImpl))
+			return;
+
+		final CyAttributesImpl attrs = (CyAttributesImpl)attrData;
+		if (!Boolean.getBoolean("cytoscape.equations.parallel")) {
+			attrs.evaluateEquations(attributeName, null);
+			return;
+		}
+
+		final ExecutorService executor =
+			Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			attrs.evaluateEquations(attributeName, executor);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private void refresh() {
+		if (graphObjectType != DataObjectType.NETWORK)
+			table.setTableData();
+		else
+			table.setNetworkTable();
+
+		Cytoscape.getSwingPropertyChangeSupport().firePropertyChange(Cytoscape.ATTRIBUTES_CHANGED, null, null);
+		Cytoscape.getPropertyChangeSupport().firePropertyChange(Cytoscape.ATTRIBUTES_CHANGED, null, null);
+	}
+}
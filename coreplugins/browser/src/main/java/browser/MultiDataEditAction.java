@@ -33,6 +33,7 @@ import browser.util.AttrUtil;
 import cytoscape.Cytoscape;
 
 import cytoscape.data.CyAttributes;
+import cytoscape.data.CyAttributesImpl;
 
 import giny.model.GraphObject;
 
@@ -580,5 +581,9 @@ public class MultiDataEditAction extends AbstractUndoableEdit {
 			attrData.setAttribute(go.getIdentifier(), attributeTo, input);
 			new_values.add(input);
 		} // iterator
+
+		// Evaluate all new equations in one pass before the table reads them back.
+		if (attrData instanceof CyAttributesImpl)
+			((CyAttributesImpl)attrData).evaluateEquations(attributeTo, null);
 	} // equationAction
 }
@@ -30,9 +30,11 @@ package browser.ui;
 
 import browser.DataObjectType;
 import browser.DataTableModel;
+import browser.EquationColumnEdit;
 
 import cytoscape.data.CyAttributes;
 import cytoscape.data.attr.MultiHashMapDefinition;
+import cytoscape.util.undo.CyUndo;
 
 import giny.model.GraphObject;
 
@@ -521,12 +523,11 @@ public class FormulaBuilderDialog extends JDialog {
 			tableModel.updateColumn(equation, cellColum, /* skipRowIdx = */-1);
 			break;
 		case ENTIRE_ATTRIBUTE:
-			final Iterable<String> ids = tableObjectType.getAssociatedIdentifiers();
-			for (final String id : ids) {
-				if (!setAttribute(attribs, id, attribName, equation, errorMessage))
-					return false;
-			}
-			tableModel.updateColumn(equation, cellColum, /* skipRowIdx = */-1);
+			final EquationColumnEdit edit =
+				new EquationColumnEdit(tableModel, tableObjectType, attribName, equation);
+			if (!edit.apply(errorMessage))
+				return false;
+			CyUndo.getUndoableEditSupport().postEdit(edit);
 			break;
 		default:
 			throw new IllegalStateException("unknown application domain: "